@@ -0,0 +1,123 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.benchmarks;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import ai.startree.thirdeye.plugins.postprocessor.AnomalyMergerPostProcessor;
+import ai.startree.thirdeye.plugins.postprocessor.AnomalyMergerPostProcessorSpec;
+import ai.startree.thirdeye.spi.datalayer.AnomalyFilter;
+import ai.startree.thirdeye.spi.datalayer.bao.AnomalyManager;
+import ai.startree.thirdeye.spi.datalayer.dto.AnomalyDTO;
+import ai.startree.thirdeye.spi.detection.DetectionPipelineUsage;
+import ai.startree.thirdeye.spi.detection.v2.OperatorResult;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.joda.time.DateTimeZone;
+import org.joda.time.Interval;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Merge of new anomalies with the anomalies already persisted. The persistence layer is stubbed
+ * and returns the existing anomalies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnomalyMergerBenchmark {
+
+  private static final long ALERT_ID = 1L;
+
+  @Param({"100", "1000"})
+  private int anomalyCount;
+
+  private AnomalyMergerPostProcessor merger;
+  private Interval detectionInterval;
+  private List<AnomalyDTO> existingAnomalies;
+  private Map<String, OperatorResult> resultMap;
+
+  @Setup
+  public void setUp() {
+    final AnomalyManager anomalyManager = mock(AnomalyManager.class);
+    // the merger removes elements from the returned list
+    when(anomalyManager.filter(any(AnomalyFilter.class)))
+        .thenAnswer(invocation -> new ArrayList<>(existingAnomalies));
+    merger = new AnomalyMergerPostProcessor(new AnomalyMergerPostProcessorSpec()
+        .setAnomalyManager(anomalyManager)
+        .setAlertId(ALERT_ID)
+        .setUsage(DetectionPipelineUsage.DETECTION));
+    final long end = BenchmarkData.START_MILLIS + 3L * anomalyCount * BenchmarkData.HOUR_MILLIS;
+    detectionInterval = new Interval(BenchmarkData.START_MILLIS, end, DateTimeZone.UTC);
+  }
+
+  // the merge mutates the anomalies - they are rebuilt before each call
+  @Setup(Level.Invocation)
+  public void setUpAnomalies() {
+    final Random random = new Random(42L);
+    existingAnomalies = new ArrayList<>(anomalyCount / 2);
+    final List<AnomalyDTO> newAnomalies = new ArrayList<>(anomalyCount);
+    long start = BenchmarkData.START_MILLIS;
+    for (int i = 0; i < anomalyCount; i++) {
+      final AnomalyDTO anomaly = anomaly(start);
+      if (i % 2 == 0) {
+        final AnomalyDTO existing = anomaly(start);
+        existing.setId((long) i);
+        existingAnomalies.add(existing);
+      }
+      newAnomalies.add(anomaly);
+      // contiguous anomalies are merged
+      start += (1 + random.nextInt(3)) * BenchmarkData.HOUR_MILLIS;
+    }
+    final OperatorResult operatorResult = new OperatorResult() {
+      @Override
+      public List<AnomalyDTO> getAnomalies() {
+        return newAnomalies;
+      }
+    };
+    resultMap = Map.of("output", operatorResult);
+  }
+
+  private static AnomalyDTO anomaly(final long start) {
+    return new AnomalyDTO()
+        .setStartTime(start)
+        .setEndTime(start + BenchmarkData.HOUR_MILLIS)
+        .setAvgCurrentVal(1200)
+        .setAvgBaselineVal(1000)
+        .setDetectionConfigId(ALERT_ID);
+  }
+
+  @Benchmark
+  public Map<String, OperatorResult> merge() {
+    return merger.postProcess(detectionInterval, resultMap);
+  }
+}
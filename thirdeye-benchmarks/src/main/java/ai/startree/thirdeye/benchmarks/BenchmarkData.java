@@ -0,0 +1,67 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.benchmarks;
+
+import static ai.startree.thirdeye.spi.Constants.COL_TIME;
+import static ai.startree.thirdeye.spi.Constants.COL_VALUE;
+
+import ai.startree.thirdeye.spi.dataframe.DataFrame;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic data for the benchmarks.
+ */
+public class BenchmarkData {
+
+  // 2024-01-01T00:00:00Z
+  public static final long START_MILLIS = 1704067200000L;
+  public static final long HOUR_MILLIS = 3_600_000L;
+
+  private static final long SEED = 42L;
+
+  /**
+   * Hourly time series with a daily seasonality and some noise, sorted by time.
+   */
+  public static DataFrame hourlyTimeSeries(final int size) {
+    final Random random = new Random(SEED);
+    final long[] times = new long[size];
+    final double[] values = new double[size];
+    for (int i = 0; i < size; i++) {
+      times[i] = START_MILLIS + i * HOUR_MILLIS;
+      values[i] = 1000 + 200 * Math.sin(2 * Math.PI * (i % 24) / 24) + random.nextGaussian() * 50;
+    }
+    return new DataFrame()
+        .addSeries(COL_TIME, times)
+        .addSeries(COL_VALUE, values);
+  }
+
+  /**
+   * Rows with a time, a metric and a dimension of the given cardinality, in random order.
+   */
+  public static DataFrame dimensionalTable(final int size, final int dimensionCardinality) {
+    final Random random = new Random(SEED);
+    final long[] times = new long[size];
+    final double[] metrics = new double[size];
+    final String[] dimensions = new String[size];
+    for (int i = 0; i < size; i++) {
+      times[i] = START_MILLIS + random.nextInt(size) * HOUR_MILLIS;
+      metrics[i] = random.nextDouble() * 1000;
+      dimensions[i] = "d" + random.nextInt(dimensionCardinality);
+    }
+    return new DataFrame()
+        .addSeries("ts", times)
+        .addSeries("met", metrics)
+        .addSeries("dim", dimensions);
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.benchmarks;
+
+import ai.startree.thirdeye.spi.dataframe.DataFrame;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * DataFrame joins, groupings and sorts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataFrameBenchmark {
+
+  @Param({"10000", "100000"})
+  private int size;
+
+  private DataFrame left;
+  private DataFrame right;
+  private DataFrame table;
+  private DataFrame sortedTimeSeries;
+
+  @Setup
+  public void setUp() {
+    left = BenchmarkData.hourlyTimeSeries(size);
+    // right side shifted by half the series: half the keys match
+    right = BenchmarkData.hourlyTimeSeries(size)
+        .sliceFrom(size / 2)
+        .renameSeries("value", "other");
+    table = BenchmarkData.dimensionalTable(size, 100);
+    sortedTimeSeries = BenchmarkData.hourlyTimeSeries(size);
+  }
+
+  @Benchmark
+  public DataFrame joinInner() {
+    return left.joinInner(right, "timestamp");
+  }
+
+  @Benchmark
+  public DataFrame joinOuter() {
+    return left.joinOuter(right, "timestamp");
+  }
+
+  @Benchmark
+  public DataFrame groupByValueSum() {
+    return table.groupByValue("dim").aggregate("met:SUM");
+  }
+
+  @Benchmark
+  public DataFrame groupByValuesMultipleAggregations() {
+    return table.groupByValue("dim", "ts").aggregate("met:SUM:sum", "met:MAX:max", "met:MEAN:mean");
+  }
+
+  @Benchmark
+  public DataFrame groupByIntervalSum() {
+    return table.groupByInterval("ts", 24 * BenchmarkData.HOUR_MILLIS).aggregate("met:SUM");
+  }
+
+  @Benchmark
+  public DataFrame sortByUnsortedLong() {
+    return table.sortedBy("ts");
+  }
+
+  @Benchmark
+  public DataFrame sortBySortedLong() {
+    return sortedTimeSeries.sortedBy("timestamp");
+  }
+}
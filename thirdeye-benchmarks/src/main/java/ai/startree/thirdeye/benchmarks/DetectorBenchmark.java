@@ -0,0 +1,119 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.benchmarks;
+
+import static ai.startree.thirdeye.spi.Constants.COL_TIME;
+import static ai.startree.thirdeye.spi.detection.AnomalyDetector.KEY_BASELINE;
+import static ai.startree.thirdeye.spi.detection.AnomalyDetector.KEY_CURRENT;
+import static java.util.Objects.requireNonNull;
+
+import ai.startree.thirdeye.plugins.detectors.DetectorsPlugin;
+import ai.startree.thirdeye.spi.dataframe.DataFrame;
+import ai.startree.thirdeye.spi.detection.AbstractSpec;
+import ai.startree.thirdeye.spi.detection.AnomalyDetector;
+import ai.startree.thirdeye.spi.detection.AnomalyDetectorFactory;
+import ai.startree.thirdeye.spi.detection.AnomalyDetectorFactoryContext;
+import ai.startree.thirdeye.spi.detection.AnomalyDetectorResult;
+import ai.startree.thirdeye.spi.detection.v2.DataTable;
+import ai.startree.thirdeye.spi.detection.v2.SimpleDataTable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.joda.time.DateTimeZone;
+import org.joda.time.Interval;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Detectors of thirdeye-detectors, built with their plugin factory as in a pipeline.
+ * Hourly data, detection on the last week.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DetectorBenchmark {
+
+  private static final int DETECTION_POINTS = 24 * 7;
+
+  @Param({"MEAN_VARIANCE", "THRESHOLD", "PERCENTAGE_CHANGE", "ABSOLUTE_CHANGE"})
+  private String detectorType;
+
+  // 12 weeks, 1 year
+  @Param({"2016", "8760"})
+  private int size;
+
+  private AnomalyDetector<AbstractSpec> detector;
+  private Map<String, DataTable> dataTableMap;
+  private Interval detectionInterval;
+
+  @SuppressWarnings("unchecked")
+  @Setup
+  public void setUp() {
+    final Map<String, Object> properties = new HashMap<>();
+    properties.put("monitoringGranularity", "PT1H");
+    switch (detectorType) {
+      case "MEAN_VARIANCE":
+        properties.put("lookbackPeriod", "P14D");
+        break;
+      case "THRESHOLD":
+        properties.put("min", 900);
+        properties.put("max", 1100);
+        break;
+      case "PERCENTAGE_CHANGE":
+        properties.put("percentageChange", 0.2);
+        break;
+      case "ABSOLUTE_CHANGE":
+        properties.put("absoluteChange", 150);
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown detector: " + detectorType);
+    }
+    AnomalyDetectorFactory factory = null;
+    for (final AnomalyDetectorFactory f : new DetectorsPlugin().getAnomalyDetectorFactories()) {
+      if (f.name().equals(detectorType)) {
+        factory = f;
+      }
+    }
+    detector = requireNonNull(factory).build(
+        new AnomalyDetectorFactoryContext().setProperties(properties));
+
+    final DataFrame current = BenchmarkData.hourlyTimeSeries(size);
+    // the change detectors only need a baseline aligned with the current series
+    final DataFrame baseline = BenchmarkData.hourlyTimeSeries(size);
+    dataTableMap = Map.of(
+        KEY_CURRENT, SimpleDataTable.fromDataFrame(current),
+        KEY_BASELINE, SimpleDataTable.fromDataFrame(baseline));
+    final long end = current.getLong(COL_TIME, size - 1) + BenchmarkData.HOUR_MILLIS;
+    detectionInterval = new Interval(end - DETECTION_POINTS * BenchmarkData.HOUR_MILLIS,
+        end,
+        DateTimeZone.UTC);
+  }
+
+  @Benchmark
+  public AnomalyDetectorResult runDetection() {
+    return detector.runDetection(detectionInterval, dataTableMap);
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.benchmarks;
+
+import ai.startree.thirdeye.spi.dataframe.DataFrame;
+import ai.startree.thirdeye.spi.datasource.DataSourceRequest;
+import ai.startree.thirdeye.spi.datasource.ThirdEyeDataSource;
+import ai.startree.thirdeye.spi.datasource.ThirdEyeDataSourceContext;
+import ai.startree.thirdeye.spi.detection.v2.DataTable;
+import ai.startree.thirdeye.spi.detection.v2.SimpleDataTable;
+
+/**
+ * Data source stub returning a copy of an in-memory DataFrame for any query. Macros are not
+ * supported: the query is not parsed.
+ */
+public class InMemoryDataSource implements ThirdEyeDataSource {
+
+  public static final String NAME = "inMemory";
+
+  private final DataFrame dataFrame;
+
+  public InMemoryDataSource(final DataFrame dataFrame) {
+    this.dataFrame = dataFrame;
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public void init(final ThirdEyeDataSourceContext context) {
+  }
+
+  @Override
+  public DataTable fetchDataTable(final DataSourceRequest request) {
+    // a real data source returns a new DataFrame for each request
+    return SimpleDataTable.fromDataFrame(dataFrame.copy());
+  }
+
+  @Override
+  public void close() {
+  }
+}
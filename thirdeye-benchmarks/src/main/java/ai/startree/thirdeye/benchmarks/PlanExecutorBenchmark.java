@@ -0,0 +1,178 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.benchmarks;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import ai.startree.thirdeye.datalayer.core.EnumerationItemMaintainer;
+import ai.startree.thirdeye.datasource.cache.DataSourceCache;
+import ai.startree.thirdeye.detectionpipeline.DetectionPipelineConfiguration;
+import ai.startree.thirdeye.detectionpipeline.DetectionPipelineContext;
+import ai.startree.thirdeye.detectionpipeline.DetectionRegistry;
+import ai.startree.thirdeye.detectionpipeline.PlanExecutor;
+import ai.startree.thirdeye.detectionpipeline.PlanNodeFactory;
+import ai.startree.thirdeye.detectionpipeline.PostProcessorRegistry;
+import ai.startree.thirdeye.detectionpipeline.components.IncrementalFetchCache;
+import ai.startree.thirdeye.plugins.detectors.DetectorsPlugin;
+import ai.startree.thirdeye.spi.datalayer.TemplatableMap;
+import ai.startree.thirdeye.spi.datalayer.bao.DataSourceManager;
+import ai.startree.thirdeye.spi.datalayer.bao.DatasetConfigManager;
+import ai.startree.thirdeye.spi.datalayer.bao.EventManager;
+import ai.startree.thirdeye.spi.datalayer.dto.DataSourceDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.PlanNodeBean;
+import ai.startree.thirdeye.spi.datalayer.dto.PlanNodeBean.InputBean;
+import ai.startree.thirdeye.spi.datalayer.dto.PlanNodeBean.OutputBean;
+import ai.startree.thirdeye.spi.detection.AnomalyDetectorFactory;
+import ai.startree.thirdeye.spi.detection.v2.OperatorResult;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.joda.time.DateTimeZone;
+import org.joda.time.Interval;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end execution of a detection pipeline by the PlanExecutor: data fetchers reading from an
+ * in-memory data source, and a detector. Measures the overhead of the pipeline around the
+ * detector. The persistence layer is stubbed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlanExecutorBenchmark {
+
+  private static final int SIZE = 24 * 7 * 12;
+  private static final int DETECTION_POINTS = 24 * 7;
+
+  // MEAN_VARIANCE: 1 data fetcher, PERCENTAGE_CHANGE: 2 data fetchers (current and baseline)
+  @Param({"MEAN_VARIANCE", "PERCENTAGE_CHANGE"})
+  private String detectorType;
+
+  @Param({"false", "true"})
+  private boolean parallelNodeExecution;
+
+  private PlanExecutor planExecutor;
+  private List<PlanNodeBean> planNodeBeans;
+  private Interval detectionInterval;
+
+  @Setup
+  public void setUp() {
+    final DataSourceDTO dataSourceDto = new DataSourceDTO().setName(InMemoryDataSource.NAME);
+    dataSourceDto.setId(1L);
+    final DataSourceManager dataSourceManager = mock(DataSourceManager.class);
+    when(dataSourceManager.findByNameAndNamespaceOrUnsetNamespace(anyString(),
+        nullable(String.class))).thenReturn(dataSourceDto);
+    final DataSourceCache dataSourceCache = mock(DataSourceCache.class);
+    when(dataSourceCache.getDataSource(any(DataSourceDTO.class)))
+        .thenReturn(new InMemoryDataSource(BenchmarkData.hourlyTimeSeries(SIZE)));
+
+    final DetectionRegistry detectionRegistry = new DetectionRegistry();
+    for (final AnomalyDetectorFactory f : new DetectorsPlugin().getAnomalyDetectorFactories()) {
+      detectionRegistry.addAnomalyDetectorFactory(f);
+    }
+
+    planExecutor = new PlanExecutor(new PlanNodeFactory(),
+        dataSourceCache,
+        detectionRegistry,
+        mock(PostProcessorRegistry.class),
+        mock(EventManager.class),
+        dataSourceManager,
+        mock(DatasetConfigManager.class),
+        new DetectionPipelineConfiguration().setParallelNodeExecution(parallelNodeExecution),
+        mock(EnumerationItemMaintainer.class),
+        mock(IncrementalFetchCache.class));
+
+    planNodeBeans = planNodeBeans();
+    final long end = BenchmarkData.START_MILLIS + SIZE * BenchmarkData.HOUR_MILLIS;
+    detectionInterval = new Interval(end - DETECTION_POINTS * BenchmarkData.HOUR_MILLIS,
+        end,
+        DateTimeZone.UTC);
+  }
+
+  private List<PlanNodeBean> planNodeBeans() {
+    final List<PlanNodeBean> beans = new ArrayList<>();
+    final List<InputBean> detectorInputs = new ArrayList<>();
+    beans.add(dataFetcher("currentDataFetcher"));
+    detectorInputs.add(input("currentDataFetcher", "current"));
+    final Map<String, Object> detectorParams;
+    if (detectorType.equals("MEAN_VARIANCE")) {
+      detectorParams = Map.of("type", detectorType,
+          "component.monitoringGranularity", "PT1H",
+          "component.lookbackPeriod", "P14D");
+    } else {
+      beans.add(dataFetcher("baselineDataFetcher"));
+      detectorInputs.add(input("baselineDataFetcher", "baseline"));
+      detectorParams = Map.of("type", detectorType,
+          "component.monitoringGranularity", "PT1H",
+          "component.percentageChange", 0.2);
+    }
+    beans.add(new PlanNodeBean()
+        .setName(PlanExecutor.ROOT_NODE_NAME)
+        .setType("AnomalyDetector")
+        .setParams(TemplatableMap.fromValueMap(detectorParams))
+        .setInputs(detectorInputs)
+        .setOutputs(List.of()));
+    return beans;
+  }
+
+  private static PlanNodeBean dataFetcher(final String name) {
+    return new PlanNodeBean()
+        .setName(name)
+        .setType("DataFetcher")
+        .setParams(TemplatableMap.fromValueMap(Map.of(
+            "component.dataSource", InMemoryDataSource.NAME,
+            "component.query", "SELECT timestamp, value FROM benchmark_data")))
+        .setInputs(List.of())
+        .setOutputs(List.of(new OutputBean()
+            .setOutputKey("output")
+            .setOutputName(name + "Output")));
+  }
+
+  private static InputBean input(final String dataFetcherName, final String targetProperty) {
+    return new InputBean()
+        .setSourcePlanNode(dataFetcherName)
+        .setSourceProperty(dataFetcherName + "Output")
+        .setTargetProperty(targetProperty);
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    planExecutor.close();
+  }
+
+  @Benchmark
+  public Map<String, OperatorResult> runPipeline() throws Exception {
+    return planExecutor.runAndGetRootOutputs(planNodeBeans,
+        new DetectionPipelineContext().setDetectionInterval(detectionInterval));
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.benchmarks;
+
+import ai.startree.thirdeye.detectionpipeline.operator.sql.DataTableToSqlAdapterFactory;
+import ai.startree.thirdeye.spi.dataframe.DataFrame;
+import ai.startree.thirdeye.spi.detection.v2.DataTable;
+import ai.startree.thirdeye.spi.detection.v2.DataTableToSqlAdapter;
+import ai.startree.thirdeye.spi.detection.v2.SimpleDataTable;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * SQL execution adapters: load a DataTable, run a query and tear down, as done by the
+ * SqlExecution operator.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SqlExecutionBenchmark {
+
+  private static final String TABLE_NAME = "benchmark_data";
+  private static final Map<String, String> QUERIES = Map.of(
+      "FILTER", "SELECT ts, met FROM " + TABLE_NAME + " WHERE met > 500 AND dim = 'd1'",
+      "GROUP_BY", "SELECT dim, SUM(met) AS met FROM " + TABLE_NAME + " GROUP BY dim");
+
+  @Param({"CALCITE", "HYPERSQL"})
+  private String engine;
+
+  @Param({"FILTER", "GROUP_BY"})
+  private String queryType;
+
+  @Param({"10000", "50000"})
+  private int size;
+
+  private DataTableToSqlAdapter adapter;
+  private Map<String, DataTable> dataTables;
+  private String query;
+
+  @Setup
+  public void setUp() throws Exception {
+    adapter = DataTableToSqlAdapterFactory.create(engine);
+    Class.forName(adapter.jdbcDriverClassName());
+    dataTables = Map.of(TABLE_NAME,
+        SimpleDataTable.fromDataFrame(BenchmarkData.dimensionalTable(size, 100)));
+    query = QUERIES.get(queryType);
+  }
+
+  @Benchmark
+  public DataFrame loadAndQuery() throws Exception {
+    try (final Connection connection = DriverManager.getConnection(adapter.jdbcConnection(),
+        adapter.jdbcProperties())) {
+      adapter.loadTables(connection, dataTables);
+      final DataFrame result;
+      try (final Statement statement = connection.createStatement();
+          final ResultSet resultSet = statement.executeQuery(query)) {
+        result = DataFrame.fromResultSet(resultSet);
+      }
+      adapter.tearDown(connection);
+      return result;
+    }
+  }
+}
@@ -27,10 +27,15 @@ import ai.startree.thirdeye.spi.datalayer.dto.AlertDTO;
 import ai.startree.thirdeye.spi.datalayer.dto.AlertTemplateDTO;
 import ai.startree.thirdeye.spi.datalayer.dto.EnumerationItemDTO;
 import ai.startree.thirdeye.spi.template.TemplatePropertyMetadata;
-import ai.startree.thirdeye.util.StringTemplateUtils;
+import ai.startree.thirdeye.util.CompiledTemplate;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import java.io.IOException;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -41,8 +46,16 @@ import org.joda.time.Interval;
 @Singleton
 public class AlertTemplateRenderer {
 
+  private static final int COMPILED_TEMPLATES_MAX_SIZE = 1000;
+  private static final Duration COMPILED_TEMPLATES_EXPIRE_AFTER_ACCESS = Duration.ofHours(1);
+
   private final AlertManager alertManager;
   private final AlertTemplateManager alertTemplateManager;
+  /**
+   * Persisted templates compiled once per update. An update does not change the version of a
+   * template but always sets its updateTime, so the compiled templates are keyed on both.
+   */
+  private final Cache<CompiledTemplateKey, CompiledTemplate<AlertTemplateDTO>> compiledTemplates;
 
   @Inject
   public AlertTemplateRenderer(
@@ -50,6 +63,14 @@ public class AlertTemplateRenderer {
       final AlertTemplateManager alertTemplateManager) {
     this.alertManager = alertManager;
     this.alertTemplateManager = alertTemplateManager;
+    compiledTemplates = Caffeine.newBuilder()
+        .maximumSize(COMPILED_TEMPLATES_MAX_SIZE)
+        .expireAfterAccess(COMPILED_TEMPLATES_EXPIRE_AFTER_ACCESS)
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(Metrics.globalRegistry,
+        compiledTemplates,
+        "thirdeye_compiled_alert_template_cache");
   }
 
   /**
@@ -181,16 +202,35 @@ public class AlertTemplateRenderer {
 
     properties.put("startTime", detectionInterval.getStartMillis());
     properties.put("endTime", detectionInterval.getEndMillis());
+
+    final AlertTemplateDTO renderedTemplate = compiledTemplate(template).render(properties);
     // add source metadata to each node
-    if (template.getNodes() != null) {
-      template.getNodes().stream()
+    if (renderedTemplate.getNodes() != null) {
+      renderedTemplate.getNodes().stream()
           // TODO spyne remove magic string. This was done to remove dependency of AnomalyDetector.TYPE on the renderer
           .filter(node -> node.getType().equals("AnomalyDetector"))
           .forEach(node -> node.getParams()
               .putValue("anomaly.source", String.format("%s/%s", alertName, node.getName())));
     }
 
-    return StringTemplateUtils.applyContext(template, properties);
+    return renderedTemplate;
+  }
+
+  private CompiledTemplate<AlertTemplateDTO> compiledTemplate(final AlertTemplateDTO template)
+      throws IOException {
+    if (template.getId() == null || template.getUpdateTime() == null) {
+      // not persisted - the template may be different at each call
+      return CompiledTemplate.compile(template);
+    }
+    final CompiledTemplateKey key = new CompiledTemplateKey(template.getId(),
+        template.getVersion(),
+        template.getUpdateTime().getTime());
+    CompiledTemplate<AlertTemplateDTO> compiledTemplate = compiledTemplates.getIfPresent(key);
+    if (compiledTemplate == null) {
+      compiledTemplate = CompiledTemplate.compile(template);
+      compiledTemplates.put(key, compiledTemplate);
+    }
+    return compiledTemplate;
   }
 
   private @NonNull Map<String, Object> defaultProperties(
@@ -209,4 +249,6 @@ public class AlertTemplateRenderer {
 
     return res;
   }
+
+  private record CompiledTemplateKey(long templateId, int version, long updateTime) {}
 }
@@ -17,6 +17,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static java.util.Objects.requireNonNull;
 
+import ai.startree.thirdeye.datasource.cache.QueryResultCacheService;
 import ai.startree.thirdeye.spi.datalayer.dto.DataSourceDTO;
 import ai.startree.thirdeye.spi.datasource.ThirdEyeDataSource;
 import ai.startree.thirdeye.spi.datasource.ThirdEyeDataSourceContext;
@@ -39,9 +40,11 @@ public class DataSourcesLoader {
   private static final Logger LOG = LoggerFactory.getLogger(DataSourcesLoader.class);
 
   private final Map<String, ThirdEyeDataSourceFactory> dataSourceFactoryMap = new HashMap<>();
+  private final QueryResultCacheService queryResultCache;
 
   @Inject
-  public DataSourcesLoader() {
+  public DataSourcesLoader(final QueryResultCacheService queryResultCache) {
+    this.queryResultCache = queryResultCache;
   }
 
   public void addThirdEyeDataSourceFactory(ThirdEyeDataSourceFactory f) {
@@ -79,7 +82,9 @@ public class DataSourcesLoader {
     try {
       final DataSourceDTO dataSourceWithEnvVarResolved = StringTemplateUtils.applyContext(
           dataSource, values);
-      return new ThirdEyeDataSourceContext().setDataSourceDTO(dataSourceWithEnvVarResolved);
+      return new ThirdEyeDataSourceContext()
+          .setDataSourceDTO(dataSourceWithEnvVarResolved)
+          .setQueryResultCache(queryResultCache.forDataSource(dataSourceWithEnvVarResolved));
     } catch (IOException | ClassNotFoundException e) {
       throw new RuntimeException(
           "Error while replacing env variables in datasource spec. spec: " + dataSource);
@@ -20,7 +20,6 @@ package ai.startree.thirdeye.datasource.cache;
 
 import static ai.startree.thirdeye.spi.Constants.METRICS_CACHE_TIMEOUT;
 import static ai.startree.thirdeye.spi.util.ExecutorUtils.threadsNamed;
-import static ai.startree.thirdeye.spi.util.SpiUtils.optional;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Suppliers.memoizeWithExpiration;
 import static java.util.Collections.emptyList;
@@ -32,13 +31,19 @@ import ai.startree.thirdeye.spi.datasource.ThirdEyeDataSource;
 import com.codahale.metrics.CachedGauge;
 import com.codahale.metrics.Gauge;
 import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
 import java.sql.Timestamp;
-import java.util.HashMap;
-import java.util.Map;
+import java.time.Duration;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.SynchronousQueue;
@@ -54,18 +59,24 @@ import org.slf4j.LoggerFactory;
  * About authz: DataSourceCache is used in multiple places and defined in core.
  * So we assume the authz of the datasourceDto is already performed by consumers of this class
  * Passed datasourceDto should have an id.
+ *
+ * Datasources are reloaded when the updateTime of the dto is more recent than the cached one.
+ * Datasources that are not used for IDLE_EVICTION_DELAY are evicted. Outdated, removed and
+ * evicted datasources are closed, and their cached query results are invalidated.
  */
 @Singleton
 public class DataSourceCache {
 
   private static final Logger LOG = LoggerFactory.getLogger(DataSourceCache.class);
+  // datasources that are not used for this duration are closed and evicted
+  private static final Duration IDLE_EVICTION_DELAY = Duration.ofHours(1);
 
   private final DataSourceManager dataSourceManager;
   private final DataSourcesLoader dataSourcesLoader;
   private final MetricRegistry metricRegistry;
+  private final QueryResultCacheService queryResultCache;
 
-  // fixme cyril - use a guava evicting cache based on time/usage
-  private final Map<Long, CachedDataSourceEntry> cache = new HashMap<>();
+  private final Cache<Long, CachedDataSourceEntry> cache;
 
   private final ExecutorService executorService = new ThreadPoolExecutor(0, 10,
       60L,
@@ -77,10 +88,20 @@ public class DataSourceCache {
   public DataSourceCache(
       final DataSourceManager dataSourceManager,
       final DataSourcesLoader dataSourcesLoader,
-      final MetricRegistry metricRegistry) {
+      final MetricRegistry metricRegistry,
+      final QueryResultCacheService queryResultCache) {
     this.dataSourceManager = dataSourceManager;
     this.dataSourcesLoader = dataSourcesLoader;
     this.metricRegistry = metricRegistry;
+    this.queryResultCache = queryResultCache;
+    cache = CacheBuilder.newBuilder()
+        .expireAfterAccess(IDLE_EVICTION_DELAY)
+        .removalListener((RemovalListener<Long, CachedDataSourceEntry>) notification -> {
+          close(notification.getValue().dataSource());
+          queryResultCache.invalidateDataSource(notification.getKey());
+        })
+        .recordStats()
+        .build();
 
     io.micrometer.core.instrument.Gauge.builder("thirdeye_healthy_datasources",
             memoizeWithExpiration(this::getHealthyDatasourceCount, METRICS_CACHE_TIMEOUT.toMinutes(),
@@ -94,9 +115,12 @@ public class DataSourceCache {
             return getHealthyDatasourceCount();
           }
         });
-    Metrics.gaugeMapSize("thirdeye_cached_datasources", emptyList(), cache);
+    Metrics.gaugeMapSize("thirdeye_cached_datasources", emptyList(), cache.asMap());
     // deprecated - use thirdeye_cached_datasources
-    metricRegistry.register("cachedDatasourceCount", (Gauge<Integer>) cache::size);
+    metricRegistry.register("cachedDatasourceCount",
+        (Gauge<Integer>) () -> Math.toIntExact(cache.size()));
+    // hits, misses, load durations and evictions
+    GuavaCacheMetrics.monitor(Metrics.globalRegistry, cache, "thirdeye_datasource_cache");
   }
 
   // TODO CYRIL authz refacto - move this DataSourceCache should not have access to DataSourceManager - update architectureTest
@@ -123,44 +147,49 @@ public class DataSourceCache {
     }
   }
 
-  public synchronized ThirdEyeDataSource getDataSource(final @NonNull DataSourceDTO dataSourceDto) {
-    final CachedDataSourceEntry cachedEntry = cache.get(Objects.requireNonNull(dataSourceDto.getId()));
-    if (cachedEntry != null) {
-      final Timestamp updateTimeCached = cachedEntry.timestamp();
-      if (updateTimeCached.equals(dataSourceDto.getUpdateTime())) {
-        return cachedEntry.dataSource(); // cache hit
+  public ThirdEyeDataSource getDataSource(final @NonNull DataSourceDTO dataSourceDto) {
+    final Long id = Objects.requireNonNull(dataSourceDto.getId());
+    try {
+      // loads are single-flight per datasource id - loads of other datasources are not blocked
+      CachedDataSourceEntry entry = cache.get(id, () -> loadDataSource(dataSourceDto));
+      if (isOutdated(entry, dataSourceDto)) {
+        // only the outdated entry is removed: a concurrent reload is not discarded
+        cache.asMap().remove(id, entry);
+        entry = cache.get(id, () -> loadDataSource(dataSourceDto));
       }
+      return entry.dataSource();
+    } catch (final ExecutionException | UncheckedExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new RuntimeException(e.getCause());
     }
+  }
 
-    // cache miss
-    return loadDataSource(dataSourceDto);
+  private static boolean isOutdated(final CachedDataSourceEntry entry,
+      final DataSourceDTO dataSourceDto) {
+    final Timestamp updateTimeCached = entry.timestamp();
+    final Timestamp updateTime = dataSourceDto.getUpdateTime();
+    if (updateTimeCached == null || updateTime == null) {
+      return !Objects.equals(updateTimeCached, updateTime);
+    }
+    // a caller with an older version of the dto does not evict a newer datasource
+    return updateTimeCached.before(updateTime);
   }
 
-  private ThirdEyeDataSource loadDataSource(final @NonNull DataSourceDTO dataSourceDto) {
+  private CachedDataSourceEntry loadDataSource(final @NonNull DataSourceDTO dataSourceDto) {
     final ThirdEyeDataSource dataSource = dataSourcesLoader.loadDataSource(dataSourceDto);
     checkState(dataSource != null,
         "Failed to construct a data source object for datasource %s", dataSourceDto);
-    final DataSourceWrapper wrapped = wrap(dataSource);
-
-    // remove outdated cached datasource
-    removeDataSource(dataSourceDto);
-    cache.put(Objects.requireNonNull(dataSourceDto.getId()),
-        new CachedDataSourceEntry(wrapped, dataSourceDto.getUpdateTime()));
-    return wrapped;
+    return new CachedDataSourceEntry(wrap(dataSource), dataSourceDto.getUpdateTime());
   }
 
   public void removeDataSource(final DataSourceDTO dataSourceDTO) {
-    optional(cache.remove(Objects.requireNonNull(dataSourceDTO.getId())))
-        .map(CachedDataSourceEntry::dataSource)
-        .ifPresent(this::close);
+    // the removal listener closes the datasource
+    cache.invalidate(Objects.requireNonNull(dataSourceDTO.getId()));
   }
 
   public void clear() {
     // TODO CYRIL authz validate design - for the moment clear is performed across all namespaces
-    cache.values().stream()
-        .map(CachedDataSourceEntry::dataSource)
-        .forEach(this::close);
-    cache.clear();
+    cache.invalidateAll();
   }
 
   private void close(final ThirdEyeDataSource dataSource) {
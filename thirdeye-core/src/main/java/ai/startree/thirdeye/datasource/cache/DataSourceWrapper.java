@@ -28,6 +28,7 @@ import com.codahale.metrics.Timer;
 import io.micrometer.core.instrument.Metrics;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * This class intercepts all data source calls and helps with telemetry, etc.
@@ -91,6 +92,21 @@ public class DataSourceWrapper implements ThirdEyeDataSource {
     }
   }
 
+  @Override
+  public CompletableFuture<DataTable> fetchDataTableAsync(final DataSourceRequest request) {
+    final Timer.Context context = fetchTableTimer.time();
+    final io.micrometer.core.instrument.Timer.Sample sample =
+        io.micrometer.core.instrument.Timer.start();
+    return delegate.fetchDataTableAsync(request).whenComplete((dataTable, throwable) -> {
+      context.stop();
+      sample.stop(fetchTableTimer2);
+      if (throwable != null) {
+        // track exceptions
+        fetchTableExceptionMeter.mark();
+      }
+    });
+  }
+
   @Override
   public boolean validate() {
     return delegate.validate();
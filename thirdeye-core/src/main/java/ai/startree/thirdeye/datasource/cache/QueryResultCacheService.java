@@ -0,0 +1,277 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.datasource.cache;
+
+import static ai.startree.thirdeye.spi.Constants.DEFAULT_HEAP_PERCENTAGE_FOR_RESULTSETGROUP_CACHE;
+import static ai.startree.thirdeye.spi.Constants.DEFAULT_LOWER_BOUND_OF_RESULTSETGROUP_CACHE_SIZE_IN_MB;
+import static ai.startree.thirdeye.spi.Constants.DEFAULT_UPPER_BOUND_OF_RESULTSETGROUP_CACHE_SIZE_IN_MB;
+import static java.util.Objects.requireNonNull;
+
+import ai.startree.thirdeye.spi.dataframe.DataFrame;
+import ai.startree.thirdeye.spi.dataframe.Series;
+import ai.startree.thirdeye.spi.dataframe.StringSeries;
+import ai.startree.thirdeye.spi.datalayer.dto.DataSourceDTO;
+import ai.startree.thirdeye.spi.datasource.QueryResultCache;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Query result cache shared by all the datasources.
+ *
+ * The cache has a single budget in bytes for the whole process. Entries are weighed by the
+ * estimated retained size of their series. Eviction is size-based (W-TinyLFU) and time-based.
+ *
+ * Datasources access the cache through a view scoped to the datasource, see
+ * {@link #forDataSource(DataSourceDTO)}. Datasource names are only unique within a namespace: the
+ * entries are keyed on the datasource id, namespace and name, and on a fingerprint of its
+ * connection properties. A datasource updated to point to another cluster does not read the
+ * results of the previous cluster.
+ */
+@Singleton
+public class QueryResultCacheService {
+
+  private static final Duration EXPIRE_AFTER_WRITE = Duration.ofMinutes(15);
+
+  // rough estimations of the JVM memory layout - 64 bits, compressed oops
+  private static final int OBJECT_OVERHEAD = 16;
+  private static final int REFERENCE_SIZE = 8;
+  private static final int STRING_OVERHEAD = 40;
+  private static final long ONE_MB = 1024 * 1024;
+
+  private final AsyncCache<Key, DataFrame> cache;
+
+  @Inject
+  public QueryResultCacheService() {
+    this(defaultMaxWeightInBytes());
+  }
+
+  @VisibleForTesting
+  QueryResultCacheService(final long maxWeightInBytes) {
+    cache = Caffeine.newBuilder()
+        .maximumWeight(maxWeightInBytes)
+        .weigher(QueryResultCacheService::weigh)
+        .expireAfterWrite(EXPIRE_AFTER_WRITE)
+        .recordStats()
+        .buildAsync();
+
+    // size, hit rate, load times and evictions
+    CaffeineCacheMetrics.monitor(Metrics.globalRegistry, cache, "thirdeye_query_result_cache");
+    Gauge.builder("thirdeye_query_result_cache_weight_bytes", this::weightInBytes)
+        .description("Estimated retained size of the cached query results.")
+        .register(Metrics.globalRegistry);
+    Gauge.builder("thirdeye_query_result_cache_max_weight_bytes", () -> maxWeightInBytes)
+        .register(Metrics.globalRegistry);
+  }
+
+  private static long defaultMaxWeightInBytes() {
+    long jvmMaxMemoryInBytes = Runtime.getRuntime().maxMemory();
+    if (jvmMaxMemoryInBytes == Long.MAX_VALUE) {
+      jvmMaxMemoryInBytes = DEFAULT_UPPER_BOUND_OF_RESULTSETGROUP_CACHE_SIZE_IN_MB * ONE_MB;
+    } else {
+      jvmMaxMemoryInBytes = Math.max(jvmMaxMemoryInBytes,
+          DEFAULT_LOWER_BOUND_OF_RESULTSETGROUP_CACHE_SIZE_IN_MB * ONE_MB);
+    }
+    return jvmMaxMemoryInBytes / 100 * DEFAULT_HEAP_PERCENTAGE_FOR_RESULTSETGROUP_CACHE;
+  }
+
+  private static int weigh(final Key key, final DataFrame dataFrame) {
+    final long weight = key.query().length() + retainedBytes(dataFrame);
+    return (int) Math.min(weight, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Estimates the memory retained by the series of the DataFrame.
+   */
+  @VisibleForTesting
+  static long retainedBytes(final DataFrame dataFrame) {
+    long bytes = OBJECT_OVERHEAD;
+    for (final Series series : dataFrame.getSeries().values()) {
+      bytes += 2 * OBJECT_OVERHEAD;
+      final int size = series.size();
+      switch (series.type()) {
+        case LONG:
+        case DOUBLE:
+          bytes += 8L * size;
+          break;
+        case BOOLEAN:
+          bytes += size;
+          break;
+        case STRING:
+          bytes += (long) REFERENCE_SIZE * size;
+          for (final String value : ((StringSeries) series).values()) {
+            if (value != null) {
+              bytes += STRING_OVERHEAD + value.length();
+            }
+          }
+          break;
+        case OBJECT:
+          bytes += (long) (REFERENCE_SIZE + OBJECT_OVERHEAD) * size;
+          break;
+        default:
+          throw new IllegalArgumentException("Unsupported series type: " + series.type());
+      }
+    }
+    return bytes;
+  }
+
+  /**
+   * The cache of a datasource. The datasource name passed by the datasource implementation is
+   * ignored: the entries are scoped to the given dto.
+   *
+   * @param dataSourceDto the datasource, with its environment variables resolved
+   */
+  public QueryResultCache forDataSource(final DataSourceDTO dataSourceDto) {
+    final Scope scope = Scope.of(dataSourceDto);
+    return new QueryResultCache() {
+      @Override
+      public DataFrame get(final String dataSource, final String query,
+          final Map<String, String> options, final Callable<DataFrame> loader) throws Exception {
+        return QueryResultCacheService.this.get(key(scope, query, options), loader);
+      }
+
+      @Override
+      public CompletableFuture<DataFrame> getAsync(final String dataSource, final String query,
+          final Map<String, String> options,
+          final Supplier<CompletableFuture<DataFrame>> loader) {
+        return QueryResultCacheService.this.getAsync(key(scope, query, options), loader);
+      }
+    };
+  }
+
+  /**
+   * Removes the cached results of all the versions of a datasource.
+   */
+  public void invalidateDataSource(final Long dataSourceId) {
+    cache.synchronous().asMap().keySet()
+        .removeIf(key -> Objects.equals(key.scope().dataSourceId(), dataSourceId));
+  }
+
+  private DataFrame get(final Key key, final Callable<DataFrame> loader) throws Exception {
+    final CompletableFuture<DataFrame> load = new CompletableFuture<>();
+    final CompletableFuture<DataFrame> result = cache.get(key, (k, executor) -> load);
+    if (result == load) {
+      // the query runs in the caller thread. Other callers of the same query wait for it.
+      // A failed load is removed from the cache. Errors are caught too: the future of the entry
+      // must always be completed.
+      try {
+        load.complete(requireNonNull(loader.call(), "query result is null"));
+      } catch (final Throwable e) {
+        load.completeExceptionally(e);
+      }
+    }
+    try {
+      return result.get();
+    } catch (final ExecutionException e) {
+      Throwables.throwIfInstanceOf(e.getCause(), Exception.class);
+      Throwables.throwIfUnchecked(e.getCause());
+      throw e;
+    }
+  }
+
+  private CompletableFuture<DataFrame> getAsync(final Key key,
+      final Supplier<CompletableFuture<DataFrame>> loader) {
+    // a failed load is removed from the cache
+    return cache.get(key, (k, executor) -> {
+      try {
+        return loader.get();
+      } catch (final RuntimeException e) {
+        return CompletableFuture.failedFuture(e);
+      }
+    });
+  }
+
+  private static Key key(final Scope scope, final String query,
+      final Map<String, String> options) {
+    return new Key(scope,
+        normalize(query),
+        options == null ? Map.of() : new TreeMap<>(options));
+  }
+
+  /**
+   * Collapses the whitespaces outside of quoted literals and identifiers.
+   */
+  public static String normalize(final String query) {
+    final String trimmed = query.trim();
+    final StringBuilder sb = new StringBuilder(trimmed.length());
+    char quote = 0;
+    boolean previousIsWhitespace = false;
+    for (int i = 0; i < trimmed.length(); i++) {
+      final char c = trimmed.charAt(i);
+      if (quote == 0 && Character.isWhitespace(c)) {
+        if (!previousIsWhitespace) {
+          sb.append(' ');
+        }
+        previousIsWhitespace = true;
+        continue;
+      }
+      previousIsWhitespace = false;
+      if (quote == 0 && (c == '\'' || c == '"' || c == '`')) {
+        quote = c;
+      } else if (c == quote) {
+        // an escaped quote is a closing quote followed by an opening quote
+        quote = 0;
+      }
+      sb.append(c);
+    }
+    return sb.toString();
+  }
+
+  @VisibleForTesting
+  long weightInBytes() {
+    return cache.synchronous().policy().eviction()
+        .map(eviction -> eviction.weightedSize().orElse(0L))
+        .orElse(0L);
+  }
+
+  @VisibleForTesting
+  void cleanUp() {
+    cache.synchronous().cleanUp();
+  }
+
+  /**
+   * Identity of a datasource for caching: query results of different datasources, or of a
+   * datasource before and after an update of its connection, are never shared.
+   *
+   * @param fingerprint hash of the type, the connection properties and the default query
+   *     options of the datasource
+   */
+  public record Scope(Long dataSourceId, String namespace, String name, int fingerprint) {
+
+    public static Scope of(final DataSourceDTO dataSourceDto) {
+      return new Scope(dataSourceDto.getId(),
+          dataSourceDto.namespace(),
+          dataSourceDto.getName(),
+          Objects.hash(dataSourceDto.getType(),
+              dataSourceDto.getProperties(),
+              dataSourceDto.getDefaultQueryOptions()));
+    }
+  }
+
+  private record Key(Scope scope, String query, Map<String, String> options) {}
+}
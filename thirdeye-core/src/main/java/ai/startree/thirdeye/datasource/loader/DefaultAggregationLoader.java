@@ -17,8 +17,11 @@ import static ai.startree.thirdeye.datasource.query.AggregateProjections.aggProj
 import static ai.startree.thirdeye.datasource.query.AggregateProjections.countStar;
 import static ai.startree.thirdeye.datasource.query.QueryProjection.getColName;
 import static ai.startree.thirdeye.spi.util.SpiUtils.optional;
+import static ai.startree.thirdeye.util.CalciteUtils.addAlias;
+import static ai.startree.thirdeye.util.CalciteUtils.castAsVarcharOf;
 import static ai.startree.thirdeye.util.CalciteUtils.identifierDescOf;
 import static ai.startree.thirdeye.util.CalciteUtils.identifierOf;
+import static ai.startree.thirdeye.util.CalciteUtils.stringLiteralOf;
 
 import ai.startree.thirdeye.datasource.cache.DataSourceCache;
 import ai.startree.thirdeye.datasource.query.SelectQuery;
@@ -34,6 +37,8 @@ import ai.startree.thirdeye.spi.datalayer.dto.DatasetConfigDTO;
 import ai.startree.thirdeye.spi.datasource.DataSourceRequest;
 import ai.startree.thirdeye.spi.datasource.ThirdEyeDataSource;
 import ai.startree.thirdeye.spi.datasource.loader.AggregationLoader;
+import ai.startree.thirdeye.spi.datasource.macro.SqlLanguage;
+import ai.startree.thirdeye.spi.detection.v2.DataTable;
 import ai.startree.thirdeye.spi.metric.MetricSlice;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
@@ -43,6 +48,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -136,6 +143,76 @@ public class DefaultAggregationLoader implements AggregationLoader {
         .build()
         .setIndex(COL_DIMENSION_NAME, COL_DIMENSION_VALUE);
 
+    final ThirdEyeDataSource thirdEyeDataSource = dataSourceCache.getDataSource(
+        slice.getDataSourceDto());
+    final SqlLanguage sqlLanguage = thirdEyeDataSource.getSqlLanguage();
+    final List<DataFrame> results;
+    if (!dimensions.isEmpty() && sqlLanguage != null && sqlLanguage.supportsUnionAll()) {
+      results = loadBreakdownWithFallback(slice, dimensions, limit, thirdEyeDataSource);
+    } else {
+      results = loadBreakdownPerDimension(slice, dimensions, limit);
+    }
+
+    final DataFrame breakdown = dfAll.append(results);
+    // add time column containing start time of slice
+    return breakdown
+        .addSeries(Constants.COL_TIME,
+            LongSeries.fillValues(breakdown.size(), slice.getInterval().getStartMillis()))
+        .setIndex(Constants.COL_TIME, COL_DIMENSION_NAME, COL_DIMENSION_VALUE);
+  }
+
+  private List<DataFrame> loadBreakdownWithFallback(final MetricSlice slice,
+      final List<String> dimensions, final int limit, final ThirdEyeDataSource thirdEyeDataSource)
+      throws Exception {
+    try {
+      return List.of(loadBreakdownWithUnionAll(slice, dimensions, limit, thirdEyeDataSource));
+    } catch (final ExecutionException | RuntimeException e) {
+      LOG.warn("UNION ALL breakdown query failed for '{}'. Running one query per dimension.",
+          slice,
+          e);
+      return loadBreakdownPerDimension(slice, dimensions, limit);
+    }
+  }
+
+  /**
+   * Runs a single query for all dimensions: the top-k query of each dimension is combined with
+   * UNION ALL. The dimension values are cast to VARCHAR for the UNION ALL to be valid.
+   */
+  private DataFrame loadBreakdownWithUnionAll(final MetricSlice slice,
+      final List<String> dimensions, final int limit, final ThirdEyeDataSource thirdEyeDataSource)
+      throws Exception {
+    final List<SelectQueryTranslator> requests = new ArrayList<>(dimensions.size());
+    for (final String dimension : dimensions) {
+      final SqlIdentifier dimensionIdentifier = identifierOf(dimension);
+      requests.add(SelectQuery.from(slice)
+          .select(addAlias(stringLiteralOf(dimension), COL_DIMENSION_NAME))
+          .select(addAlias(castAsVarcharOf(dimensionIdentifier), COL_DIMENSION_VALUE))
+          .groupBy(dimensionIdentifier)
+          // ensure multiple runs return the same values when num rows > limit - see te-636
+          .orderBy(identifierDescOf(Constants.COL_VALUE))
+          .limit(limit)
+          .build());
+    }
+    final SqlLanguage sqlLanguage = thirdEyeDataSource.getSqlLanguage();
+    final String query = SelectQueryTranslator.getUnionAllSql(requests,
+        sqlLanguage,
+        thirdEyeDataSource.getSqlExpressionBuilder());
+    final DataFrame res = fetchDataTableAsync(thirdEyeDataSource, query,
+        sqlLanguage.getUnionAllQueryOptions())
+        .get(TIMEOUT, TimeUnit.MILLISECONDS)
+        .getDataFrame();
+
+    return new DataFrame()
+        .addSeries(COL_DIMENSION_NAME, res.get(COL_DIMENSION_NAME))
+        .addSeries(COL_DIMENSION_VALUE, res.get(COL_DIMENSION_VALUE))
+        .addSeries(Constants.COL_VALUE, res.get(Constants.COL_VALUE));
+  }
+
+  /**
+   * Runs one query per dimension, in parallel.
+   */
+  private List<DataFrame> loadBreakdownPerDimension(final MetricSlice slice,
+      final List<String> dimensions, final int limit) throws Exception {
     final Map<String, Future<DataFrame>> responses = new HashMap<>();
 
     // submit requests
@@ -163,13 +240,7 @@ public class DefaultAggregationLoader implements AggregationLoader {
           .addSeries(Constants.COL_VALUE, res.get(Constants.COL_VALUE));
       results.add(dfResult);
     }
-
-    final DataFrame breakdown = dfAll.append(results);
-    // add time column containing start time of slice
-    return breakdown
-        .addSeries(Constants.COL_TIME,
-            LongSeries.fillValues(breakdown.size(), slice.getInterval().getStartMillis()))
-        .setIndex(Constants.COL_TIME, COL_DIMENSION_NAME, COL_DIMENSION_VALUE);
+    return results;
   }
 
   @Override
@@ -199,19 +270,32 @@ public class DefaultAggregationLoader implements AggregationLoader {
     return getQueryResultAsync(selectQuery.build(), slice.getDataSourceDto());
   }
 
-  private Future<DataFrame> getQueryResultAsync(final SelectQueryTranslator request,
+  /**
+   * The query is prepared and sent on the executor. The executor thread is released when the
+   * query is sent if the datasource implements fetchDataTableAsync without blocking.
+   */
+  private CompletableFuture<DataFrame> getQueryResultAsync(final SelectQueryTranslator request,
       final DataSourceDTO dataSourceDto) {
-    return executorService.submit(() -> getQueryResult(request, dataSourceDto));
+    return CompletableFuture
+        .supplyAsync(() -> fetchQueryResultAsync(request, dataSourceDto), executorService)
+        .thenCompose(future -> future)
+        .thenApply(DataTable::getDataFrame);
   }
 
-  private DataFrame getQueryResult(final SelectQueryTranslator request, final DataSourceDTO dataSourceDto)
-      throws Exception {
+  private CompletableFuture<DataTable> fetchQueryResultAsync(final SelectQueryTranslator request,
+      final DataSourceDTO dataSourceDto) {
     final ThirdEyeDataSource thirdEyeDataSource = dataSourceCache.getDataSource(dataSourceDto);
     final String query = request.getSql(thirdEyeDataSource.getSqlLanguage(),
         thirdEyeDataSource.getSqlExpressionBuilder());
     final Map<String, String> customOptions = Map.of(); // custom query options not implemented in MinMaxTimeLoader
+    return fetchDataTableAsync(thirdEyeDataSource, query, customOptions);
+  }
+
+  private static CompletableFuture<DataTable> fetchDataTableAsync(
+      final ThirdEyeDataSource thirdEyeDataSource, final String query,
+      final Map<String, String> customOptions) {
     // table info is only used with legacy Pinot client - should be removed
     final DataSourceRequest requestV2 = new DataSourceRequest(null, query, customOptions, Map.of());
-    return thirdEyeDataSource.fetchDataTable(requestV2).getDataFrame();
+    return thirdEyeDataSource.fetchDataTableAsync(requestV2);
   }
 }
@@ -36,6 +36,7 @@ import com.google.inject.Singleton;
 import io.micrometer.core.instrument.Metrics;
 import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -74,28 +75,42 @@ public class DefaultMinMaxTimeLoader implements MinMaxTimeLoader {
   public Future<@Nullable Long> fetchMinTimeAsync(final DataSourceDTO dataSourceDto,
       final DatasetConfigDTO datasetConfigDTO, final @Nullable Interval timeFilterInterval)
       throws Exception {
-    return executorService.submit(
-        () -> fetchExtremumTime(Extremum.MIN, dataSourceDto, datasetConfigDTO, timeFilterInterval));
+    return fetchExtremumTimeAsync(Extremum.MIN, dataSourceDto, datasetConfigDTO,
+        timeFilterInterval);
   }
 
   @Override
   public Future<@Nullable Long> fetchMaxTimeAsync(final DataSourceDTO dataSourceDto,
       final DatasetConfigDTO datasetConfigDTO, final @Nullable Interval timeFilterInterval)
       throws Exception {
-    return executorService.submit(
-        () -> fetchExtremumTime(Extremum.MAX, dataSourceDto, datasetConfigDTO, timeFilterInterval));
+    return fetchExtremumTimeAsync(Extremum.MAX, dataSourceDto, datasetConfigDTO,
+        timeFilterInterval);
   }
 
-  private @Nullable Long fetchExtremumTime(final Extremum extremum,
+  /**
+   * The query is prepared and sent on the executor. The executor thread is released when the
+   * query is sent if the datasource implements fetchDataTableAsync without blocking.
+   */
+  private CompletableFuture<@Nullable Long> fetchExtremumTimeAsync(final Extremum extremum,
       final DataSourceDTO dataSourceDTO, final DatasetConfigDTO datasetConfigDTO,
-      final @Nullable Interval timeFilterInterval) throws Exception {
-    final @NonNull ThirdEyeDataSource dataSource = dataSourceCache.getDataSource(dataSourceDTO);
-    final String sqlQuery = extremumTimeSqlQuery(datasetConfigDTO, dataSource, extremum,
-        timeFilterInterval);
-    final Map<String, String> customOptions = Map.of(); // custom query options not implemented in MinMaxTimeLoader
-    final DataSourceRequest request = new DataSourceRequest(null, sqlQuery, customOptions,
-        Map.of());
-    final DataFrame df = dataSource.fetchDataTable(request).getDataFrame();
+      final @Nullable Interval timeFilterInterval) {
+    return CompletableFuture.supplyAsync(() -> {
+          final @NonNull ThirdEyeDataSource dataSource = dataSourceCache.getDataSource(
+              dataSourceDTO);
+          final String sqlQuery = extremumTimeSqlQuery(datasetConfigDTO, dataSource, extremum,
+              timeFilterInterval);
+          final Map<String, String> customOptions = Map.of(); // custom query options not implemented in MinMaxTimeLoader
+          final DataSourceRequest request = new DataSourceRequest(null, sqlQuery, customOptions,
+              Map.of());
+          return dataSource.fetchDataTableAsync(request);
+        }, executorService)
+        .thenCompose(future -> future)
+        .thenApply(dataTable -> extremumTime(dataTable.getDataFrame(), extremum, datasetConfigDTO,
+            timeFilterInterval));
+  }
+
+  private static @Nullable Long extremumTime(final DataFrame df, final Extremum extremum,
+      final DatasetConfigDTO datasetConfigDTO, final @Nullable Interval timeFilterInterval) {
     if (df == null || df.size() == 0) {
       LOG.warn(
           "Empty dataframe for {} time query on dataset {} on interval {}. Dataset is empty or unknown SQL error. Could not fetch start time.",
@@ -36,6 +36,7 @@ import org.apache.calcite.sql.SqlIdentifier;
 import org.apache.calcite.sql.SqlNode;
 import org.apache.calcite.sql.SqlNodeList;
 import org.apache.calcite.sql.SqlSelect;
+import org.apache.calcite.sql.fun.SqlStdOperatorTable;
 import org.apache.calcite.sql.parser.SqlParser;
 import org.apache.calcite.sql.parser.SqlParser.Config;
 import org.apache.calcite.sql.parser.SqlParserPos;
@@ -50,6 +51,7 @@ public class SelectQueryTranslator {
 
   public static final String TIME_AGGREGATION_ALIAS = "teTimeGroup";
   public static final boolean QUOTE_IDENTIFIERS = true;
+  private static final String UNION_ALL_TABLE_ALIAS_PREFIX = "teUnion";
 
   // SELECT clause
   final private List<QueryProjection> selectProjections;
@@ -151,6 +153,42 @@ public class SelectQueryTranslator {
     return nodeToQuery(sqlNode, sqlDialect, QUOTE_IDENTIFIERS);
   }
 
+  /**
+   * Generates a UNION ALL of the queries. Each query is wrapped in a derived table, so that its
+   * ORDER BY and LIMIT only apply to its own rows. The queries must return the same columns.
+   * Use only if {@link SqlLanguage#supportsUnionAll()}.
+   */
+  public static String getUnionAllSql(final List<SelectQueryTranslator> queries,
+      final SqlLanguage sqlLanguage, final SqlExpressionBuilder expressionBuilder) {
+    checkArgument(!queries.isEmpty(), "No query to combine with UNION ALL.");
+    final SqlParser.Config sqlParserConfig = SqlLanguageTranslator.translate(sqlLanguage.getSqlParserConfig());
+    final SqlDialect sqlDialect = SqlLanguageTranslator.translate(sqlLanguage.getSqlDialect());
+
+    SqlNode unionNode = null;
+    for (int i = 0; i < queries.size(); i++) {
+      final SqlNode queryNode = queries.get(i)
+          .getSqlNode(sqlParserConfig, expressionBuilder, sqlDialect);
+      final SqlNode derivedTable = new SqlSelect(
+          SqlParserPos.ZERO,
+          null,
+          SqlNodeList.of(SqlIdentifier.star(SqlParserPos.ZERO)),
+          addAlias(queryNode, UNION_ALL_TABLE_ALIAS_PREFIX + i),
+          null,
+          null,
+          null,
+          null,
+          null,
+          null,
+          null,
+          null
+      );
+      unionNode = unionNode == null
+          ? derivedTable
+          : SqlStdOperatorTable.UNION_ALL.createCall(SqlParserPos.ZERO, unionNode, derivedTable);
+    }
+    return nodeToQuery(unionNode, sqlDialect, QUOTE_IDENTIFIERS);
+  }
+
   protected SqlNode getSqlNode(final SqlParser.Config sqlParserConfig,
       final SqlExpressionBuilder expressionBuilder, final SqlDialect dialect) {
 
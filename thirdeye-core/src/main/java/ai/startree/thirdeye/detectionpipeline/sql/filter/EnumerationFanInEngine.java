@@ -0,0 +1,343 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.detectionpipeline.sql.filter;
+
+import static ai.startree.thirdeye.detectionpipeline.sql.filter.FilterEngine.QUOTE_IDENTIFIERS;
+import static ai.startree.thirdeye.util.CalciteUtils.IN_OPERATOR;
+import static ai.startree.thirdeye.util.CalciteUtils.addAlias;
+import static ai.startree.thirdeye.util.CalciteUtils.addPredicates;
+import static ai.startree.thirdeye.util.CalciteUtils.combinePredicates;
+import static ai.startree.thirdeye.util.CalciteUtils.nodeToQuery;
+import static ai.startree.thirdeye.util.CalciteUtils.numericLiteralOf;
+import static ai.startree.thirdeye.util.CalciteUtils.queryToNode;
+
+import ai.startree.thirdeye.detectionpipeline.sql.SqlLanguageTranslator;
+import ai.startree.thirdeye.spi.datasource.macro.SqlLanguage;
+import ai.startree.thirdeye.util.CalciteUtils;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.apache.calcite.sql.SqlBasicCall;
+import org.apache.calcite.sql.SqlCall;
+import org.apache.calcite.sql.SqlCharStringLiteral;
+import org.apache.calcite.sql.SqlDialect;
+import org.apache.calcite.sql.SqlIdentifier;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.sql.SqlLiteral;
+import org.apache.calcite.sql.SqlNode;
+import org.apache.calcite.sql.SqlNodeList;
+import org.apache.calcite.sql.SqlOrderBy;
+import org.apache.calcite.sql.SqlSelect;
+import org.apache.calcite.sql.parser.SqlParser;
+import org.apache.calcite.sql.parser.SqlParserPos;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Class responsible for merging the queries of enumeration items into a single grouped query.
+ *
+ * The queries of the enumeration items can be merged if they only differ by equality filters on
+ * the same dimensions in the WHERE clause of the main query. For instance:
+ * <pre>
+ * SELECT ts, SUM(m) FROM t WHERE __timeFilter(ts) AND country = 'US' GROUP BY ts
+ * SELECT ts, SUM(m) FROM t WHERE __timeFilter(ts) AND country = 'FR' GROUP BY ts
+ * </pre>
+ * are merged into:
+ * <pre>
+ * SELECT ts, SUM(m), country AS enumerationDimension0 FROM t WHERE __timeFilter(ts)
+ * AND country IN ('US', 'FR') GROUP BY ts, country LIMIT 100000
+ * </pre>
+ * The grouped query always has an explicit LIMIT: without it, some datasources like Pinot
+ * truncate the result to a few rows. The LIMIT of the items, if any, cannot be applied per item
+ * in the grouped query. The grouped result must be checked with {@link FanInQuery#isComplete}
+ * before it is split: if it is not complete, the items must be fetched with their own query.
+ *
+ * Notes:
+ * Only queries with a GROUP BY are merged: adding a GROUP BY to a query without one changes its
+ * semantic. Queries with a WITH statement or an OFFSET are not merged.
+ * Only string literals are supported in the dimension filters. See the dimension types in
+ * {@link ai.startree.thirdeye.datasource.query.QueryPredicate}.
+ */
+public class EnumerationFanInEngine {
+
+  public static final String DIMENSION_ALIAS_PREFIX = "enumerationDimension";
+  /**
+   * LIMIT of the grouped query. A grouped result reaching it may be truncated.
+   */
+  public static final long GROUPED_QUERY_LIMIT = 100_000;
+
+  private final SqlParser.Config sqlParserConfig;
+  private final SqlDialect sqlDialect;
+  private final List<String> itemQueries;
+
+  public EnumerationFanInEngine(final SqlLanguage sqlLanguage, final List<String> itemQueries) {
+    this.sqlParserConfig = SqlLanguageTranslator.translate(sqlLanguage.getSqlParserConfig());
+    this.sqlDialect = SqlLanguageTranslator.translate(sqlLanguage.getSqlDialect());
+    this.itemQueries = itemQueries;
+  }
+
+  /**
+   * @return the grouped query, or null if the queries of the items cannot be merged.
+   */
+  public @Nullable FanInQuery prepareQuery() {
+    if (itemQueries.size() < 2) {
+      return null;
+    }
+    final List<ItemQuery> items = new ArrayList<>(itemQueries.size());
+    for (final String itemQuery : itemQueries) {
+      final ItemQuery item = ItemQuery.parse(queryToNode(itemQuery, sqlParserConfig));
+      if (item == null) {
+        return null;
+      }
+      items.add(item);
+    }
+
+    // conjuncts found in all items are the shared filters, the others are the dimension filters
+    final Set<String> sharedConjuncts = items.get(0).conjunctsByString.keySet().stream()
+        .filter(c -> items.stream().allMatch(i -> i.conjunctsByString.containsKey(c)))
+        .collect(Collectors.toSet());
+    final List<Map<String, String>> itemDimensionFilters = new ArrayList<>(items.size());
+    for (final ItemQuery item : items) {
+      final Map<String, String> dimensionFilters = item.dimensionFilters(sharedConjuncts);
+      if (dimensionFilters == null) {
+        return null;
+      }
+      itemDimensionFilters.add(dimensionFilters);
+    }
+    final List<String> dimensions = List.copyOf(itemDimensionFilters.get(0).keySet());
+    if (dimensions.isEmpty() || !itemDimensionFilters.stream()
+        .allMatch(f -> f.keySet().equals(itemDimensionFilters.get(0).keySet()))) {
+      return null;
+    }
+
+    // once the dimension filters are removed, all items must run the same query
+    final List<String> sharedQueries = items.stream()
+        .map(item -> item.withoutDimensionFilters(sharedConjuncts))
+        .map(root -> nodeToQuery(root, sqlDialect, QUOTE_IDENTIFIERS))
+        .distinct()
+        .collect(Collectors.toList());
+    if (sharedQueries.size() != 1) {
+      return null;
+    }
+
+    final List<String> aliases = new ArrayList<>(dimensions.size());
+    for (int i = 0; i < dimensions.size(); i++) {
+      aliases.add(DIMENSION_ALIAS_PREFIX + i);
+    }
+    final List<List<String>> itemDimensionValues = itemDimensionFilters.stream()
+        .map(f -> dimensions.stream().map(f::get).collect(Collectors.toList()))
+        .collect(Collectors.toList());
+    final List<Set<String>> dimensionValues = new ArrayList<>(dimensions.size());
+    for (int i = 0; i < dimensions.size(); i++) {
+      final int dimensionIndex = i;
+      dimensionValues.add(itemDimensionValues.stream()
+          .map(values -> values.get(dimensionIndex))
+          .collect(Collectors.toCollection(LinkedHashSet::new)));
+    }
+
+    final ItemQuery template = items.get(0);
+    final SqlNode groupedRoot = template.withGroupedDimensions(template.dimensionIdentifiers(
+        dimensions, sharedConjuncts), dimensionValues);
+
+    return new FanInQuery(nodeToQuery(groupedRoot, sqlDialect, QUOTE_IDENTIFIERS),
+        aliases,
+        itemDimensionValues,
+        GROUPED_QUERY_LIMIT,
+        template.limit);
+  }
+
+  /**
+   * @param query the grouped query
+   * @param dimensionAliases the aliases of the dimension columns added to the query
+   * @param itemDimensionValues for each item, in the order of the item queries, the values of
+   *     the dimension columns, in the order of dimensionAliases
+   * @param limit the LIMIT of the grouped query
+   * @param itemLimit the LIMIT of the item queries, null if they have none
+   */
+  public record FanInQuery(String query, List<String> dimensionAliases,
+                           List<List<String>> itemDimensionValues, long limit,
+                           @Nullable Long itemLimit) {
+
+    /**
+     * @param groupedRowCount number of rows returned by the grouped query
+     * @param maxItemRowCount maximum number of rows of an item in the grouped result
+     * @return whether the grouped result contains exactly the rows of each item query. It does
+     *     not if the grouped query may have been truncated by its LIMIT, or if an item has more
+     *     rows than its LIMIT: the rows of the item query would depend on its ORDER BY.
+     */
+    public boolean isComplete(final long groupedRowCount, final long maxItemRowCount) {
+      return groupedRowCount < limit && (itemLimit == null || maxItemRowCount <= itemLimit);
+    }
+  }
+
+  private static class ItemQuery {
+
+    private final SqlNode root;
+    private final SqlSelect select;
+    // conjuncts of the WHERE clause, keyed by their string representation
+    private final Map<String, SqlNode> conjunctsByString;
+    private final @Nullable Long limit;
+
+    private ItemQuery(final SqlNode root, final SqlSelect select,
+        final Map<String, SqlNode> conjunctsByString, final @Nullable Long limit) {
+      this.root = root;
+      this.select = select;
+      this.conjunctsByString = conjunctsByString;
+      this.limit = limit;
+    }
+
+    private static @Nullable ItemQuery parse(final SqlNode root) {
+      final SqlSelect select;
+      Long limit = null;
+      if (root instanceof SqlSelect) {
+        select = (SqlSelect) root;
+      } else if (root instanceof SqlOrderBy orderBy && orderBy.query instanceof SqlSelect) {
+        if (orderBy.offset != null) {
+          return null;
+        }
+        if (orderBy.fetch != null) {
+          if (!(orderBy.fetch instanceof SqlLiteral)) {
+            return null;
+          }
+          limit = ((SqlLiteral) orderBy.fetch).bigDecimalValue().longValue();
+        }
+        select = (SqlSelect) orderBy.query;
+      } else {
+        return null;
+      }
+      if (select.getWhere() == null || select.getGroup() == null
+          || select.getGroup().size() == 0) {
+        return null;
+      }
+      final List<SqlNode> conjuncts = new ArrayList<>();
+      flattenConjuncts(select.getWhere(), conjuncts);
+      final Map<String, SqlNode> conjunctsByString = new LinkedHashMap<>();
+      for (final SqlNode conjunct : conjuncts) {
+        if (conjunctsByString.put(conjunct.toString(), conjunct) != null) {
+          // duplicated filter - not worth supporting
+          return null;
+        }
+      }
+      return new ItemQuery(root, select, conjunctsByString, limit);
+    }
+
+    private static void flattenConjuncts(final SqlNode node, final List<SqlNode> conjuncts) {
+      if (node.getKind() == SqlKind.AND) {
+        for (final SqlNode operand : ((SqlCall) node).getOperandList()) {
+          flattenConjuncts(operand, conjuncts);
+        }
+      } else {
+        conjuncts.add(node);
+      }
+    }
+
+    /**
+     * @return the dimension filters that are not shared, as dimension to value, or null if one of
+     *     them is not a dimension = 'value' filter.
+     */
+    private @Nullable Map<String, String> dimensionFilters(final Set<String> sharedConjuncts) {
+      final Map<String, String> dimensionFilters = new LinkedHashMap<>();
+      for (final Map.Entry<String, SqlNode> e : conjunctsByString.entrySet()) {
+        if (sharedConjuncts.contains(e.getKey())) {
+          continue;
+        }
+        if (e.getValue().getKind() != SqlKind.EQUALS) {
+          return null;
+        }
+        final List<SqlNode> operands = ((SqlCall) e.getValue()).getOperandList();
+        if (!(operands.get(0) instanceof SqlIdentifier)
+            || !(operands.get(1) instanceof SqlCharStringLiteral)) {
+          return null;
+        }
+        final String dimension = operands.get(0).toString();
+        final String value = ((SqlLiteral) operands.get(1)).getValueAs(String.class);
+        if (dimensionFilters.put(dimension, value) != null) {
+          return null;
+        }
+      }
+      return dimensionFilters;
+    }
+
+    private List<SqlNode> dimensionIdentifiers(final List<String> dimensions,
+        final Set<String> sharedConjuncts) {
+      final List<SqlNode> identifiers = new ArrayList<>(dimensions.size());
+      for (final Map.Entry<String, SqlNode> e : conjunctsByString.entrySet()) {
+        final SqlNode conjunct = e.getValue();
+        if (!sharedConjuncts.contains(e.getKey()) && conjunct.getKind() == SqlKind.EQUALS) {
+          final SqlNode lhs = ((SqlCall) conjunct).getOperandList().get(0);
+          if (lhs instanceof SqlIdentifier && dimensions.contains(lhs.toString())) {
+            identifiers.add(lhs);
+          }
+        }
+      }
+      identifiers.sort((a, b) -> Integer.compare(dimensions.indexOf(a.toString()),
+          dimensions.indexOf(b.toString())));
+      return identifiers;
+    }
+
+    /**
+     * Removes the dimension filters from the WHERE clause. Mutates the query.
+     */
+    private SqlNode withoutDimensionFilters(final Set<String> sharedConjuncts) {
+      final List<SqlNode> shared = conjunctsByString.entrySet().stream()
+          .filter(e -> sharedConjuncts.contains(e.getKey()))
+          .map(Map.Entry::getValue)
+          .collect(Collectors.toList());
+      select.setWhere(combinePredicates(shared));
+      return root;
+    }
+
+    /**
+     * Restricts the WHERE clause to the dimension values of the items, adds the dimensions to the
+     * SELECT and the GROUP BY clause, and replaces the LIMIT by {@link #GROUPED_QUERY_LIMIT}.
+     * Mutates the query. Must be called after withoutDimensionFilters.
+     *
+     * @param dimensionValues for each dimension identifier, the values of the items
+     */
+    private SqlNode withGroupedDimensions(final List<SqlNode> dimensionIdentifiers,
+        final List<Set<String>> dimensionValues) {
+      final List<SqlNode> selectList = new ArrayList<>(select.getSelectList().getList());
+      final List<SqlNode> groupBy = new ArrayList<>(select.getGroup().getList());
+      final List<SqlNode> inPredicates = new ArrayList<>(dimensionIdentifiers.size());
+      for (int i = 0; i < dimensionIdentifiers.size(); i++) {
+        final SqlNode identifier = dimensionIdentifiers.get(i);
+        selectList.add(addAlias(identifier.clone(SqlParserPos.ZERO), DIMENSION_ALIAS_PREFIX + i));
+        groupBy.add(identifier.clone(SqlParserPos.ZERO));
+        final List<SqlNode> values = dimensionValues.get(i).stream()
+            .map(CalciteUtils::stringLiteralOf)
+            .collect(Collectors.toList());
+        inPredicates.add(new SqlBasicCall(IN_OPERATOR,
+            List.of(identifier.clone(SqlParserPos.ZERO), SqlNodeList.of(SqlParserPos.ZERO, values)),
+            SqlParserPos.ZERO));
+      }
+      select.setSelectList(new SqlNodeList(selectList, SqlParserPos.ZERO));
+      select.setGroupBy(new SqlNodeList(groupBy, SqlParserPos.ZERO));
+      select.setWhere(select.getWhere() == null
+          ? combinePredicates(inPredicates)
+          : addPredicates(select.getWhere(), inPredicates));
+
+      final SqlNodeList orderList = root instanceof SqlOrderBy orderBy
+          ? orderBy.orderList
+          : SqlNodeList.EMPTY;
+      return new SqlOrderBy(SqlParserPos.ZERO,
+          select,
+          orderList,
+          null,
+          numericLiteralOf(GROUPED_QUERY_LIMIT));
+    }
+  }
+}
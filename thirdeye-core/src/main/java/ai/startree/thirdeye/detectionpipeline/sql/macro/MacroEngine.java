@@ -14,6 +14,7 @@
 package ai.startree.thirdeye.detectionpipeline.sql.macro;
 
 import static ai.startree.thirdeye.spi.datasource.macro.MacroMetadataKeys.QUERY;
+import static ai.startree.thirdeye.spi.datasource.macro.MacroMetadataKeys.TIME_GROUP_ALIAS;
 import static ai.startree.thirdeye.spi.util.SpiUtils.optional;
 import static ai.startree.thirdeye.util.CalciteUtils.expressionToNode;
 import static ai.startree.thirdeye.util.CalciteUtils.nodeToQuery;
@@ -33,14 +34,19 @@ import com.google.common.collect.ImmutableList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import org.apache.calcite.sql.SqlCall;
 import org.apache.calcite.sql.SqlDialect;
+import org.apache.calcite.sql.SqlIdentifier;
 import org.apache.calcite.sql.SqlKind;
 import org.apache.calcite.sql.SqlNode;
+import org.apache.calcite.sql.SqlSelect;
 import org.apache.calcite.sql.parser.SqlParser;
+import org.apache.calcite.sql.util.SqlBasicVisitor;
 import org.apache.calcite.sql.util.SqlShuttle;
 import org.checkerframework.checker.nullness.qual.Nullable;
+import org.joda.time.DateTime;
 import org.joda.time.Interval;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -48,12 +54,25 @@ import org.slf4j.LoggerFactory;
 public class MacroEngine {
 
   private static final Logger LOG = LoggerFactory.getLogger(MacroEngine.class);
+  private static final String TIME_FILTER_MACRO = new TimeFilterFunction().name();
+  private static final String TIME_GROUP_MACRO = new TimeGroupFunction().name();
   private final static List<MacroFunction> CORE_MACROS = ImmutableList.of(
       new TimeFilterFunction(),
       new TimeGroupFunction(),
       new TimeGroupKeyFunction()
   );
   public static final boolean QUOTE_IDENTIFIERS = false;
+  // nodes that make the rows of a time bucket depend on the other time buckets
+  private static final Set<SqlKind> NOT_APPENDABLE_KINDS = Set.of(SqlKind.SELECT,
+      SqlKind.ORDER_BY,
+      SqlKind.UNION,
+      SqlKind.INTERSECT,
+      SqlKind.EXCEPT,
+      SqlKind.WITH,
+      SqlKind.OVER,
+      SqlKind.ROLLUP,
+      SqlKind.CUBE,
+      SqlKind.GROUPING_SETS);
 
   private final SqlParser.Config sqlParserConfig;
   private final SqlDialect sqlDialect;
@@ -62,6 +81,8 @@ public class MacroEngine {
   private final Map<String, String> properties;
   private final MacroFunctionContext macroFunctionContext;
   private final Map<String, MacroFunction> availableMacros = new HashMap<>();
+  private final Map<String, Integer> macroCallCounts = new HashMap<>();
+  private String timeGroupAlias = null;
 
   public MacroEngine(final SqlLanguage sqlLanguage, final SqlExpressionBuilder sqlExpressionBuilder,
       final Interval detectionInterval,
@@ -84,16 +105,52 @@ public class MacroEngine {
     }
   }
 
+  /**
+   * Replaces the lower bound of the time filter computed from the detection interval and the
+   * lookback.
+   */
+  public MacroEngine setTimeFilterStart(final DateTime timeFilterStart) {
+    macroFunctionContext.setTimeFilterStart(timeFilterStart);
+    return this;
+  }
+
   public DataSourceRequest prepareRequest() {
     final SqlNode rootNode = queryToNode(query, sqlParserConfig);
+    final boolean appendableByTimeGroup = isAppendableByTimeGroup(rootNode);
     final SqlNode appliedMacrosNode = applyMacros(rootNode);
     final String preparedQuery = nodeToQuery(appliedMacrosNode, sqlDialect, QUOTE_IDENTIFIERS);
 
     final Map<String, String> customOptions = Map.of(); // custom query options not implemented in MinMaxTimeLoader
     properties.put(QUERY.toString(), preparedQuery);
+    if (appendableByTimeGroup && timeGroupAlias != null && macroCallCounts.getOrDefault(TIME_FILTER_MACRO, 0) == 1
+        && macroCallCounts.getOrDefault(TIME_GROUP_MACRO, 0) == 1) {
+      properties.put(TIME_GROUP_ALIAS.toString(), timeGroupAlias);
+    }
     return new DataSourceRequest(tableName, preparedQuery, customOptions, properties);
   }
 
+  /**
+   * Returns true if the rows of the query are the concatenation of the rows of each time bucket,
+   * so that the rows of new time buckets can be appended to the rows of older time buckets.
+   * This is the case for a single SELECT without ORDER BY, LIMIT, OFFSET, HAVING, window
+   * functions, grouping totals or subqueries.
+   */
+  private static boolean isAppendableByTimeGroup(final SqlNode rootNode) {
+    if (!(rootNode instanceof SqlSelect select)
+        || (select.getOrderList() != null && select.getOrderList().size() > 0)
+        || select.getFetch() != null || select.getOffset() != null
+        || select.getHaving() != null || select.getWindowList().size() > 0) {
+      return false;
+    }
+    final NotAppendableNodeFinder finder = new NotAppendableNodeFinder();
+    for (final SqlNode operand : select.getOperandList()) {
+      if (operand != null) {
+        operand.accept(finder);
+      }
+    }
+    return !finder.found;
+  }
+
   private SqlNode applyMacros(SqlNode rootNode) {
     return rootNode.accept(new MacroVisitor());
   }
@@ -110,6 +167,10 @@ public class MacroEngine {
     @Override
     public @Nullable
     SqlNode visit(SqlCall call) {
+      if (call.getKind() == SqlKind.AS && isTimeGroupMacro(call.operand(0))
+          && call.operand(1) instanceof SqlIdentifier alias) {
+        timeGroupAlias = alias.getSimple();
+      }
       // depth-first traverse and replace macros
       CallCopyingArgHandler argHandler = new CallCopyingArgHandler(call, false);
       call.getOperator().acceptCall(this, call, false, argHandler);
@@ -124,6 +185,7 @@ public class MacroEngine {
       }
       final MacroFunction macroFunction = availableMacros.get(call.getOperator().getName());
       if (macroFunction != null) {
+        macroCallCounts.merge(macroFunction.name(), 1, Integer::sum);
         List<String> macroParams = paramsFromCall(call);
         String expandedMacro = macroFunction.expandMacro(macroParams, macroFunctionContext);
         return expressionToNode(expandedMacro, sqlParserConfig);
@@ -131,5 +193,25 @@ public class MacroEngine {
       // not a macro OR macro expansion parsing failed: return input unchanged
       return call;
     }
+
+    private boolean isTimeGroupMacro(final SqlNode node) {
+      return node instanceof SqlCall macroCall
+          && macroCall.getOperator().getKind() == SqlKind.OTHER_FUNCTION
+          && TIME_GROUP_MACRO.equals(macroCall.getOperator().getName());
+    }
+  }
+
+  private static class NotAppendableNodeFinder extends SqlBasicVisitor<Void> {
+
+    private boolean found = false;
+
+    @Override
+    public Void visit(final SqlCall call) {
+      if (NOT_APPENDABLE_KINDS.contains(call.getKind())) {
+        found = true;
+        return null;
+      }
+      return super.visit(call);
+    }
   }
 }
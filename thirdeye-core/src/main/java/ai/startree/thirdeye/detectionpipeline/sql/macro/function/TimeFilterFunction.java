@@ -62,8 +62,9 @@ public class TimeFilterFunction implements MacroFunction {
 
     // compute timeLimits
     final Interval detectionInterval = context.getDetectionInterval();
-    final DateTime filterLowerBound = detectionInterval.getStart()
-        .minus(isoPeriod(lookbackFromStart));
+    final DateTime filterLowerBound = context.getTimeFilterStart() != null
+        ? context.getTimeFilterStart()
+        : detectionInterval.getStart().minus(isoPeriod(lookbackFromStart));
     final DateTime filterUpperBound = detectionInterval.getEnd()
         .minus(isoPeriod(lookbackFromEnd));
     final Interval filterInterval = new Interval(filterLowerBound, filterUpperBound);
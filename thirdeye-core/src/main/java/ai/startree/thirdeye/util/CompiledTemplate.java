@@ -0,0 +1,226 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.util;
+
+import static ai.startree.thirdeye.spi.ThirdEyeStatus.ERR_TEMPLATE_MISSING_PROPERTY;
+
+import ai.startree.thirdeye.spi.ThirdEyeException;
+import ai.startree.thirdeye.spi.datalayer.Templatable;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.text.StringSubstitutor;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A template compiled for repeated rendering.
+ *
+ * Compilation serializes the template to a json tree once and records the location of each
+ * placeholder:
+ * - String fields containing a ${variable}. They are rendered with a {@link StringSubstitutor}.
+ * - {@link Templatable} fields with a templated value. They are replaced by the property value,
+ *   itself rendered with the properties.
+ * Rendering copies the tree, replaces the placeholders and deserializes the tree. The template
+ * is not serialized again.
+ *
+ * Instances are immutable and can be shared between threads.
+ */
+public class CompiledTemplate<T> {
+
+  private static final String VARIABLE_PREFIX = "${";
+  private static final String PLACEHOLDERS_ATTRIBUTE = CompiledTemplate.class.getName();
+
+  /**
+   * Serializes the templates and records the placeholders. Do not use for API or persistence.
+   */
+  private static final ObjectMapper COMPILING_MAPPER = new ObjectMapper().registerModule(
+      new SimpleModule()
+          .addSerializer(Templatable.class, new TemplatableRecordingSerializer())
+          .addSerializer(String.class, new StringRecordingSerializer()));
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  private final Class<T> type;
+  private final JsonNode tree;
+  private final List<Placeholder> placeholders;
+
+  private CompiledTemplate(final Class<T> type, final JsonNode tree,
+      final List<Placeholder> placeholders) {
+    this.type = type;
+    this.tree = tree;
+    this.placeholders = placeholders;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <T> CompiledTemplate<T> compile(final T template) throws IOException {
+    final List<Placeholder> placeholders = new ArrayList<>();
+    final TokenBuffer buffer = new TokenBuffer(COMPILING_MAPPER, false);
+    COMPILING_MAPPER.writer()
+        .withAttribute(PLACEHOLDERS_ATTRIBUTE, placeholders)
+        .writeValue(buffer, template);
+    final JsonNode tree = COMPILING_MAPPER.readTree(buffer.asParser());
+    return new CompiledTemplate<>((Class<T>) template.getClass(),
+        tree,
+        Collections.unmodifiableList(placeholders));
+  }
+
+  public T render(final Map<String, Object> valuesMap) throws IOException {
+    final StringSubstitutor sub = new StringSubstitutor(valuesMap)
+        .setDisableSubstitutionInValues(true)
+        .setEnableSubstitutionInVariables(true)
+        .setEnableUndefinedVariableException(true);
+    return OBJECT_MAPPER.treeToValue(renderTree(valuesMap, sub), type);
+  }
+
+  private JsonNode renderTree(final Map<String, Object> valuesMap, final StringSubstitutor sub)
+      throws IOException {
+    if (placeholders.isEmpty()) {
+      return tree;
+    }
+    JsonNode rendered = tree.deepCopy();
+    for (final Placeholder placeholder : placeholders) {
+      final JsonNode value = placeholder.isTemplatable()
+          ? renderTemplatable(placeholder.text(), valuesMap, sub)
+          : renderString(placeholder.text(), sub);
+      rendered = replace(rendered, placeholder.path(), value);
+    }
+    return rendered;
+  }
+
+  private static JsonNode renderString(final String text, final StringSubstitutor sub)
+      throws JsonMappingException {
+    try {
+      return TextNode.valueOf(sub.replace(text));
+    } catch (final IllegalArgumentException e) {
+      throw wrap(new ThirdEyeException(ERR_TEMPLATE_MISSING_PROPERTY, e.getMessage()));
+    }
+  }
+
+  private static JsonNode renderTemplatable(final String property,
+      final Map<String, Object> valuesMap, final StringSubstitutor sub) throws IOException {
+    if (!valuesMap.containsKey(property)) {
+      throw wrap(new IllegalArgumentException(
+          "Property not provided for templatable value: " + property));
+    }
+    final @Nullable Object value = valuesMap.get(property);
+    final ObjectNode templatableNode = JsonNodeFactory.instance.objectNode();
+    // the property value can contain variables too
+    templatableNode.set(Templatable.VALUE_FIELD_STRING, value == null
+        ? JsonNodeFactory.instance.nullNode()
+        : compile(value).renderTree(valuesMap, sub));
+    return templatableNode;
+  }
+
+  /**
+   * Wraps a rendering error the way jackson wraps an exception thrown by a serializer, so that
+   * callers see the same exception and cause types as with a serialization based rendering.
+   */
+  private static JsonMappingException wrap(final RuntimeException cause) {
+    return new JsonMappingException(null, cause.getMessage(), cause);
+  }
+
+  private static JsonNode replace(final JsonNode root, final List<Object> path,
+      final JsonNode value) {
+    if (path.isEmpty()) {
+      return value;
+    }
+    JsonNode parent = root;
+    for (int i = 0; i < path.size() - 1; i++) {
+      final Object segment = path.get(i);
+      parent = segment instanceof Integer index ? parent.get(index) : parent.get((String) segment);
+    }
+    final Object last = path.get(path.size() - 1);
+    if (last instanceof Integer index) {
+      ((ArrayNode) parent).set(index, value);
+    } else {
+      ((ObjectNode) parent).set((String) last, value);
+    }
+    return root;
+  }
+
+  /**
+   * Returns the path of the value that was just written by the generator. Segments are field
+   * names or array indices.
+   */
+  private static List<Object> currentPath(final JsonGenerator jsonGenerator) {
+    final List<Object> path = new ArrayList<>();
+    for (JsonStreamContext context = jsonGenerator.getOutputContext();
+        context != null && !context.inRoot(); context = context.getParent()) {
+      path.add(context.inArray() ? context.getCurrentIndex() : context.getCurrentName());
+    }
+    Collections.reverse(path);
+    return path;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static void record(final SerializerProvider serializerProvider,
+      final Placeholder placeholder) {
+    ((List<Placeholder>) serializerProvider.getAttribute(PLACEHOLDERS_ATTRIBUTE)).add(placeholder);
+  }
+
+  /**
+   * @param path location of the placeholder in the json tree
+   * @param text the string to render, or the property name if templatable is true
+   * @param isTemplatable whether the placeholder is a templated {@link Templatable}
+   */
+  private record Placeholder(List<Object> path, String text, boolean isTemplatable) {}
+
+  private static class StringRecordingSerializer extends JsonSerializer<String> {
+
+    @Override
+    public void serialize(final String stringField, final JsonGenerator jsonGenerator,
+        final SerializerProvider serializerProvider) throws IOException {
+      jsonGenerator.writeString(stringField);
+      if (stringField.contains(VARIABLE_PREFIX)) {
+        record(serializerProvider, new Placeholder(currentPath(jsonGenerator), stringField, false));
+      }
+    }
+  }
+
+  private static class TemplatableRecordingSerializer extends JsonSerializer<Templatable> {
+
+    @Override
+    public void serialize(final Templatable templatable, final JsonGenerator jsonGenerator,
+        final SerializerProvider serializerProvider) throws IOException {
+      final String templatedValue = templatable.getTemplatedValue();
+      jsonGenerator.writeStartObject();
+      if (templatedValue != null) {
+        jsonGenerator.writeEndObject();
+        final String property = templatedValue.substring(2, templatedValue.length() - 1);
+        record(serializerProvider, new Placeholder(currentPath(jsonGenerator), property, true));
+      } else {
+        // cannot call writeObject --> this would create an infinite recursive loop
+        // the value is serialized with the same provider, so that its placeholders are recorded
+        serializerProvider.defaultSerializeField(Templatable.VALUE_FIELD_STRING,
+            templatable.getValue(),
+            jsonGenerator);
+        jsonGenerator.writeEndObject();
+      }
+    }
+  }
+}
@@ -13,26 +13,18 @@
  */
 package ai.startree.thirdeye.util;
 
-import ai.startree.thirdeye.spi.datalayer.Templatable;
-import com.fasterxml.jackson.databind.Module;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.module.SimpleModule;
 import java.io.IOException;
 import java.util.Map;
 
 public class StringTemplateUtils {
 
-  @SuppressWarnings("unchecked")
+  /**
+   * Renders the template with the values. To render a template multiple times, compile it once
+   * with {@link CompiledTemplate#compile}.
+   */
   public static <T> T applyContext(final T template,
       final Map<String, Object> valuesMap)
       throws IOException, ClassNotFoundException {
-    final Module module = new SimpleModule()
-        .addSerializer(Templatable.class, new TemplateEngineTemplatableSerializer(valuesMap))
-        .addSerializer(String.class, new TemplateEngineStringSerializer(valuesMap));
-    final ObjectMapper objectMapper = new ObjectMapper().registerModule(module);
-
-    // serialize as json - properties are applied during the serialization
-    final String jsonString = objectMapper.writeValueAsString(template);
-    return (T) objectMapper.readValue(jsonString, template.getClass());
+    return CompiledTemplate.compile(template).render(valuesMap);
   }
 }
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.alert;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import ai.startree.thirdeye.spi.datalayer.Templatable;
+import ai.startree.thirdeye.spi.datalayer.TemplatableMap;
+import ai.startree.thirdeye.spi.datalayer.bao.AlertManager;
+import ai.startree.thirdeye.spi.datalayer.bao.AlertTemplateManager;
+import ai.startree.thirdeye.spi.datalayer.dto.AlertDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.AlertTemplateDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.PlanNodeBean;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import org.joda.time.Interval;
+import org.testng.annotations.Test;
+
+public class AlertTemplateRendererTest {
+
+  private static final long TEMPLATE_ID = 1L;
+  private static final Interval DETECTION_INTERVAL = new Interval(1000L, 2000L);
+
+  private static AlertTemplateDTO persistedTemplate(final long updateTime, final String query) {
+    final TemplatableMap<String, Object> dataFetcherParams = new TemplatableMap<>();
+    dataFetcherParams.putValue("query", query);
+    dataFetcherParams.put("dataSource", new Templatable<>().setTemplatedValue("${dataSource}"));
+    final AlertTemplateDTO template = new AlertTemplateDTO()
+        .setName("template")
+        .setNodes(List.of(
+            new PlanNodeBean().setName("dataFetcher")
+                .setType("DataFetcher")
+                .setParams(dataFetcherParams),
+            new PlanNodeBean().setName("detector")
+                .setType("AnomalyDetector")
+                .setParams(new TemplatableMap<>())));
+    template.setId(TEMPLATE_ID);
+    // like GenericPojoDao, an update sets the updateTime and keeps the version
+    template.setVersion(1);
+    template.setUpdateTime(new Timestamp(updateTime));
+    return template;
+  }
+
+  private static AlertDTO alert(final String name, final String dataSource) {
+    return new AlertDTO()
+        .setName(name)
+        .setTemplate(new AlertTemplateDTO().setName("template"))
+        .setTemplateProperties(Map.of("dataSource", dataSource, "dataset", name + "Dataset"));
+  }
+
+  @Test
+  public void testRenderPersistedTemplateMultipleTimes() throws Exception {
+    final AlertTemplateManager alertTemplateManager = mock(AlertTemplateManager.class);
+    when(alertTemplateManager.findByName("template")).thenAnswer(
+        invocation -> List.of(persistedTemplate(1000L, "SELECT * FROM ${dataset} WHERE t < ${endTime}")));
+    final AlertTemplateRenderer renderer = new AlertTemplateRenderer(mock(AlertManager.class),
+        alertTemplateManager);
+
+    final AlertTemplateDTO rendered1 = renderer.renderAlert(alert("alert1", "pinot1"),
+        DETECTION_INTERVAL);
+    final AlertTemplateDTO rendered2 = renderer.renderAlert(alert("alert2", "pinot2"),
+        DETECTION_INTERVAL);
+
+    final TemplatableMap<String, Object> params1 = rendered1.getNodes().get(0).getParams();
+    assertThat(params1.getValue("query")).isEqualTo("SELECT * FROM alert1Dataset WHERE t < 2000");
+    assertThat(params1.getValue("dataSource")).isEqualTo("pinot1");
+    assertThat(rendered1.getNodes().get(1).getParams().getValue("anomaly.source"))
+        .isEqualTo("alert1/detector");
+    final TemplatableMap<String, Object> params2 = rendered2.getNodes().get(0).getParams();
+    assertThat(params2.getValue("query")).isEqualTo("SELECT * FROM alert2Dataset WHERE t < 2000");
+    assertThat(params2.getValue("dataSource")).isEqualTo("pinot2");
+    assertThat(rendered2.getNodes().get(1).getParams().getValue("anomaly.source"))
+        .isEqualTo("alert2/detector");
+  }
+
+  @Test
+  public void testRenderUpdatedTemplate() throws Exception {
+    final AlertTemplateManager alertTemplateManager = mock(AlertTemplateManager.class);
+    when(alertTemplateManager.findByName("template"))
+        .thenReturn(List.of(persistedTemplate(1000L, "SELECT * FROM ${dataset}")))
+        .thenReturn(List.of(persistedTemplate(1001L, "SELECT COUNT(*) FROM ${dataset}")));
+    final AlertTemplateRenderer renderer = new AlertTemplateRenderer(mock(AlertManager.class),
+        alertTemplateManager);
+
+    final AlertTemplateDTO rendered1 = renderer.renderAlert(alert("alert1", "pinot1"),
+        DETECTION_INTERVAL);
+    final AlertTemplateDTO rendered2 = renderer.renderAlert(alert("alert1", "pinot1"),
+        DETECTION_INTERVAL);
+
+    assertThat(rendered1.getNodes().get(0).getParams().getValue("query"))
+        .isEqualTo("SELECT * FROM alert1Dataset");
+    assertThat(rendered2.getNodes().get(0).getParams().getValue("query"))
+        .isEqualTo("SELECT COUNT(*) FROM alert1Dataset");
+  }
+}
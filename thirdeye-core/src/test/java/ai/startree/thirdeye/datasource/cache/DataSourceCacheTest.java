@@ -0,0 +1,140 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.datasource.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ai.startree.thirdeye.datasource.DataSourcesLoader;
+import ai.startree.thirdeye.spi.datalayer.bao.DataSourceManager;
+import ai.startree.thirdeye.spi.datalayer.dto.DataSourceDTO;
+import ai.startree.thirdeye.spi.datasource.ThirdEyeDataSource;
+import com.codahale.metrics.MetricRegistry;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class DataSourceCacheTest {
+
+  private DataSourcesLoader dataSourcesLoader;
+  private QueryResultCacheService queryResultCache;
+  private DataSourceCache dataSourceCache;
+
+  private static DataSourceDTO dataSourceDto(final long id, final long updateTime) {
+    final DataSourceDTO dto = new DataSourceDTO();
+    dto.setId(id);
+    dto.setUpdateTime(new Timestamp(updateTime));
+    return dto;
+  }
+
+  @BeforeMethod
+  public void setUp() {
+    dataSourcesLoader = mock(DataSourcesLoader.class);
+    queryResultCache = mock(QueryResultCacheService.class);
+    dataSourceCache = new DataSourceCache(mock(DataSourceManager.class),
+        dataSourcesLoader,
+        new MetricRegistry(),
+        queryResultCache);
+  }
+
+  @Test
+  public void testDataSourceIsLoadedOnce() {
+    final ThirdEyeDataSource dataSource = mock(ThirdEyeDataSource.class);
+    when(dataSourcesLoader.loadDataSource(any())).thenReturn(dataSource);
+
+    final ThirdEyeDataSource first = dataSourceCache.getDataSource(dataSourceDto(1L, 1000L));
+    final ThirdEyeDataSource second = dataSourceCache.getDataSource(dataSourceDto(1L, 1000L));
+
+    assertThat(second).isSameAs(first);
+    verify(dataSourcesLoader, times(1)).loadDataSource(any());
+  }
+
+  @Test
+  public void testNewerDataSourceReplacesAndClosesOutdatedOne() throws Exception {
+    final ThirdEyeDataSource outdated = mock(ThirdEyeDataSource.class);
+    final ThirdEyeDataSource updated = mock(ThirdEyeDataSource.class);
+    when(dataSourcesLoader.loadDataSource(any())).thenReturn(outdated, updated);
+
+    dataSourceCache.getDataSource(dataSourceDto(1L, 1000L));
+    dataSourceCache.getDataSource(dataSourceDto(1L, 2000L));
+    // an older dto does not evict the newer datasource
+    dataSourceCache.getDataSource(dataSourceDto(1L, 1000L));
+
+    verify(dataSourcesLoader, times(2)).loadDataSource(any());
+    verify(outdated).close();
+    verify(updated, never()).close();
+    verify(queryResultCache).invalidateDataSource(1L);
+  }
+
+  @Test
+  public void testRemoveDataSourceClosesIt() throws Exception {
+    final ThirdEyeDataSource dataSource = mock(ThirdEyeDataSource.class);
+    when(dataSourcesLoader.loadDataSource(any())).thenReturn(dataSource);
+
+    final DataSourceDTO dto = dataSourceDto(1L, 1000L);
+    dataSourceCache.getDataSource(dto);
+    dataSourceCache.removeDataSource(dto);
+
+    verify(dataSource).close();
+    verify(queryResultCache).invalidateDataSource(1L);
+  }
+
+  @Test(timeOut = 10000L)
+  public void testSlowLoadDoesNotBlockOtherDataSources() throws Exception {
+    final CountDownLatch slowLoadStarted = new CountDownLatch(1);
+    final CountDownLatch releaseSlowLoad = new CountDownLatch(1);
+    final ThirdEyeDataSource dataSource = mock(ThirdEyeDataSource.class);
+    when(dataSourcesLoader.loadDataSource(any())).thenAnswer(invocation -> {
+      final DataSourceDTO dto = invocation.getArgument(0);
+      if (dto.getId() == 1L) {
+        slowLoadStarted.countDown();
+        releaseSlowLoad.await();
+      }
+      return dataSource;
+    });
+
+    final ExecutorService executorService = Executors.newFixedThreadPool(4);
+    try {
+      final List<Future<ThirdEyeDataSource>> slowLoads = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+        slowLoads.add(executorService.submit(
+            () -> dataSourceCache.getDataSource(dataSourceDto(1L, 1000L))));
+      }
+      slowLoadStarted.await();
+      // datasource 2 is loaded while datasource 1 is loading
+      assertThat(dataSourceCache.getDataSource(dataSourceDto(2L, 1000L))).isNotNull();
+
+      releaseSlowLoad.countDown();
+      for (final Future<ThirdEyeDataSource> slowLoad : slowLoads) {
+        assertThat(slowLoad.get(5, TimeUnit.SECONDS)).isNotNull();
+      }
+      // concurrent loads of the same datasource are merged
+      verify(dataSourcesLoader, times(2)).loadDataSource(any());
+    } finally {
+      executorService.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.datasource.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import ai.startree.thirdeye.spi.dataframe.DataFrame;
+import ai.startree.thirdeye.spi.dataframe.DoubleSeries;
+import ai.startree.thirdeye.spi.dataframe.LongSeries;
+import ai.startree.thirdeye.spi.dataframe.StringSeries;
+import ai.startree.thirdeye.spi.datalayer.dto.AuthorizationConfigurationDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.DataSourceDTO;
+import ai.startree.thirdeye.spi.datasource.QueryResultCache;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.testng.annotations.Test;
+
+public class QueryResultCacheServiceTest {
+
+  private static DataSourceDTO dataSourceDto(final long id, final String namespace,
+      final String brokerUrl) {
+    final DataSourceDTO dto = new DataSourceDTO()
+        .setName("ds")
+        .setType("pinot")
+        .setProperties(Map.of("brokerUrl", brokerUrl));
+    dto.setId(id);
+    dto.setAuth(new AuthorizationConfigurationDTO().setNamespace(namespace));
+    return dto;
+  }
+
+  private static QueryResultCache scoped(final QueryResultCacheService cache, final long id) {
+    return cache.forDataSource(dataSourceDto(id, null, "localhost"));
+  }
+
+  private static DataFrame dataFrame(final int size) {
+    return new DataFrame()
+        .addSeries("ts", LongSeries.buildFrom(new long[size]))
+        .addSeries("value", DoubleSeries.buildFrom(new double[size]));
+  }
+
+  @Test
+  public void testQueryIsLoadedOnce() throws Exception {
+    final QueryResultCache cache = scoped(new QueryResultCacheService(1_000_000), 1L);
+    final AtomicInteger loads = new AtomicInteger();
+    final DataFrame first = cache.get("ds", "SELECT 1", Map.of("timeoutMs", "10"), () -> {
+      loads.incrementAndGet();
+      return dataFrame(10);
+    });
+    // same query modulo whitespaces, same options
+    final DataFrame second = cache.get("ds", " SELECT\n  1 ", Map.of("timeoutMs", "10"), () -> {
+      loads.incrementAndGet();
+      return dataFrame(10);
+    });
+
+    assertThat(second).isSameAs(first);
+    assertThat(loads.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void testAsyncQueryInFlightIsLoadedOnce() throws Exception {
+    final QueryResultCache cache = scoped(new QueryResultCacheService(1_000_000), 1L);
+    final AtomicInteger loads = new AtomicInteger();
+    final CompletableFuture<DataFrame> pending = new CompletableFuture<>();
+    final CompletableFuture<DataFrame> first = cache.getAsync("ds", "SELECT 1", Map.of(), () -> {
+      loads.incrementAndGet();
+      return pending;
+    });
+    final CompletableFuture<DataFrame> second = cache.getAsync("ds", "SELECT 1", Map.of(), () -> {
+      loads.incrementAndGet();
+      return CompletableFuture.completedFuture(dataFrame(1));
+    });
+    pending.complete(dataFrame(10));
+
+    assertThat(second.get()).isSameAs(first.get());
+    assertThat(loads.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void testKeyContainsDataSourceAndOptions() throws Exception {
+    final QueryResultCacheService cache = new QueryResultCacheService(1_000_000);
+    final AtomicInteger loads = new AtomicInteger();
+    scoped(cache, 1L).get("ds", "SELECT 1", Map.of(), () -> dataFrame(loads.incrementAndGet()));
+    scoped(cache, 2L).get("ds", "SELECT 1", Map.of(), () -> dataFrame(loads.incrementAndGet()));
+    scoped(cache, 1L).get("ds", "SELECT 1", Map.of("timeoutMs", "10"),
+        () -> dataFrame(loads.incrementAndGet()));
+
+    assertThat(loads.get()).isEqualTo(3);
+  }
+
+  @Test
+  public void testFailedLoadIsNotCached() throws Exception {
+    final QueryResultCache cache = scoped(new QueryResultCacheService(1_000_000), 1L);
+    assertThatThrownBy(() -> cache.get("ds", "SELECT 1", Map.of(), () -> {
+      throw new IllegalStateException("broker down");
+    })).isInstanceOf(IllegalStateException.class).hasMessage("broker down");
+
+    final DataFrame df = cache.get("ds", "SELECT 1", Map.of(), () -> dataFrame(1));
+    assertThat(df.size()).isEqualTo(1);
+  }
+
+  @Test
+  public void testDataSourcesWithSameNameAreIsolated() throws Exception {
+    final QueryResultCacheService cache = new QueryResultCacheService(1_000_000);
+    final DataFrame tenant1 = cache.forDataSource(dataSourceDto(1L, "tenant1", "localhost"))
+        .get("ds", "SELECT 1", Map.of(), () -> dataFrame(1));
+    final DataFrame tenant2 = cache.forDataSource(dataSourceDto(2L, "tenant2", "localhost"))
+        .get("ds", "SELECT 1", Map.of(), () -> dataFrame(2));
+
+    assertThat(tenant1.size()).isEqualTo(1);
+    assertThat(tenant2.size()).isEqualTo(2);
+  }
+
+  @Test
+  public void testUpdatedDataSourceDoesNotReadPreviousResults() throws Exception {
+    final QueryResultCacheService cache = new QueryResultCacheService(1_000_000);
+    cache.forDataSource(dataSourceDto(1L, null, "cluster1"))
+        .get("ds", "SELECT 1", Map.of(), () -> dataFrame(1));
+    final DataFrame updated = cache.forDataSource(dataSourceDto(1L, null, "cluster2"))
+        .get("ds", "SELECT 1", Map.of(), () -> dataFrame(2));
+
+    assertThat(updated.size()).isEqualTo(2);
+  }
+
+  @Test
+  public void testInvalidateDataSource() throws Exception {
+    final QueryResultCacheService cache = new QueryResultCacheService(1_000_000);
+    final AtomicInteger loads = new AtomicInteger();
+    scoped(cache, 1L).get("ds", "SELECT 1", Map.of(), () -> dataFrame(loads.incrementAndGet()));
+    scoped(cache, 2L).get("ds", "SELECT 1", Map.of(), () -> dataFrame(loads.incrementAndGet()));
+    cache.invalidateDataSource(1L);
+    scoped(cache, 1L).get("ds", "SELECT 1", Map.of(), () -> dataFrame(loads.incrementAndGet()));
+    scoped(cache, 2L).get("ds", "SELECT 1", Map.of(), () -> dataFrame(loads.incrementAndGet()));
+
+    assertThat(loads.get()).isEqualTo(3);
+  }
+
+  @Test
+  public void testLoadFailingWithErrorIsNotCached() throws Exception {
+    final QueryResultCache cache = scoped(new QueryResultCacheService(1_000_000), 1L);
+    assertThatThrownBy(() -> cache.get("ds", "SELECT 1", Map.of(), () -> {
+      throw new OutOfMemoryError("too large");
+    })).isInstanceOf(OutOfMemoryError.class);
+
+    final DataFrame df = cache.get("ds", "SELECT 1", Map.of(), () -> dataFrame(1));
+    assertThat(df.size()).isEqualTo(1);
+  }
+
+  @Test
+  public void testWeightIsBounded() throws Exception {
+    final long oneEntryBytes = QueryResultCacheService.retainedBytes(dataFrame(1000));
+    final QueryResultCacheService cache = new QueryResultCacheService(5 * oneEntryBytes);
+    for (int i = 0; i < 50; i++) {
+      scoped(cache, 1L).get("ds", "SELECT " + i, Map.of(), () -> dataFrame(1000));
+    }
+    cache.cleanUp();
+
+    assertThat(cache.weightInBytes()).isLessThanOrEqualTo(5 * oneEntryBytes);
+  }
+
+  @Test
+  public void testRetainedBytes() {
+    final DataFrame df = new DataFrame()
+        .addSeries("ts", LongSeries.buildFrom(1L, 2L, 3L))
+        .addSeries("name", StringSeries.buildFrom("a", "bb", null));
+
+    assertThat(QueryResultCacheService.retainedBytes(dataFrame(100)))
+        .isGreaterThan(QueryResultCacheService.retainedBytes(dataFrame(10)));
+    // values of the long series + references and content of the non-null strings
+    assertThat(QueryResultCacheService.retainedBytes(df)).isGreaterThan(3 * 8 + 3 * 8 + 2 * 40);
+  }
+
+  @Test
+  public void testNormalizeKeepsQuotedLiterals() {
+    assertThat(QueryResultCacheService.normalize(" SELECT  a\n FROM t WHERE b = 'x  y' "))
+        .isEqualTo("SELECT a FROM t WHERE b = 'x  y'");
+  }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.datasource.loader;
+
+import static ai.startree.thirdeye.spi.datasource.loader.AggregationLoader.COL_DIMENSION_NAME;
+import static ai.startree.thirdeye.spi.datasource.loader.AggregationLoader.COL_DIMENSION_VALUE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ai.startree.thirdeye.datasource.cache.DataSourceCache;
+import ai.startree.thirdeye.spi.Constants;
+import ai.startree.thirdeye.spi.dataframe.DataFrame;
+import ai.startree.thirdeye.spi.dataframe.DoubleSeries;
+import ai.startree.thirdeye.spi.dataframe.StringSeries;
+import ai.startree.thirdeye.spi.datalayer.Templatable;
+import ai.startree.thirdeye.spi.datalayer.dto.DataSourceDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.DatasetConfigDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.MetricConfigDTO;
+import ai.startree.thirdeye.spi.datasource.DataSourceRequest;
+import ai.startree.thirdeye.spi.datasource.ThirdEyeDataSource;
+import ai.startree.thirdeye.spi.datasource.macro.SqlExpressionBuilder;
+import ai.startree.thirdeye.spi.datasource.macro.SqlLanguage;
+import ai.startree.thirdeye.spi.datasource.macro.ThirdEyeSqlParserConfig;
+import ai.startree.thirdeye.spi.datasource.macro.ThirdeyeSqlDialect;
+import ai.startree.thirdeye.spi.detection.v2.SimpleDataTable;
+import ai.startree.thirdeye.spi.metric.MetricSlice;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.Interval;
+import org.mockito.ArgumentCaptor;
+import org.testng.annotations.Test;
+
+public class DefaultAggregationLoaderTest {
+
+  private static final Interval INTERVAL = new Interval(
+      new DateTime(2022, 1, 1, 0, 0, 0, DateTimeZone.UTC),
+      new DateTime(2022, 1, 2, 0, 0, 0, DateTimeZone.UTC));
+
+  private static final SqlExpressionBuilder SQL_EXPRESSION_BUILDER = new SqlExpressionBuilder() {
+    @Override
+    public String getTimeFilterExpression(final String timeColumn, final Interval filterInterval,
+        final String timeColumnFormat) {
+      return timeColumn + " >= " + filterInterval.getStartMillis() + " AND " + timeColumn + " < "
+          + filterInterval.getEndMillis();
+    }
+  };
+
+  private static MetricSlice slice() {
+    final DatasetConfigDTO datasetConfigDTO = new DatasetConfigDTO()
+        .setDataset("pageviews")
+        .setTimeColumn("ts")
+        .setTimeFormat("EPOCH")
+        .setDimensions(Templatable.of(List.of("country", "browser", "ts")));
+    final MetricConfigDTO metricConfigDTO = new MetricConfigDTO()
+        .setName("views")
+        .setAggregationColumn("views")
+        .setDefaultAggFunction("SUM");
+    return MetricSlice.from(metricConfigDTO, INTERVAL, datasetConfigDTO, new DataSourceDTO());
+  }
+
+  private static DataSourceCache dataSourceCache(final ThirdEyeDataSource dataSource) {
+    final DataSourceCache dataSourceCache = mock(DataSourceCache.class);
+    when(dataSourceCache.getDataSource(any())).thenReturn(dataSource);
+    return dataSourceCache;
+  }
+
+  @Test
+  public void testLoadBreakdownWithUnionAll() throws Exception {
+    final ThirdEyeDataSource dataSource = mock(ThirdEyeDataSource.class);
+    when(dataSource.getSqlLanguage()).thenReturn(new TestSqlLanguage(true));
+    when(dataSource.getSqlExpressionBuilder()).thenReturn(SQL_EXPRESSION_BUILDER);
+    when(dataSource.fetchDataTableAsync(any())).thenReturn(CompletableFuture.completedFuture(
+        SimpleDataTable.fromDataFrame(new DataFrame()
+            .addSeries(Constants.COL_VALUE, DoubleSeries.buildFrom(30, 10, 25))
+            .addSeries(COL_DIMENSION_NAME, StringSeries.buildFrom("country", "country", "browser"))
+            .addSeries(COL_DIMENSION_VALUE, StringSeries.buildFrom("US", "FR", "chrome")))));
+
+    final DataFrame breakdown = new DefaultAggregationLoader(dataSourceCache(dataSource))
+        .loadBreakdown(slice(), 5);
+
+    final ArgumentCaptor<DataSourceRequest> requestCaptor = ArgumentCaptor.forClass(
+        DataSourceRequest.class);
+    verify(dataSource, times(1)).fetchDataTableAsync(requestCaptor.capture());
+    final String query = requestCaptor.getValue().getQuery();
+    assertThat(query).contains("UNION ALL");
+    assertThat(query).contains("'country' AS \"dimName\"");
+    assertThat(query).contains("CAST(\"browser\" AS VARCHAR) AS \"dimValue\"");
+    assertThat(breakdown.size()).isEqualTo(3);
+    assertThat(DefaultAggregationLoader.makeBreakdownMap(breakdown, new DataFrame()))
+        .containsOnlyKeys("country", "browser");
+  }
+
+  @Test
+  public void testLoadBreakdownFallsBackToOneQueryPerDimension() throws Exception {
+    final ThirdEyeDataSource dataSource = mock(ThirdEyeDataSource.class);
+    when(dataSource.getSqlLanguage()).thenReturn(new TestSqlLanguage(false));
+    when(dataSource.getSqlExpressionBuilder()).thenReturn(SQL_EXPRESSION_BUILDER);
+    when(dataSource.fetchDataTableAsync(any())).thenAnswer(invocation -> {
+      final String query = invocation.getArgument(0, DataSourceRequest.class).getQuery();
+      final String dimension = query.contains("\"country\"") ? "country" : "browser";
+      return CompletableFuture.completedFuture(SimpleDataTable.fromDataFrame(new DataFrame()
+          .addSeries(Constants.COL_VALUE, DoubleSeries.buildFrom(30))
+          .addSeries(dimension, StringSeries.buildFrom("value"))));
+    });
+
+    final DataFrame breakdown = new DefaultAggregationLoader(dataSourceCache(dataSource))
+        .loadBreakdown(slice(), 5);
+
+    verify(dataSource, times(2)).fetchDataTableAsync(any());
+    assertThat(breakdown.size()).isEqualTo(2);
+  }
+
+  @Test
+  public void testLoadBreakdownFallsBackWhenTheUnionAllQueryFails() throws Exception {
+    final ThirdEyeDataSource dataSource = mock(ThirdEyeDataSource.class);
+    when(dataSource.getSqlLanguage()).thenReturn(new TestSqlLanguage(true));
+    when(dataSource.getSqlExpressionBuilder()).thenReturn(SQL_EXPRESSION_BUILDER);
+    when(dataSource.fetchDataTableAsync(any())).thenAnswer(invocation -> {
+      final String query = invocation.getArgument(0, DataSourceRequest.class).getQuery();
+      if (query.contains("UNION ALL")) {
+        return CompletableFuture.failedFuture(new RuntimeException("UNION ALL not supported"));
+      }
+      final String dimension = query.contains("\"country\"") ? "country" : "browser";
+      return CompletableFuture.completedFuture(SimpleDataTable.fromDataFrame(new DataFrame()
+          .addSeries(Constants.COL_VALUE, DoubleSeries.buildFrom(30))
+          .addSeries(dimension, StringSeries.buildFrom("value"))));
+    });
+
+    final DataFrame breakdown = new DefaultAggregationLoader(dataSourceCache(dataSource))
+        .loadBreakdown(slice(), 5);
+
+    // 1 failed UNION ALL query, then 1 query per dimension
+    verify(dataSource, times(3)).fetchDataTableAsync(any());
+    assertThat(breakdown.size()).isEqualTo(2);
+    assertThat(DefaultAggregationLoader.makeBreakdownMap(breakdown, new DataFrame()))
+        .containsOnlyKeys("country", "browser");
+  }
+
+  private record TestSqlLanguage(boolean supportsUnionAll) implements SqlLanguage {
+
+    private static final ThirdEyeSqlParserConfig SQL_PARSER_CONFIG = new ThirdEyeSqlParserConfig.Builder()
+        .withLex("MYSQL_ANSI")
+        .withConformance("BABEL")
+        .withParserFactory("SqlBabelParserImpl")
+        .build();
+
+    private static final ThirdeyeSqlDialect SQL_DIALECT = new ThirdeyeSqlDialect.Builder()
+        .withBaseDialect("AnsiSqlDialect")
+        .withIdentifierQuoteString("\"")
+        .build();
+
+    @Override
+    public ThirdEyeSqlParserConfig getSqlParserConfig() {
+      return SQL_PARSER_CONFIG;
+    }
+
+    @Override
+    public ThirdeyeSqlDialect getSqlDialect() {
+      return SQL_DIALECT;
+    }
+  }
+}
@@ -832,6 +832,36 @@ public class SelectQueryTranslatorTest {
     assertEquivalent(output, expected);
   }
 
+  @Test
+  public void testGetUnionAllSql() {
+    final SelectQueryTranslator request1 = new SelectQuery(TABLE)
+        .select(STANDARD_AGGREGATION_PROJECTION)
+        .select(QueryProjection.of(COLUMN_NAME_2))
+        .groupBy(QueryProjection.of(COLUMN_NAME_2))
+        .limit(10)
+        .build();
+    final SelectQueryTranslator request2 = new SelectQuery(TABLE)
+        .select(STANDARD_AGGREGATION_PROJECTION)
+        .select(QueryProjection.of(COLUMN_NAME_3))
+        .groupBy(QueryProjection.of(COLUMN_NAME_3))
+        .limit(10)
+        .build();
+    final String output = SelectQueryTranslator.getUnionAllSql(List.of(request1, request2),
+        SQL_LANGUAGE,
+        SQL_EXPRESSION_BUILDER);
+
+    final String expected = String.format(
+        "SELECT * FROM (SELECT SUM(\"%1$s\"), \"%2$s\" FROM \"%4$s\" GROUP BY \"%2$s\" FETCH NEXT 10 ROWS ONLY) AS \"teUnion0\" "
+            + "UNION ALL "
+            + "SELECT * FROM (SELECT SUM(\"%1$s\"), \"%3$s\" FROM \"%4$s\" GROUP BY \"%3$s\" FETCH NEXT 10 ROWS ONLY) AS \"teUnion1\"",
+        COLUMN_NAME_1,
+        COLUMN_NAME_2,
+        COLUMN_NAME_3,
+        TABLE);
+
+    assertEquivalent(output, expected);
+  }
+
   // TODO cyril - should be easy to express:
   //  a timeseries --> with timegrouping
   //  a breakdown on a time interval, with the standard format of the time column (no datetimeconvert)
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.detectionpipeline.sql.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ai.startree.thirdeye.detectionpipeline.sql.filter.EnumerationFanInEngine.FanInQuery;
+import ai.startree.thirdeye.spi.datasource.macro.SqlLanguage;
+import ai.startree.thirdeye.spi.datasource.macro.ThirdEyeSqlParserConfig;
+import ai.startree.thirdeye.spi.datasource.macro.ThirdeyeSqlDialect;
+import java.util.List;
+import org.testng.annotations.Test;
+
+public class EnumerationFanInEngineTest {
+
+  private static final SqlLanguage SQL_LANGUAGE = new TestPinotLikeSqlLanguage();
+
+  private static String itemQuery(final String filters) {
+    return "SELECT __timeGroup(dateCol, 'EPOCH', 'P1D') AS ts, SUM(views) AS met FROM pageviews "
+        + "WHERE __timeFilter(dateCol, 'EPOCH') " + filters + " GROUP BY ts ORDER BY ts LIMIT 1000";
+  }
+
+  @Test
+  public void testQueriesDifferingByDimensionFiltersAreMerged() {
+    final FanInQuery fanInQuery = new EnumerationFanInEngine(SQL_LANGUAGE, List.of(
+        itemQuery("AND country = 'US' AND browser = 'chrome'"),
+        itemQuery("AND country = 'FR' AND browser = 'chrome'"),
+        itemQuery("AND (country = 'US') AND browser = 'safari'")
+    )).prepareQuery();
+
+    assertThat(fanInQuery).isNotNull();
+    assertThat(fanInQuery.dimensionAliases()).containsExactly("enumerationDimension0",
+        "enumerationDimension1");
+    assertThat(fanInQuery.itemDimensionValues()).containsExactly(
+        List.of("US", "chrome"),
+        List.of("FR", "chrome"),
+        List.of("US", "safari"));
+    assertThat(cleanSql(fanInQuery.query())).isEqualTo(cleanSql(
+        "SELECT \"__timeGroup\"(\"dateCol\", 'EPOCH', 'P1D') AS \"ts\", SUM(\"views\") AS \"met\", "
+            + "\"country\" AS \"enumerationDimension0\", \"browser\" AS \"enumerationDimension1\" "
+            + "FROM \"pageviews\" WHERE \"__timeFilter\"(\"dateCol\", 'EPOCH') "
+            + "AND (\"country\" IN ('US', 'FR')) AND (\"browser\" IN ('chrome', 'safari')) "
+            + "GROUP BY \"ts\", \"country\", \"browser\" ORDER BY \"ts\" "
+            + "FETCH NEXT 100000 ROWS ONLY"));
+    assertThat(fanInQuery.limit()).isEqualTo(EnumerationFanInEngine.GROUPED_QUERY_LIMIT);
+    assertThat(fanInQuery.itemLimit()).isEqualTo(1000L);
+  }
+
+  @Test
+  public void testGroupedQueryWithoutLimitHasAnExplicitLimit() {
+    final FanInQuery fanInQuery = new EnumerationFanInEngine(SQL_LANGUAGE, List.of(
+        "SELECT ts, SUM(views) FROM pageviews WHERE country = 'US' GROUP BY ts",
+        "SELECT ts, SUM(views) FROM pageviews WHERE country = 'FR' GROUP BY ts"
+    )).prepareQuery();
+
+    assertThat(fanInQuery).isNotNull();
+    assertThat(fanInQuery.itemLimit()).isNull();
+    assertThat(cleanSql(fanInQuery.query())).isEqualTo(cleanSql(
+        "SELECT \"ts\", SUM(\"views\"), \"country\" AS \"enumerationDimension0\" "
+            + "FROM \"pageviews\" WHERE (\"country\" IN ('US', 'FR')) "
+            + "GROUP BY \"ts\", \"country\" FETCH NEXT 100000 ROWS ONLY"));
+  }
+
+  @Test
+  public void testIsComplete() {
+    final FanInQuery fanInQuery = new EnumerationFanInEngine(SQL_LANGUAGE, List.of(
+        itemQuery("AND country = 'US'"),
+        itemQuery("AND country = 'FR'")
+    )).prepareQuery();
+
+    assertThat(fanInQuery).isNotNull();
+    assertThat(fanInQuery.isComplete(2000, 1000)).isTrue();
+    // an item has more rows than the LIMIT of its query
+    assertThat(fanInQuery.isComplete(2000, 1001)).isFalse();
+    // the grouped query may be truncated
+    assertThat(fanInQuery.isComplete(EnumerationFanInEngine.GROUPED_QUERY_LIMIT, 10)).isFalse();
+  }
+
+  @Test
+  public void testQueriesWithOffsetAreNotMerged() {
+    assertThat(new EnumerationFanInEngine(SQL_LANGUAGE, List.of(
+        itemQuery("AND country = 'US'").replace("LIMIT 1000", "LIMIT 1000 OFFSET 10"),
+        itemQuery("AND country = 'FR'").replace("LIMIT 1000", "LIMIT 1000 OFFSET 10")
+    )).prepareQuery()).isNull();
+  }
+
+  @Test
+  public void testSharedDimensionFilterIsKept() {
+    final FanInQuery fanInQuery = new EnumerationFanInEngine(SQL_LANGUAGE, List.of(
+        itemQuery("AND country = 'US' AND browser = 'chrome'"),
+        itemQuery("AND country = 'US' AND browser = 'safari'")
+    )).prepareQuery();
+
+    assertThat(fanInQuery).isNotNull();
+    assertThat(fanInQuery.itemDimensionValues()).containsExactly(List.of("chrome"),
+        List.of("safari"));
+    assertThat(fanInQuery.query()).contains("\"country\" = 'US'");
+  }
+
+  @Test
+  public void testQueriesWithDifferentTemplatesAreNotMerged() {
+    final String otherMetric = itemQuery("AND country = 'FR'").replace("SUM(views)", "MAX(views)");
+    assertThat(new EnumerationFanInEngine(SQL_LANGUAGE,
+        List.of(itemQuery("AND country = 'US'"), otherMetric)).prepareQuery()).isNull();
+  }
+
+  @Test
+  public void testNonEqualityFiltersAreNotMerged() {
+    assertThat(new EnumerationFanInEngine(SQL_LANGUAGE, List.of(
+        itemQuery("AND views > 10"),
+        itemQuery("AND views > 20")
+    )).prepareQuery()).isNull();
+    // different dimensions
+    assertThat(new EnumerationFanInEngine(SQL_LANGUAGE, List.of(
+        itemQuery("AND country = 'US'"),
+        itemQuery("AND browser = 'chrome'")
+    )).prepareQuery()).isNull();
+  }
+
+  @Test
+  public void testQueriesWithoutGroupByAreNotMerged() {
+    assertThat(new EnumerationFanInEngine(SQL_LANGUAGE, List.of(
+        "SELECT views FROM pageviews WHERE country = 'US'",
+        "SELECT views FROM pageviews WHERE country = 'FR'"
+    )).prepareQuery()).isNull();
+  }
+
+  private static String cleanSql(final String sql) {
+    return sql.replaceAll("\\s+", " ").trim();
+  }
+
+  private static class TestPinotLikeSqlLanguage implements SqlLanguage {
+
+    private static final ThirdEyeSqlParserConfig SQL_PARSER_CONFIG = new ThirdEyeSqlParserConfig.Builder().withLex(
+        "MYSQL_ANSI").withConformance("BABEL").withParserFactory("SqlBabelParserImpl").build();
+
+    private static final ThirdeyeSqlDialect SQL_DIALECT = new ThirdeyeSqlDialect.Builder().withBaseDialect(
+            "AnsiSqlDialect")
+        .withIdentifierQuoteString("\"")
+        .withIdentifierEscapedQuoteString("")
+        .build();
+
+    @Override
+    public ThirdEyeSqlParserConfig getSqlParserConfig() {
+      return SQL_PARSER_CONFIG;
+    }
+
+    @Override
+    public ThirdeyeSqlDialect getSqlDialect() {
+      return SQL_DIALECT;
+    }
+  }
+}
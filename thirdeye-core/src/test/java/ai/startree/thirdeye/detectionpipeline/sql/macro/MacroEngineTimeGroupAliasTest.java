@@ -0,0 +1,120 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.detectionpipeline.sql.macro;
+
+import static ai.startree.thirdeye.spi.datasource.macro.MacroMetadataKeys.TIME_GROUP_ALIAS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ai.startree.thirdeye.spi.datasource.DataSourceRequest;
+import ai.startree.thirdeye.spi.datasource.macro.SqlExpressionBuilder;
+import ai.startree.thirdeye.spi.datasource.macro.SqlLanguage;
+import ai.startree.thirdeye.spi.datasource.macro.ThirdEyeSqlParserConfig;
+import ai.startree.thirdeye.spi.datasource.macro.ThirdeyeSqlDialect;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.Interval;
+import org.joda.time.Period;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the queries that are eligible to the incremental fetch - see TIME_GROUP_ALIAS.
+ */
+public class MacroEngineTimeGroupAliasTest {
+
+  private static final Interval INTERVAL = new Interval(
+      new DateTime(2022, 1, 1, 0, 0, 0, DateTimeZone.UTC),
+      new DateTime(2022, 1, 2, 0, 0, 0, DateTimeZone.UTC));
+  private static final String TIME_GROUP = "__timeGroup(ts, 'EPOCH_MILLIS', 'P1D')";
+  private static final String TIME_FILTER = "__timeFilter(ts, 'EPOCH_MILLIS')";
+
+  private static final SqlLanguage SQL_LANGUAGE = new SqlLanguage() {
+    private final ThirdEyeSqlParserConfig sqlParserConfig = new ThirdEyeSqlParserConfig.Builder()
+        .withLex("MYSQL_ANSI")
+        .withConformance("BABEL")
+        .withParserFactory("SqlBabelParserImpl")
+        .build();
+    private final ThirdeyeSqlDialect sqlDialect = new ThirdeyeSqlDialect.Builder()
+        .withBaseDialect("AnsiSqlDialect")
+        .withIdentifierQuoteString("\"")
+        .build();
+
+    @Override
+    public ThirdEyeSqlParserConfig getSqlParserConfig() {
+      return sqlParserConfig;
+    }
+
+    @Override
+    public ThirdeyeSqlDialect getSqlDialect() {
+      return sqlDialect;
+    }
+  };
+
+  private static final SqlExpressionBuilder SQL_EXPRESSION_BUILDER = new SqlExpressionBuilder() {
+    @Override
+    public String getTimeFilterExpression(final String timeColumn, final Interval filterInterval,
+        final @Nullable String timeColumnFormat) {
+      return timeColumn + " >= " + filterInterval.getStartMillis() + " AND " + timeColumn + " < "
+          + filterInterval.getEndMillis();
+    }
+
+    @Override
+    public String getTimeGroupExpression(final String timeColumn,
+        final @Nullable String timeFormat, final Period granularity,
+        final @Nullable String timezone) {
+      return "bucketStart(" + timeColumn + ", " + granularity.toStandardDuration().getMillis() + ")";
+    }
+  };
+
+  private static DataSourceRequest prepareRequest(final String query) {
+    return new MacroEngine(SQL_LANGUAGE, SQL_EXPRESSION_BUILDER, INTERVAL, null, query)
+        .prepareRequest();
+  }
+
+  @Test
+  public void testTimeGroupAliasIsSetForASimpleAggregation() {
+    final DataSourceRequest request = prepareRequest(String.format(
+        "SELECT %s AS ts, country, SUM(views) AS v FROM pageviews WHERE %s GROUP BY 1, 2",
+        TIME_GROUP, TIME_FILTER));
+
+    assertThat(request.getProperties()).containsEntry(TIME_GROUP_ALIAS.toString(), "ts");
+  }
+
+  @DataProvider(name = "notAppendableQueries")
+  public Object[][] notAppendableQueries() {
+    final String select = "SELECT " + TIME_GROUP + " AS ts, country, SUM(views) AS v";
+    final String where = " FROM pageviews WHERE " + TIME_FILTER;
+    final String groupBy = " GROUP BY 1, 2";
+    return new Object[][]{
+        {select + where + groupBy + " ORDER BY v DESC"},
+        {select + where + groupBy + " LIMIT 10"},
+        {select + where + groupBy + " LIMIT 10 OFFSET 5"},
+        {select + where + groupBy + " HAVING SUM(views) > 10"},
+        {"SELECT " + TIME_GROUP + " AS ts, SUM(SUM(views)) OVER (ORDER BY ts) AS v" + where
+            + " GROUP BY 1"},
+        {select + where + " GROUP BY ROLLUP(1, 2)"},
+        {select + " FROM (SELECT * FROM pageviews ORDER BY views DESC LIMIT 100) AS top WHERE "
+            + TIME_FILTER + groupBy},
+        {select + where + groupBy + " UNION ALL SELECT ts, country, v FROM other"},
+    };
+  }
+
+  @Test(dataProvider = "notAppendableQueries")
+  public void testTimeGroupAliasIsNotSetForNotAppendableQueries(final String query) {
+    final DataSourceRequest request = prepareRequest(query);
+
+    assertThat(request.getProperties()).doesNotContainKey(TIME_GROUP_ALIAS.toString());
+  }
+}
@@ -16,6 +16,7 @@ package ai.startree.thirdeye.util;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 
+import ai.startree.thirdeye.spi.ThirdEyeException;
 import ai.startree.thirdeye.spi.datalayer.Templatable;
 import ai.startree.thirdeye.spi.datalayer.dto.AlertTemplateDTO;
 import ai.startree.thirdeye.spi.datalayer.dto.DatasetConfigDTO;
@@ -77,7 +78,8 @@ public class StringTemplateUtilsTest {
     final Map<String, Object> values = Map.of("k2", "v2");
     assertThatThrownBy(() -> StringTemplateUtils.applyContext(
         new HashMap<>(Map.of("k", "${k1}")),
-        values)).isInstanceOf(com.fasterxml.jackson.databind.JsonMappingException.class);
+        values)).isInstanceOf(com.fasterxml.jackson.databind.JsonMappingException.class)
+        .hasCauseInstanceOf(ThirdEyeException.class);
   }
 
   @Test
@@ -147,7 +149,7 @@ public class StringTemplateUtilsTest {
     final Map<String, Object> properties = Map.of();
 
     assertThatThrownBy(() -> StringTemplateUtils.applyContext(input, properties)).isInstanceOf(
-        JsonMappingException.class);
+        JsonMappingException.class).hasCauseInstanceOf(IllegalArgumentException.class);
   }
 
   @Test
@@ -1557,6 +1557,7 @@ public class DataFrame {
    * Returns a copy of the DataFrame sorted by series values referenced by {@code seriesNames}.
    * The resulting sorted order is the equivalent of applying a stable sort to the nth series
    * first, and then sorting iteratively by series until the 1st series.
+   * Sorting by a long series that is already sorted is a no-op.
    *
    * @param seriesNames 1st series, 2nd series, ..., nth series
    * @return sorted DataFrame copy
@@ -1566,9 +1567,14 @@ public class DataFrame {
     DataFrame df = this;
     for (int i = seriesNames.size() - 1; i >= 0; i--) {
       // TODO support "-series" order inversion
-      df = df.project(df.get(seriesNames.get(i)).sortedIndex());
+      final Series series = df.get(seriesNames.get(i));
+      if (series instanceof LongSeries && ((LongSeries) series).isSorted()) {
+        // a stable sort of a sorted series is the identity
+        continue;
+      }
+      df = df.project(series.sortedIndex());
     }
-    return df;
+    return df == this ? new DataFrame(this) : df;
   }
 
   /**
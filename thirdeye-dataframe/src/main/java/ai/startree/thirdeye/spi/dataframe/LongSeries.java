@@ -232,10 +232,19 @@ public final class LongSeries extends TypedSeries<LongSeries> {
   // CAUTION: The array is final, but values are inherently modifiable
   private final long[] values;
 
+  // ascending order of the values, nulls first. null if unknown. Propagated by order-preserving
+  // operations, computed lazily otherwise. Assumes the values are not modified.
+  private Boolean sorted;
+
   private LongSeries(long... values) {
     this.values = values;
   }
 
+  private LongSeries(long[] values, Boolean sorted) {
+    this.values = values;
+    this.sorted = sorted;
+  }
+
   @Override
   public Builder getBuilder() {
     return new Builder();
@@ -352,7 +361,7 @@ public final class LongSeries extends TypedSeries<LongSeries> {
   public LongSeries slice(int from, int to) {
     from = Math.max(Math.min(this.size(), from), 0);
     to = Math.max(Math.min(this.size(), to), 0);
-    return buildFrom(Arrays.copyOfRange(this.values, from, to));
+    return new LongSeries(Arrays.copyOfRange(this.values, from, to), knownSorted());
   }
 
   @Override
@@ -710,7 +719,15 @@ public final class LongSeries extends TypedSeries<LongSeries> {
     return this.find(value, 0);
   }
 
+  /**
+   * Returns the index of the first occurrence of {@code value} at or after {@code startOffset},
+   * or -1 if not found. Uses a binary search if the series is sorted.
+   */
   public int find(long value, int startOffset) {
+    if (this.isSorted()) {
+      final int index = this.lowerBound(value, Math.max(startOffset, 0));
+      return index < this.values.length && this.values[index] == value ? index : -1;
+    }
     for (int i = startOffset; i < this.values.length; i++) {
       if (this.values[i] == value) {
         return i;
@@ -719,6 +736,81 @@ public final class LongSeries extends TypedSeries<LongSeries> {
     return -1;
   }
 
+  /**
+   * Returns {@code true} if the values are in ascending order, nulls first.
+   * The first call on a series of unknown order is a linear scan, subsequent calls are O(1).
+   */
+  public boolean isSorted() {
+    if (this.sorted == null) {
+      boolean sorted = true;
+      for (int i = 1; i < this.values.length; i++) {
+        if (this.values[i - 1] > this.values[i]) {
+          sorted = false;
+          break;
+        }
+      }
+      this.sorted = sorted;
+    }
+    return this.sorted;
+  }
+
+  /**
+   * Returns the index of the first value greater than or equal to {@code value}, or the size of
+   * the series if there is none. Binary search - the series must be sorted.
+   *
+   * @throws IllegalStateException if the series is not sorted
+   */
+  public int lowerBound(long value) {
+    return this.lowerBound(value, 0);
+  }
+
+  /**
+   * Returns the index of the first value strictly greater than {@code value}, or the size of the
+   * series if there is none. Binary search - the series must be sorted.
+   *
+   * @throws IllegalStateException if the series is not sorted
+   */
+  public int upperBound(long value) {
+    if (!this.isSorted()) {
+      throw new IllegalStateException("Series must be sorted");
+    }
+    int low = 0;
+    int high = this.values.length;
+    while (low < high) {
+      final int mid = (low + high) >>> 1;
+      if (this.values[mid] <= value) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private int lowerBound(long value, int from) {
+    if (!this.isSorted()) {
+      throw new IllegalStateException("Series must be sorted");
+    }
+    int low = from;
+    int high = this.values.length;
+    while (low < high) {
+      final int mid = (low + high) >>> 1;
+      if (this.values[mid] < value) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Returns TRUE if the series is known to be sorted, without computing it.
+   */
+  private Boolean knownSorted() {
+    return Boolean.TRUE.equals(this.sorted) ? Boolean.TRUE : null;
+  }
+
   @Override
   public LongSeries filter(BooleanSeries filter) {
     return this.set(filter.fillNull().not(), NULL);
@@ -754,14 +846,18 @@ public final class LongSeries extends TypedSeries<LongSeries> {
   @Override
   LongSeries project(int[] fromIndex) {
     long[] values = new long[fromIndex.length];
+    // a projection with ascending indices keeps the order
+    boolean ascendingIndex = true;
     for (int i = 0; i < fromIndex.length; i++) {
       if (fromIndex[i] == -1) {
         values[i] = NULL;
+        ascendingIndex = false;
       } else {
         values[i] = this.values[fromIndex[i]];
+        ascendingIndex &= i == 0 || fromIndex[i - 1] <= fromIndex[i];
       }
     }
-    return buildFrom(values);
+    return new LongSeries(values, ascendingIndex ? this.knownSorted() : null);
   }
 
   @Override
@@ -946,12 +1042,21 @@ public final class LongSeries extends TypedSeries<LongSeries> {
   @Override
   public LongSeries sorted() {
     long[] values = Arrays.copyOf(this.values, this.values.length);
-    Arrays.sort(values);
-    return buildFrom(values);
+    if (!this.isSorted()) {
+      Arrays.sort(values);
+    }
+    return new LongSeries(values, Boolean.TRUE);
   }
 
   @Override
   int[] sortedIndex() {
+    if (this.isSorted()) {
+      int[] fromIndex = new int[this.values.length];
+      for (int i = 0; i < fromIndex.length; i++) {
+        fromIndex[i] = i;
+      }
+      return fromIndex;
+    }
     List<LongSortTuple> tuples = new ArrayList<>();
     for (int i = 0; i < this.values.length; i++) {
       tuples.add(new LongSortTuple(this.values[i], i));
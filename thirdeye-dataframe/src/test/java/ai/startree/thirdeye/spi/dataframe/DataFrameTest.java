@@ -641,6 +641,49 @@ public class DataFrameTest {
     assertEquals(in.sorted(), LNULL, 3, 5, 13, 15, 19);
   }
 
+  @Test
+  public void testLongIsSorted() {
+    assertThat(DataFrame.toSeries(LNULL, 3, 3, 5).isSorted()).isTrue();
+    assertThat(DataFrame.toSeries(3, LNULL, 5).isSorted()).isFalse();
+    assertThat(LongSeries.empty().isSorted()).isTrue();
+
+    final LongSeries sorted = DataFrame.toSeries(3, 15, 13, 5).sorted();
+    assertThat(sorted.isSorted()).isTrue();
+    assertThat(sorted.slice(1, 3).isSorted()).isTrue();
+    assertThat(sorted.project(new int[]{0, 2, 3}).isSorted()).isTrue();
+    assertThat(sorted.project(new int[]{2, 0}).isSorted()).isFalse();
+    assertThat(sorted.project(new int[]{-1, 0}).isSorted()).isTrue();
+    assertThat(sorted.project(new int[]{0, -1}).isSorted()).isFalse();
+  }
+
+  @Test
+  public void testLongFindSorted() {
+    final LongSeries in = DataFrame.toSeries(1, 3, 3, 3, 7);
+    assertThat(in.find(3)).isEqualTo(1);
+    assertThat(in.find(3, 2)).isEqualTo(2);
+    assertThat(in.find(3, 4)).isEqualTo(-1);
+    assertThat(in.find(4)).isEqualTo(-1);
+    assertThat(in.find(8)).isEqualTo(-1);
+    assertThat(in.find(3, 10)).isEqualTo(-1);
+    assertThat(DataFrame.toSeries(7, 3, 1, 3).find(3, 2)).isEqualTo(3);
+  }
+
+  @Test
+  public void testLongLowerUpperBound() {
+    final LongSeries in = DataFrame.toSeries(1, 3, 3, 3, 7);
+    assertThat(in.lowerBound(0)).isEqualTo(0);
+    assertThat(in.lowerBound(3)).isEqualTo(1);
+    assertThat(in.upperBound(3)).isEqualTo(4);
+    assertThat(in.lowerBound(4)).isEqualTo(4);
+    assertThat(in.upperBound(4)).isEqualTo(4);
+    assertThat(in.upperBound(7)).isEqualTo(5);
+  }
+
+  @Test(expectedExceptions = IllegalStateException.class)
+  public void testLongLowerBoundUnsorted() {
+    DataFrame.toSeries(3, 1).lowerBound(1);
+  }
+
   @Test
   public void testSortString() {
     StringSeries in = DataFrame.toSeries("b", "a", "ba", "ab", "aa", SNULL);
@@ -699,6 +742,17 @@ public class DataFrameTest {
     assertEquals(df.getLongs("long"), 2, 1, -2, 0, 1);
   }
 
+  @Test
+  public void testSortBySortedLongIsNoOp() {
+    df = new DataFrame()
+        .addSeries("time", 1, 2, 2, 5)
+        .addSeries("value", 4.0, 3.0, 2.0, 1.0);
+    final DataFrame sortedDf = df.sortedBy("time");
+    assertThat(sortedDf).isNotSameAs(df);
+    assertThat(sortedDf.get("value")).isSameAs(df.get("value"));
+    assertEquals(sortedDf.getDoubles("value"), 4.0, 3.0, 2.0, 1.0);
+  }
+
   @Test
   public void testSortByString() {
     df = df.addSeries("myseries", "b", "aa", "bb", "c", "a");
@@ -15,6 +15,7 @@ package ai.startree.thirdeye.detectionpipeline;
 
 import ai.startree.thirdeye.datalayer.core.EnumerationItemMaintainer;
 import ai.startree.thirdeye.datasource.cache.DataSourceCache;
+import ai.startree.thirdeye.detectionpipeline.components.IncrementalFetchCache;
 import ai.startree.thirdeye.spi.datalayer.bao.DataSourceManager;
 import ai.startree.thirdeye.spi.datalayer.bao.DatasetConfigManager;
 import ai.startree.thirdeye.spi.datalayer.bao.EventManager;
@@ -26,5 +27,7 @@ public record ApplicationContext(DataSourceCache dataSourceCache,
                                  EventManager eventManager, DataSourceManager dataSourceDao,
                                  DatasetConfigManager datasetConfigManager,
                                  ExecutorService subTaskExecutor,
+                                 ExecutorService forkJoinItemExecutor,
                                  DetectionPipelineConfiguration configuration,
-                                 EnumerationItemMaintainer enumerationItemMaintainer) {}
+                                 EnumerationItemMaintainer enumerationItemMaintainer,
+                                 IncrementalFetchCache incrementalFetchCache) {}
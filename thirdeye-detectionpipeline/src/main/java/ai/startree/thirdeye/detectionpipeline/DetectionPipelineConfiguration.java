@@ -16,6 +16,12 @@ package ai.startree.thirdeye.detectionpipeline;
 public class DetectionPipelineConfiguration {
 
   private ForkJoinConfiguration forkjoin = new ForkJoinConfiguration();
+  /**
+   * If true, independent branches of the pipeline DAG are executed concurrently on the fork-join
+   * executor. If false, nodes are executed depth-first on the calling thread.
+   */
+  private boolean parallelNodeExecution = false;
+  private IncrementalFetchConfiguration incrementalFetch = new IncrementalFetchConfiguration();
 
   public ForkJoinConfiguration getForkjoin() {
     return forkjoin;
@@ -26,4 +32,24 @@ public class DetectionPipelineConfiguration {
     this.forkjoin = forkjoin;
     return this;
   }
+
+  public boolean isParallelNodeExecution() {
+    return parallelNodeExecution;
+  }
+
+  public DetectionPipelineConfiguration setParallelNodeExecution(
+      final boolean parallelNodeExecution) {
+    this.parallelNodeExecution = parallelNodeExecution;
+    return this;
+  }
+
+  public IncrementalFetchConfiguration getIncrementalFetch() {
+    return incrementalFetch;
+  }
+
+  public DetectionPipelineConfiguration setIncrementalFetch(
+      final IncrementalFetchConfiguration incrementalFetch) {
+    this.incrementalFetch = incrementalFetch;
+    return this;
+  }
 }
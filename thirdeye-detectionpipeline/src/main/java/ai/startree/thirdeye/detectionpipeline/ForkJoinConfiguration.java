@@ -19,6 +19,12 @@ public class ForkJoinConfiguration {
 
   private Integer parallelism = 5;
   private Duration timeout = Duration.ofHours(1);
+  /**
+   * Whether a fork-join node succeeds with the results of the other items when some of its
+   * enumeration items fail. Off by default: the detection of the failed items would be skipped
+   * for the detection interval.
+   */
+  private boolean partialFailureAllowed = false;
 
   public Integer getParallelism() {
     return parallelism;
@@ -37,4 +43,13 @@ public class ForkJoinConfiguration {
     this.timeout = timeout;
     return this;
   }
+
+  public boolean isPartialFailureAllowed() {
+    return partialFailureAllowed;
+  }
+
+  public ForkJoinConfiguration setPartialFailureAllowed(final boolean partialFailureAllowed) {
+    this.partialFailureAllowed = partialFailureAllowed;
+    return this;
+  }
 }
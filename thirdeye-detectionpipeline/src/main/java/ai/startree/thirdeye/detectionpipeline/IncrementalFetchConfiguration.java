@@ -0,0 +1,62 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.detectionpipeline;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the incremental fetch of detection data. When enabled, the time buckets of a
+ * dataset that are older than its mutabilityPeriod are cached between runs, and only the newer
+ * buckets are queried. Datasets without mutabilityPeriod are always fully queried.
+ */
+public class IncrementalFetchConfiguration {
+
+  private boolean enabled = false;
+  /**
+   * Max number of cells (rows x columns) cached, over all the queries.
+   */
+  private long maxCells = 20_000_000;
+  /**
+   * Cached buckets are fully re-fetched after this duration, to pick up late corrections of the
+   * data.
+   */
+  private Duration maxStaleness = Duration.ofHours(6);
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public IncrementalFetchConfiguration setEnabled(final boolean enabled) {
+    this.enabled = enabled;
+    return this;
+  }
+
+  public long getMaxCells() {
+    return maxCells;
+  }
+
+  public IncrementalFetchConfiguration setMaxCells(final long maxCells) {
+    this.maxCells = maxCells;
+    return this;
+  }
+
+  public Duration getMaxStaleness() {
+    return maxStaleness;
+  }
+
+  public IncrementalFetchConfiguration setMaxStaleness(final Duration maxStaleness) {
+    this.maxStaleness = maxStaleness;
+    return this;
+  }
+}
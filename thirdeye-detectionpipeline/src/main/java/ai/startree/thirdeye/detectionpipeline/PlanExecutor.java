@@ -21,6 +21,7 @@ import static java.util.Collections.emptyList;
 
 import ai.startree.thirdeye.datalayer.core.EnumerationItemMaintainer;
 import ai.startree.thirdeye.datasource.cache.DataSourceCache;
+import ai.startree.thirdeye.detectionpipeline.components.IncrementalFetchCache;
 import ai.startree.thirdeye.detectionpipeline.persistence.CachedDatasetConfigManager;
 import ai.startree.thirdeye.spi.datalayer.bao.DataSourceManager;
 import ai.startree.thirdeye.spi.datalayer.bao.DatasetConfigManager;
@@ -32,17 +33,31 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 @Singleton
 public class PlanExecutor implements AutoCloseable {
 
+  private static final Logger LOG = LoggerFactory.getLogger(PlanExecutor.class);
+
   public static final String ROOT_NODE_NAME = "root";
 
   private final PlanNodeFactory planNodeFactory;
@@ -55,8 +70,14 @@ public class PlanExecutor implements AutoCloseable {
   private final DatasetConfigManager datasetConfigManager;
   private final DetectionPipelineConfiguration detectionPipelineConfiguration;
   private final EnumerationItemMaintainer enumerationItemMaintainer;
+  private final IncrementalFetchCache incrementalFetchCache;
 
   private final ExecutorService subTaskExecutor;
+  /**
+   * Runs the enumeration items of fork-join nodes. Separate from the subTaskExecutor: a fork-join
+   * node running on the subTaskExecutor blocks until its items complete.
+   */
+  private final ExecutorService forkJoinItemExecutor;
 
   @Inject
   public PlanExecutor(final PlanNodeFactory planNodeFactory,
@@ -66,7 +87,8 @@ public class PlanExecutor implements AutoCloseable {
       final EventManager eventManager,
       final DataSourceManager dataSourceDao, final DatasetConfigManager datasetConfigManager,
       final DetectionPipelineConfiguration detectionPipelineConfiguration,
-      final EnumerationItemMaintainer enumerationItemMaintainer) {
+      final EnumerationItemMaintainer enumerationItemMaintainer,
+      final IncrementalFetchCache incrementalFetchCache) {
     this.planNodeFactory = planNodeFactory;
     this.dataSourceCache = dataSourceCache;
     this.detectionRegistry = detectionRegistry;
@@ -76,11 +98,16 @@ public class PlanExecutor implements AutoCloseable {
     this.datasetConfigManager = datasetConfigManager;
     this.detectionPipelineConfiguration = detectionPipelineConfiguration;
     this.enumerationItemMaintainer = enumerationItemMaintainer;
+    this.incrementalFetchCache = incrementalFetchCache;
 
     final int nThreads = detectionPipelineConfiguration.getForkjoin().getParallelism();
     subTaskExecutor = Executors.newFixedThreadPool(nThreads, threadsNamed("fork-join-%d"));
     new ExecutorServiceMetrics(subTaskExecutor, "fork-join", emptyList()).bindTo(
         Metrics.globalRegistry);
+    forkJoinItemExecutor = Executors.newFixedThreadPool(nThreads,
+        threadsNamed("fork-join-item-%d"));
+    new ExecutorServiceMetrics(forkJoinItemExecutor, "fork-join-item", emptyList()).bindTo(
+        Metrics.globalRegistry);
   }
 
   @VisibleForTesting
@@ -91,22 +118,141 @@ public class PlanExecutor implements AutoCloseable {
     for (final InputBean input : optional(node.getPlanNodeInputs()).orElse(emptyList())) {
       final ContextKey contextKey = key(input.getSourcePlanNode(), input.getSourceProperty());
       if (!resultMap.containsKey(contextKey)) {
-        final PlanNode inputPlanNode = pipelinePlanNodes.get(input.getSourcePlanNode());
-        checkArgument(inputPlanNode != null,
-            "sourcePlanNode \"%s\" found in \"%s\" node configuration does not exist. Template is invalid.",
-            input.getSourcePlanNode(),
-            node.getName());
+        final PlanNode inputPlanNode = getInputPlanNode(pipelinePlanNodes, node, input);
         executePlanNode(pipelinePlanNodes, inputPlanNode, resultMap);
       }
+    }
+    runOperator(node, resultMap);
+  }
+
+  /**
+   * Executes the DAG needed to compute the outputs of the given node. Every node is submitted to
+   * the executor as soon as all its inputs are resolved, so independent branches of the DAG run
+   * concurrently. No thread of the executor blocks waiting for another node.
+   *
+   * @param resultMap must be thread-safe
+   */
+  @VisibleForTesting
+  public static void executePlanNodeInParallel(final Map<String, PlanNode> pipelinePlanNodes,
+      final PlanNode node,
+      final Map<ContextKey, OperatorResult> resultMap,
+      final Executor executor) throws Exception {
+    final CompletableFuture<Void> future = schedulePlanNode(pipelinePlanNodes,
+        node,
+        resultMap,
+        executor,
+        new HashMap<>(),
+        new HashSet<>());
+    try {
+      future.get();
+    } catch (final ExecutionException e) {
+      final Throwable cause = e.getCause() instanceof CompletionException
+          ? e.getCause().getCause()
+          : e.getCause();
+      if (cause instanceof Exception) {
+        throw (Exception) cause;
+      }
+      throw e;
+    } catch (final InterruptedException e) {
+      future.cancel(true);
+      throw e;
+    }
+  }
+
+  private static CompletableFuture<Void> schedulePlanNode(
+      final Map<String, PlanNode> pipelinePlanNodes,
+      final PlanNode node,
+      final Map<ContextKey, OperatorResult> resultMap,
+      final Executor executor,
+      final Map<String, CompletableFuture<Void>> scheduled,
+      final Set<String> visiting) {
+    final CompletableFuture<Void> existing = scheduled.get(node.getName());
+    if (existing != null) {
+      return existing;
+    }
+    checkArgument(visiting.add(node.getName()),
+        "Cycle detected in the pipeline DAG at node \"%s\". Template is invalid.",
+        node.getName());
+    final List<CompletableFuture<Void>> dependencies = new ArrayList<>();
+    for (final InputBean input : optional(node.getPlanNodeInputs()).orElse(emptyList())) {
+      final ContextKey contextKey = key(input.getSourcePlanNode(), input.getSourceProperty());
       if (!resultMap.containsKey(contextKey)) {
+        final PlanNode inputPlanNode = getInputPlanNode(pipelinePlanNodes, node, input);
+        dependencies.add(schedulePlanNode(pipelinePlanNodes,
+            inputPlanNode,
+            resultMap,
+            executor,
+            scheduled,
+            visiting));
+      }
+    }
+    visiting.remove(node.getName());
+
+    final CompletableFuture<Void> future = CompletableFuture
+        .allOf(dependencies.toArray(new CompletableFuture[0]))
+        .thenRunAsync(() -> {
+          try {
+            runOperator(node, resultMap);
+          } catch (final Exception e) {
+            throw new CompletionException(e);
+          }
+        }, executor);
+    scheduled.put(node.getName(), future);
+    return future;
+  }
+
+  private static PlanNode getInputPlanNode(final Map<String, PlanNode> pipelinePlanNodes,
+      final PlanNode node, final InputBean input) {
+    final PlanNode inputPlanNode = pipelinePlanNodes.get(input.getSourcePlanNode());
+    checkArgument(inputPlanNode != null,
+        "sourcePlanNode \"%s\" found in \"%s\" node configuration does not exist. Template is invalid.",
+        input.getSourcePlanNode(),
+        node.getName());
+    return inputPlanNode;
+  }
+
+  /**
+   * Sets the inputs of the node from the resultMap, executes its operator and publishes its
+   * outputs to the resultMap. All inputs must be available in the resultMap.
+   */
+  private static void runOperator(final PlanNode node,
+      final Map<ContextKey, OperatorResult> resultMap) throws Exception {
+    for (final InputBean input : optional(node.getPlanNodeInputs()).orElse(emptyList())) {
+      final ContextKey contextKey = key(input.getSourcePlanNode(), input.getSourceProperty());
+      final OperatorResult inputResult = resultMap.get(contextKey);
+      if (inputResult == null) {
         throw new RuntimeException("Missing resultMap key - " + contextKey);
       }
-      node.setInput(input.getTargetProperty(), resultMap.get(contextKey));
+      node.setInput(input.getTargetProperty(), inputResult);
+    }
+    final Timer.Sample sample = Timer.start(Metrics.globalRegistry);
+    final Operator operator;
+    String exception = "none";
+    try {
+      operator = node.buildOperator();
+      operator.execute();
+    } catch (final Exception e) {
+      exception = e.getClass().getSimpleName();
+      throw e;
+    } finally {
+      final long durationNanos = sample.stop(Timer.builder("thirdeye_plan_node_execution")
+          .description("Time taken to build and execute the operator of a plan node")
+          .tag("type", String.valueOf(node.getType()))
+          .tag("exception", exception)
+          .register(Metrics.globalRegistry));
+      LOG.debug("Executed node {} of type {} in {} ms",
+          node.getName(),
+          node.getType(),
+          TimeUnit.NANOSECONDS.toMillis(durationNanos));
     }
-    final Operator operator = node.buildOperator();
-    operator.execute();
     final Map<String, OperatorResult> outputs = operator.getOutputs();
     for (final Entry<String, OperatorResult> output : outputs.entrySet()) {
+      // null outputs are not published: the parallel execution uses a map that rejects null values.
+      // A node consuming a null output fails with a missing key in both execution modes.
+      if (output.getValue() == null) {
+        LOG.debug("Node {} returned a null output {}. Skipping it.", node.getName(), output.getKey());
+        continue;
+      }
       resultMap.put(key(node.getName(), output.getKey()), output.getValue());
     }
   }
@@ -139,8 +285,10 @@ public class PlanExecutor implements AutoCloseable {
         /* Use a caching instance for pipeline execution. Ensures dataset entity is consistent across nodes and is only fetched once. */
         new CachedDatasetConfigManager(datasetConfigManager),
         subTaskExecutor,
+        forkJoinItemExecutor,
         detectionPipelineConfiguration,
-        enumerationItemMaintainer);
+        enumerationItemMaintainer,
+        incrementalFetchCache);
   }
 
   /**
@@ -195,11 +343,16 @@ public class PlanExecutor implements AutoCloseable {
         planNodeBeans,
         context);
 
-    /* The context stores all the outputs from all the nodes */
-    final Map<ContextKey, OperatorResult> resultMap = new HashMap<>();
-
     /* Execute the DAG */
     final PlanNode rootNode = pipelinePlanNodes.get(rootNodeName);
+    if (detectionPipelineConfiguration.isParallelNodeExecution()) {
+      /* The context stores all the outputs from all the nodes */
+      final Map<ContextKey, OperatorResult> resultMap = new ConcurrentHashMap<>();
+      executePlanNodeInParallel(pipelinePlanNodes, rootNode, resultMap, subTaskExecutor);
+      return resultMap;
+    }
+    /* The context stores all the outputs from all the nodes */
+    final Map<ContextKey, OperatorResult> resultMap = new HashMap<>();
     executePlanNode(pipelinePlanNodes, rootNode, resultMap);
 
     return resultMap;
@@ -224,5 +377,6 @@ public class PlanExecutor implements AutoCloseable {
   @Override
   public void close() throws Exception {
     shutdownExecutionService(subTaskExecutor);
+    shutdownExecutionService(forkJoinItemExecutor);
   }
 }
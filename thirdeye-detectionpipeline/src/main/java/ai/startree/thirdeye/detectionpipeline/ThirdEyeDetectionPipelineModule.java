@@ -28,5 +28,7 @@ public class ThirdEyeDetectionPipelineModule extends AbstractModule {
   protected void configure() {
     bind(DetectionPipelineConfiguration.class).toInstance(detectionPipelineConfiguration);
     bind(ForkJoinConfiguration.class).toInstance(detectionPipelineConfiguration.getForkjoin());
+    bind(IncrementalFetchConfiguration.class).toInstance(
+        detectionPipelineConfiguration.getIncrementalFetch());
   }
 }
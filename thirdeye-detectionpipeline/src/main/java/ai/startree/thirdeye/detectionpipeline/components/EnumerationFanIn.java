@@ -0,0 +1,121 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.detectionpipeline.components;
+
+import ai.startree.thirdeye.detectionpipeline.sql.filter.EnumerationFanInEngine;
+import ai.startree.thirdeye.detectionpipeline.sql.filter.EnumerationFanInEngine.FanInQuery;
+import ai.startree.thirdeye.spi.dataframe.DataFrame;
+import ai.startree.thirdeye.spi.datasource.macro.SqlLanguage;
+import ai.startree.thirdeye.spi.detection.v2.DataTable;
+import ai.startree.thirdeye.spi.detection.v2.SimpleDataTable;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.primitives.Ints;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.joda.time.Interval;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fetches the data of the enumeration items of an alert with a single grouped query, when the
+ * queries of the items only differ by a dimension filter. The grouped data is split per item.
+ * See {@link EnumerationFanInEngine}.
+ *
+ * Item identity is not managed here: the results are returned in the order of the item queries.
+ * Used by the fork-join node. See {@link ai.startree.thirdeye.detectionpipeline.operator.ForkJoinOperator}.
+ */
+public class EnumerationFanIn {
+
+  private static final Logger LOG = LoggerFactory.getLogger(EnumerationFanIn.class);
+
+  private static final Counter FAN_IN_ITEMS_COUNTER = Counter.builder(
+          "thirdeye_enumeration_fan_in_items")
+      .description("Number of enumeration items fetched with a grouped query")
+      .register(Metrics.globalRegistry);
+
+  /**
+   * @param dataFetcher the data fetcher of an item. Its query is replaced by the grouped query.
+   * @param itemQueries the data fetcher query of each item, rendered with the item params
+   * @return the data of each item, in the order of itemQueries, or null if the queries cannot be
+   *     merged or if the grouped result does not contain all the rows of the items.
+   */
+  public static @Nullable List<DataTable> fetch(final GenericDataFetcher dataFetcher,
+      final List<String> itemQueries, final Interval detectionInterval) throws Exception {
+    final SqlLanguage sqlLanguage = dataFetcher.getThirdEyeDataSource().getSqlLanguage();
+    if (sqlLanguage == null) {
+      return null;
+    }
+    final FanInQuery fanInQuery = new EnumerationFanInEngine(sqlLanguage, itemQueries)
+        .prepareQuery();
+    if (fanInQuery == null) {
+      return null;
+    }
+    LOG.debug("Fetching {} enumeration items with grouped query: {}", itemQueries.size(),
+        fanInQuery.query());
+    final DataTable grouped = dataFetcher.setQuery(fanInQuery.query())
+        .getDataTable(detectionInterval);
+    final List<DataTable> itemTables = split(grouped, fanInQuery);
+    if (itemTables == null) {
+      LOG.info("Grouped query of {} enumeration items is incomplete. Fetching items one by one.",
+          itemQueries.size());
+      return null;
+    }
+    FAN_IN_ITEMS_COUNTER.increment(itemQueries.size());
+    return itemTables;
+  }
+
+  /**
+   * @return the data of each item, or null if the grouped data is not complete. See
+   *     {@link FanInQuery#isComplete}.
+   */
+  @VisibleForTesting
+  static @Nullable List<DataTable> split(final DataTable grouped, final FanInQuery fanInQuery) {
+    final DataFrame df = grouped.getDataFrame();
+    final List<String> aliases = fanInQuery.dimensionAliases();
+
+    // single pass on the grouped data - the items are then projected from their row indices
+    final Map<List<String>, List<Integer>> rowsByDimensionValues = new HashMap<>();
+    for (int i = 0; i < df.size(); i++) {
+      final List<String> dimensionValues = new ArrayList<>(aliases.size());
+      for (final String alias : aliases) {
+        dimensionValues.add(df.get(alias).getString(i));
+      }
+      rowsByDimensionValues.computeIfAbsent(dimensionValues, k -> new ArrayList<>()).add(i);
+    }
+
+    final int maxItemRowCount = rowsByDimensionValues.values().stream()
+        .mapToInt(List::size)
+        .max()
+        .orElse(0);
+    if (!fanInQuery.isComplete(df.size(), maxItemRowCount)) {
+      return null;
+    }
+
+    final List<DataTable> itemTables = new ArrayList<>(fanInQuery.itemDimensionValues().size());
+    for (final List<String> itemDimensionValues : fanInQuery.itemDimensionValues()) {
+      final List<Integer> rows = rowsByDimensionValues.getOrDefault(itemDimensionValues,
+          List.of());
+      final DataFrame itemDf = df.project(Ints.toArray(rows)).dropSeries(aliases);
+      final DataTable itemTable = SimpleDataTable.fromDataFrame(itemDf);
+      itemTable.addProperties(grouped.getProperties());
+      itemTables.add(itemTable);
+    }
+    return itemTables;
+  }
+}
@@ -14,6 +14,7 @@
 package ai.startree.thirdeye.detectionpipeline.components;
 
 import static ai.startree.thirdeye.spi.util.SpiUtils.optional;
+import static ai.startree.thirdeye.spi.util.TimeUtils.isoPeriod;
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.Objects.requireNonNull;
 
@@ -41,7 +42,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.joda.time.DateTime;
 import org.joda.time.Interval;
+import org.joda.time.Period;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -58,8 +62,10 @@ public class GenericDataFetcher implements DataFetcher<DataFetcherSpec> {
    */
   private String tableName;
   private ThirdEyeDataSource thirdEyeDataSource;
+  private DataSourceDTO dataSourceDto;
   private DatasetConfigDTO datasetConfigDTO;
   private List<QueryPredicate> timeseriesFilters = List.of();
+  private IncrementalFetchCache incrementalFetchCache;
 
   public String getQuery() {
     return query;
@@ -70,6 +76,10 @@ public class GenericDataFetcher implements DataFetcher<DataFetcherSpec> {
     return this;
   }
 
+  ThirdEyeDataSource getThirdEyeDataSource() {
+    return thirdEyeDataSource;
+  }
+
   @VisibleForTesting
   public String getTableName() {
     return tableName;
@@ -100,8 +110,8 @@ public class GenericDataFetcher implements DataFetcher<DataFetcherSpec> {
     final DataSourceManager dataSourceDao = requireNonNull(dataFetcherSpec.getDataSourceDao());
     final String datasourceNamespace = optional(datasetConfigDTO).map(AbstractDTO::namespace)
         .orElse(dataFetcherSpec.getNamespace());
-    final DataSourceDTO dataSourceDto = dataSourceDao.findByNameAndNamespaceOrUnsetNamespace(dataSource, datasourceNamespace);
-    requireNonNull(dataSourceDto);
+    this.dataSourceDto = requireNonNull(
+        dataSourceDao.findByNameAndNamespaceOrUnsetNamespace(dataSource, datasourceNamespace));
     final DataSourceCache dataSourceCache = requireNonNull(dataFetcherSpec.getDataSourceCache());
     this.thirdEyeDataSource = requireNonNull(dataSourceCache
         .getDataSource(dataSourceDto), "data source is unavailable");
@@ -114,17 +124,37 @@ public class GenericDataFetcher implements DataFetcher<DataFetcherSpec> {
           .map(this::toQueryPredicate)
           .collect(Collectors.toList());
     }
+    this.incrementalFetchCache = dataFetcherSpec.getIncrementalFetchCache();
   }
 
   @Override
   public DataTable getDataTable(Interval detectionInterval) throws Exception {
     String queryWithFilters = injectFilters(query);
     DataSourceRequest preparedRequest = applyMacros(detectionInterval, queryWithFilters);
-    DataTable result = thirdEyeDataSource.fetchDataTable(preparedRequest);
+    DataTable result = fetchDataTable(detectionInterval, queryWithFilters, preparedRequest);
     result.addProperties(preparedRequest.getProperties());
     return result;
   }
 
+  private DataTable fetchDataTable(final Interval detectionInterval,
+      final String queryWithFilters, final DataSourceRequest preparedRequest) throws Exception {
+    final Period mutabilityPeriod = optional(datasetConfigDTO)
+        .map(DatasetConfigDTO::getMutabilityPeriod)
+        .map(p -> isoPeriod(p, null))
+        .orElse(null);
+    if (incrementalFetchCache == null || !incrementalFetchCache.isEnabled()
+        || mutabilityPeriod == null || dataSourceDto == null) {
+      return thirdEyeDataSource.fetchDataTable(preparedRequest);
+    }
+    return incrementalFetchCache.fetch(dataSourceDto,
+        queryWithFilters,
+        detectionInterval,
+        mutabilityPeriod,
+        preparedRequest,
+        timeFilterStart -> applyMacros(detectionInterval, queryWithFilters, timeFilterStart),
+        thirdEyeDataSource::fetchDataTable);
+  }
+
   private String injectFilters(final String query) {
     if (timeseriesFilters.isEmpty()) {
       return query;
@@ -138,6 +168,11 @@ public class GenericDataFetcher implements DataFetcher<DataFetcherSpec> {
 
   private DataSourceRequest applyMacros(final Interval detectionInterval,
       final String queryWithFilters) {
+    return applyMacros(detectionInterval, queryWithFilters, null);
+  }
+
+  private DataSourceRequest applyMacros(final Interval detectionInterval,
+      final String queryWithFilters, final @Nullable DateTime timeFilterStart) {
     SqlLanguage sqlLanguage = thirdEyeDataSource.getSqlLanguage();
     SqlExpressionBuilder sqlExpressionBuilder = thirdEyeDataSource.getSqlExpressionBuilder();
     boolean macrosSupported = sqlLanguage != null && sqlExpressionBuilder != null;
@@ -146,7 +181,9 @@ public class GenericDataFetcher implements DataFetcher<DataFetcherSpec> {
           sqlExpressionBuilder,
           detectionInterval,
           datasetConfigDTO,
-          queryWithFilters).prepareRequest();
+          queryWithFilters)
+          .setTimeFilterStart(timeFilterStart)
+          .prepareRequest();
     }
 
     final Map<String, String> customOptions = Map.of(); // custom query options not implemented in MinMaxTimeLoader
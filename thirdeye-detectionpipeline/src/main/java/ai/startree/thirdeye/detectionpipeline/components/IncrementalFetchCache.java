@@ -0,0 +1,242 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.detectionpipeline.components;
+
+import static ai.startree.thirdeye.spi.datasource.macro.MacroMetadataKeys.GRANULARITY;
+import static ai.startree.thirdeye.spi.datasource.macro.MacroMetadataKeys.MAX_TIME_MILLIS;
+import static ai.startree.thirdeye.spi.datasource.macro.MacroMetadataKeys.MIN_TIME_MILLIS;
+import static ai.startree.thirdeye.spi.datasource.macro.MacroMetadataKeys.TIME_GROUP_ALIAS;
+import static ai.startree.thirdeye.spi.util.TimeUtils.floorByPeriod;
+import static ai.startree.thirdeye.spi.util.TimeUtils.isoPeriod;
+
+import ai.startree.thirdeye.datasource.cache.QueryResultCacheService;
+import ai.startree.thirdeye.datasource.cache.QueryResultCacheService.Scope;
+import ai.startree.thirdeye.detectionpipeline.IncrementalFetchConfiguration;
+import ai.startree.thirdeye.spi.dataframe.DataFrame;
+import ai.startree.thirdeye.spi.dataframe.Series.SeriesType;
+import ai.startree.thirdeye.spi.datalayer.dto.DataSourceDTO;
+import ai.startree.thirdeye.spi.datasource.DataSourceRequest;
+import ai.startree.thirdeye.spi.detection.v2.DataTable;
+import ai.startree.thirdeye.spi.detection.v2.SimpleDataTable;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import org.joda.time.Chronology;
+import org.joda.time.DateTime;
+import org.joda.time.Interval;
+import org.joda.time.Period;
+
+/**
+ * Cache of the immutable time buckets of detection queries.
+ *
+ * A detection query is run on a window that slides with each run, but only the buckets newer
+ * than the mutabilityPeriod of the dataset can change between runs. The rows of the older buckets
+ * are cached per (datasource, query, granularity, timezone). The datasource is identified as in
+ * the {@link QueryResultCacheService}: a datasource updated to point to another cluster does not
+ * read the buckets of the previous cluster. The next run only queries the
+ * buckets that are not cached, and stitches the cached rows and the new rows back into a single
+ * table.
+ *
+ * Only queries with a single time filter and a single aliased time group, and whose rows of a
+ * time bucket do not depend on the other buckets (no ORDER BY, LIMIT, HAVING, window functions,
+ * etc.) are eligible - see
+ * {@link ai.startree.thirdeye.spi.datasource.macro.MacroMetadataKeys#TIME_GROUP_ALIAS}. Other
+ * queries, and any case that cannot be served exactly, fall back to a full query.
+ */
+@Singleton
+public class IncrementalFetchCache {
+
+  private final IncrementalFetchConfiguration configuration;
+  private final Cache<Key, CachedBuckets> cache;
+  private final Counter cachedRowsCounter;
+  private final Counter fetchedRowsCounter;
+
+  @Inject
+  public IncrementalFetchCache(final IncrementalFetchConfiguration configuration) {
+    this.configuration = configuration;
+    this.cache = CacheBuilder.newBuilder()
+        .maximumWeight(configuration.getMaxCells())
+        .weigher((Key key, CachedBuckets buckets) -> buckets.weight())
+        .expireAfterWrite(configuration.getMaxStaleness())
+        .recordStats()
+        .build();
+
+    // hits, misses and evictions
+    GuavaCacheMetrics.monitor(Metrics.globalRegistry, cache, "thirdeye_incremental_fetch_cache");
+    cachedRowsCounter = Counter.builder("thirdeye_incremental_fetch_rows")
+        .description("Rows returned by the incremental fetch, by origin.")
+        .tag("origin", "cache")
+        .register(Metrics.globalRegistry);
+    fetchedRowsCounter = Counter.builder("thirdeye_incremental_fetch_rows")
+        .description("Rows returned by the incremental fetch, by origin.")
+        .tag("origin", "datasource")
+        .register(Metrics.globalRegistry);
+  }
+
+  public boolean isEnabled() {
+    return configuration.isEnabled();
+  }
+
+  /**
+   * @param dataSource the datasource the query is run on
+   * @param query the query before macro expansion
+   * @param request the request of the whole detection interval
+   * @param tailRequestFactory creates the request of the detection interval with the given time
+   *     filter start. Used for the buckets that are not cached.
+   * @param executor runs a request on the datasource
+   */
+  public DataTable fetch(final DataSourceDTO dataSource, final String query,
+      final Interval detectionInterval, final Period mutabilityPeriod,
+      final DataSourceRequest request,
+      final Function<DateTime, DataSourceRequest> tailRequestFactory,
+      final RequestExecutor executor) throws Exception {
+    final Map<String, String> properties = request.getProperties();
+    final String timeGroupAlias = properties.get(TIME_GROUP_ALIAS.toString());
+    final String granularityString = properties.get(GRANULARITY.toString());
+    if (timeGroupAlias == null || granularityString == null) {
+      return executor.execute(request);
+    }
+    final Chronology chronology = detectionInterval.getChronology();
+    final Period granularity = isoPeriod(granularityString);
+    final long filterStart = Long.parseLong(properties.get(MIN_TIME_MILLIS.toString()));
+    final long filterEnd = Long.parseLong(properties.get(MAX_TIME_MILLIS.toString()));
+    if (floor(filterStart, granularity, chronology) != filterStart) {
+      // the first bucket is partial - it depends on the filter start
+      return executor.execute(request);
+    }
+    final long now = System.currentTimeMillis();
+    final long mutableStart = new DateTime(now, chronology).minus(mutabilityPeriod).getMillis();
+    final long immutableEnd = floor(Math.min(mutableStart, filterEnd), granularity, chronology);
+
+    final Key key = new Key(Scope.of(dataSource),
+        QueryResultCacheService.normalize(query),
+        granularity.toString(),
+        chronology.getZone().getID());
+    final CachedBuckets cached = cache.getIfPresent(key);
+    if (cached == null || !cached.timeGroupAlias.equals(timeGroupAlias)
+        || cached.start > filterStart || cached.end <= filterStart
+        || now - cached.createdMillis > configuration.getMaxStaleness().toMillis()) {
+      final DataTable table = executor.execute(request);
+      fetchedRowsCounter.increment(table.getDataFrame().size());
+      cacheBuckets(key, table.getDataFrame(), timeGroupAlias, filterStart, immutableEnd, now);
+      return table;
+    }
+
+    // cached.end <= immutableEnd unless the mutabilityPeriod was increased
+    final long tailStart = Math.max(filterStart, Math.min(cached.end, immutableEnd));
+    final DataFrame cachedRows = rowsBetween(cached.rows, timeGroupAlias, filterStart, tailStart);
+    DataFrame result = cachedRows;
+    if (tailStart < filterEnd) {
+      final DataSourceRequest tailRequest = tailRequestFactory.apply(
+          new DateTime(tailStart, chronology));
+      if (!isExactTailRequest(tailRequest, tailStart, filterEnd, timeGroupAlias)) {
+        return executor.execute(request);
+      }
+      final DataFrame tail = executor.execute(tailRequest).getDataFrame();
+      if (tail.size() > 0) {
+        if (!sameColumns(cached.rows, tail)) {
+          return executor.execute(request);
+        }
+        result = cachedRows.append(tail);
+      }
+      fetchedRowsCounter.increment(tail.size());
+    }
+    cachedRowsCounter.increment(cachedRows.size());
+    if (immutableEnd > cached.end) {
+      // the staleness is measured from the first full fetch
+      cacheBuckets(key, result, timeGroupAlias, filterStart, immutableEnd, cached.createdMillis);
+    }
+
+    return SimpleDataTable.fromDataFrame(result);
+  }
+
+  /**
+   * Returns true if the request queries exactly the buckets in [tailStart, filterEnd).
+   */
+  private static boolean isExactTailRequest(final DataSourceRequest tailRequest,
+      final long tailStart, final long filterEnd, final String timeGroupAlias) {
+    final Map<String, String> properties = tailRequest.getProperties();
+    return String.valueOf(tailStart).equals(properties.get(MIN_TIME_MILLIS.toString()))
+        && String.valueOf(filterEnd).equals(properties.get(MAX_TIME_MILLIS.toString()))
+        && timeGroupAlias.equals(properties.get(TIME_GROUP_ALIAS.toString()));
+  }
+
+  private void cacheBuckets(final Key key, final DataFrame dataFrame, final String timeGroupAlias,
+      final long start, final long end, final long createdMillis) {
+    if (start >= end || !dataFrame.contains(timeGroupAlias)
+        || dataFrame.get(timeGroupAlias).type() != SeriesType.LONG) {
+      return;
+    }
+    final DataFrame rows = rowsBetween(dataFrame, timeGroupAlias, start, end);
+    cache.put(key, new CachedBuckets(rows, timeGroupAlias, start, end, createdMillis));
+  }
+
+  private static DataFrame rowsBetween(final DataFrame dataFrame, final String timeGroupAlias,
+      final long startInclusive, final long endExclusive) {
+    final long[] times = dataFrame.getLongs(timeGroupAlias).values();
+    final int[] fromIndex = new int[times.length];
+    int size = 0;
+    for (int i = 0; i < times.length; i++) {
+      if (times[i] >= startInclusive && times[i] < endExclusive) {
+        fromIndex[size++] = i;
+      }
+    }
+    return dataFrame.project(Arrays.copyOf(fromIndex, size));
+  }
+
+  private static boolean sameColumns(final DataFrame reference, final DataFrame other) {
+    if (!Set.copyOf(reference.getSeriesNames()).equals(Set.copyOf(other.getSeriesNames()))) {
+      return false;
+    }
+    for (final String name : reference.getSeriesNames()) {
+      if (reference.get(name).type() != other.get(name).type()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static long floor(final long millis, final Period granularity,
+      final Chronology chronology) {
+    return floorByPeriod(new DateTime(millis, chronology), granularity).getMillis();
+  }
+
+  @FunctionalInterface
+  public interface RequestExecutor {
+
+    DataTable execute(DataSourceRequest request) throws Exception;
+  }
+
+  private record Key(Scope dataSource, String query, String granularity, String timezone) {}
+
+  /**
+   * Rows of the buckets in [start, end).
+   */
+  private record CachedBuckets(DataFrame rows, String timeGroupAlias, long start, long end,
+                               long createdMillis) {
+
+    private int weight() {
+      final long cells = (long) rows.size() * Math.max(1, rows.getSeriesNames().size());
+      return (int) Math.min(cells, Integer.MAX_VALUE);
+    }
+  }
+}
@@ -142,7 +142,7 @@ public class AnomalyDetectorOperator extends DetectionPipelineOperator {
         dataTableMap);
     final List<AnomalyDTO> anomalies = buildAnomaliesFromDetectorDf(detectorResult.getDataFrame());
     final TimeSeries timeSeries = TimeSeries.fromDataFrame(detectorResult.getDataFrame()
-        .sortedBy(COL_TIME)); // FIXME CYRIL this sorted by should not be necessary and is expensive
+        .sortedBy(COL_TIME)); // no-op if the detector output is already sorted by time
     final OperatorResult operatorResult = new Builder()
         .setAnomalies(anomalies)
         .setTimeseries(timeSeries)
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.detectionpipeline.operator;
+
+import ai.startree.thirdeye.detectionpipeline.OperatorContext;
+import java.util.HashMap;
+
+/**
+ * Combines all its inputs in a single {@link CombinerResult}. Used by the ForkJoin node to
+ * combine the results of the enumeration items.
+ */
+public class CombinerOperator extends DetectionPipelineOperator {
+
+  public static final String DEFAULT_OUTPUT_KEY = "output_Combiner";
+
+  public CombinerOperator() {
+    super();
+  }
+
+  @Override
+  public void init(final OperatorContext context) {
+    super.init(context);
+  }
+
+  @Override
+  public void execute() throws Exception {
+    setOutput(DEFAULT_OUTPUT_KEY, new CombinerResult(new HashMap<>(inputMap)));
+  }
+
+  @Override
+  public String getOperatorName() {
+    return "CombinerOperator";
+  }
+}
@@ -62,6 +62,7 @@ public class DataFetcherOperator extends DetectionPipelineOperator {
     spec.setDataSourceDao(requireNonNull(applicationContext.dataSourceDao()));
     spec.setNamespace(pipelineContext.getNamespace());
     spec.setTimeseriesFilters(predicates);
+    spec.setIncrementalFetchCache(applicationContext.incrementalFetchCache());
 
     final GenericDataFetcher genericDataFetcher = new GenericDataFetcher();
     genericDataFetcher.init(spec);
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.detectionpipeline.operator;
+
+import static ai.startree.thirdeye.spi.util.SpiUtils.optional;
+import static java.util.Objects.requireNonNull;
+
+import ai.startree.thirdeye.detectionpipeline.DetectionPipelineContext;
+import ai.startree.thirdeye.detectionpipeline.DetectionRegistry;
+import ai.startree.thirdeye.detectionpipeline.OperatorContext;
+import ai.startree.thirdeye.spi.datalayer.TemplatableMap;
+import ai.startree.thirdeye.spi.datalayer.dto.EnumerationItemDTO;
+import ai.startree.thirdeye.spi.detection.DetectionPipelineUsage;
+import ai.startree.thirdeye.spi.detection.Enumerator;
+import ai.startree.thirdeye.spi.detection.v2.OperatorResult;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Lists the enumeration items of an alert with an {@link Enumerator}. The enumerator is selected
+ * with the type param. In detection, the items are synced with the persisted enumeration items
+ * of the alert, so that the anomalies can reference them.
+ */
+public class EnumeratorOperator extends DetectionPipelineOperator {
+
+  public static final String DEFAULT_OUTPUT_KEY = "enumeration_items";
+  private static final String DEFAULT_ENUMERATOR_TYPE = "default";
+  private static final String ID_KEYS_PARAM = "idKeys";
+
+  private DetectionRegistry detectionRegistry;
+  private DetectionPipelineContext detectionPipelineContext;
+
+  public EnumeratorOperator() {
+    super();
+  }
+
+  @Override
+  public void init(final OperatorContext context) {
+    super.init(context);
+    detectionRegistry = requireNonNull(
+        context.getPlanNodeContext().getApplicationContext().detectionRegistry());
+    detectionPipelineContext = context.getPlanNodeContext().getDetectionPipelineContext();
+  }
+
+  @Override
+  public void execute() throws Exception {
+    final Map<String, Object> params = optional(planNode.getParams())
+        .map(TemplatableMap::valueMap)
+        .orElse(Map.of());
+    final String type = optional(params.get(PROP_TYPE))
+        .map(Object::toString)
+        .orElse(DEFAULT_ENUMERATOR_TYPE);
+    final Enumerator enumerator = detectionRegistry.buildEnumerator(type);
+    final List<EnumerationItemDTO> enumerationItems = enumerator.enumerate(new Enumerator.Context()
+        .setParams(params)
+        .setInputMap(inputMap));
+
+    setOutput(DEFAULT_OUTPUT_KEY, new EnumeratorResult(sync(enumerationItems, params)));
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<EnumerationItemDTO> sync(final List<EnumerationItemDTO> enumerationItems,
+      final Map<String, Object> params) {
+    final Long alertId = detectionPipelineContext.getAlertId();
+    if (alertId == null
+        || detectionPipelineContext.getUsage() != DetectionPipelineUsage.DETECTION) {
+      return enumerationItems;
+    }
+    for (final EnumerationItemDTO enumerationItem : enumerationItems) {
+      if (enumerationItem.getName() == null) {
+        // sorted for a stable name
+        enumerationItem.setName(new TreeMap<>(enumerationItem.getParams()).toString());
+      }
+    }
+    final List<String> idKeys = (List<String>) params.get(ID_KEYS_PARAM);
+    return detectionPipelineContext.getApplicationContext()
+        .enumerationItemMaintainer()
+        .sync(enumerationItems, idKeys, alertId);
+  }
+
+  @Override
+  public String getOperatorName() {
+    return "EnumeratorOperator";
+  }
+
+  public static class EnumeratorResult implements OperatorResult {
+
+    private final List<EnumerationItemDTO> enumerationItems;
+
+    public EnumeratorResult(final List<EnumerationItemDTO> enumerationItems) {
+      this.enumerationItems = enumerationItems;
+    }
+
+    @Override
+    public @Nullable List<EnumerationItemDTO> getEnumerationItems() {
+      return enumerationItems;
+    }
+  }
+}
@@ -0,0 +1,496 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.detectionpipeline.operator;
+
+import static ai.startree.thirdeye.spi.util.SpiUtils.optional;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Collections.emptyList;
+import static java.util.Objects.requireNonNull;
+
+import ai.startree.thirdeye.detectionpipeline.ApplicationContext;
+import ai.startree.thirdeye.detectionpipeline.ContextKey;
+import ai.startree.thirdeye.detectionpipeline.DetectionPipelineContext;
+import ai.startree.thirdeye.detectionpipeline.DetectionPipelineContextMapper;
+import ai.startree.thirdeye.detectionpipeline.Operator;
+import ai.startree.thirdeye.detectionpipeline.OperatorContext;
+import ai.startree.thirdeye.detectionpipeline.PlanExecutor;
+import ai.startree.thirdeye.detectionpipeline.PlanNode;
+import ai.startree.thirdeye.detectionpipeline.PlanNodeContext;
+import ai.startree.thirdeye.detectionpipeline.PlanNodeFactory;
+import ai.startree.thirdeye.detectionpipeline.components.EnumerationFanIn;
+import ai.startree.thirdeye.detectionpipeline.components.GenericDataFetcher;
+import ai.startree.thirdeye.detectionpipeline.plan.DataFetcherPlanNode;
+import ai.startree.thirdeye.spi.datalayer.TemplatableMap;
+import ai.startree.thirdeye.spi.datalayer.dto.AnomalyDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.EnumerationItemDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.PlanNodeBean;
+import ai.startree.thirdeye.spi.datalayer.dto.PlanNodeBean.InputBean;
+import ai.startree.thirdeye.spi.datalayer.dto.PlanNodeBean.OutputBean;
+import ai.startree.thirdeye.spi.detection.model.TimeSeries;
+import ai.startree.thirdeye.spi.detection.v2.DataTable;
+import ai.startree.thirdeye.spi.detection.v2.OperatorResult;
+import ai.startree.thirdeye.util.CompiledTemplate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs a sub-plan once per enumeration item and combines the results.
+ *
+ * Params:
+ * - enumerator: the name of the node listing the enumeration items
+ * - root: the name of the root node of the sub-plan
+ * - combiner: optional. The name of the node combining the results of the items.
+ * - parallelism: optional. Maximum number of items running concurrently. Defaults to the
+ *   fork-join parallelism.
+ * - allowPartialFailure: optional. Whether the node succeeds when some items fail. Defaults to
+ *   the fork-join partialFailureAllowed configuration.
+ *
+ * The nodes of the sub-plan are rendered with the params of each item. The nodes are part of the
+ * alert template, so they are first rendered with the alert properties: the placeholders of item
+ * params must be escaped as $${param}. The alert rendering turns them into ${param}, which are
+ * then rendered per item. For instance: "query": "SELECT ... WHERE country = '$${country}'".
+ * An unescaped ${param} makes the rendering of the alert fail if param is not an alert property.
+ *
+ * When the queries of a
+ * data fetcher of the sub-plan only differ by dimension filters across items, the data of all
+ * the items is fetched with a single grouped query before the items run. See
+ * {@link EnumerationFanIn}.
+ *
+ * The sub-plan of an item runs sequentially on a thread of the fork-join item executor, dedicated
+ * to enumeration items and shared by all pipelines. Each item must complete within the fork-join
+ * timeout, counted from the start of the item. A fork-join node nested in the sub-plan of an item
+ * runs its items one by one on the current thread, without timeout: waiting for the item
+ * executor from one of its threads could deadlock.
+ *
+ * By default, the execution fails as soon as an item fails or times out, and the remaining items
+ * are cancelled: the detection task fails and the detection interval is run again by the next
+ * task. When partial failure is allowed, a failed item is logged and skipped, the other items are
+ * still combined, and the execution fails only if all the items fail.
+ */
+public class ForkJoinOperator extends DetectionPipelineOperator {
+
+  public static final String DEFAULT_OUTPUT_KEY = "output_ForkJoin";
+
+  private static final Logger LOG = LoggerFactory.getLogger(ForkJoinOperator.class);
+
+  private static final String K_ENUMERATOR = "enumerator";
+  private static final String K_ROOT = "root";
+  private static final String K_COMBINER = "combiner";
+  private static final String K_PARALLELISM = "parallelism";
+  private static final String K_ALLOW_PARTIAL_FAILURE = "allowPartialFailure";
+  private static final String K_DATA_FETCHER_QUERY = "component.query";
+
+  private static final Counter ITEMS_COUNTER = Counter.builder("thirdeye_fork_join_items")
+      .description("Number of enumeration items run by fork-join nodes")
+      .register(Metrics.globalRegistry);
+  private static final Counter ITEM_ERRORS_COUNTER = itemFailuresCounter("error");
+  private static final Counter ITEM_TIMEOUTS_COUNTER = itemFailuresCounter("timeout");
+  /**
+   * Whether the current thread runs an enumeration item.
+   */
+  private static final ThreadLocal<Boolean> RUNNING_ITEM = ThreadLocal.withInitial(() -> false);
+
+  private PlanNodeContext planNodeContext;
+  private PlanNode enumeratorNode;
+  private String rootNodeName;
+  private @Nullable PlanNode combinerNode;
+  private ExecutorService executor;
+  private Duration itemTimeout;
+  private int parallelism;
+  private boolean partialFailureAllowed;
+
+  public ForkJoinOperator() {
+    super();
+  }
+
+  private static Counter itemFailuresCounter(final String reason) {
+    return Counter.builder("thirdeye_fork_join_item_failures")
+        .description("Number of enumeration items of fork-join nodes that failed")
+        .tag("reason", reason)
+        .register(Metrics.globalRegistry);
+  }
+
+  @Override
+  public void init(final OperatorContext context) {
+    super.init(context);
+    planNodeContext = context.getPlanNodeContext();
+    final Map<String, Object> params = optional(planNode.getParams())
+        .map(TemplatableMap::valueMap)
+        .orElse(Map.of());
+    enumeratorNode = getNode(requireNonNull(params.get(K_ENUMERATOR),
+        "enumerator param is required").toString());
+    rootNodeName = requireNonNull(params.get(K_ROOT), "root param is required").toString();
+    getNode(rootNodeName);
+    combinerNode = optional(params.get(K_COMBINER))
+        .map(Object::toString)
+        .map(this::getNode)
+        .orElse(null);
+
+    final ApplicationContext applicationContext = planNodeContext.getApplicationContext();
+    executor = requireNonNull(applicationContext.forkJoinItemExecutor());
+    itemTimeout = applicationContext.configuration().getForkjoin().getTimeout();
+    parallelism = optional(params.get(K_PARALLELISM))
+        .map(Object::toString)
+        .map(Integer::parseInt)
+        .orElse(applicationContext.configuration().getForkjoin().getParallelism());
+    checkArgument(parallelism > 0, "parallelism must be positive. Got: %s", parallelism);
+    partialFailureAllowed = optional(params.get(K_ALLOW_PARTIAL_FAILURE))
+        .map(Object::toString)
+        .map(Boolean::parseBoolean)
+        .orElse(applicationContext.configuration().getForkjoin().isPartialFailureAllowed());
+  }
+
+  private PlanNode getNode(final String name) {
+    final PlanNode node = planNodeContext.getPipelinePlanNodes().get(name);
+    checkArgument(node != null,
+        "node \"%s\" referenced by fork-join node \"%s\" does not exist. Template is invalid.",
+        name,
+        planNodeContext.getName());
+    return node;
+  }
+
+  @Override
+  public void execute() throws Exception {
+    final List<EnumerationItemDTO> enumerationItems = enumerate();
+    final List<SubPlanNode> subPlan = compileSubPlan();
+    final List<Map<ContextKey, OperatorResult>> fannedInResults = fanInDataFetchers(
+        enumerationItems, subPlan);
+    final Map<String, OperatorResult> itemResults = runItems(enumerationItems, subPlan,
+        fannedInResults);
+
+    if (combinerNode == null) {
+      setOutput(DEFAULT_OUTPUT_KEY, new CombinerResult(itemResults));
+      return;
+    }
+    itemResults.forEach(combinerNode::setInput);
+    final Operator combiner = combinerNode.buildOperator();
+    combiner.execute();
+    combiner.getOutputs().forEach(this::setOutput);
+  }
+
+  private List<EnumerationItemDTO> enumerate() throws Exception {
+    final Map<ContextKey, OperatorResult> resultMap = new HashMap<>();
+    PlanExecutor.executePlanNode(planNodeContext.getPipelinePlanNodes(), enumeratorNode,
+        resultMap);
+    return PlanExecutor.getOutput(resultMap, enumeratorNode.getName()).values().stream()
+        .map(OperatorResult::getEnumerationItems)
+        .filter(Objects::nonNull)
+        .findFirst()
+        .orElseThrow(() -> new IllegalStateException(String.format(
+            "node \"%s\" did not output enumeration items", enumeratorNode.getName())));
+  }
+
+  /**
+   * Compiles the nodes the root of the sub-plan depends on. Compiled once, rendered per item.
+   */
+  private List<SubPlanNode> compileSubPlan() throws IOException {
+    final Set<String> visited = new LinkedHashSet<>();
+    final Deque<String> toVisit = new ArrayDeque<>(List.of(rootNodeName));
+    final List<SubPlanNode> subPlan = new ArrayList<>();
+    while (!toVisit.isEmpty()) {
+      final String name = toVisit.pop();
+      if (!visited.add(name)) {
+        continue;
+      }
+      final PlanNode node = getNode(name);
+      for (final InputBean input : optional(node.getPlanNodeInputs()).orElse(emptyList())) {
+        toVisit.push(input.getSourcePlanNode());
+      }
+      subPlan.add(new SubPlanNode(node.getClass(),
+          CompiledTemplate.compile(node.getContext().getPlanNodeBean())));
+    }
+    return subPlan;
+  }
+
+  /**
+   * Fetches the data of each data fetcher of the sub-plan with a single grouped query for all the
+   * items, when possible. A data fetcher that cannot be fanned in runs in the sub-plan of each
+   * item.
+   *
+   * @return for each item, in the order of enumerationItems, the data fetched for its sub-plan
+   */
+  private List<Map<ContextKey, OperatorResult>> fanInDataFetchers(
+      final List<EnumerationItemDTO> enumerationItems, final List<SubPlanNode> subPlan) {
+    final List<Map<ContextKey, OperatorResult>> fannedInResults = new ArrayList<>();
+    enumerationItems.forEach(item -> fannedInResults.add(new HashMap<>()));
+    for (final SubPlanNode subPlanNode : subPlan) {
+      if (!DataFetcherPlanNode.class.equals(subPlanNode.planNodeClass())
+          || enumerationItems.size() < 2) {
+        continue;
+      }
+      try {
+        fanInDataFetcher(enumerationItems, subPlanNode, fannedInResults);
+      } catch (final Exception e) {
+        LOG.warn("Fork-join node {}: could not fetch the data of the enumeration items with a "
+            + "grouped query. Fetching items one by one.", planNodeContext.getName(), e);
+      }
+    }
+    return fannedInResults;
+  }
+
+  private void fanInDataFetcher(final List<EnumerationItemDTO> enumerationItems,
+      final SubPlanNode subPlanNode, final List<Map<ContextKey, OperatorResult>> fannedInResults)
+      throws Exception {
+    final List<PlanNodeBean> itemPlanNodeBeans = new ArrayList<>(enumerationItems.size());
+    for (final EnumerationItemDTO enumerationItem : enumerationItems) {
+      itemPlanNodeBeans.add(subPlanNode.planNodeBean().render(itemParams(enumerationItem)));
+    }
+    final PlanNodeBean firstPlanNodeBean = itemPlanNodeBeans.get(0);
+    final String nodeName = firstPlanNodeBean.getName();
+    final String outputName = outputName(firstPlanNodeBean);
+    if (outputName == null || firstPlanNodeBean.getParams() == null) {
+      return;
+    }
+    // the items must only differ by their query
+    final Map<String, Object> sharedParams = paramsWithoutQuery(firstPlanNodeBean);
+    final List<String> itemQueries = new ArrayList<>(itemPlanNodeBeans.size());
+    for (final PlanNodeBean itemPlanNodeBean : itemPlanNodeBeans) {
+      final Object query = itemPlanNodeBean.getParams().valueMap().get(K_DATA_FETCHER_QUERY);
+      if (!(query instanceof String) || !sharedParams.equals(paramsWithoutQuery(itemPlanNodeBean))
+          || !outputName.equals(outputName(itemPlanNodeBean))) {
+        return;
+      }
+      itemQueries.add((String) query);
+    }
+
+    final DataFetcherOperator dataFetcherOperator = (DataFetcherOperator) PlanNodeFactory.build(
+        DataFetcherPlanNode.class, new PlanNodeContext()
+            .setDetectionPipelineContext(planNodeContext.getDetectionPipelineContext())
+            .setName(nodeName)
+            .setPlanNodeBean(firstPlanNodeBean)
+            .setPipelinePlanNodes(new HashMap<>())).buildOperator();
+    final List<DataTable> itemDataTables = EnumerationFanIn.fetch(
+        (GenericDataFetcher) dataFetcherOperator.getDataFetcher(),
+        itemQueries,
+        detectionInterval);
+    if (itemDataTables == null) {
+      return;
+    }
+    final ContextKey outputKey = new ContextKey(nodeName, outputName);
+    for (int i = 0; i < itemDataTables.size(); i++) {
+      fannedInResults.get(i).put(outputKey, itemDataTables.get(i));
+    }
+  }
+
+  private static @Nullable String outputName(final PlanNodeBean planNodeBean) {
+    final List<OutputBean> outputs = planNodeBean.getOutputs();
+    return outputs == null || outputs.size() != 1 ? null : outputs.get(0).getOutputName();
+  }
+
+  private static Map<String, Object> paramsWithoutQuery(final PlanNodeBean planNodeBean) {
+    final Map<String, Object> params = new HashMap<>(planNodeBean.getParams().valueMap());
+    params.remove(K_DATA_FETCHER_QUERY);
+    return params;
+  }
+
+  private static Map<String, Object> itemParams(final EnumerationItemDTO enumerationItem) {
+    return optional(enumerationItem.getParams()).orElse(Map.of());
+  }
+
+  private Map<String, OperatorResult> runItems(final List<EnumerationItemDTO> enumerationItems,
+      final List<SubPlanNode> subPlan,
+      final List<Map<ContextKey, OperatorResult>> fannedInResults) throws Exception {
+    final boolean nested = RUNNING_ITEM.get();
+    final Semaphore permits = new Semaphore(parallelism);
+    final List<CompletableFuture<Map<String, OperatorResult>>> futures = new ArrayList<>();
+    try {
+      for (int i = 0; i < enumerationItems.size(); i++) {
+        final EnumerationItemDTO enumerationItem = enumerationItems.get(i);
+        final Map<ContextKey, OperatorResult> fannedInResult = fannedInResults.get(i);
+        final CompletableFuture<Map<String, OperatorResult>> future = new CompletableFuture<>();
+        futures.add(future);
+        if (nested) {
+          runItem(enumerationItem, subPlan, fannedInResult, future);
+          continue;
+        }
+        permits.acquire();
+        final Future<?> task = executor.submit(() -> {
+          // the timeout counts from the start of the item: queued items do not time out
+          future.orTimeout(itemTimeout.toMillis(), TimeUnit.MILLISECONDS);
+          runItem(enumerationItem, subPlan, fannedInResult, future);
+        });
+        future.whenComplete((r, e) -> {
+          permits.release();
+          if (e != null) {
+            // interrupts the item if it timed out
+            task.cancel(true);
+          }
+        });
+      }
+    } catch (final InterruptedException e) {
+      futures.forEach(f -> f.cancel(true));
+      throw e;
+    }
+    ITEMS_COUNTER.increment(enumerationItems.size());
+
+    final Map<String, OperatorResult> itemResults = new LinkedHashMap<>();
+    Exception firstFailure = null;
+    for (int i = 0; i < futures.size(); i++) {
+      final EnumerationItemDTO enumerationItem = enumerationItems.get(i);
+      try {
+        final Map<String, OperatorResult> outputs = futures.get(i).get();
+        for (final Map.Entry<String, OperatorResult> output : outputs.entrySet()) {
+          final String key = outputs.size() == 1 ? String.valueOf(i) : i + "_" + output.getKey();
+          itemResults.put(key, new ForkJoinItemResult(output.getValue(), enumerationItem));
+        }
+      } catch (final ExecutionException | CancellationException e) {
+        final Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+        (cause instanceof TimeoutException ? ITEM_TIMEOUTS_COUNTER : ITEM_ERRORS_COUNTER)
+            .increment();
+        final Exception failure = cause instanceof Exception ? (Exception) cause : e;
+        if (!partialFailureAllowed) {
+          LOG.error("Fork-join node {}: enumeration item {} (params: {}) failed. Failing the node.",
+              planNodeContext.getName(),
+              enumerationItem.getName(),
+              enumerationItem.getParams());
+          futures.forEach(f -> f.cancel(true));
+          throw failure;
+        }
+        LOG.warn("Fork-join node {}: enumeration item {} (params: {}) failed. Skipping it.",
+            planNodeContext.getName(),
+            enumerationItem.getName(),
+            enumerationItem.getParams(),
+            cause);
+        if (firstFailure == null) {
+          firstFailure = failure;
+        }
+      }
+    }
+    if (firstFailure != null && itemResults.isEmpty()) {
+      throw firstFailure;
+    }
+    return itemResults;
+  }
+
+  private void runItem(final EnumerationItemDTO enumerationItem,
+      final List<SubPlanNode> subPlan, final Map<ContextKey, OperatorResult> fannedInResult,
+      final CompletableFuture<Map<String, OperatorResult>> future) {
+    final boolean wasRunningItem = RUNNING_ITEM.get();
+    RUNNING_ITEM.set(true);
+    try {
+      future.complete(runItem(enumerationItem, subPlan, fannedInResult));
+    } catch (final Throwable e) {
+      future.completeExceptionally(e);
+    } finally {
+      RUNNING_ITEM.set(wasRunningItem);
+    }
+  }
+
+  /**
+   * @param fannedInResult the data already fetched for the item. The corresponding data fetchers
+   *     of the sub-plan do not run.
+   */
+  private Map<String, OperatorResult> runItem(final EnumerationItemDTO enumerationItem,
+      final List<SubPlanNode> subPlan, final Map<ContextKey, OperatorResult> fannedInResult)
+      throws Exception {
+    final DetectionPipelineContext itemContext = DetectionPipelineContextMapper.INSTANCE
+        .clone(planNodeContext.getDetectionPipelineContext())
+        .setEnumerationItem(enumerationItem);
+    final Map<String, Object> itemParams = itemParams(enumerationItem);
+
+    final Map<String, PlanNode> itemPlanNodes = new HashMap<>();
+    for (final SubPlanNode subPlanNode : subPlan) {
+      final PlanNodeBean planNodeBean = subPlanNode.planNodeBean().render(itemParams);
+      itemPlanNodes.put(planNodeBean.getName(), PlanNodeFactory.build(subPlanNode.planNodeClass(),
+          new PlanNodeContext()
+              .setDetectionPipelineContext(itemContext)
+              .setName(planNodeBean.getName())
+              .setPlanNodeBean(planNodeBean)
+              .setPipelinePlanNodes(itemPlanNodes)));
+    }
+
+    final Map<ContextKey, OperatorResult> resultMap = new HashMap<>(fannedInResult);
+    final boolean rootFannedIn = fannedInResult.keySet().stream()
+        .anyMatch(key -> key.getNodeName().equals(rootNodeName));
+    if (!rootFannedIn) {
+      PlanExecutor.executePlanNode(itemPlanNodes, itemPlanNodes.get(rootNodeName), resultMap);
+    }
+    return PlanExecutor.getOutput(resultMap, rootNodeName);
+  }
+
+  @Override
+  public String getOperatorName() {
+    return "ForkJoinOperator";
+  }
+
+  private record SubPlanNode(Class<? extends PlanNode> planNodeClass,
+                             CompiledTemplate<PlanNodeBean> planNodeBean) {}
+
+  /**
+   * The result of the sub-plan of an enumeration item, tagged with the enumeration item.
+   */
+  public static class ForkJoinItemResult implements OperatorResult {
+
+    private final OperatorResult result;
+    private final EnumerationItemDTO enumerationItem;
+
+    public ForkJoinItemResult(final OperatorResult result,
+        final EnumerationItemDTO enumerationItem) {
+      this.result = result;
+      this.enumerationItem = enumerationItem;
+    }
+
+    @Override
+    public long getLastTimestamp() {
+      return result.getLastTimestamp();
+    }
+
+    @Override
+    public @Nullable List<AnomalyDTO> getAnomalies() {
+      return result.getAnomalies();
+    }
+
+    @Override
+    public @Nullable EnumerationItemDTO getEnumerationItem() {
+      return enumerationItem;
+    }
+
+    @Override
+    public @Nullable Map<String, List> getRawData() {
+      return result.getRawData();
+    }
+
+    @Override
+    public @Nullable TimeSeries getTimeseries() {
+      return result.getTimeseries();
+    }
+
+    public OperatorResult getResult() {
+      return result;
+    }
+  }
+}
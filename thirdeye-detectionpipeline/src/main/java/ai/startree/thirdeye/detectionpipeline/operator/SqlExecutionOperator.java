@@ -18,6 +18,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 import ai.startree.thirdeye.detectionpipeline.OperatorContext;
 import ai.startree.thirdeye.detectionpipeline.operator.sql.DataTableToSqlAdapterFactory;
+import ai.startree.thirdeye.detectionpipeline.operator.sql.HyperSqlDataTableToSqlAdapter;
 import ai.startree.thirdeye.spi.dataframe.DataFrame;
 import ai.startree.thirdeye.spi.datalayer.dto.PlanNodeBean.OutputBean;
 import ai.startree.thirdeye.spi.detection.v2.DataTable;
@@ -46,6 +47,10 @@ public class SqlExecutionOperator extends DetectionPipelineOperator {
    */
   private static final String JDBC_CONNECTION_PARAMS = "jdbc.parameters";
   private static final String DEFAULT_SQL_ENGINE = "HYPERSQL";
+  /**
+   * Number of rows inserted per JDBC batch when the engine copies the input tables.
+   */
+  private static final String SQL_INSERT_BATCH_SIZE = "sql.insertBatchSize";
 
   private final List<String> queries = new ArrayList<>();
   private DataTableToSqlAdapter dataTableToSqlAdapter;
@@ -64,8 +69,11 @@ public class SqlExecutionOperator extends DetectionPipelineOperator {
           "Missing property '" + SQL_QUERIES + "' in SqlExecutionOperator");
     }
 
-    dataTableToSqlAdapter = DataTableToSqlAdapterFactory.create(planNode.getParams().valueMap()
-        .getOrDefault(SQL_ENGINE, DEFAULT_SQL_ENGINE).toString());
+    final Map<String, Object> params = planNode.getParams().valueMap();
+    dataTableToSqlAdapter = DataTableToSqlAdapterFactory.create(
+        params.getOrDefault(SQL_ENGINE, DEFAULT_SQL_ENGINE).toString(),
+        Integer.parseInt(params.getOrDefault(SQL_INSERT_BATCH_SIZE,
+            HyperSqlDataTableToSqlAdapter.DEFAULT_BATCH_SIZE).toString()));
     if (planNode.getParams().containsKey(JDBC_CONNECTION_PARAMS)) {
       dataTableToSqlAdapter.jdbcProperties()
           .putAll((Map<String, String>) planNode.getParams().getValue(JDBC_CONNECTION_PARAMS));
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.detectionpipeline.operator.sql;
+
+import ai.startree.thirdeye.spi.dataframe.BooleanSeries;
+import ai.startree.thirdeye.spi.dataframe.DoubleSeries;
+import ai.startree.thirdeye.spi.dataframe.LongSeries;
+import ai.startree.thirdeye.spi.dataframe.Series;
+import ai.startree.thirdeye.spi.dataframe.StringSeries;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import org.apache.calcite.linq4j.Enumerator;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Enumerator that reads the columns of a DataFrame.
+ *
+ * The typed arrays of the series are resolved once. The row buffer is reused between rows:
+ * Calcite copies the row when it needs to keep it.
+ */
+public class DataFrameColumnarEnumerator implements Enumerator<@Nullable Object[]> {
+
+  private final int size;
+  private final IntFunction<@Nullable Object>[] columnReaders;
+  private final IntPredicate[] predicates;
+  private final AtomicBoolean cancelFlag;
+  private final @Nullable Object[] current;
+  private int currentIndex = -1;
+
+  @SuppressWarnings("unchecked")
+  public DataFrameColumnarEnumerator(final int size, final List<Series> columns,
+      final List<IntPredicate> predicates, final AtomicBoolean cancelFlag) {
+    this.size = size;
+    this.columnReaders = columns.stream()
+        .map(DataFrameColumnarEnumerator::columnReader)
+        .toArray(IntFunction[]::new);
+    this.predicates = predicates.toArray(new IntPredicate[0]);
+    this.cancelFlag = cancelFlag;
+    this.current = new Object[columnReaders.length];
+  }
+
+  private static IntFunction<@Nullable Object> columnReader(final Series series) {
+    switch (series.type()) {
+      case LONG:
+        final long[] longs = ((LongSeries) series).values();
+        return i -> LongSeries.getObject(longs[i]);
+      case DOUBLE:
+        final double[] doubles = ((DoubleSeries) series).values();
+        return i -> DoubleSeries.getObject(doubles[i]);
+      case STRING:
+        final String[] strings = ((StringSeries) series).values();
+        return i -> strings[i];
+      case BOOLEAN:
+        final byte[] booleans = ((BooleanSeries) series).values();
+        return i -> BooleanSeries.getObject(booleans[i]);
+      default:
+        return series::getObject;
+    }
+  }
+
+  @Override
+  public @Nullable Object[] current() {
+    return current;
+  }
+
+  @Override
+  public boolean moveNext() {
+    outer:
+    for (; ; ) {
+      if (cancelFlag.get()) {
+        return false;
+      }
+      currentIndex++;
+      if (currentIndex >= size) {
+        return false;
+      }
+      for (final IntPredicate predicate : predicates) {
+        if (!predicate.test(currentIndex)) {
+          continue outer;
+        }
+      }
+      for (int c = 0; c < columnReaders.length; c++) {
+        current[c] = columnReaders[c].apply(currentIndex);
+      }
+      return true;
+    }
+  }
+
+  @Override
+  public void reset() {
+    currentIndex = -1;
+  }
+
+  @Override
+  public void close() {
+    //nothing to do
+  }
+}
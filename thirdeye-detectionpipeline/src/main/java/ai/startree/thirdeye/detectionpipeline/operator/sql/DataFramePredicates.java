@@ -0,0 +1,348 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.detectionpipeline.operator.sql;
+
+import ai.startree.thirdeye.spi.dataframe.BooleanSeries;
+import ai.startree.thirdeye.spi.dataframe.DoubleSeries;
+import ai.startree.thirdeye.spi.dataframe.LongSeries;
+import ai.startree.thirdeye.spi.dataframe.Series;
+import ai.startree.thirdeye.spi.dataframe.StringSeries;
+import com.google.common.collect.BoundType;
+import com.google.common.collect.ImmutableRangeSet;
+import com.google.common.collect.Range;
+import com.google.common.collect.RangeSet;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import org.apache.calcite.rex.RexCall;
+import org.apache.calcite.rex.RexInputRef;
+import org.apache.calcite.rex.RexLiteral;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.rex.RexUnknownAs;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.sql.type.SqlTypeUtil;
+import org.apache.calcite.util.NlsString;
+import org.apache.calcite.util.Sarg;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Translates Calcite filters into row predicates evaluated directly on the primitive arrays of
+ * DataFrame series.
+ *
+ * Supported filters: =, <>, <, <=, >, >= between a column and a literal, and SEARCH (IN, NOT
+ * IN, BETWEEN and range combinations). Ranges are supported on LONG and DOUBLE columns,
+ * equality and IN on STRING columns, equality on BOOLEAN columns.
+ * As in SQL, a null value never matches a predicate.
+ */
+public class DataFramePredicates {
+
+  private static final BigDecimal LONG_MIN = BigDecimal.valueOf(LongSeries.MIN_VALUE);
+  private static final BigDecimal LONG_MAX = BigDecimal.valueOf(LongSeries.MAX_VALUE);
+
+  private DataFramePredicates() {
+  }
+
+  /**
+   * Returns a predicate on the row index equivalent to the filter, or null if the filter cannot
+   * be evaluated on the series.
+   *
+   * @param columns the series of the table, in the order of the table row type.
+   */
+  public static @Nullable IntPredicate toPredicate(final RexNode filter,
+      final List<Series> columns) {
+    if (!(filter instanceof RexCall call)) {
+      return null;
+    }
+    switch (filter.getKind()) {
+      case EQUALS:
+      case NOT_EQUALS:
+      case LESS_THAN:
+      case LESS_THAN_OR_EQUAL:
+      case GREATER_THAN:
+      case GREATER_THAN_OR_EQUAL:
+        return comparisonPredicate(call, columns);
+      case SEARCH:
+        return searchPredicate(call, columns);
+      default:
+        return null;
+    }
+  }
+
+  private static @Nullable IntPredicate comparisonPredicate(final RexCall call,
+      final List<Series> columns) {
+    RexNode left = call.getOperands().get(0);
+    RexNode right = call.getOperands().get(1);
+    SqlKind kind = call.getKind();
+    if (left instanceof RexLiteral && !(right instanceof RexLiteral)) {
+      // literal < column is column > literal
+      final RexNode tmp = left;
+      left = right;
+      right = tmp;
+      kind = kind.reverse();
+    }
+    final int columnIndex = columnIndex(left);
+    if (columnIndex == -1 || !(right instanceof RexLiteral literal) || literal.isNull()) {
+      return null;
+    }
+    final Series column = columns.get(columnIndex);
+    switch (column.type()) {
+      case LONG:
+      case DOUBLE:
+        if (!SqlTypeUtil.isNumeric(literal.getType())) {
+          return null;
+        }
+        final BigDecimal value = literal.getValueAs(BigDecimal.class);
+        return value == null ? null : numericPredicate(column, comparisonRanges(kind, value));
+      case STRING:
+        if (!SqlTypeUtil.inCharFamily(literal.getType())
+            || (kind != SqlKind.EQUALS && kind != SqlKind.NOT_EQUALS)) {
+          return null;
+        }
+        return stringPredicate((StringSeries) column,
+            Set.of(literal.getValueAs(String.class)),
+            kind == SqlKind.NOT_EQUALS);
+      case BOOLEAN:
+        if (!SqlTypeUtil.isBoolean(literal.getType())
+            || (kind != SqlKind.EQUALS && kind != SqlKind.NOT_EQUALS)) {
+          return null;
+        }
+        final boolean expected = literal.getValueAs(Boolean.class) ^ (kind == SqlKind.NOT_EQUALS);
+        final byte[] booleans = ((BooleanSeries) column).values();
+        return row -> !BooleanSeries.isNull(booleans[row])
+            && BooleanSeries.isTrue(booleans[row]) == expected;
+      default:
+        return null;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static @Nullable IntPredicate searchPredicate(final RexCall call,
+      final List<Series> columns) {
+    final int columnIndex = columnIndex(call.getOperands().get(0));
+    if (columnIndex == -1 || !(call.getOperands().get(1) instanceof RexLiteral literal)) {
+      return null;
+    }
+    final Sarg<?> sarg = literal.getValueAs(Sarg.class);
+    if (sarg == null || sarg.nullAs == RexUnknownAs.TRUE) {
+      // nulls must be kept - not supported
+      return null;
+    }
+    final Series column = columns.get(columnIndex);
+    switch (column.type()) {
+      case LONG:
+      case DOUBLE:
+        if (!SqlTypeUtil.isNumeric(literal.getType())) {
+          return null;
+        }
+        return numericPredicate(column, (RangeSet<BigDecimal>) sarg.rangeSet);
+      case STRING:
+        if (!SqlTypeUtil.inCharFamily(literal.getType())) {
+          return null;
+        }
+        if (sarg.isPoints()) {
+          return stringPredicate((StringSeries) column, stringPoints(sarg.rangeSet), false);
+        } else if (sarg.isComplementedPoints()) {
+          return stringPredicate((StringSeries) column,
+              stringPoints(sarg.rangeSet.complement()),
+              true);
+        }
+        return null;
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Returns the index of the column referenced by the node, or -1 if the node is not a column
+   * reference. Numeric casts that do not truncate the column values are ignored.
+   */
+  private static int columnIndex(final RexNode node) {
+    RexNode ref = node;
+    if (ref.isA(SqlKind.CAST)) {
+      final RexNode operand = ((RexCall) ref).getOperands().get(0);
+      final boolean isLossless = SqlTypeUtil.isNumeric(ref.getType())
+          && SqlTypeUtil.isNumeric(operand.getType())
+          && !(SqlTypeUtil.isApproximateNumeric(operand.getType())
+          && SqlTypeUtil.isExactNumeric(ref.getType()));
+      if (!isLossless) {
+        return -1;
+      }
+      ref = operand;
+    }
+    return ref instanceof RexInputRef ? ((RexInputRef) ref).getIndex() : -1;
+  }
+
+  private static RangeSet<BigDecimal> comparisonRanges(final SqlKind kind,
+      final BigDecimal value) {
+    switch (kind) {
+      case EQUALS:
+        return ImmutableRangeSet.of(Range.singleton(value));
+      case NOT_EQUALS:
+        return ImmutableRangeSet.of(Range.singleton(value)).complement();
+      case LESS_THAN:
+        return ImmutableRangeSet.of(Range.lessThan(value));
+      case LESS_THAN_OR_EQUAL:
+        return ImmutableRangeSet.of(Range.atMost(value));
+      case GREATER_THAN:
+        return ImmutableRangeSet.of(Range.greaterThan(value));
+      case GREATER_THAN_OR_EQUAL:
+        return ImmutableRangeSet.of(Range.atLeast(value));
+      default:
+        throw new IllegalArgumentException("Unsupported comparison: " + kind);
+    }
+  }
+
+  private static Set<String> stringPoints(final RangeSet<?> rangeSet) {
+    final Set<String> points = new HashSet<>();
+    for (final Range<?> range : rangeSet.asRanges()) {
+      final Object point = range.lowerEndpoint();
+      points.add(point instanceof NlsString ? ((NlsString) point).getValue() : point.toString());
+    }
+    return points;
+  }
+
+  private static IntPredicate stringPredicate(final StringSeries column, final Set<String> values,
+      final boolean negate) {
+    final String[] strings = column.values();
+    if (values.size() == 1) {
+      final String value = values.iterator().next();
+      return row -> strings[row] != null && value.equals(strings[row]) != negate;
+    }
+    return row -> strings[row] != null && values.contains(strings[row]) != negate;
+  }
+
+  private static IntPredicate numericPredicate(final Series column,
+      final RangeSet<BigDecimal> rangeSet) {
+    if (column instanceof LongSeries) {
+      return longRangesPredicate(((LongSeries) column).values(), rangeSet);
+    }
+    return doubleRangesPredicate(((DoubleSeries) column).values(), rangeSet);
+  }
+
+  /**
+   * Ranges are converted to closed long ranges, so that values are compared without loss of
+   * precision. For instance, x > 2.5 becomes x >= 3.
+   */
+  private static IntPredicate longRangesPredicate(final long[] values,
+      final RangeSet<BigDecimal> rangeSet) {
+    final List<long[]> bounds = new ArrayList<>();
+    for (final Range<BigDecimal> range : rangeSet.asRanges()) {
+      long lower = LongSeries.MIN_VALUE;
+      if (range.hasLowerBound()) {
+        final BigDecimal lowerEndpoint = range.lowerBoundType() == BoundType.CLOSED
+            ? range.lowerEndpoint().setScale(0, RoundingMode.CEILING)
+            : range.lowerEndpoint().setScale(0, RoundingMode.FLOOR).add(BigDecimal.ONE);
+        if (lowerEndpoint.compareTo(LONG_MAX) > 0) {
+          continue;
+        }
+        lower = lowerEndpoint.max(LONG_MIN).longValueExact();
+      }
+      long upper = LongSeries.MAX_VALUE;
+      if (range.hasUpperBound()) {
+        final BigDecimal upperEndpoint = range.upperBoundType() == BoundType.CLOSED
+            ? range.upperEndpoint().setScale(0, RoundingMode.FLOOR)
+            : range.upperEndpoint().setScale(0, RoundingMode.CEILING).subtract(BigDecimal.ONE);
+        if (upperEndpoint.compareTo(LONG_MIN) < 0) {
+          continue;
+        }
+        upper = upperEndpoint.min(LONG_MAX).longValueExact();
+      }
+      if (lower <= upper) {
+        bounds.add(new long[]{lower, upper});
+      }
+    }
+    // ranges of a RangeSet are disjoint and sorted
+    final long[] lowers = bounds.stream().mapToLong(b -> b[0]).toArray();
+    final long[] uppers = bounds.stream().mapToLong(b -> b[1]).toArray();
+    if (lowers.length == 1) {
+      final long lower = lowers[0];
+      final long upper = uppers[0];
+      return row -> !LongSeries.isNull(values[row]) && lower <= values[row]
+          && values[row] <= upper;
+    }
+    return row -> {
+      final long value = values[row];
+      if (LongSeries.isNull(value)) {
+        return false;
+      }
+      // last range with a lower bound smaller or equal to the value
+      int lo = 0;
+      int hi = lowers.length - 1;
+      int candidate = -1;
+      while (lo <= hi) {
+        final int mid = (lo + hi) >>> 1;
+        if (lowers[mid] <= value) {
+          candidate = mid;
+          lo = mid + 1;
+        } else {
+          hi = mid - 1;
+        }
+      }
+      return candidate != -1 && value <= uppers[candidate];
+    };
+  }
+
+  private static IntPredicate doubleRangesPredicate(final double[] values,
+      final RangeSet<BigDecimal> rangeSet) {
+    final int size = rangeSet.asRanges().size();
+    final double[] lowers = new double[size];
+    final boolean[] lowersClosed = new boolean[size];
+    final double[] uppers = new double[size];
+    final boolean[] uppersClosed = new boolean[size];
+    int i = 0;
+    for (final Range<BigDecimal> range : rangeSet.asRanges()) {
+      lowers[i] = range.hasLowerBound()
+          ? range.lowerEndpoint().doubleValue()
+          : Double.NEGATIVE_INFINITY;
+      lowersClosed[i] = !range.hasLowerBound() || range.lowerBoundType() == BoundType.CLOSED;
+      uppers[i] = range.hasUpperBound()
+          ? range.upperEndpoint().doubleValue()
+          : Double.POSITIVE_INFINITY;
+      uppersClosed[i] = !range.hasUpperBound() || range.upperBoundType() == BoundType.CLOSED;
+      i++;
+    }
+    return row -> {
+      final double value = values[row];
+      if (DoubleSeries.isNull(value)) {
+        return false;
+      }
+      // last range with a lower bound smaller or equal to the value
+      int lo = 0;
+      int hi = size - 1;
+      int candidate = -1;
+      while (lo <= hi) {
+        final int mid = (lo + hi) >>> 1;
+        if (lowers[mid] <= value) {
+          candidate = mid;
+          lo = mid + 1;
+        } else {
+          hi = mid - 1;
+        }
+      }
+      // adjacent ranges can share an endpoint - check the previous range too
+      for (int j = candidate; j >= Math.max(0, candidate - 1); j--) {
+        final boolean aboveLower = lowersClosed[j] ? lowers[j] <= value : lowers[j] < value;
+        final boolean belowUpper = uppersClosed[j] ? value <= uppers[j] : value < uppers[j];
+        if (aboveLower && belowUpper) {
+          return true;
+        }
+      }
+      return false;
+    };
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.detectionpipeline.operator.sql;
+
+import ai.startree.thirdeye.spi.dataframe.DataFrame;
+import ai.startree.thirdeye.spi.dataframe.Series;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+import org.apache.calcite.DataContext;
+import org.apache.calcite.linq4j.AbstractEnumerable;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.rel.type.RelProtoDataType;
+import org.apache.calcite.rex.RexCall;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.schema.ProjectableFilterableTable;
+import org.apache.calcite.sql.SqlKind;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Table based on a DataFrame. Implements projection and filter push down.
+ *
+ * <p>It implements the {@link ProjectableFilterableTable} interface, so Calcite gets
+ * data by calling the {@link #scan(DataContext, List, int[])} method. Only the projected columns
+ * are read. Filters are evaluated on the primitive arrays of the series, see
+ * {@link DataFramePredicates}.
+ */
+public class DataFrameProjectableFilterableTable extends DataFrameTable
+    implements ProjectableFilterableTable {
+
+  /**
+   * Series of the DataFrame, in the order of the row type.
+   */
+  private final List<Series> columns;
+
+  public DataFrameProjectableFilterableTable(final DataFrame dataFrame,
+      final @Nullable RelProtoDataType protoRowType) {
+    super(dataFrame, protoRowType);
+    this.columns = List.copyOf(dataFrame.getSeries().values());
+  }
+
+  @Override
+  public String toString() {
+    return "DataFrameProjectableFilterableTable";
+  }
+
+  @Override
+  public Enumerable<@Nullable Object[]> scan(final DataContext root, final List<RexNode> filters,
+      final int @Nullable [] projects) {
+    final List<IntPredicate> predicates = new ArrayList<>();
+    filters.removeIf(filter -> addPredicate(filter, predicates));
+    final List<Series> projectedColumns = projects == null
+        ? columns
+        : IntStream.of(projects).mapToObj(columns::get).toList();
+    final AtomicBoolean cancelFlag = DataContext.Variable.CANCEL_FLAG.get(root);
+    return new AbstractEnumerable<@Nullable Object[]>() {
+      @Override
+      public Enumerator<@Nullable Object[]> enumerator() {
+        return new DataFrameColumnarEnumerator(dataFrame.size(),
+            projectedColumns,
+            predicates,
+            cancelFlag);
+      }
+    };
+  }
+
+  /**
+   * Returns true if the filter is fully evaluated by the predicates and can be removed.
+   */
+  private boolean addPredicate(final RexNode filter, final List<IntPredicate> predicates) {
+    if (filter.isA(SqlKind.AND)) {
+      // We cannot refine(remove) the operands of AND,
+      // it will cause o.a.c.i.TableScanNode.createFilterable filters check failed.
+      ((RexCall) filter).getOperands().forEach(subFilter -> addPredicate(subFilter, predicates));
+      return false;
+    }
+    final IntPredicate predicate = DataFramePredicates.toPredicate(filter, columns);
+    if (predicate == null) {
+      return false;
+    }
+    predicates.add(predicate);
+    return true;
+  }
+}
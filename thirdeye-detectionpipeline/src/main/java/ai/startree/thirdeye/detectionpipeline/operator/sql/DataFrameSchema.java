@@ -60,6 +60,6 @@ public class DataFrameSchema extends AbstractSchema {
   }
 
   private Table createTable(DataFrame dataframe) {
-    return new DataFrameFilterableTable(dataframe, null);
+    return new DataFrameProjectableFilterableTable(dataframe, null);
   }
 }
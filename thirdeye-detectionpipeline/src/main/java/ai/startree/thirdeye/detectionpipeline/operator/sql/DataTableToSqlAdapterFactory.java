@@ -20,11 +20,19 @@ import ai.startree.thirdeye.spi.detection.v2.DataTableToSqlAdapter;
 public class DataTableToSqlAdapterFactory {
 
   public static DataTableToSqlAdapter create(final String sqlEngine) {
+    return create(sqlEngine, HyperSqlDataTableToSqlAdapter.DEFAULT_BATCH_SIZE);
+  }
+
+  /**
+   * @param insertBatchSize number of rows inserted per JDBC batch. Only used by engines that
+   *     copy the DataTables in SQL tables.
+   */
+  public static DataTableToSqlAdapter create(final String sqlEngine, final int insertBatchSize) {
     switch (sqlEngine.toUpperCase(DEFAULT_LOCALE)) {
       case "CALCITE":
         return new CalciteDataTableToSqlAdapter();
       case "HYPERSQL": case "HSQLDB":
-        return new HyperSqlDataTableToSqlAdapter();
+        return new HyperSqlDataTableToSqlAdapter(insertBatchSize);
       default:
         throw new IllegalArgumentException(String.format("Unknown SQL engine: %s", sqlEngine));
     }
@@ -13,13 +13,20 @@
  */
 package ai.startree.thirdeye.detectionpipeline.operator.sql;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
+import ai.startree.thirdeye.spi.dataframe.BooleanSeries;
 import ai.startree.thirdeye.spi.dataframe.DataFrame;
+import ai.startree.thirdeye.spi.dataframe.Series;
 import ai.startree.thirdeye.spi.dataframe.Series.SeriesType;
 import ai.startree.thirdeye.spi.detection.v2.DataTable;
 import ai.startree.thirdeye.spi.detection.v2.DataTableToSqlAdapter;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -29,12 +36,28 @@ import org.slf4j.LoggerFactory;
 
 public class HyperSqlDataTableToSqlAdapter implements DataTableToSqlAdapter {
 
+  public static final int DEFAULT_BATCH_SIZE = 1000;
+
   private final Logger LOG = LoggerFactory.getLogger(getClass());
 
   private final List<String> insertedTable = new ArrayList<>();
 
   private final Properties properties = new Properties();
 
+  /**
+   * Number of rows inserted per JDBC batch when loading a DataTable.
+   */
+  private final int batchSize;
+
+  public HyperSqlDataTableToSqlAdapter() {
+    this(DEFAULT_BATCH_SIZE);
+  }
+
+  public HyperSqlDataTableToSqlAdapter(final int batchSize) {
+    checkArgument(batchSize > 0, "batchSize must be strictly positive. Got %s", batchSize);
+    this.batchSize = batchSize;
+  }
+
   @Override
   public String jdbcConnection() {
     return "jdbc:hsqldb:mem";
@@ -91,17 +114,88 @@ public class HyperSqlDataTableToSqlAdapter implements DataTableToSqlAdapter {
     createTable(c, tableName, df);
 
     // Insert all rows into the table
-    for (int rowIdx = 0; rowIdx < df.size(); rowIdx++) {
-      final String insertionStatement = getRowInsertionStatement(tableName, rowIdx, df);
-      try {
-        c.prepareCall(insertionStatement).execute();
-      } catch (final SQLException e) {
-        LOG.error("Failed to insert row idx: {}, insertion sql: {}",
-            rowIdx,
-            insertionStatement,
-            e);
-        throw e;
+    insertRows(c, tableName, df);
+  }
+
+  /**
+   * Inserts all rows with a single parameterized INSERT statement executed in batches.
+   * Values are bound with their SeriesType, so they do not need to be escaped.
+   */
+  private void insertRows(final Connection c, final String tableName, final DataFrame df)
+      throws SQLException {
+    final List<Series> columns = List.copyOf(df.getSeries().values());
+    final String insertionStatement = getInsertionStatement(tableName, columns.size());
+    final boolean autoCommit = c.getAutoCommit();
+    c.setAutoCommit(false);
+    int rowIdx = 0;
+    try (final PreparedStatement statement = c.prepareStatement(insertionStatement)) {
+      for (; rowIdx < df.size(); rowIdx++) {
+        for (int colIdx = 0; colIdx < columns.size(); colIdx++) {
+          bindValue(statement, colIdx + 1, columns.get(colIdx), rowIdx);
+        }
+        statement.addBatch();
+        if ((rowIdx + 1) % batchSize == 0) {
+          statement.executeBatch();
+        }
       }
+      if (rowIdx % batchSize != 0) {
+        statement.executeBatch();
+      }
+      c.commit();
+    } catch (final SQLException e) {
+      LOG.error("Failed to insert rows in table: {} before row idx: {}, insertion sql: {}",
+          tableName,
+          rowIdx,
+          insertionStatement,
+          e);
+      c.rollback();
+      throw e;
+    } finally {
+      c.setAutoCommit(autoCommit);
+    }
+  }
+
+  private static void bindValue(final PreparedStatement statement, final int parameterIndex,
+      final Series series, final int rowIdx) throws SQLException {
+    if (series.isNull(rowIdx)) {
+      statement.setNull(parameterIndex, getSqlType(series.type()));
+      return;
+    }
+    switch (series.type()) {
+      case LONG:
+        statement.setLong(parameterIndex, series.getLong(rowIdx));
+        break;
+      case DOUBLE:
+        statement.setDouble(parameterIndex, series.getDouble(rowIdx));
+        break;
+      case STRING:
+        statement.setString(parameterIndex, series.getString(rowIdx));
+        break;
+      case BOOLEAN:
+        statement.setBoolean(parameterIndex, BooleanSeries.isTrue(series.getBoolean(rowIdx)));
+        break;
+      case OBJECT:
+        statement.setObject(parameterIndex, series.getObject(rowIdx));
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown type " + series.type().name());
+    }
+  }
+
+  private static int getSqlType(final SeriesType seriesType) {
+    switch (seriesType) {
+      case LONG:
+        return Types.BIGINT;
+      case DOUBLE:
+        return Types.DOUBLE;
+      case STRING:
+        return Types.VARCHAR;
+      case BOOLEAN:
+        return Types.BOOLEAN;
+      case OBJECT:
+        return Types.VARBINARY;
+      default:
+        throw new IllegalArgumentException("Unknown type " + seriesType.name());
     }
   }
 
@@ -122,28 +216,10 @@ public class HyperSqlDataTableToSqlAdapter implements DataTableToSqlAdapter {
     }
   }
 
-  private String getRowInsertionStatement(final String tableName,
-      final int rowIdx,
-      final DataFrame dataFrame) {
-    final StringBuilder sb = new StringBuilder(
-        "INSERT INTO " + tableName + " VALUES (");
-    final List<String> seriesNames = dataFrame.getSeriesNames();
-    for (int colIdx = 0; colIdx < seriesNames.size(); colIdx++) {
-      final Object value = dataFrame.getObject(seriesNames.get(colIdx), rowIdx);
-
-      // If string, then wrap with quotes
-      final String quoteWith = value instanceof String ? "'" : "";
-      sb
-          .append(quoteWith)
-          .append(value)
-          .append(quoteWith);
-
-      if (colIdx < seriesNames.size() - 1) {
-        sb.append(", ");
-      }
-    }
-    sb.append(")");
-    return sb.toString();
+  private static String getInsertionStatement(final String tableName, final int columnCount) {
+    return "INSERT INTO " + tableName + " VALUES ("
+        + String.join(", ", Collections.nCopies(columnCount, "?"))
+        + ")";
   }
 
   private String getTableCreationStatement(final String tableName, final List<String> columns,
@@ -14,6 +14,7 @@
 package ai.startree.thirdeye.detectionpipeline.spec;
 
 import ai.startree.thirdeye.datasource.cache.DataSourceCache;
+import ai.startree.thirdeye.detectionpipeline.components.IncrementalFetchCache;
 import ai.startree.thirdeye.spi.datalayer.Predicate;
 import ai.startree.thirdeye.spi.datalayer.bao.DataSourceManager;
 import ai.startree.thirdeye.spi.datalayer.bao.DatasetConfigManager;
@@ -61,7 +62,11 @@ public class DataFetcherSpec extends AbstractSpec {
    * Expected to be set during DataFetcherOperator init.
    */
   private String namespace;
-  
+
+  /**
+   * Expected to be set during DataFetcherOperator init. Optional.
+   */
+  private IncrementalFetchCache incrementalFetchCache;
 
   public String getDataSource() {
     return dataSource;
@@ -135,4 +140,14 @@ public class DataFetcherSpec extends AbstractSpec {
     this.dataSourceDao = dataSourceDao;
     return this;
   }
+
+  public IncrementalFetchCache getIncrementalFetchCache() {
+    return incrementalFetchCache;
+  }
+
+  public DataFetcherSpec setIncrementalFetchCache(
+      final IncrementalFetchCache incrementalFetchCache) {
+    this.incrementalFetchCache = incrementalFetchCache;
+    return this;
+  }
 }
@@ -14,26 +14,64 @@
 package ai.startree.thirdeye.detectionpipeline;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import ai.startree.thirdeye.alert.AlertTemplateRenderer;
 import ai.startree.thirdeye.datalayer.core.EnumerationItemMaintainer;
 import ai.startree.thirdeye.datasource.cache.DataSourceCache;
+import ai.startree.thirdeye.detectionpipeline.components.IncrementalFetchCache;
+import ai.startree.thirdeye.detectionpipeline.operator.CombinerOperator;
+import ai.startree.thirdeye.detectionpipeline.operator.CombinerResult;
 import ai.startree.thirdeye.detectionpipeline.operator.EchoOperator;
 import ai.startree.thirdeye.detectionpipeline.operator.EchoOperator.EchoResult;
+import ai.startree.thirdeye.detectionpipeline.operator.ForkJoinOperator.ForkJoinItemResult;
+import ai.startree.thirdeye.detectionpipeline.plan.CombinerPlanNode;
 import ai.startree.thirdeye.detectionpipeline.plan.EchoPlanNode;
+import ai.startree.thirdeye.detectionpipeline.plan.EnumeratorPlanNode;
+import ai.startree.thirdeye.detectionpipeline.plan.ForkJoinPlanNode;
 import ai.startree.thirdeye.spi.datalayer.TemplatableMap;
+import ai.startree.thirdeye.spi.datalayer.bao.AlertManager;
+import ai.startree.thirdeye.spi.datalayer.bao.AlertTemplateManager;
 import ai.startree.thirdeye.spi.datalayer.bao.DataSourceManager;
 import ai.startree.thirdeye.spi.datalayer.bao.DatasetConfigManager;
 import ai.startree.thirdeye.spi.datalayer.bao.EnumerationItemManager;
 import ai.startree.thirdeye.spi.datalayer.bao.EventManager;
+import ai.startree.thirdeye.spi.ThirdEyeException;
+import ai.startree.thirdeye.spi.dataframe.DataFrame;
+import ai.startree.thirdeye.spi.dataframe.DoubleSeries;
+import ai.startree.thirdeye.spi.dataframe.LongSeries;
+import ai.startree.thirdeye.spi.dataframe.StringSeries;
+import ai.startree.thirdeye.spi.datalayer.dto.AlertDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.AlertTemplateDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.DataSourceDTO;
 import ai.startree.thirdeye.spi.datalayer.dto.EnumerationItemDTO;
 import ai.startree.thirdeye.spi.datalayer.dto.PlanNodeBean;
+import ai.startree.thirdeye.spi.datalayer.dto.PlanNodeBean.InputBean;
+import ai.startree.thirdeye.spi.datalayer.dto.PlanNodeBean.OutputBean;
+import ai.startree.thirdeye.spi.datasource.DataSourceRequest;
+import ai.startree.thirdeye.spi.datasource.ThirdEyeDataSource;
+import ai.startree.thirdeye.spi.datasource.macro.SqlLanguage;
+import ai.startree.thirdeye.spi.datasource.macro.ThirdEyeSqlParserConfig;
+import ai.startree.thirdeye.spi.datasource.macro.ThirdeyeSqlDialect;
 import ai.startree.thirdeye.spi.detection.Enumerator;
+import ai.startree.thirdeye.spi.detection.v2.DataTable;
 import ai.startree.thirdeye.spi.detection.v2.OperatorResult;
+import ai.startree.thirdeye.spi.detection.v2.SimpleDataTable;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.joda.time.DateTimeZone;
 import org.joda.time.Interval;
 import org.testng.annotations.BeforeMethod;
@@ -41,38 +79,52 @@ import org.testng.annotations.Test;
 
 public class PlanExecutorTest {
 
+  private static final ThirdEyeSqlParserConfig SQL_PARSER_CONFIG = new ThirdEyeSqlParserConfig.Builder()
+      .withLex("MYSQL_ANSI")
+      .withConformance("BABEL")
+      .withParserFactory("SqlBabelParserImpl")
+      .build();
+  private static final ThirdeyeSqlDialect SQL_DIALECT = new ThirdeyeSqlDialect.Builder()
+      .withBaseDialect("AnsiSqlDialect")
+      .withIdentifierQuoteString("\"")
+      .withIdentifierEscapedQuoteString("")
+      .build();
+
   private PlanExecutor planExecutor;
   private Enumerator enumerator;
+  private DetectionRegistry detectionRegistry;
+  private DataSourceCache dataSourceCache;
+  private DataSourceManager dataSourceDao;
 
   @BeforeMethod
   public void setUp() {
-    final DetectionRegistry detectionRegistry = mock(DetectionRegistry.class);
-    final DataSourceCache dataSourceCache = mock(DataSourceCache.class);
-    final PostProcessorRegistry postProcessorRegistry = mock(PostProcessorRegistry.class);
-    final EventManager eventManager = mock(EventManager.class);
-    final DatasetConfigManager datasetConfigManager = mock(DatasetConfigManager.class);
-    final DataSourceManager dataSourceDao = mock(DataSourceManager.class);
-    final PlanNodeFactory planNodeFactory = new PlanNodeFactory(
-    );
+    detectionRegistry = mock(DetectionRegistry.class);
+    dataSourceCache = mock(DataSourceCache.class);
+    dataSourceDao = mock(DataSourceManager.class);
     final EnumerationItemManager enumerationItemManager = mock(EnumerationItemManager.class);
     when(enumerationItemManager.save(any())).thenAnswer(e -> {
       ((EnumerationItemDTO) e.getArguments()[0]).setId(1L);
       return 1L;
     });
-    planExecutor = new PlanExecutor(planNodeFactory,
-        dataSourceCache,
-        detectionRegistry,
-        postProcessorRegistry,
-        eventManager,
-        dataSourceDao, 
-        datasetConfigManager,
-        new DetectionPipelineConfiguration(),
-        mock(EnumerationItemMaintainer.class));
+    planExecutor = newPlanExecutor(new DetectionPipelineConfiguration());
     enumerator = mock(Enumerator.class);
 
     when(detectionRegistry.buildEnumerator("default")).thenReturn(enumerator);
   }
 
+  private PlanExecutor newPlanExecutor(final DetectionPipelineConfiguration configuration) {
+    return new PlanExecutor(new PlanNodeFactory(),
+        dataSourceCache,
+        detectionRegistry,
+        mock(PostProcessorRegistry.class),
+        mock(EventManager.class),
+        dataSourceDao,
+        mock(DatasetConfigManager.class),
+        configuration,
+        mock(EnumerationItemMaintainer.class),
+        mock(IncrementalFetchCache.class));
+  }
+
   @Test
   public void testExecutePlanNode() throws Exception {
     final EchoPlanNode node = new EchoPlanNode();
@@ -103,4 +155,288 @@ public class PlanExecutorTest {
     final EchoResult echoResult = (EchoResult) result;
     assertThat(echoResult.text()).isEqualTo(echoInput);
   }
+
+  @Test
+  public void testExecutePlanNodeInParallel() throws Exception {
+    final Map<String, PlanNode> pipelinePlanNodes = new HashMap<>();
+    pipelinePlanNodes.put("current", echoNode("current", "current_text", List.of()));
+    pipelinePlanNodes.put("baseline", echoNode("baseline", "baseline_text", List.of()));
+    final PlanNode rootNode = echoNode("root", "root_text", List.of(
+        echoInput("current", "currentInput"),
+        echoInput("baseline", "baselineInput")));
+    pipelinePlanNodes.put("root", rootNode);
+
+    final Map<ContextKey, OperatorResult> resultMap = new ConcurrentHashMap<>();
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      PlanExecutor.executePlanNodeInParallel(pipelinePlanNodes, rootNode, resultMap, executor);
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(resultMap.size()).isEqualTo(3);
+    for (final String nodeName : List.of("current", "baseline", "root")) {
+      final EchoResult echoResult = (EchoResult) resultMap.get(
+          PlanExecutor.key(nodeName, EchoOperator.DEFAULT_OUTPUT_KEY));
+      assertThat(echoResult.text()).isEqualTo(nodeName + "_text");
+    }
+  }
+
+  @Test
+  public void testExecutePlanNodeInParallelWithMissingSourceNode() {
+    final PlanNode rootNode = echoNode("root", "root_text", List.of(
+        echoInput("missing", "missingInput")));
+    final Map<String, PlanNode> pipelinePlanNodes = new HashMap<>(Map.of("root", rootNode));
+
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      assertThatThrownBy(() -> PlanExecutor.executePlanNodeInParallel(pipelinePlanNodes,
+          rootNode,
+          new ConcurrentHashMap<>(),
+          executor)).isInstanceOf(IllegalArgumentException.class);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testForkJoinFailsWhenAnItemFails() {
+    when(enumerator.enumerate(any())).thenReturn(List.of(
+        new EnumerationItemDTO().setName("a").setParams(Map.of("text", "text_a")),
+        // fails: the sub-plan cannot be rendered
+        new EnumerationItemDTO().setName("c").setParams(Map.of())));
+
+    assertThatThrownBy(() -> planExecutor.runAndGetRootOutputs(forkJoinEchoPlan("${text}"),
+        new DetectionPipelineContext()
+            .setDetectionInterval(new Interval(0L, 0L, DateTimeZone.UTC))))
+        .hasRootCauseInstanceOf(ThirdEyeException.class);
+  }
+
+  @Test
+  public void testForkJoinRunsSubPlanPerEnumerationItem() throws Exception {
+    when(enumerator.enumerate(any())).thenReturn(List.of(
+        new EnumerationItemDTO().setName("a").setParams(Map.of("text", "text_a")),
+        new EnumerationItemDTO().setName("b").setParams(Map.of("text", "text_b")),
+        // fails: the sub-plan cannot be rendered
+        new EnumerationItemDTO().setName("c").setParams(Map.of())));
+    final Map<String, OperatorResult> outputs = planExecutor.runAndGetRootOutputs(
+        forkJoinEchoPlan("${text}", Map.of("allowPartialFailure", "true")),
+        new DetectionPipelineContext()
+            .setDetectionInterval(new Interval(0L, 0L, DateTimeZone.UTC)));
+
+    final CombinerResult combinerResult = (CombinerResult) outputs.get(
+        CombinerOperator.DEFAULT_OUTPUT_KEY);
+    assertThat(combinerResult.getResults().size()).isEqualTo(2);
+    for (final OperatorResult result : combinerResult.getDetectionResults()) {
+      final ForkJoinItemResult itemResult = (ForkJoinItemResult) result;
+      assertThat(((EchoResult) itemResult.getResult()).text())
+          .isEqualTo("text_" + itemResult.getEnumerationItem().getName());
+    }
+  }
+
+  @Test
+  public void testForkJoinSubPlanRenderedWithTheAlert() throws Exception {
+    when(enumerator.enumerate(any())).thenReturn(List.of(
+        new EnumerationItemDTO().setName("a").setParams(Map.of("text", "text_a")),
+        new EnumerationItemDTO().setName("b").setParams(Map.of("text", "text_b"))));
+    final AlertTemplateRenderer renderer = new AlertTemplateRenderer(mock(AlertManager.class),
+        mock(AlertTemplateManager.class));
+    final Interval detectionInterval = new Interval(0L, 0L, DateTimeZone.UTC);
+
+    // item placeholders must be escaped to go through the rendering of the alert
+    assertThatThrownBy(() -> renderer.renderAlert(new AlertDTO().setName("alert")
+            .setTemplate(new AlertTemplateDTO().setNodes(forkJoinEchoPlan("${text}"))),
+        detectionInterval)).hasCauseInstanceOf(ThirdEyeException.class);
+    final AlertTemplateDTO renderedTemplate = renderer.renderAlert(new AlertDTO().setName("alert")
+            .setTemplate(new AlertTemplateDTO().setNodes(forkJoinEchoPlan("$${text}"))),
+        detectionInterval);
+
+    final Map<String, OperatorResult> outputs = planExecutor.runAndGetRootOutputs(
+        renderedTemplate.getNodes(),
+        new DetectionPipelineContext().setDetectionInterval(detectionInterval));
+
+    final CombinerResult combinerResult = (CombinerResult) outputs.get(
+        CombinerOperator.DEFAULT_OUTPUT_KEY);
+    assertThat(combinerResult.getResults().size()).isEqualTo(2);
+    for (final OperatorResult result : combinerResult.getDetectionResults()) {
+      final ForkJoinItemResult itemResult = (ForkJoinItemResult) result;
+      assertThat(((EchoResult) itemResult.getResult()).text())
+          .isEqualTo("text_" + itemResult.getEnumerationItem().getName());
+    }
+  }
+
+  @Test(timeOut = 60_000)
+  public void testForkJoinInParallelModeWithSingleThreadExecutors() throws Exception {
+    when(enumerator.enumerate(any())).thenReturn(List.of(
+        new EnumerationItemDTO().setName("a").setParams(Map.of("text", "text_a")),
+        new EnumerationItemDTO().setName("b").setParams(Map.of("text", "text_b"))));
+    // the fork-join node occupies the only thread of the node executor while its items run
+    final PlanExecutor singleThreadPlanExecutor = newPlanExecutor(new DetectionPipelineConfiguration()
+        .setParallelNodeExecution(true)
+        .setForkjoin(new ForkJoinConfiguration()
+            .setParallelism(1)
+            .setTimeout(Duration.ofSeconds(30))));
+    try {
+      final Map<String, OperatorResult> outputs = singleThreadPlanExecutor.runAndGetRootOutputs(
+          forkJoinEchoPlan("${text}"),
+          new DetectionPipelineContext()
+              .setDetectionInterval(new Interval(0L, 0L, DateTimeZone.UTC)));
+
+      final CombinerResult combinerResult = (CombinerResult) outputs.get(
+          CombinerOperator.DEFAULT_OUTPUT_KEY);
+      assertThat(combinerResult.getResults().size()).isEqualTo(2);
+    } finally {
+      singleThreadPlanExecutor.close();
+    }
+  }
+
+  @Test
+  public void testForkJoinFetchesEnumerationItemsWithAGroupedQuery() throws Exception {
+    when(enumerator.enumerate(any())).thenReturn(List.of(
+        new EnumerationItemDTO().setName("US").setParams(Map.of("country", "US")),
+        new EnumerationItemDTO().setName("FR").setParams(Map.of("country", "FR"))));
+    final DataSourceDTO dataSourceDto = new DataSourceDTO().setName("pinot");
+    dataSourceDto.setId(1L);
+    when(dataSourceDao.findByNameAndNamespaceOrUnsetNamespace("pinot", null))
+        .thenReturn(dataSourceDto);
+    final SqlLanguage sqlLanguage = mock(SqlLanguage.class);
+    when(sqlLanguage.getSqlParserConfig()).thenReturn(SQL_PARSER_CONFIG);
+    when(sqlLanguage.getSqlDialect()).thenReturn(SQL_DIALECT);
+    final ThirdEyeDataSource dataSource = mock(ThirdEyeDataSource.class);
+    when(dataSource.getSqlLanguage()).thenReturn(sqlLanguage);
+    when(dataSourceCache.getDataSource(dataSourceDto)).thenReturn(dataSource);
+    final List<String> queries = new ArrayList<>();
+    when(dataSource.fetchDataTable(any())).thenAnswer(invocation -> {
+      queries.add(((DataSourceRequest) invocation.getArgument(0)).getQuery());
+      return SimpleDataTable.fromDataFrame(new DataFrame()
+          .addSeries("ts", LongSeries.buildFrom(1L, 1L, 2L))
+          .addSeries("met", DoubleSeries.buildFrom(10, 20, 11))
+          .addSeries("enumerationDimension0", StringSeries.buildFrom("US", "FR", "US")));
+    });
+    final List<PlanNodeBean> planNodeBeans = List.of(
+        new PlanNodeBean().setName("enumerator").setType(EnumeratorPlanNode.TYPE),
+        new PlanNodeBean().setName("combiner").setType(CombinerPlanNode.TYPE),
+        new PlanNodeBean().setName("root").setType(ForkJoinPlanNode.TYPE)
+            .setParams(TemplatableMap.fromValueMap(Map.of(
+                "enumerator", "enumerator",
+                "root", "dataFetcher",
+                "combiner", "combiner"))),
+        new PlanNodeBean().setName("dataFetcher").setType("DataFetcher")
+            .setParams(TemplatableMap.fromValueMap(Map.of(
+                "component.dataSource", "pinot",
+                "component.query", "SELECT ts, SUM(views) AS met FROM pageviews "
+                    + "WHERE country = '${country}' GROUP BY ts")))
+            .setOutputs(List.of(new OutputBean().setOutputName("currentData"))));
+
+    final Map<String, OperatorResult> outputs = planExecutor.runAndGetRootOutputs(planNodeBeans,
+        new DetectionPipelineContext()
+            .setDetectionInterval(new Interval(0L, 0L, DateTimeZone.UTC)));
+
+    // a single grouped query for all the items
+    assertThat(queries.size()).isEqualTo(1);
+    assertThat(queries.get(0)).contains("(\"country\" IN ('US', 'FR'))");
+    final CombinerResult combinerResult = (CombinerResult) outputs.get(
+        CombinerOperator.DEFAULT_OUTPUT_KEY);
+    final Map<String, Integer> rowCounts = new HashMap<>();
+    for (final OperatorResult result : combinerResult.getDetectionResults()) {
+      final ForkJoinItemResult itemResult = (ForkJoinItemResult) result;
+      rowCounts.put(itemResult.getEnumerationItem().getName(),
+          ((DataTable) itemResult.getResult()).getDataFrame().size());
+    }
+    assertThat(rowCounts).isEqualTo(Map.of("US", 2, "FR", 1));
+  }
+
+  /**
+   * A fork-join node echoing the text param of each enumeration item.
+   */
+  private static List<PlanNodeBean> forkJoinEchoPlan(final String echoText) {
+    return forkJoinEchoPlan(echoText, Map.of());
+  }
+
+  private static List<PlanNodeBean> forkJoinEchoPlan(final String echoText,
+      final Map<String, Object> forkJoinParams) {
+    final Map<String, Object> params = new HashMap<>(forkJoinParams);
+    params.putAll(Map.of(
+        "enumerator", "enumerator",
+        "root", "echo",
+        "combiner", "combiner"));
+    return List.of(
+        new PlanNodeBean().setName("enumerator").setType(EnumeratorPlanNode.TYPE),
+        new PlanNodeBean().setName("combiner").setType(CombinerPlanNode.TYPE),
+        new PlanNodeBean().setName("root").setType(ForkJoinPlanNode.TYPE)
+            .setParams(TemplatableMap.fromValueMap(params)),
+        new PlanNodeBean().setName("echo").setType(EchoPlanNode.TYPE)
+            .setParams(TemplatableMap.ofValue(EchoOperator.DEFAULT_INPUT_KEY, echoText)));
+  }
+
+  @Test
+  public void testNullOutputsAreSkippedInBothExecutionModes() throws Exception {
+    final Map<String, OperatorResult> outputs = new HashMap<>();
+    outputs.put("nullOutput", null);
+    outputs.put("output", new EchoResult("text"));
+    final Operator operator = mock(Operator.class);
+    when(operator.getOutputs()).thenReturn(outputs);
+    final PlanNode node = mock(PlanNode.class);
+    when(node.getName()).thenReturn("root");
+    when(node.buildOperator()).thenReturn(operator);
+
+    final Map<ContextKey, OperatorResult> sequentialResultMap = new HashMap<>();
+    PlanExecutor.executePlanNode(new HashMap<>(), node, sequentialResultMap);
+    final Map<ContextKey, OperatorResult> parallelResultMap = new ConcurrentHashMap<>();
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      PlanExecutor.executePlanNodeInParallel(new HashMap<>(), node, parallelResultMap, executor);
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(sequentialResultMap).isEqualTo(Map.of(PlanExecutor.key("root", "output"),
+        outputs.get("output")));
+    assertThat(parallelResultMap).isEqualTo(sequentialResultMap);
+  }
+
+  @Test
+  public void testFailedNodeExecutionIsTimed() throws Exception {
+    final PlanNode node = mock(PlanNode.class);
+    when(node.getName()).thenReturn("root");
+    when(node.getType()).thenReturn("FailingNode");
+    when(node.buildOperator()).thenThrow(new IllegalStateException("failed"));
+    final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    Metrics.addRegistry(registry);
+    try {
+      assertThatThrownBy(() -> PlanExecutor.executePlanNode(new HashMap<>(), node, new HashMap<>()))
+          .isInstanceOf(IllegalStateException.class);
+
+      final Timer timer = registry.get("thirdeye_plan_node_execution")
+          .tag("type", "FailingNode")
+          .tag("exception", "IllegalStateException")
+          .timer();
+      assertThat(timer.count()).isEqualTo(1);
+    } finally {
+      Metrics.removeRegistry(registry);
+    }
+  }
+
+  private static PlanNode echoNode(final String name, final String echoText,
+      final List<InputBean> inputs) {
+    final EchoPlanNode node = new EchoPlanNode();
+    node.init(new PlanNodeContext()
+        .setName(name)
+        .setDetectionPipelineContext(new DetectionPipelineContext()
+            .setDetectionInterval(new Interval(0L, 0L, DateTimeZone.UTC)))
+        .setPlanNodeBean(new PlanNodeBean()
+            .setName(name)
+            .setInputs(inputs)
+            .setParams(TemplatableMap.ofValue(EchoOperator.DEFAULT_INPUT_KEY, echoText))
+        )
+    );
+    return node;
+  }
+
+  private static InputBean echoInput(final String sourcePlanNode, final String targetProperty) {
+    return new InputBean()
+        .setSourcePlanNode(sourcePlanNode)
+        .setSourceProperty(EchoOperator.DEFAULT_OUTPUT_KEY)
+        .setTargetProperty(targetProperty);
+  }
 }
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.detectionpipeline.components;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ai.startree.thirdeye.detectionpipeline.sql.filter.EnumerationFanInEngine.FanInQuery;
+import ai.startree.thirdeye.spi.dataframe.DataFrame;
+import ai.startree.thirdeye.spi.dataframe.DoubleSeries;
+import ai.startree.thirdeye.spi.dataframe.LongSeries;
+import ai.startree.thirdeye.spi.dataframe.StringSeries;
+import ai.startree.thirdeye.spi.detection.v2.DataTable;
+import ai.startree.thirdeye.spi.detection.v2.SimpleDataTable;
+import java.util.List;
+import java.util.Map;
+import org.testng.annotations.Test;
+
+public class EnumerationFanInTest {
+
+  private static DataTable grouped() {
+    final DataTable grouped = SimpleDataTable.fromDataFrame(new DataFrame()
+        .addSeries("ts", LongSeries.buildFrom(1L, 1L, 2L, 2L, 3L))
+        .addSeries("met", DoubleSeries.buildFrom(10, 20, 11, 21, 12))
+        .addSeries("enumerationDimension0", StringSeries.buildFrom("US", "FR", "US", "FR", "US")));
+    grouped.addProperties(Map.of("metadata.timeColumn", "ts"));
+    return grouped;
+  }
+
+  private static FanInQuery fanInQuery(final long limit, final Long itemLimit) {
+    return new FanInQuery("SELECT ...",
+        List.of("enumerationDimension0"),
+        List.of(List.of("FR"), List.of("US"), List.of("DE")),
+        limit,
+        itemLimit);
+  }
+
+  @Test
+  public void testSplit() {
+    final List<DataTable> items = EnumerationFanIn.split(grouped(), fanInQuery(100, null));
+
+    assertThat(items).hasSize(3);
+    assertThat(items.get(0).getDataFrame()).isEqualTo(new DataFrame()
+        .addSeries("ts", LongSeries.buildFrom(1L, 2L))
+        .addSeries("met", DoubleSeries.buildFrom(20, 21)));
+    assertThat(items.get(1).getDataFrame()).isEqualTo(new DataFrame()
+        .addSeries("ts", LongSeries.buildFrom(1L, 2L, 3L))
+        .addSeries("met", DoubleSeries.buildFrom(10, 11, 12)));
+    // no data for the item
+    assertThat(items.get(2).getDataFrame().size()).isEqualTo(0);
+    assertThat(items.get(2).getDataFrame().getSeriesNames()).containsExactlyInAnyOrder("ts",
+        "met");
+    assertThat(items.get(1).getProperties()).containsEntry("metadata.timeColumn", "ts");
+  }
+
+  @Test
+  public void testSplitIncompleteGroupedResult() {
+    // the grouped query may have been truncated by its limit
+    assertThat(EnumerationFanIn.split(grouped(), fanInQuery(5, null))).isNull();
+    // an item has more rows than the LIMIT of its query
+    assertThat(EnumerationFanIn.split(grouped(), fanInQuery(100, 2L))).isNull();
+    assertThat(EnumerationFanIn.split(grouped(), fanInQuery(100, 3L))).hasSize(3);
+  }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.detectionpipeline.components;
+
+import static ai.startree.thirdeye.spi.datasource.macro.MacroMetadataKeys.GRANULARITY;
+import static ai.startree.thirdeye.spi.datasource.macro.MacroMetadataKeys.MAX_TIME_MILLIS;
+import static ai.startree.thirdeye.spi.datasource.macro.MacroMetadataKeys.MIN_TIME_MILLIS;
+import static ai.startree.thirdeye.spi.datasource.macro.MacroMetadataKeys.TIME_GROUP_ALIAS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ai.startree.thirdeye.detectionpipeline.IncrementalFetchConfiguration;
+import ai.startree.thirdeye.detectionpipeline.components.IncrementalFetchCache.RequestExecutor;
+import ai.startree.thirdeye.spi.dataframe.DataFrame;
+import ai.startree.thirdeye.spi.datalayer.dto.DataSourceDTO;
+import ai.startree.thirdeye.spi.datasource.DataSourceRequest;
+import ai.startree.thirdeye.spi.detection.v2.DataTable;
+import ai.startree.thirdeye.spi.detection.v2.SimpleDataTable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.Interval;
+import org.joda.time.Period;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class IncrementalFetchCacheTest {
+
+  private static final long DAY = 86_400_000L;
+  private static final String QUERY = "SELECT __timeGroup(ts, 'EPOCH', 'P1D') AS ts, sum(v) AS v FROM t WHERE __timeFilter(ts, 'EPOCH', 'P2D') GROUP BY 1";
+  private static final DateTime OCTOBER_18 = new DateTime(2021, 10, 18, 0, 0, DateTimeZone.UTC);
+  private static final Period LOOKBACK = Period.days(2);
+
+  private IncrementalFetchCache cache;
+  private List<DataSourceRequest> executedRequests;
+
+  @BeforeMethod
+  public void setUp() {
+    cache = new IncrementalFetchCache(new IncrementalFetchConfiguration().setEnabled(true));
+    executedRequests = new ArrayList<>();
+  }
+
+  @Test
+  public void testSlidingWindowOnlyFetchesNewBuckets() throws Exception {
+    final Interval firstRun = new Interval(OCTOBER_18, OCTOBER_18.plusDays(1));
+    final DataTable first = fetch(firstRun, Period.hours(1), true);
+    assertThat(first.getDataFrame().getLongs("ts").values()).containsExactly(
+        OCTOBER_18.minusDays(2).getMillis(),
+        OCTOBER_18.minusDays(1).getMillis(),
+        OCTOBER_18.getMillis());
+
+    final Interval secondRun = new Interval(OCTOBER_18.plusDays(1), OCTOBER_18.plusDays(2));
+    final DataTable second = fetch(secondRun, Period.hours(1), true);
+
+    assertThat(executedRequests).hasSize(2);
+    final Map<String, String> tailProperties = executedRequests.get(1).getProperties();
+    assertThat(tailProperties.get(MIN_TIME_MILLIS.toString()))
+        .isEqualTo(String.valueOf(OCTOBER_18.plusDays(1).getMillis()));
+    assertThat(second.getDataFrame()).isEqualTo(expectedRows(secondRun));
+  }
+
+  @Test
+  public void testMutableBucketsAreFetchedAgain() throws Exception {
+    final DateTime today = DateTime.now(DateTimeZone.UTC).withTimeAtStartOfDay();
+    final Interval detectionInterval = new Interval(today.minusDays(1), today);
+    final Period mutabilityPeriod = Period.days(2);
+    fetch(detectionInterval, mutabilityPeriod, true);
+    final DataTable second = fetch(detectionInterval, mutabilityPeriod, true);
+
+    assertThat(executedRequests).hasSize(2);
+    final long mutableStart = today.minusDays(2).getMillis();
+    final long expectedTailStart = DateTime.now(DateTimeZone.UTC).minus(mutabilityPeriod)
+        .withTimeAtStartOfDay().getMillis();
+    assertThat(expectedTailStart).isIn(mutableStart, mutableStart + DAY);
+    assertThat(executedRequests.get(1).getProperties().get(MIN_TIME_MILLIS.toString()))
+        .isEqualTo(String.valueOf(expectedTailStart));
+    assertThat(second.getDataFrame()).isEqualTo(expectedRows(detectionInterval));
+  }
+
+  @Test
+  public void testUpdatedDataSourceDoesNotReadTheCachedBuckets() throws Exception {
+    final Interval firstRun = new Interval(OCTOBER_18, OCTOBER_18.plusDays(1));
+    fetch(dataSource(Map.of("url", "cluster1")), firstRun, Period.hours(1), true);
+    final Interval secondRun = new Interval(OCTOBER_18.plusDays(1), OCTOBER_18.plusDays(2));
+    fetch(dataSource(Map.of("url", "cluster2")), secondRun, Period.hours(1), true);
+
+    assertThat(executedRequests).hasSize(2);
+    // full query: the buckets cached for the previous connection are not reused
+    assertThat(executedRequests.get(1).getProperties().get(MIN_TIME_MILLIS.toString()))
+        .isEqualTo(String.valueOf(OCTOBER_18.minusDays(1).getMillis()));
+  }
+
+  @Test
+  public void testQueryWithoutTimeGroupAliasIsNotCached() throws Exception {
+    final Interval detectionInterval = new Interval(OCTOBER_18, OCTOBER_18.plusDays(1));
+    fetch(detectionInterval, Period.hours(1), false);
+    fetch(detectionInterval, Period.hours(1), false);
+
+    assertThat(executedRequests).hasSize(2);
+    assertThat(executedRequests.get(1).getProperties().get(MIN_TIME_MILLIS.toString()))
+        .isEqualTo(String.valueOf(OCTOBER_18.minusDays(2).getMillis()));
+  }
+
+  private static DataSourceDTO dataSource(final Map<String, Object> properties) {
+    final DataSourceDTO dataSource = new DataSourceDTO().setName("pinot").setProperties(properties);
+    dataSource.setId(1L);
+    return dataSource;
+  }
+
+  private DataTable fetch(final Interval detectionInterval, final Period mutabilityPeriod,
+      final boolean withTimeGroupAlias) throws Exception {
+    return fetch(dataSource(Map.of()), detectionInterval, mutabilityPeriod, withTimeGroupAlias);
+  }
+
+  private DataTable fetch(final DataSourceDTO dataSource, final Interval detectionInterval,
+      final Period mutabilityPeriod, final boolean withTimeGroupAlias) throws Exception {
+    final Function<DateTime, DataSourceRequest> tailRequestFactory =
+        timeFilterStart -> request(detectionInterval, timeFilterStart, withTimeGroupAlias);
+    final RequestExecutor executor = request -> {
+      executedRequests.add(request);
+      return SimpleDataTable.fromDataFrame(rows(
+          Long.parseLong(request.getProperties().get(MIN_TIME_MILLIS.toString())),
+          Long.parseLong(request.getProperties().get(MAX_TIME_MILLIS.toString()))));
+    };
+    return cache.fetch(dataSource,
+        QUERY,
+        detectionInterval,
+        mutabilityPeriod,
+        request(detectionInterval, null, withTimeGroupAlias),
+        tailRequestFactory,
+        executor);
+  }
+
+  // mimics the properties written by the macros of QUERY
+  private static DataSourceRequest request(final Interval detectionInterval,
+      final DateTime timeFilterStart, final boolean withTimeGroupAlias) {
+    final DateTime filterStart = timeFilterStart != null
+        ? timeFilterStart
+        : detectionInterval.getStart().minus(LOOKBACK);
+    final Map<String, String> properties = new HashMap<>();
+    properties.put(MIN_TIME_MILLIS.toString(), String.valueOf(filterStart.getMillis()));
+    properties.put(MAX_TIME_MILLIS.toString(), String.valueOf(detectionInterval.getEndMillis()));
+    properties.put(GRANULARITY.toString(), "P1D");
+    if (withTimeGroupAlias) {
+      properties.put(TIME_GROUP_ALIAS.toString(), "ts");
+    }
+    return new DataSourceRequest("t", QUERY, Map.of(), properties);
+  }
+
+  private static DataFrame expectedRows(final Interval detectionInterval) {
+    return rows(detectionInterval.getStart().minus(LOOKBACK).getMillis(),
+        detectionInterval.getEndMillis());
+  }
+
+  private static DataFrame rows(final long start, final long end) {
+    final int size = (int) ((end - start) / DAY);
+    final long[] times = new long[size];
+    final double[] values = new double[size];
+    for (int i = 0; i < size; i++) {
+      times[i] = start + i * DAY;
+      values[i] = times[i] / (double) DAY;
+    }
+    return new DataFrame().addSeries("ts", times).addSeries("v", values);
+  }
+}
@@ -81,8 +81,10 @@ public class DataFetcherOperatorTest {
                 dataSourceDao, 
                 datasetDao,
                 mock(ExecutorService.class),
+                mock(ExecutorService.class),
                 new DetectionPipelineConfiguration(),
-                mock(EnumerationItemMaintainer.class))
+                mock(EnumerationItemMaintainer.class),
+                null)
     ));
   }
 
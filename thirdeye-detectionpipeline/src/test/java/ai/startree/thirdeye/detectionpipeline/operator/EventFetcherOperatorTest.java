@@ -103,8 +103,10 @@ public class EventFetcherOperatorTest {
                 mock(DataSourceManager.class), 
                 mock(DatasetConfigManager.class),
                 mock(ExecutorService.class),
+                mock(ExecutorService.class),
                 new DetectionPipelineConfiguration(),
-                mock(EnumerationItemMaintainer.class))
+                mock(EnumerationItemMaintainer.class),
+                null)
         ));
   }
 
@@ -90,8 +90,10 @@ public class PostProcessorOperatorTest {
                 mock(DataSourceManager.class), 
                 mock(DatasetConfigManager.class),
                 mock(ExecutorService.class),
+                mock(ExecutorService.class),
                 new DetectionPipelineConfiguration(),
-                mock(EnumerationItemMaintainer.class))));
+                mock(EnumerationItemMaintainer.class),
+                null)));
   }
 
   @Test
@@ -57,7 +57,7 @@ public class DataFrameSchemaTest {
 
   @Test
   public void testPredicatePushdown() throws Exception {
-    // test String/Long/Double equal predicate push down to DataFrameEnumerator
+    // test String/Long/Double equal predicate push down to DataFrameColumnarEnumerator
     final Map<String, DataFrame> dataframes = ImmutableMap.of(
         "types_table", dataFrame
     );
@@ -84,6 +84,47 @@ public class DataFrameSchemaTest {
     Assert.assertEquals(outputDf, expectedDf);
   }
 
+  @Test
+  public void testRangeAndInPredicatePushdown() throws Exception {
+    final DataFrameSchema schema = new DataFrameSchema(ImmutableMap.of("types_table", dataFrame));
+    final Connection connection = getConnection(schema, properties);
+    final Statement statement = connection.createStatement();
+
+    final ResultSet resultSet = statement.executeQuery(
+        "select str_column, long_column, double_column "
+            + "from types_table "
+            + "where long_column >= 1568549798000 "
+            + "AND double_column < 1.35 "
+            + "AND str_column IN ('PLACED', 'SHIPPED')");
+    final DataFrame outputDf = DataFrame.fromResultSet(resultSet);
+
+    final DataFrame expectedDf = new DataFrame();
+    expectedDf.addSeries("str_column", "PLACED");
+    expectedDf.addSeries("long_column", 1568549798000L);
+    expectedDf.addSeries("double_column", 1.3D);
+
+    Assert.assertEquals(outputDf, expectedDf);
+  }
+
+  @Test
+  public void testProjectionAndOrderingWithReusedRows() throws Exception {
+    final DataFrameSchema schema = new DataFrameSchema(ImmutableMap.of("types_table", dataFrame));
+    final Connection connection = getConnection(schema, properties);
+    final Statement statement = connection.createStatement();
+
+    final ResultSet resultSet = statement.executeQuery(
+        "select double_column, str_column from types_table "
+            + "where long_column <> 1567631719000 AND boolean_column = false "
+            + "order by double_column desc");
+    final DataFrame outputDf = DataFrame.fromResultSet(resultSet);
+
+    final DataFrame expectedDf = new DataFrame();
+    expectedDf.addSeries("double_column", 1.4D, 1.2D);
+    expectedDf.addSeries("str_column", "IN_PROGRESS", "IN_PROGRESS");
+
+    Assert.assertEquals(outputDf, expectedDf);
+  }
+
   @Test
   public void testMultipleTables() throws Exception {
     // test importing multiple dataframe as SQL tables
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.detectionpipeline.operator.sql;
+
+import ai.startree.thirdeye.spi.dataframe.DataFrame;
+import ai.startree.thirdeye.spi.detection.v2.DataTable;
+import ai.startree.thirdeye.spi.detection.v2.DataTableToSqlAdapter;
+import ai.startree.thirdeye.spi.detection.v2.SimpleDataTable;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares the time to load a DataTable and run a query with the SQL adapters.
+ * Run the main method manually.
+ */
+public class DataTableToSqlAdapterBenchmark {
+
+  private static final Logger LOG = LoggerFactory.getLogger(DataTableToSqlAdapterBenchmark.class);
+
+  private static final int N_ROUNDS = 10;
+  private static final int N_ROWS = 50_000;
+  private static final String TABLE_NAME = "benchmark_data";
+  private static final String QUERY =
+      "SELECT ts, met FROM " + TABLE_NAME + " WHERE met > 500 AND dim = 'a'";
+
+  private static final long SEED = System.nanoTime();
+
+  private void benchmark(final String name, final DataTableToSqlAdapter adapter,
+      final DataTable dataTable) throws Exception {
+    Class.forName(adapter.jdbcDriverClassName());
+    final List<Long> loadTimes = new ArrayList<>();
+    final List<Long> queryTimes = new ArrayList<>();
+    long checksum = 0;
+    for (int r = 0; r < N_ROUNDS; r++) {
+      try (final Connection connection = DriverManager.getConnection(adapter.jdbcConnection(),
+          adapter.jdbcProperties())) {
+        final long tStart = System.nanoTime();
+        adapter.loadTables(connection, Map.of(TABLE_NAME, dataTable));
+        final long tLoaded = System.nanoTime();
+        try (final Statement statement = connection.createStatement();
+            final ResultSet resultSet = statement.executeQuery(QUERY)) {
+          checksum += DataFrame.fromResultSet(resultSet).size();
+        }
+        final long tQueried = System.nanoTime();
+        adapter.tearDown(connection);
+        loadTimes.add(tLoaded - tStart);
+        queryTimes.add(tQueried - tLoaded);
+      }
+    }
+    logResults(name + " load", loadTimes, checksum);
+    logResults(name + " query", queryTimes, checksum);
+  }
+
+  private static void logResults(final String name, final List<Long> times, final long checksum) {
+    Collections.sort(times);
+    final long tMid = times.get(times.size() / 2);
+    final long tMin = Collections.min(times);
+    final long tMax = Collections.max(times);
+    LOG.info("{}: min/mid/max = {}ms {}ms {}ms [chk={}, cnt={}]", name, tMin / 1000000,
+        tMid / 1000000, tMax / 1000000, checksum, times.size());
+  }
+
+  private static DataTable generateDataTable() {
+    final Random random = new Random(SEED);
+    final long[] times = new long[N_ROWS];
+    final double[] metrics = new double[N_ROWS];
+    final String[] dimensions = new String[N_ROWS];
+    for (int i = 0; i < N_ROWS; i++) {
+      times[i] = 1_600_000_000_000L + i * 300_000L;
+      metrics[i] = random.nextDouble() * 1000;
+      dimensions[i] = random.nextBoolean() ? "a" : "b";
+    }
+    return SimpleDataTable.fromDataFrame(new DataFrame()
+        .addSeries("ts", times)
+        .addSeries("met", metrics)
+        .addSeries("dim", dimensions));
+  }
+
+  public static void main(final String[] args) throws Exception {
+    LOG.info("Running DataTableToSqlAdapter benchmark with {} rows ...", N_ROWS);
+    final DataTableToSqlAdapterBenchmark b = new DataTableToSqlAdapterBenchmark();
+    final DataTable dataTable = generateDataTable();
+    b.benchmark("calcite", new CalciteDataTableToSqlAdapter(), dataTable);
+    b.benchmark("hypersql", new HyperSqlDataTableToSqlAdapter(), dataTable);
+    b.benchmark("hypersql-batch-1", new HyperSqlDataTableToSqlAdapter(1), dataTable);
+    LOG.info("done.");
+  }
+}
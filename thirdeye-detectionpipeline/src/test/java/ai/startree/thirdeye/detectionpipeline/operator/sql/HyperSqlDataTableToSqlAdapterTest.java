@@ -0,0 +1,76 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.detectionpipeline.operator.sql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ai.startree.thirdeye.spi.dataframe.DataFrame;
+import ai.startree.thirdeye.spi.dataframe.DoubleSeries;
+import ai.startree.thirdeye.spi.dataframe.LongSeries;
+import ai.startree.thirdeye.spi.detection.v2.SimpleDataTable;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Map;
+import org.testng.annotations.Test;
+
+public class HyperSqlDataTableToSqlAdapterTest {
+
+  @Test
+  public void testLoadTablesWithBatchSizeDividingRowCount() throws Exception {
+    final DataFrame dataFrame = new DataFrame().addSeries("ts", 1L, 2L, 3L, 4L);
+    final HyperSqlDataTableToSqlAdapter adapter = new HyperSqlDataTableToSqlAdapter(2);
+    Class.forName(adapter.jdbcDriverClassName());
+
+    try (final Connection connection = DriverManager.getConnection(adapter.jdbcConnection(),
+        adapter.jdbcProperties())) {
+      adapter.loadTables(connection, Map.of("even_table", SimpleDataTable.fromDataFrame(dataFrame)));
+      try (final Statement statement = connection.createStatement();
+          final ResultSet resultSet = statement.executeQuery("SELECT ts FROM even_table")) {
+        assertThat(DataFrame.fromResultSet(resultSet).size()).isEqualTo(4);
+      }
+      adapter.tearDown(connection);
+    }
+  }
+
+  @Test
+  public void testLoadTablesInBatchesWithNullsAndQuotes() throws Exception {
+    final DataFrame dataFrame = new DataFrame()
+        .addSeries("ts", LongSeries.buildFrom(1L, 2L, LongSeries.NULL, 4L, 5L))
+        .addSeries("met", DoubleSeries.buildFrom(1.5, DoubleSeries.NULL, 3.5, 4.5, 5.5))
+        .addSeries("dim", "a", "it's", null, "d", "e")
+        .addSeries("flag", true, false, true, false, true);
+    // batch size smaller than the number of rows and not a divisor
+    final HyperSqlDataTableToSqlAdapter adapter = new HyperSqlDataTableToSqlAdapter(2);
+    Class.forName(adapter.jdbcDriverClassName());
+
+    try (final Connection connection = DriverManager.getConnection(adapter.jdbcConnection(),
+        adapter.jdbcProperties())) {
+      adapter.loadTables(connection, Map.of("batch_table", SimpleDataTable.fromDataFrame(dataFrame)));
+      try (final Statement statement = connection.createStatement();
+          final ResultSet resultSet = statement.executeQuery(
+              "SELECT ts, met, dim, flag FROM batch_table ORDER BY met NULLS FIRST")) {
+        final DataFrame output = DataFrame.fromResultSet(resultSet);
+        assertThat(output.size()).isEqualTo(5);
+        assertThat(output.getDoubles("met").isNull(0)).isTrue();
+        assertThat(output.getString("dim", 0)).isEqualTo("it's");
+        assertThat(output.getLongs("ts").isNull(2)).isTrue();
+        assertThat(output.getStrings("dim").isNull(2)).isTrue();
+        assertThat(output.getLong("ts", 4)).isEqualTo(5L);
+      }
+      adapter.tearDown(connection);
+    }
+  }
+}
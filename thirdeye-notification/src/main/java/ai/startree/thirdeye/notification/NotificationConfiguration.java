@@ -22,6 +22,8 @@ public class NotificationConfiguration {
   @JsonProperty("smtp")
   private SmtpConfiguration smtpConfiguration;
 
+  private NotificationDispatchConfiguration dispatch = new NotificationDispatchConfiguration();
+
   public boolean isUseSendgridEmail() {
     return useSendgridEmail;
   }
@@ -40,4 +42,13 @@ public class NotificationConfiguration {
     this.smtpConfiguration = smtpConfiguration;
     return this;
   }
+
+  public NotificationDispatchConfiguration getDispatch() {
+    return dispatch;
+  }
+
+  public NotificationConfiguration setDispatch(final NotificationDispatchConfiguration dispatch) {
+    this.dispatch = dispatch;
+    return this;
+  }
 }
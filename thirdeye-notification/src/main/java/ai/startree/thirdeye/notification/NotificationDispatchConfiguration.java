@@ -0,0 +1,75 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.notification;
+
+import java.time.Duration;
+
+public class NotificationDispatchConfiguration {
+
+  // number of notification channels notified concurrently, across all subscription groups
+  private Integer parallelism = 10;
+  // maximum duration to notify a channel, retries included
+  private Duration timeout = Duration.ofMinutes(2);
+  private Integer retries = 2;
+  // doubled at each retry
+  private Duration retryBackoff = Duration.ofSeconds(5);
+  // maximum number of notifications per second sent to a destination
+  private Double ratePerDestination = 1.0;
+
+  public Integer getParallelism() {
+    return parallelism;
+  }
+
+  public NotificationDispatchConfiguration setParallelism(final Integer parallelism) {
+    this.parallelism = parallelism;
+    return this;
+  }
+
+  public Duration getTimeout() {
+    return timeout;
+  }
+
+  public NotificationDispatchConfiguration setTimeout(final Duration timeout) {
+    this.timeout = timeout;
+    return this;
+  }
+
+  public Integer getRetries() {
+    return retries;
+  }
+
+  public NotificationDispatchConfiguration setRetries(final Integer retries) {
+    this.retries = retries;
+    return this;
+  }
+
+  public Duration getRetryBackoff() {
+    return retryBackoff;
+  }
+
+  public NotificationDispatchConfiguration setRetryBackoff(final Duration retryBackoff) {
+    this.retryBackoff = retryBackoff;
+    return this;
+  }
+
+  public Double getRatePerDestination() {
+    return ratePerDestination;
+  }
+
+  public NotificationDispatchConfiguration setRatePerDestination(
+      final Double ratePerDestination) {
+    this.ratePerDestination = ratePerDestination;
+    return this;
+  }
+}
@@ -14,7 +14,10 @@
 package ai.startree.thirdeye.notification;
 
 import static ai.startree.thirdeye.spi.Constants.METRICS_TIMER_PERCENTILES;
+import static ai.startree.thirdeye.spi.util.ExecutorUtils.threadsNamed;
 import static ai.startree.thirdeye.spi.util.SpiUtils.optional;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Collections.emptyList;
 
 import ai.startree.thirdeye.spi.api.NotificationPayloadApi;
 import ai.startree.thirdeye.spi.datalayer.dto.NotificationSpecDTO;
@@ -24,19 +27,61 @@ import ai.startree.thirdeye.util.StringTemplateUtils;
 import com.codahale.metrics.Counter;
 import com.codahale.metrics.Histogram;
 import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.RateLimiter;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import io.micrometer.core.instrument.Metrics;
 import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
 import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+/**
+ * Sends a notification payload to the notification channels of a subscription group.
+ *
+ * The channels are notified concurrently on a bounded executor shared by all subscription groups,
+ * so a slow channel does not delay the other channels. For each channel:
+ * - a notification that failed with an IO error is retried, with an exponential backoff. Other
+ *   failures are deterministic, or may happen after the notification was partially sent: they
+ *   are not retried.
+ * - the notification must complete within the dispatch timeout, retries and rate limiting
+ *   included, counted from the start of its task: time spent queued does not count. A timed out
+ *   notification is interrupted.
+ * - notifications are rate limited per destination. A destination is a channel type with its
+ *   params, for instance a webhook url.
+ *
+ * The dispatch fails if any channel fails, after all the channels were notified.
+ */
 @Singleton
 public class NotificationDispatcher {
 
+  private static final Logger LOG = LoggerFactory.getLogger(NotificationDispatcher.class);
+  private static final String DISPATCH_TIMER_DESCRIPTION = "Start: A notification payload is passed to the NotificationService#notify implementation. End: The method returns. Tag exception=true means an exception was thrown by the method call.";
+
   private final NotificationServiceRegistry notificationServiceRegistry;
   private final NotificationSchemesMigrator notificationSchemesMigrator;
+  private final NotificationDispatchConfiguration configuration;
+  private final ExecutorService executor;
+  private final LoadingCache<Destination, RateLimiter> rateLimiters;
+
   @Deprecated // use thirdeye_notification_dispatch 
   private final Counter notificationDispatchCounter;
   @Deprecated // use thirdeye_notification_dispatch
@@ -53,9 +98,26 @@ public class NotificationDispatcher {
   public NotificationDispatcher(
       final NotificationServiceRegistry notificationServiceRegistry,
       final NotificationSchemesMigrator notificationSchemesMigrator,
-      final MetricRegistry metricRegistry) {
+      final MetricRegistry metricRegistry,
+      final NotificationDispatchConfiguration configuration) {
     this.notificationServiceRegistry = notificationServiceRegistry;
     this.notificationSchemesMigrator = notificationSchemesMigrator;
+    this.configuration = configuration;
+    checkArgument(configuration.getParallelism() > 0,
+        "notification dispatch parallelism must be positive");
+    checkArgument(configuration.getRetries() >= 0,
+        "notification dispatch retries must be positive or zero");
+    checkArgument(configuration.getRatePerDestination() > 0,
+        "notification dispatch ratePerDestination must be positive");
+
+    executor = Executors.newFixedThreadPool(configuration.getParallelism(),
+        threadsNamed("notification-dispatch-%d"));
+    new ExecutorServiceMetrics(executor, "notification-dispatch", emptyList()).bindTo(
+        Metrics.globalRegistry);
+    rateLimiters = CacheBuilder.newBuilder()
+        .expireAfterAccess(Duration.ofHours(1))
+        .build(CacheLoader.from(
+            destination -> RateLimiter.create(configuration.getRatePerDestination())));
 
     // TODO CYRIL WARNING - REMOVE AT THE END OF THE MIGRATION TO MICROMETER ONLY - USED IN IMPORTANT PRODUCTION ALERTS
     // deprecated metrics - use the count of thirdeye_notification_dispatch with exception=true
@@ -71,42 +133,156 @@ public class NotificationDispatcher {
         "notificationDispatchDuration");
     
     // same metric but different tag - the time measure is assigned manually to the correct tag based on whether there was an exception 
-    final String description = "Start: A notification payload is passed to the NotificationService#notify implementation. End: The method returns. Tag exception=true means an exception was thrown by the method call.";
     this.notificationDispatchTimerOfSuccess = Timer.builder("thirdeye_notification_dispatch")
-        .description(description)
+        .description(DISPATCH_TIMER_DESCRIPTION)
         .publishPercentiles(METRICS_TIMER_PERCENTILES)
         .tag("exception", "false")
         .register(Metrics.globalRegistry);
     this.notificationDispatchTimerOfException = Timer.builder("thirdeye_notification_dispatch")
-        .description(description)
+        .description(DISPATCH_TIMER_DESCRIPTION)
         .publishPercentiles(METRICS_TIMER_PERCENTILES)
         .tag("exception", "true")
         .register(Metrics.globalRegistry);
   }
 
+  private static Timer channelDispatchTimer(final String channel, final boolean exception) {
+    return Timer.builder("thirdeye_notification_channel_dispatch")
+        .description(DISPATCH_TIMER_DESCRIPTION + " Measured per attempt and per channel type.")
+        .publishPercentiles(METRICS_TIMER_PERCENTILES)
+        .tag("channel", channel)
+        .tag("exception", String.valueOf(exception))
+        .register(Metrics.globalRegistry);
+  }
+
+  private static io.micrometer.core.instrument.Counter channelFailuresCounter(
+      final String channel, final String reason) {
+    return io.micrometer.core.instrument.Counter.builder(
+            "thirdeye_notification_channel_failures")
+        .description(
+            "Number of notifications that failed after all retries. Tag reason is error or timeout.")
+        .tag("channel", channel)
+        .tag("reason", reason)
+        .register(Metrics.globalRegistry);
+  }
+
   public void dispatch(final SubscriptionGroupDTO subscriptionGroup,
       final NotificationPayloadApi payload) {
-    optional(subscriptionGroup.getSpecs())
-        .orElseGet(() -> notificationSchemesMigrator.getSpecsFromNotificationSchemes(
-            subscriptionGroup))
-        .stream()
-        .map(this::substituteEnvironmentVariables)
-        .map(this::getNotificationService)
-        .forEach(service -> notifyService(service, payload));
+    final List<NotificationSpecDTO> specs = getSpecs(subscriptionGroup);
+    final List<CompletableFuture<Void>> futures = new ArrayList<>(specs.size());
+    for (final NotificationSpecDTO spec : specs) {
+      futures.add(submit(spec, payload));
+    }
+
+    RuntimeException firstFailure = null;
+    for (int i = 0; i < futures.size(); i++) {
+      final String channel = specs.get(i).getType();
+      try {
+        futures.get(i).get();
+      } catch (final ExecutionException | CancellationException e) {
+        final Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+        final boolean timeout = cause instanceof TimeoutException;
+        channelFailuresCounter(channel, timeout ? "timeout" : "error").increment();
+        LOG.error("Subscription group {}: notification to channel {} failed{}",
+            subscriptionGroup.getId(),
+            channel,
+            timeout ? " - timeout after " + configuration.getTimeout() : "",
+            cause);
+        if (firstFailure == null) {
+          firstFailure = cause instanceof RuntimeException re ? re : new RuntimeException(cause);
+        } else {
+          firstFailure.addSuppressed(cause);
+        }
+      } catch (final InterruptedException e) {
+        futures.forEach(f -> f.cancel(true));
+        Thread.currentThread().interrupt();
+        throw new RuntimeException("Interrupted while dispatching notifications", e);
+      }
+    }
+    if (firstFailure != null) {
+      throw firstFailure;
+    }
   }
 
-  private void notifyService(final NotificationService service,
+  private CompletableFuture<Void> submit(final NotificationSpecDTO spec,
+      final NotificationPayloadApi payload) {
+    final CompletableFuture<Void> future = new CompletableFuture<>();
+    final Future<?> task = executor.submit(() -> {
+      // the timeout counts from the start of the notification: queued notifications do not time out
+      final long deadlineNanos = System.nanoTime() + configuration.getTimeout().toNanos();
+      future.orTimeout(configuration.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+      try {
+        notifyWithRetries(substituteEnvironmentVariables(spec), payload, deadlineNanos);
+        future.complete(null);
+      } catch (final Throwable e) {
+        future.completeExceptionally(e);
+      }
+    });
+    future.whenComplete((r, e) -> {
+      if (e != null) {
+        // interrupts the notification if it timed out
+        task.cancel(true);
+      }
+    });
+    return future;
+  }
+
+  private void notifyWithRetries(final NotificationSpecDTO spec,
+      final NotificationPayloadApi payload, final long deadlineNanos)
+      throws InterruptedException, TimeoutException {
+    final NotificationService service = getNotificationService(spec);
+    final RateLimiter rateLimiter = rateLimiters.getUnchecked(
+        new Destination(spec.getType(), optional(spec.getParams()).orElse(Map.of())));
+    for (int attempt = 0; ; attempt++) {
+      // RateLimiter#acquire cannot be interrupted - only wait for the remaining time
+      if (!rateLimiter.tryAcquire(1, deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+        throw new TimeoutException("Rate limit of channel " + spec.getType()
+            + " not acquired before the dispatch timeout");
+      }
+      if (Thread.interrupted()) {
+        throw new InterruptedException();
+      }
+      try {
+        notifyService(spec.getType(), service, payload);
+        return;
+      } catch (final RuntimeException e) {
+        final long backoffMillis = configuration.getRetryBackoff().toMillis() << attempt;
+        if (attempt >= configuration.getRetries() || !isTransient(e)
+            || System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMillis) >= deadlineNanos) {
+          throw e;
+        }
+        LOG.warn("Notification to channel {} failed. Retrying in {} ms. Attempt {}/{}",
+            spec.getType(),
+            backoffMillis,
+            attempt + 1,
+            configuration.getRetries() + 1,
+            e);
+        Thread.sleep(backoffMillis);
+      }
+    }
+  }
+
+  /**
+   * A notification is retried only if it failed with an IO error. Other errors are deterministic,
+   * for instance an invalid configuration, or may happen after some recipients were notified.
+   */
+  private static boolean isTransient(final Throwable e) {
+    return Throwables.getCausalChain(e).stream().anyMatch(IOException.class::isInstance);
+  }
+
+  private void notifyService(final String channel, final NotificationService service,
       final NotificationPayloadApi payload) {
     final Timer.Sample sample = Timer.start(Metrics.globalRegistry);
     try {
       final long tStart = System.currentTimeMillis();
       service.notify(payload);
       sample.stop(notificationDispatchTimerOfSuccess);
+      sample.stop(channelDispatchTimer(channel, false));
       notificationDispatchDuration.update(System.currentTimeMillis() - tStart);
       notificationDispatchSuccessCounter.inc();
     } catch (Exception exception) {
       notificationDispatchExceptionCounter.inc();
       sample.stop(notificationDispatchTimerOfException);
+      sample.stop(channelDispatchTimer(channel, true));
       throw exception;
     } finally {
       notificationDispatchCounter.inc();
@@ -114,15 +290,17 @@ public class NotificationDispatcher {
   }
 
   public void sendTestMessage(final SubscriptionGroupDTO sg) {
-    optional(sg.getSpecs())
-        .orElseGet(() -> notificationSchemesMigrator.getSpecsFromNotificationSchemes(
-            sg))
-        .stream()
+    getSpecs(sg).stream()
         .map(this::substituteEnvironmentVariables)
         .map(this::getNotificationService)
         .forEach(NotificationService::sendTestMessage);
   }
 
+  private List<NotificationSpecDTO> getSpecs(final SubscriptionGroupDTO sg) {
+    return optional(sg.getSpecs())
+        .orElseGet(() -> notificationSchemesMigrator.getSpecsFromNotificationSchemes(sg));
+  }
+
   private NotificationService getNotificationService(final NotificationSpecDTO spec) {
     return notificationServiceRegistry.get(spec.getType(), spec.getParams());
   }
@@ -135,4 +313,6 @@ public class NotificationDispatcher {
       throw new RuntimeException("Error while replacing env variables in notification spec. spec: " + spec);
     }
   }
+
+  private record Destination(String type, Map<String, Object> params) {}
 }
@@ -40,7 +40,10 @@ import com.google.inject.Singleton;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.joda.time.format.DateTimeFormat;
 import org.joda.time.format.DateTimeFormatter;
@@ -80,25 +83,21 @@ public class NotificationReportBuilder {
       final SubscriptionGroupDTO notificationConfig,
       final Collection<AnomalyDTO> anomalies) {
 
-    final List<AnomalyDTO> mergedAnomalyResults = new ArrayList<>();
-
-    // Calculate start and end time of the anomalies
+    // Calculate start and end time and the feedback statistics of the anomalies in a single pass
+    final PrecisionRecallEvaluator precisionRecallEvaluator = new PrecisionRecallEvaluator(
+        new DummyAnomalyFilter());
     long startTime = System.currentTimeMillis();
     long endTime = 0L;
     for (final AnomalyDTO anomaly : anomalies) {
-      mergedAnomalyResults.add(anomaly);
       if (anomaly.getStartTime() < startTime) {
         startTime = anomaly.getStartTime();
       }
       if (anomaly.getEndTime() > endTime) {
         endTime = anomaly.getEndTime();
       }
+      precisionRecallEvaluator.add(anomaly);
     }
 
-    final PrecisionRecallEvaluator precisionRecallEvaluator = new PrecisionRecallEvaluator(
-        mergedAnomalyResults,
-        new DummyAnomalyFilter());
-
     final NotificationReportApi report = new NotificationReportApi()
         .setStartTime(dateTimeFormatter.print(startTime))
         .setEndTime(dateTimeFormatter.print(endTime))
@@ -135,19 +134,55 @@ public class NotificationReportBuilder {
     final List<AnomalyDTO> sortedAnomalyResults = new ArrayList<>(anomalies);
     sortedAnomalyResults.sort((o1, o2) -> -1 * Long.compare(o1.getStartTime(), o2.getStartTime()));
 
+    // the alerts and enumeration items are shared by many anomalies - load them once, in bulk
+    final Map<Long, AlertDTO> alerts = findAlerts(sortedAnomalyResults);
+    final Map<Long, EnumerationItemDTO> enumerationItems = findEnumerationItems(
+        sortedAnomalyResults);
+
     return sortedAnomalyResults.stream()
-        .map(this::toAnomalyReportApi)
+        .map(anomaly -> toAnomalyReportApi(anomaly, alerts, enumerationItems))
+        .collect(Collectors.toList());
+  }
+
+  private Map<Long, AlertDTO> findAlerts(final List<AnomalyDTO> anomalies) {
+    final List<Long> alertIds = anomalies.stream()
+        .map(AnomalyDTO::getDetectionConfigId)
+        .filter(Objects::nonNull)
+        .distinct()
+        .collect(Collectors.toList());
+    if (alertIds.isEmpty()) {
+      return Map.of();
+    }
+    return alertManager.findByIds(alertIds).stream()
+        .collect(Collectors.toMap(AlertDTO::getId, Function.identity()));
+  }
+
+  private Map<Long, EnumerationItemDTO> findEnumerationItems(final List<AnomalyDTO> anomalies) {
+    final List<Long> enumerationItemIds = anomalies.stream()
+        .map(AnomalyDTO::getEnumerationItem)
+        .filter(Objects::nonNull)
+        .map(EnumerationItemDTO::getId)
+        .filter(Objects::nonNull)
+        .distinct()
         .collect(Collectors.toList());
+    if (enumerationItemIds.isEmpty()) {
+      return Map.of();
+    }
+    return enumerationItemManager.findByIds(enumerationItemIds).stream()
+        .collect(Collectors.toMap(EnumerationItemDTO::getId, Function.identity()));
   }
 
-  private AnomalyReportApi toAnomalyReportApi(final AnomalyDTO anomaly) {
+  private AnomalyReportApi toAnomalyReportApi(final AnomalyDTO anomaly,
+      final Map<Long, AlertDTO> alerts,
+      final Map<Long, EnumerationItemDTO> enumerationItems) {
     return new AnomalyReportApi()
-        .setAnomaly(toAnomalyApi(anomaly))
-        .setData(toAnomalyReportDataApi(anomaly))
+        .setAnomaly(toAnomalyApi(anomaly, enumerationItems))
+        .setData(toAnomalyReportDataApi(anomaly, alerts))
         .setUrl(getDashboardUrl(anomaly.getId()));
   }
 
-  private AnomalyReportDataApi toAnomalyReportDataApi(final AnomalyDTO anomaly) {
+  private AnomalyReportDataApi toAnomalyReportDataApi(final AnomalyDTO anomaly,
+      final Map<Long, AlertDTO> alerts) {
     final AnomalyFeedback feedback = anomaly.getFeedback();
     final String feedbackVal = getFeedbackValue(feedback);
 
@@ -155,7 +190,7 @@ public class NotificationReportBuilder {
     String alertDescription = "";
 
     if (anomaly.getDetectionConfigId() != null) {
-      final AlertDTO alert = alertManager.findById(anomaly.getDetectionConfigId());
+      final AlertDTO alert = alerts.get(anomaly.getDetectionConfigId());
       Preconditions.checkNotNull(alert,
           "Cannot find detection config %d", anomaly.getDetectionConfigId());
       alertName = alert.getName();
@@ -171,12 +206,13 @@ public class NotificationReportBuilder {
         uiConfiguration.getExternalUrl());
   }
 
-  private AnomalyApi toAnomalyApi(final AnomalyDTO anomaly) {
+  private AnomalyApi toAnomalyApi(final AnomalyDTO anomaly,
+      final Map<Long, EnumerationItemDTO> enumerationItems) {
     final AnomalyApi anomalyApi = ApiBeanMapper.toApi(anomaly);
 
     optional(anomaly.getEnumerationItem())
         .map(EnumerationItemDTO::getId)
-        .map(enumerationItemManager::findById)
+        .map(enumerationItems::get)
         .ifPresent(dto -> anomalyApi.setEnumerationItem(new EnumerationItemApi()
             .setId(dto.getId())
             .setName(dto.getName())
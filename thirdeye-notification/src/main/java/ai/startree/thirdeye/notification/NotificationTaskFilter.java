@@ -38,7 +38,10 @@ import java.time.format.DateTimeFormatter;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -135,14 +138,15 @@ public class NotificationTaskFilter {
    *     subscription group, anomalies, completed anomalies and other metadata
    */
   public NotificationTaskFilterResult filter(final SubscriptionGroupDTO sg, final long endTime) {
-    final Set<AnomalyDTO> anomalies = filterAnomalies(sg, endTime);
+    final Map<Long, AlertDTO> activeAlerts = findActiveAlerts(sg);
+    final Set<AnomalyDTO> anomalies = filterAnomalies(sg, endTime, activeAlerts);
 
     final var ids = anomalies.stream()
         .map(AnomalyDTO::getId)
         .collect(toSet());
 
     // remove anomalies that are already being notified
-    final Set<AnomalyDTO> completedAnomalies = filterCompletedAnomalies(sg);
+    final Set<AnomalyDTO> completedAnomalies = filterCompletedAnomalies(sg, activeAlerts);
     completedAnomalies.removeIf(a -> ids.contains(a.getId()));
 
     return new NotificationTaskFilterResult()
@@ -160,57 +164,84 @@ public class NotificationTaskFilter {
    */
   @VisibleForTesting
   Set<AnomalyDTO> filterAnomalies(final SubscriptionGroupDTO sg, final long endTime) {
-    final List<AlertAssociationDto> alertAssociations = optional(sg.getAlertAssociations())
-        .orElseGet(() -> migrateOlderSchema(sg));
+    return filterAnomalies(sg, endTime, findActiveAlerts(sg));
+  }
 
+  private Set<AnomalyDTO> filterAnomalies(final SubscriptionGroupDTO sg, final long endTime,
+      final Map<Long, AlertDTO> activeAlerts) {
     // Fetch all the anomalies to be notified to the recipients
-    return alertAssociations.stream()
-        .filter(aa -> isAlertActive(aa.getAlert().getId()))
-        .map(aa -> buildAnomalyFilter(aa, sg, endTime))
-        .map(f -> filterAnomalies(f, sg.getId(), "anomalies"))
-        .flatMap(Collection::stream)
-        .collect(toSet());
+    final List<AnomalyFilter> filters = alertAssociations(sg).stream()
+        .filter(aa -> activeAlerts.containsKey(aa.getAlert().getId()))
+        .map(aa -> buildAnomalyFilter(aa, activeAlerts.get(aa.getAlert().getId()), sg, endTime))
+        .toList();
+    return filterAnomalies(filters, sg.getId(), "anomalies");
   }
 
   @VisibleForTesting
   Set<AnomalyDTO> filterCompletedAnomalies(final SubscriptionGroupDTO sg) {
-    final List<AlertAssociationDto> alertAssociations = optional(sg.getAlertAssociations())
-        .orElseGet(() -> migrateOlderSchema(sg));
+    return filterCompletedAnomalies(sg, findActiveAlerts(sg));
+  }
 
-    return alertAssociations.stream()
-        .filter(aa -> isAlertActive(aa.getAlert().getId()))
+  private Set<AnomalyDTO> filterCompletedAnomalies(final SubscriptionGroupDTO sg,
+      final Map<Long, AlertDTO> activeAlerts) {
+    // the merge max gap requires to render the alert - compute it once per alert
+    final Map<Long, Long> maxMergeGaps = new HashMap<>();
+    final List<AnomalyFilter> filters = alertAssociations(sg).stream()
+        .filter(aa -> activeAlerts.containsKey(aa.getAlert().getId()))
         .filter(aa -> aa.getAnomalyCompletionWatermark() != null)
-        .map(this::buildAnomalyFilterCompletedAnomalies)
-        .map(f -> filterAnomalies(f, sg.getId(), "completed anomalies"))
-        .flatMap(Collection::stream)
-        .collect(toSet());
+        .map(aa -> {
+          final AlertDTO alert = activeAlerts.get(aa.getAlert().getId());
+          final long maxMergeGap = maxMergeGaps.computeIfAbsent(alert.getId(),
+              id -> getMaxMergeGap(alert));
+          return buildAnomalyFilterCompletedAnomalies(aa, alert, maxMergeGap);
+        })
+        .toList();
+    return filterAnomalies(filters, sg.getId(), "completed anomalies");
+  }
+
+  private static List<AlertAssociationDto> alertAssociations(final SubscriptionGroupDTO sg) {
+    return optional(sg.getAlertAssociations())
+        .orElseGet(() -> migrateOlderSchema(sg));
+  }
+
+  /**
+   * Loads all the alerts of the subscription group at once.
+   *
+   * @return the active alerts, by id
+   */
+  private Map<Long, AlertDTO> findActiveAlerts(final SubscriptionGroupDTO sg) {
+    final List<Long> alertIds = alertAssociations(sg).stream()
+        .map(aa -> aa.getAlert().getId())
+        .distinct()
+        .toList();
+    if (alertIds.isEmpty()) {
+      return Map.of();
+    }
+    return alertManager.findByIds(alertIds).stream()
+        .filter(Objects::nonNull)
+        .filter(AlertDTO::isActive)
+        .collect(Collectors.toMap(AbstractDTO::getId, alert -> alert));
   }
 
-  private AnomalyFilter buildAnomalyFilterCompletedAnomalies(final AlertAssociationDto aa) {
+  private static AnomalyFilter buildAnomalyFilterCompletedAnomalies(final AlertAssociationDto aa,
+      final AlertDTO alert, final long maxMergeGap) {
     final Date watermark = optional(aa.getAnomalyCompletionWatermark())
         .orElseThrow(() -> new IllegalStateException("Invalid code path. Watermark is null"));
 
-    final long alertId = aa.getAlert().getId();
-    final AlertDTO alert = alertManager.findById(alertId);
-    final long endTimeIsLt = alert.getLastTimestamp() - getMaxMergeGap(alert);
+    final long endTimeIsLt = alert.getLastTimestamp() - maxMergeGap;
 
     return new AnomalyFilter()
         .setIsChild(false)
-        .setAlertId(alertId)
+        .setAlertId(alert.getId())
         .setEndTimeIsGte(watermark.getTime())
         .setEndTimeIsLt(endTimeIsLt);
   }
 
-  private boolean isAlertActive(final long alertId) {
-    final AlertDTO alert = alertManager.findById(alertId);
-    return alert != null && alert.isActive();
-  }
-
-  private AnomalyFilter buildAnomalyFilter(final AlertAssociationDto aa,
+  private static AnomalyFilter buildAnomalyFilter(final AlertAssociationDto aa,
+      final AlertDTO alert,
       final SubscriptionGroupDTO sg,
       final long createTimeEnd) {
-    final long alertId = aa.getAlert().getId();
-    final AlertDTO alert = alertManager.findById(alertId);
+    final long alertId = alert.getId();
     final long startTime = optional(sg.getVectorClocks())
         .map(v -> v.get(alertId))
         .orElse(0L);
@@ -245,34 +276,52 @@ public class NotificationTaskFilter {
     return f;
   }
 
+  /**
+   * Fetches the anomalies of all the filters with a single call to the AnomalyManager.
+   * The results are split per alert in memory for logging.
+   */
   @VisibleForTesting
-  Set<AnomalyDTO> filterAnomalies(final AnomalyFilter f,
+  Set<AnomalyDTO> filterAnomalies(final List<AnomalyFilter> filters,
       final Long subscriptionGroupId,
       final String logContext) {
-    final List<AnomalyDTO> candidates = anomalyManager.filter(f);
+    if (filters.isEmpty()) {
+      return new HashSet<>();
+    }
+    final List<AnomalyDTO> candidates = anomalyManager.filter(filters);
 
     final Set<AnomalyDTO> anomaliesToBeNotified = candidates.stream()
         .filter(NotificationTaskFilter::shouldFilter)
         .collect(toSet());
 
-    String createdMsg = "";
-    if (f.getCreateTimeWindow() != null) {
-      createdMsg = String.format("Created between %s and %s (%s and %s System Time)",
-          f.getCreateTimeWindow().getStartMillis(),
-          f.getCreateTimeWindow().getEndMillis(),
-          toFormattedDate(f.getCreateTimeWindow().getStartMillis()),
-          toFormattedDate(f.getCreateTimeWindow().getEndMillis()));
-    }
-
-    LOG.info("Subscription Group: {} Alert: {} context: {}. {}/{} filtered. {}",
-        subscriptionGroupId,
-        f.getAlertId(),
-        logContext,
-        anomaliesToBeNotified.size(),
-        candidates.size(),
-        createdMsg);
+    final Map<Long, Long> candidatesPerAlert = countPerAlert(candidates);
+    final Map<Long, Long> filteredPerAlert = countPerAlert(anomaliesToBeNotified);
+    for (final AnomalyFilter f : filters) {
+      String createdMsg = "";
+      if (f.getCreateTimeWindow() != null) {
+        createdMsg = String.format("Created between %s and %s (%s and %s System Time)",
+            f.getCreateTimeWindow().getStartMillis(),
+            f.getCreateTimeWindow().getEndMillis(),
+            toFormattedDate(f.getCreateTimeWindow().getStartMillis()),
+            toFormattedDate(f.getCreateTimeWindow().getEndMillis()));
+      }
 
+      LOG.info("Subscription Group: {} Alert: {} context: {}. {}/{} filtered. {}",
+          subscriptionGroupId,
+          f.getAlertId(),
+          logContext,
+          filteredPerAlert.getOrDefault(f.getAlertId(), 0L),
+          candidatesPerAlert.getOrDefault(f.getAlertId(), 0L),
+          createdMsg);
+    }
 
     return anomaliesToBeNotified;
   }
+
+  private static Map<Long, Long> countPerAlert(final Collection<AnomalyDTO> anomalies) {
+    final Map<Long, Long> countPerAlert = new HashMap<>();
+    for (final AnomalyDTO anomaly : anomalies) {
+      countPerAlert.merge(anomaly.getDetectionConfigId(), 1L, Long::sum);
+    }
+    return countPerAlert;
+  }
 }
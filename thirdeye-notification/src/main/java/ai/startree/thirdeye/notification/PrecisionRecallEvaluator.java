@@ -54,6 +54,15 @@ public class PrecisionRecallEvaluator {
     this.isProjected = true;
     init(anomalies);
   }
+
+  /**
+   * Evaluates the alert filter on anomalies passed one by one with {@link #add(AnomalyDTO)}.
+   * Avoids an iteration when the anomalies are already iterated by the caller.
+   */
+  public PrecisionRecallEvaluator(final AnomalyFilter anomalyFilter) {
+    this.anomalyFilter = anomalyFilter;
+    this.isProjected = true;
+  }
   // the weight used for NA labeled data point when calculating precision
 
   public double getPrecisionInResponse() {
@@ -124,51 +133,55 @@ public class PrecisionRecallEvaluator {
     this.userReportTrueAnomalyNewTrend = 0;
 
     for (AnomalyDTO anomaly : anomalies) {
-      AnomalyFilter anomalyFilterOfAnomaly = this.anomalyFilter;
-      if (anomalyFilterOfAnomaly == null) {
-        anomalyFilterOfAnomaly = new DummyAnomalyFilter();
-      }
+      add(anomaly);
+    }
+  }
 
-      AnomalyFeedback feedback = anomaly.getFeedback();
-      boolean isLabeledTrueAnomaly = false;
-      boolean isLabeledTrueAnomalyNewTrend = false;
-      if (feedback != null && feedback.getFeedbackType() != null && feedback.getFeedbackType()
-          .equals(AnomalyFeedbackType.ANOMALY_NEW_TREND)) {
-        isLabeledTrueAnomalyNewTrend = true;
-      } else if (feedback != null && feedback.getFeedbackType() != null &&
-          (feedback.getFeedbackType().isAnomaly())) {
-        isLabeledTrueAnomaly = true;
-      }
+  public void add(final AnomalyDTO anomaly) {
+    AnomalyFilter anomalyFilterOfAnomaly = this.anomalyFilter;
+    if (anomalyFilterOfAnomaly == null) {
+      anomalyFilterOfAnomaly = new DummyAnomalyFilter();
+    }
+
+    AnomalyFeedback feedback = anomaly.getFeedback();
+    boolean isLabeledTrueAnomaly = false;
+    boolean isLabeledTrueAnomalyNewTrend = false;
+    if (feedback != null && feedback.getFeedbackType() != null && feedback.getFeedbackType()
+        .equals(AnomalyFeedbackType.ANOMALY_NEW_TREND)) {
+      isLabeledTrueAnomalyNewTrend = true;
+    } else if (feedback != null && feedback.getFeedbackType() != null &&
+        (feedback.getFeedbackType().isAnomaly())) {
+      isLabeledTrueAnomaly = true;
+    }
 
-      // TODO handle AnomalyFeedbackType.ANOMALY_EXPECTED
+    // TODO handle AnomalyFeedbackType.ANOMALY_EXPECTED
 
-      // handle user report anomaly
-      if (anomaly.getAnomalyResultSource().equals(AnomalyResultSource.USER_LABELED_ANOMALY)) {
-        if (!isProjected) {
-          if (isLabeledTrueAnomaly) {
-            userReportTrueAnomaly++;
-          } else if (isLabeledTrueAnomalyNewTrend) {
-            userReportTrueAnomalyNewTrend++;
-          }
-        } else {
-            userReportTrueAnomaly++;
+    // handle user report anomaly
+    if (anomaly.getAnomalyResultSource().equals(AnomalyResultSource.USER_LABELED_ANOMALY)) {
+      if (!isProjected) {
+        if (isLabeledTrueAnomaly) {
+          userReportTrueAnomaly++;
+        } else if (isLabeledTrueAnomalyNewTrend) {
+          userReportTrueAnomalyNewTrend++;
         }
       } else {
-        // if system detected anomaly, if using projected evaluation, skip those true anomalies that are not notified
-        // since these anomalies are originally unsent, but reverted the feedback based on user report
-        boolean isNotified =
-            isProjected ? anomalyFilterOfAnomaly.isQualified(anomaly) : anomaly.isNotified();
-
-        if (isNotified) {
-          if (feedback == null || feedback.getFeedbackType() == null) {
-            this.notifiedNotLabeled++;
-          } else if (isLabeledTrueAnomaly) {
-            notifiedTrueAnomaly++;
-          } else if (isLabeledTrueAnomalyNewTrend) {
-            notifiedTrueAnomalyNewTrend++;
-          } else {
-            notifiedFalseAlarm++;
-          }
+          userReportTrueAnomaly++;
+      }
+    } else {
+      // if system detected anomaly, if using projected evaluation, skip those true anomalies that are not notified
+      // since these anomalies are originally unsent, but reverted the feedback based on user report
+      boolean isNotified =
+          isProjected ? anomalyFilterOfAnomaly.isQualified(anomaly) : anomaly.isNotified();
+
+      if (isNotified) {
+        if (feedback == null || feedback.getFeedbackType() == null) {
+          this.notifiedNotLabeled++;
+        } else if (isLabeledTrueAnomaly) {
+          notifiedTrueAnomaly++;
+        } else if (isLabeledTrueAnomalyNewTrend) {
+          notifiedTrueAnomalyNewTrend++;
+        } else {
+          notifiedFalseAlarm++;
         }
       }
     }
@@ -27,5 +27,7 @@ public class ThirdEyeNotificationModule extends AbstractModule {
   @Override
   protected void configure() {
     bind(NotificationConfiguration.class).toInstance(notificationConfiguration);
+    bind(NotificationDispatchConfiguration.class).toInstance(
+        notificationConfiguration.getDispatch());
   }
 }
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.notification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ai.startree.thirdeye.spi.api.NotificationPayloadApi;
+import ai.startree.thirdeye.spi.datalayer.dto.NotificationSpecDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.SubscriptionGroupDTO;
+import ai.startree.thirdeye.spi.notification.NotificationService;
+import com.codahale.metrics.MetricRegistry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import org.testng.annotations.Test;
+
+public class NotificationDispatcherTest {
+
+  private static final NotificationPayloadApi PAYLOAD = new NotificationPayloadApi();
+
+  private static NotificationDispatcher dispatcher(final NotificationServiceRegistry registry,
+      final NotificationDispatchConfiguration configuration) {
+    return new NotificationDispatcher(registry,
+        mock(NotificationSchemesMigrator.class),
+        new MetricRegistry(),
+        configuration);
+  }
+
+  private static SubscriptionGroupDTO subscriptionGroup(final String... types) {
+    final List<NotificationSpecDTO> specs = Arrays.stream(types)
+        .map(type -> new NotificationSpecDTO().setType(type).setParams(Map.of("url", type)))
+        .toList();
+    final SubscriptionGroupDTO sg = new SubscriptionGroupDTO().setSpecs(specs);
+    sg.setId(1L);
+    return sg;
+  }
+
+  @Test
+  public void testSlowChannelDoesNotDelayOtherChannels() throws Exception {
+    final NotificationService slowService = mock(NotificationService.class);
+    doAnswer(invocation -> {
+      Thread.sleep(10_000);
+      return null;
+    }).when(slowService).notify(any());
+    final NotificationService fastService = mock(NotificationService.class);
+    final NotificationServiceRegistry registry = mock(NotificationServiceRegistry.class);
+    when(registry.get(eq("webhook"), anyMap())).thenReturn(slowService);
+    when(registry.get(eq("email-smtp"), anyMap())).thenReturn(fastService);
+    final NotificationDispatcher dispatcher = dispatcher(registry,
+        new NotificationDispatchConfiguration().setTimeout(Duration.ofMillis(500)));
+
+    final long start = System.currentTimeMillis();
+    assertThatThrownBy(() -> dispatcher.dispatch(subscriptionGroup("webhook", "email-smtp"),
+        PAYLOAD)).isInstanceOf(RuntimeException.class);
+
+    assertThat(System.currentTimeMillis() - start).isLessThan(5_000);
+    verify(fastService).notify(PAYLOAD);
+  }
+
+  @Test
+  public void testFailedNotificationIsRetried() {
+    final NotificationService service = mock(NotificationService.class);
+    doThrow(new UncheckedIOException(new IOException("unavailable")))
+        .doNothing()
+        .when(service).notify(any());
+    final NotificationServiceRegistry registry = mock(NotificationServiceRegistry.class);
+    when(registry.get(eq("webhook"), anyMap())).thenReturn(service);
+    final NotificationDispatcher dispatcher = dispatcher(registry,
+        new NotificationDispatchConfiguration()
+            .setRetries(1)
+            .setRetryBackoff(Duration.ofMillis(10)));
+
+    dispatcher.dispatch(subscriptionGroup("webhook"), PAYLOAD);
+
+    verify(service, times(2)).notify(PAYLOAD);
+  }
+
+  @Test
+  public void testDispatchFailsWhenRetriesAreExhausted() {
+    final NotificationService failingService = mock(NotificationService.class);
+    doThrow(new UncheckedIOException(new IOException("unavailable")))
+        .when(failingService).notify(any());
+    final NotificationService service = mock(NotificationService.class);
+    doNothing().when(service).notify(any());
+    final NotificationServiceRegistry registry = mock(NotificationServiceRegistry.class);
+    when(registry.get(eq("webhook"), anyMap())).thenReturn(failingService);
+    when(registry.get(eq("email-smtp"), anyMap())).thenReturn(service);
+    final NotificationDispatcher dispatcher = dispatcher(registry,
+        new NotificationDispatchConfiguration()
+            .setRetries(2)
+            .setRetryBackoff(Duration.ofMillis(10))
+            .setRatePerDestination(1000.0));
+
+    assertThatThrownBy(() -> dispatcher.dispatch(subscriptionGroup("webhook", "email-smtp"),
+        PAYLOAD)).isInstanceOf(UncheckedIOException.class);
+
+    verify(failingService, times(3)).notify(PAYLOAD);
+    verify(service).notify(PAYLOAD);
+  }
+
+  @Test
+  public void testDeterministicFailureIsNotRetried() {
+    final NotificationService service = mock(NotificationService.class);
+    doThrow(new IllegalArgumentException("'to' field in email scheme is empty"))
+        .when(service).notify(any());
+    final NotificationServiceRegistry registry = mock(NotificationServiceRegistry.class);
+    when(registry.get(eq("email-smtp"), anyMap())).thenReturn(service);
+    final NotificationDispatcher dispatcher = dispatcher(registry,
+        new NotificationDispatchConfiguration()
+            .setRetries(2)
+            .setRetryBackoff(Duration.ofMillis(10)));
+
+    assertThatThrownBy(() -> dispatcher.dispatch(subscriptionGroup("email-smtp"), PAYLOAD))
+        .isInstanceOf(IllegalArgumentException.class);
+
+    verify(service, times(1)).notify(PAYLOAD);
+  }
+
+  @Test
+  public void testQueuedNotificationDoesNotTimeOut() {
+    final NotificationService service = mock(NotificationService.class);
+    doAnswer(invocation -> {
+      Thread.sleep(300);
+      return null;
+    }).when(service).notify(any());
+    final NotificationServiceRegistry registry = mock(NotificationServiceRegistry.class);
+    when(registry.get(any(), anyMap())).thenReturn(service);
+    // the second notification waits 300ms in the queue, then runs for 300ms
+    final NotificationDispatcher dispatcher = dispatcher(registry,
+        new NotificationDispatchConfiguration()
+            .setParallelism(1)
+            .setTimeout(Duration.ofMillis(500)));
+
+    dispatcher.dispatch(subscriptionGroup("webhook", "email-smtp"), PAYLOAD);
+
+    verify(service, times(2)).notify(PAYLOAD);
+  }
+
+  @Test
+  public void testRateLimitWaitIsBoundedByTheTimeout() {
+    final NotificationService service = mock(NotificationService.class);
+    final NotificationServiceRegistry registry = mock(NotificationServiceRegistry.class);
+    when(registry.get(eq("webhook"), anyMap())).thenReturn(service);
+    // the second notification to the destination waits 100s for a permit
+    final NotificationDispatcher dispatcher = dispatcher(registry,
+        new NotificationDispatchConfiguration()
+            .setTimeout(Duration.ofMillis(500))
+            .setRatePerDestination(0.01));
+    dispatcher.dispatch(subscriptionGroup("webhook"), PAYLOAD);
+
+    final long start = System.currentTimeMillis();
+    assertThatThrownBy(() -> dispatcher.dispatch(subscriptionGroup("webhook"), PAYLOAD))
+        .hasCauseInstanceOf(TimeoutException.class);
+
+    assertThat(System.currentTimeMillis() - start).isLessThan(5_000);
+    verify(service, times(1)).notify(PAYLOAD);
+  }
+}
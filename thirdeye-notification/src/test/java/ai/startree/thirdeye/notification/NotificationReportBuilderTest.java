@@ -0,0 +1,80 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.notification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ai.startree.thirdeye.config.TimeConfiguration;
+import ai.startree.thirdeye.config.UiConfiguration;
+import ai.startree.thirdeye.spi.api.AnomalyReportApi;
+import ai.startree.thirdeye.spi.datalayer.bao.AlertManager;
+import ai.startree.thirdeye.spi.datalayer.bao.EnumerationItemManager;
+import ai.startree.thirdeye.spi.datalayer.dto.AlertDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.AnomalyDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.EnumerationItemDTO;
+import ai.startree.thirdeye.spi.detection.AnomalyResultSource;
+import java.util.List;
+import java.util.Set;
+import org.testng.annotations.Test;
+
+public class NotificationReportBuilderTest {
+
+  private static AnomalyDTO anomaly(final long id, final long startTime, final AlertDTO alert,
+      final EnumerationItemDTO enumerationItem) {
+    final AnomalyDTO anomaly = new AnomalyDTO()
+        .setStartTime(startTime)
+        .setEndTime(startTime + 1000)
+        .setDetectionConfigId(alert.getId())
+        .setEnumerationItem(enumerationItem)
+        .setAnomalyResultSource(AnomalyResultSource.DEFAULT_ANOMALY_DETECTION);
+    anomaly.setId(id);
+    return anomaly;
+  }
+
+  @Test
+  public void testAlertsAndEnumerationItemsAreLoadedInBulk() {
+    final AlertDTO alert1 = new AlertDTO().setName("alert-1");
+    alert1.setId(1L);
+    final AlertDTO alert2 = new AlertDTO().setName("alert-2");
+    alert2.setId(2L);
+    final EnumerationItemDTO enumerationItem = new EnumerationItemDTO().setName("item-1");
+    enumerationItem.setId(10L);
+    final AlertManager alertManager = mock(AlertManager.class);
+    when(alertManager.findByIds(List.of(1L, 2L))).thenReturn(List.of(alert1, alert2));
+    final EnumerationItemManager enumerationItemManager = mock(EnumerationItemManager.class);
+    when(enumerationItemManager.findByIds(List.of(10L))).thenReturn(List.of(enumerationItem));
+    final NotificationReportBuilder instance = new NotificationReportBuilder(alertManager,
+        new UiConfiguration().setExternalUrl("http://localhost"),
+        enumerationItemManager,
+        new TimeConfiguration());
+
+    final List<AnomalyReportApi> reports = instance.toSortedAnomalyReports(Set.of(
+        anomaly(100L, 3000L, alert1, enumerationItem),
+        anomaly(101L, 2000L, alert2, enumerationItem),
+        anomaly(102L, 1000L, alert1, enumerationItem)));
+
+    assertThat(reports).extracting(r -> r.getAnomaly().getId()).containsExactly(100L, 101L, 102L);
+    assertThat(reports).extracting(r -> r.getData().getFunction())
+        .containsExactly("alert-1", "alert-2", "alert-1");
+    assertThat(reports).extracting(r -> r.getAnomaly().getEnumerationItem().getName())
+        .containsOnly("item-1");
+    verify(alertManager, never()).findById(anyLong());
+    verify(enumerationItemManager, never()).findById(anyLong());
+  }
+}
@@ -13,13 +13,30 @@
  */
 package ai.startree.thirdeye.notification;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import ai.startree.thirdeye.alert.AlertDataRetriever;
 import ai.startree.thirdeye.spi.datalayer.AnomalyFilter;
 import ai.startree.thirdeye.spi.datalayer.bao.AlertManager;
 import ai.startree.thirdeye.spi.datalayer.bao.AnomalyManager;
+import ai.startree.thirdeye.spi.datalayer.dto.AlertAssociationDto;
+import ai.startree.thirdeye.spi.datalayer.dto.AlertDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.AnomalyDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.EnumerationItemDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.SubscriptionGroupDTO;
+import ai.startree.thirdeye.spi.detection.AnomalyResultSource;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Set;
 import org.joda.time.Interval;
+import org.mockito.ArgumentCaptor;
 import org.testng.annotations.Test;
 
 public class NotificationTaskFilterTest {
@@ -31,9 +48,62 @@ public class NotificationTaskFilterTest {
         mock(AlertManager.class),
         mock(AlertDataRetriever.class)
     );
-    instance.filterAnomalies(new AnomalyFilter()
+    instance.filterAnomalies(List.of(new AnomalyFilter()
         .setAlertId(123L)
         .setIsChild(false)
-        .setCreateTimeWindow(new Interval(1230L, 1234L)), 5678L, "");
+        .setCreateTimeWindow(new Interval(1230L, 1234L))), 5678L, "");
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testFilterAnomaliesLoadsAlertsAndAnomaliesInBulk() {
+    final AlertManager alertManager = mock(AlertManager.class);
+    final AnomalyManager anomalyManager = mock(AnomalyManager.class);
+    when(alertManager.findByIds(List.of(1L, 2L))).thenReturn(List.of(
+        alert(1L, true),
+        alert(2L, false)));
+    final AnomalyDTO anomaly = new AnomalyDTO()
+        .setDetectionConfigId(1L)
+        .setAnomalyResultSource(AnomalyResultSource.DEFAULT_ANOMALY_DETECTION);
+    anomaly.setId(10L);
+    when(anomalyManager.filter(anyList())).thenReturn(List.of(anomaly));
+    final SubscriptionGroupDTO sg = new SubscriptionGroupDTO()
+        .setAlertAssociations(List.of(
+            association(1L, 100L),
+            association(1L, 101L),
+            association(2L, 200L)))
+        .setNotifyHistoricalAnomalies(true);
+    sg.setId(5678L);
+
+    final NotificationTaskFilter instance = new NotificationTaskFilter(anomalyManager,
+        alertManager, mock(AlertDataRetriever.class));
+    final Set<AnomalyDTO> anomalies = instance.filterAnomalies(sg, 1234L);
+
+    assertThat(anomalies).containsExactly(anomaly);
+    verify(alertManager, times(1)).findByIds(List.of(1L, 2L));
+    verify(alertManager, never()).findById(anyLong());
+    final ArgumentCaptor<List<AnomalyFilter>> filters = ArgumentCaptor.forClass(List.class);
+    verify(anomalyManager, times(1)).filter(filters.capture());
+    // one filter per association of the active alert
+    assertThat(filters.getValue()).extracting(AnomalyFilter::getEnumerationItemId)
+        .containsExactly(100L, 101L);
+  }
+
+  private static AlertDTO alert(final long id, final boolean active) {
+    final AlertDTO alert = new AlertDTO().setActive(active);
+    alert.setId(id);
+    alert.setCreateTime(new Timestamp(0L));
+    return alert;
+  }
+
+  private static AlertAssociationDto association(final long alertId,
+      final long enumerationItemId) {
+    final AlertDTO alertRef = new AlertDTO();
+    alertRef.setId(alertId);
+    final EnumerationItemDTO enumerationItemRef = new EnumerationItemDTO();
+    enumerationItemRef.setId(enumerationItemId);
+    return new AlertAssociationDto()
+        .setAlert(alertRef)
+        .setEnumerationItem(enumerationItemRef);
   }
 }
\ No newline at end of file
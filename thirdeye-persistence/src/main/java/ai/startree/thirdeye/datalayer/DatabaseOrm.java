@@ -13,6 +13,9 @@
  */
 package ai.startree.thirdeye.datalayer;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
 import ai.startree.thirdeye.datalayer.entity.AbstractEntity;
 import ai.startree.thirdeye.datalayer.entity.AbstractIndexEntity;
 import ai.startree.thirdeye.datalayer.util.GenericResultSetMapper;
@@ -28,8 +31,11 @@ import io.micrometer.core.instrument.Timer;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 @Singleton
@@ -115,6 +121,32 @@ public class DatabaseOrm {
     }
   }
 
+  /**
+   * Returns the ids of the entities matching the predicate. Only the id column is read.
+   */
+  public <E extends AbstractEntity> List<Long> findIds(final @Nullable Predicate predicate,
+      final @Nullable Long limit, final Class<E> clazz, final Connection connection)
+      throws Exception {
+    final Timer.Sample sample = Timer.start(Metrics.globalRegistry);
+    final long tStart = System.nanoTime();
+    try {
+      try (final PreparedStatement selectStatement = sqlQueryBuilder
+          .createFindIdsStatement(connection, clazz, predicate, limit)) {
+        try (final ResultSet resultSet = selectStatement.executeQuery()) {
+          final List<Long> ids = new ArrayList<>();
+          while (resultSet.next()) {
+            ids.add(resultSet.getLong(1));
+          }
+          return ids;
+        }
+      }
+    } finally {
+      dbReadCallCounter.inc();
+      dbReadDuration.update(System.nanoTime() - tStart);
+      sample.stop(dbCrudTimerOfRead);
+    }
+  }
+
   public <E extends AbstractEntity> Long save(final E entity, final Connection connection)
       throws Exception {
     final Timer.Sample sample = Timer.start(Metrics.globalRegistry);
@@ -141,33 +173,118 @@ public class DatabaseOrm {
     }
   }
 
+  /**
+   * Saves the entities in batch. All the entities must be of the same class.
+   *
+   * @return the generated ids, in the order of the entities.
+   */
+  public <E extends AbstractEntity> List<Long> saveAll(final List<E> entities,
+      final Connection connection) throws Exception {
+    if (entities.isEmpty()) {
+      return List.of();
+    }
+    final Class<? extends AbstractEntity> clazz = entities.get(0).getClass();
+    final Timer.Sample sample = Timer.start(Metrics.globalRegistry);
+    final long tStart = System.nanoTime();
+    try {
+      try (final PreparedStatement insertStatement = sqlQueryBuilder
+          .createBatchInsertStatement(connection, clazz)) {
+        for (final E entity : entities) {
+          checkArgument(entity.getClass() == clazz,
+              "Entities of a batch must be of the same class. Got %s and %s",
+              clazz.getSimpleName(), entity.getClass().getSimpleName());
+          sqlQueryBuilder.addBatchInsert(connection, insertStatement, entity);
+        }
+        insertStatement.executeBatch();
+        final List<Long> generatedIds = new ArrayList<>(entities.size());
+        try (final ResultSet generatedKeys = insertStatement.getGeneratedKeys()) {
+          while (generatedKeys.next()) {
+            generatedIds.add(generatedKeys.getLong(1));
+          }
+        }
+        checkState(generatedIds.size() == entities.size(),
+            "Expected %s generated ids. Got %s", entities.size(), generatedIds.size());
+        return generatedIds;
+      }
+    } finally {
+      dbWriteCallCounter.inc();
+      dbWriteDuration.update(System.nanoTime() - tStart);
+      sample.stop(dbCrudTimerOfCreate);
+    }
+  }
+
   public <E extends AbstractEntity> Integer update(final E entity, final Predicate predicate,
       final Connection connection)
       throws Exception {
-    final E dbEntity = (E) find(entity.getId(), entity.getClass(), connection);
-    final Predicate finalPredicate;
     final String idCol = getIdColumnName(entity.getClass());
+    final Predicate finalPredicate;
     if (predicate == null) {
       finalPredicate = Predicate.EQ(idCol, entity.getId());
     } else {
       finalPredicate = Predicate.AND(predicate, Predicate.EQ(idCol, entity.getId()));
     }
-    if (dbEntity != null) {
-      final Timer.Sample sample = Timer.start(Metrics.globalRegistry);
-      final long tStart = System.nanoTime();
-      entity.setCreateTime(dbEntity.getCreateTime());
-      try {
-        try (final PreparedStatement baseTableInsertStmt = sqlQueryBuilder
-            .createUpdateStatement(connection, entity, null, finalPredicate)) {
-          return baseTableInsertStmt.executeUpdate();
+    // the create_time column is never updated - no need to read the row first to preserve it
+    return update(entity, null, finalPredicate, connection);
+  }
+
+  /**
+   * Updates the entities in batch, identified by their id. All the entities must be of the same
+   * class. See {@link SqlQueryBuilder#createBatchUpdateStatement(Connection, Class, boolean)}.
+   *
+   * @return whether each entity was updated, in the order of the entities. With versionChecked,
+   *     false means the row does not exist or its version is not the version of the entity.
+   */
+  public <E extends AbstractEntity> boolean[] updateAll(final List<E> entities,
+      final boolean versionChecked, final Connection connection) throws Exception {
+    if (entities.isEmpty()) {
+      return new boolean[0];
+    }
+    final Class<? extends AbstractEntity> clazz = entities.get(0).getClass();
+    final Timer.Sample sample = Timer.start(Metrics.globalRegistry);
+    final long tStart = System.nanoTime();
+    try {
+      try (final PreparedStatement updateStatement = sqlQueryBuilder
+          .createBatchUpdateStatement(connection, clazz, versionChecked)) {
+        for (final E entity : entities) {
+          checkArgument(entity.getClass() == clazz,
+              "Entities of a batch must be of the same class. Got %s and %s",
+              clazz.getSimpleName(), entity.getClass().getSimpleName());
+          sqlQueryBuilder.addBatchUpdate(connection, updateStatement, entity, versionChecked);
+        }
+        final int[] updateCounts = updateStatement.executeBatch();
+        final boolean[] updated = new boolean[updateCounts.length];
+        for (int i = 0; i < updateCounts.length; i++) {
+          // some drivers do not report the count of batched statements
+          updated[i] = updateCounts[i] > 0 || updateCounts[i] == Statement.SUCCESS_NO_INFO;
         }
-      } finally {
-        dbWriteCallCounter.inc();
-        dbWriteDuration.update(System.nanoTime() - tStart);
-        sample.stop(dbCrudTimerOfUpdate);
+        return updated;
       }
+    } finally {
+      dbWriteCallCounter.inc();
+      dbWriteDuration.update(System.nanoTime() - tStart);
+      sample.stop(dbCrudTimerOfUpdate);
+    }
+  }
+
+  /**
+   * Updates the fieldsToUpdate columns of the rows matching the predicate, in a single statement.
+   * The predicate must identify the rows to update.
+   */
+  public <E extends AbstractEntity> Integer update(final E entity,
+      final Set<String> fieldsToUpdate, final Predicate predicate, final Connection connection)
+      throws Exception {
+    final Timer.Sample sample = Timer.start(Metrics.globalRegistry);
+    final long tStart = System.nanoTime();
+    try {
+      try (final PreparedStatement updateStatement = sqlQueryBuilder
+          .createUpdateStatement(connection, entity, fieldsToUpdate, predicate)) {
+        return updateStatement.executeUpdate();
+      }
+    } finally {
+      dbWriteCallCounter.inc();
+      dbWriteDuration.update(System.nanoTime() - tStart);
+      sample.stop(dbCrudTimerOfUpdate);
     }
-    return 0;
   }
 
   public <E extends AbstractEntity> String getIdColumnName(final Class<E> clazz) {
@@ -13,6 +13,9 @@
  */
 package ai.startree.thirdeye.datalayer.bao;
 
+import static ai.startree.thirdeye.spi.Constants.DELETE_CHUNK_SIZE;
+import static ai.startree.thirdeye.spi.Constants.DELETE_PAUSE_BETWEEN_CHUNKS;
+
 import ai.startree.thirdeye.datalayer.dao.GenericPojoDao;
 import ai.startree.thirdeye.spi.datalayer.DaoFilter;
 import ai.startree.thirdeye.spi.datalayer.Predicate;
@@ -21,6 +24,8 @@ import ai.startree.thirdeye.spi.datalayer.dto.AbstractDTO;
 import com.google.inject.persist.Transactional;
 import java.sql.Timestamp;
 import java.util.List;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
 
@@ -47,6 +52,11 @@ public abstract class AbstractManagerImpl<E extends AbstractDTO> implements Abst
     return id;
   }
 
+  @Override
+  public int saveAll(final List<E> entities) {
+    return genericPojoDao.saveAll(entities);
+  }
+
   @Override
   public int update(final E entity, final Predicate predicate) {
     return genericPojoDao.update(entity, predicate);
@@ -75,7 +85,26 @@ public abstract class AbstractManagerImpl<E extends AbstractDTO> implements Abst
 
   @Override
   public List<E> findByName(final String name) {
-    return findByPredicate(Predicate.EQ("name", name));
+    return findByPredicate(namePredicate(name));
+  }
+
+  /**
+   * The namespace is filtered in the index table. A null namespace matches the entities without
+   * namespace.
+   */
+  @Override
+  public @Nullable E findUniqueByNameAndNamespace(final @NonNull String name,
+      final @Nullable String namespace) {
+    final List<E> list = findByPredicate(Predicate.AND(namePredicate(name),
+        Predicate.EQ("namespace", namespace)));
+    if (list.size() == 1) {
+      return list.get(0);
+    }
+    return null;
+  }
+
+  protected Predicate namePredicate(final String name) {
+    return Predicate.EQ("name", name);
   }
 
   @Override
@@ -105,7 +134,18 @@ public abstract class AbstractManagerImpl<E extends AbstractDTO> implements Abst
     final DateTime expireDate = new DateTime(DateTimeZone.UTC).minusDays(days);
     final Timestamp expireTimestamp = new Timestamp(expireDate.getMillis());
     final Predicate timestampPredicate = Predicate.LT("createTime", expireTimestamp);
-    return deleteByPredicate(timestampPredicate);
+    return deleteByPredicateInChunks(timestampPredicate);
+  }
+
+  /**
+   * For retention jobs. Deletes in chunks, with a pause between chunks.
+   */
+  protected int deleteByPredicateInChunks(final Predicate predicate) {
+    return genericPojoDao.deleteByPredicateInChunks(predicate,
+        dtoClass,
+        DELETE_CHUNK_SIZE,
+        DELETE_PAUSE_BETWEEN_CHUNKS,
+        null);
   }
 
   @Override
@@ -119,6 +159,11 @@ public abstract class AbstractManagerImpl<E extends AbstractDTO> implements Abst
         new DaoFilter().setPredicate(predicate).setBeanClass(dtoClass));
   }
 
+  @Override
+  public List<Long> findIds(final @Nullable Predicate predicate) {
+    return genericPojoDao.fetchIds(new DaoFilter().setPredicate(predicate).setBeanClass(dtoClass));
+  }
+
   @Override
   public List<E> filter(final DaoFilter daoFilter) {
     return genericPojoDao.get(daoFilter.setBeanClass(dtoClass));
@@ -24,6 +24,7 @@ import ai.startree.thirdeye.spi.datalayer.bao.AnomalyManager;
 import ai.startree.thirdeye.spi.datalayer.dto.AnomalyDTO;
 import ai.startree.thirdeye.spi.datalayer.dto.AnomalyFeedbackDTO;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
@@ -31,6 +32,7 @@ import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -58,6 +60,9 @@ public class AnomalyManagerImpl extends AbstractManagerImpl<AnomalyDTO>
   private static final ExecutorService EXECUTOR_SERVICE = Executors.newFixedThreadPool(10,
       new ThreadFactoryBuilder().setNameFormat("anomaly-manager-%d").build());
 
+  // bounds the size of the sql statements of filter(List<AnomalyFilter>)
+  private static final int MAX_FILTERS_PER_QUERY = 100;
+
   @Inject
   public AnomalyManagerImpl(final GenericPojoDao genericPojoDao) {
     super(AnomalyDTO.class, genericPojoDao);
@@ -86,6 +91,27 @@ public class AnomalyManagerImpl extends AbstractManagerImpl<AnomalyDTO>
     }
   }
 
+  /**
+   * Anomalies without children are written in a single transaction. Anomalies with children are
+   * saved one by one: the ids of the children must be known before the parent is written.
+   */
+  @Override
+  public int saveAll(final List<AnomalyDTO> anomalies) {
+    final List<AnomalyDTO> beans = new ArrayList<>(anomalies.size());
+    int saved = 0;
+    for (final AnomalyDTO anomaly : anomalies) {
+      Preconditions.checkNotNull(anomaly);
+      if (anomaly.getChildren() == null || anomaly.getChildren().isEmpty()) {
+        final AnomalyDTO mergeAnomalyBean = convertMergeAnomalyDTO2Bean(anomaly);
+        mergeAnomalyBean.setChildIds(new HashSet<>());
+        beans.add(mergeAnomalyBean);
+      } else if (save(anomaly) != null) {
+        saved++;
+      }
+    }
+    return saved + genericPojoDao.saveAll(beans);
+  }
+
   private Long saveAnomaly(final AnomalyDTO anomalyDTO,
       final Set<AnomalyDTO> visitedAnomalies) {
     Preconditions.checkNotNull(anomalyDTO);
@@ -320,6 +346,22 @@ public class AnomalyManagerImpl extends AbstractManagerImpl<AnomalyDTO>
     return decorate(list);
   }
 
+  @Override
+  public List<AnomalyDTO> filter(final List<AnomalyFilter> anomalyFilters) {
+    // an anomaly can match multiple filters - deduplicate by id
+    final Map<Long, AnomalyDTO> anomalies = new LinkedHashMap<>();
+    for (final List<AnomalyFilter> batch : Lists.partition(anomalyFilters,
+        MAX_FILTERS_PER_QUERY)) {
+      final Predicate predicate = Predicate.OR(batch.stream()
+          .map(this::toPredicate)
+          .toArray(Predicate[]::new));
+      for (final AnomalyDTO anomaly : filter(new DaoFilter().setPredicate(predicate))) {
+        anomalies.putIfAbsent(anomaly.getId(), anomaly);
+      }
+    }
+    return decorate(new ArrayList<>(anomalies.values()));
+  }
+
   @Override
   public long countParentAnomalies(final Predicate predicate) {
     Predicate finalPredicate = toPredicate(new AnomalyFilter().setIsChild(false));
@@ -37,8 +37,8 @@ public class DatasetConfigManagerImpl extends AbstractManagerImpl<DatasetConfigD
   }
 
   @Override
-  public List<DatasetConfigDTO> findByName(final String name) {
-    return findByPredicate(Predicate.EQ("dataset", name));
+  protected Predicate namePredicate(final String name) {
+    return Predicate.EQ("dataset", name);
   }
 
   /**
@@ -74,6 +74,6 @@ public class JobManagerImpl extends AbstractManagerImpl<JobDTO> implements JobMa
     Timestamp expireTimestamp = new Timestamp(expireDate.getMillis());
     Predicate statusPredicate = Predicate.EQ("status", status.toString());
     Predicate timestampPredicate = Predicate.LT("updateTime", expireTimestamp);
-    return deleteByPredicate(Predicate.AND(statusPredicate, timestampPredicate));
+    return deleteByPredicateInChunks(Predicate.AND(statusPredicate, timestampPredicate));
   }
 }
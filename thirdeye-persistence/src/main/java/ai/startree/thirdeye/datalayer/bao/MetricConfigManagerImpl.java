@@ -20,7 +20,6 @@ import ai.startree.thirdeye.spi.datalayer.dto.MetricConfigDTO;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import java.util.List;
-import java.util.Objects;
 import org.apache.commons.collections4.CollectionUtils;
 
 @Singleton
@@ -37,10 +36,10 @@ public class MetricConfigManagerImpl extends AbstractManagerImpl<MetricConfigDTO
       final String dataset, final String namespace) {
     final Predicate datasetPredicate = Predicate.EQ("dataset", dataset);
     final Predicate metricNamePredicate = Predicate.EQ("name", metricName);
-    final Predicate predicate = Predicate.AND(datasetPredicate, metricNamePredicate);
-    final List<MetricConfigDTO> list = findByPredicate(predicate)
-        // TODO CYRIL authz - filter in the sql read, not in app
-        .stream().filter(d -> Objects.equals(d.namespace(), namespace)).toList();
+    final Predicate namespacePredicate = Predicate.EQ("namespace", namespace);
+    final Predicate predicate = Predicate.AND(datasetPredicate, metricNamePredicate,
+        namespacePredicate);
+    final List<MetricConfigDTO> list = findByPredicate(predicate);
     if (CollectionUtils.isNotEmpty(list)) {
       // TODO CYRIL behavior is different in AbstractManager#findUniqueByNameAndNamespace --> clarify
       return list.get(0);
@@ -13,6 +13,8 @@
  */
 package ai.startree.thirdeye.datalayer.bao;
 
+import static ai.startree.thirdeye.spi.Constants.DELETE_CHUNK_SIZE;
+import static ai.startree.thirdeye.spi.Constants.DELETE_PAUSE_BETWEEN_CHUNKS;
 import static ai.startree.thirdeye.spi.Constants.METRICS_CACHE_TIMEOUT;
 import static ai.startree.thirdeye.spi.Constants.TASK_EXPIRY_DURATION;
 import static ai.startree.thirdeye.spi.Constants.TASK_MAX_DELETES_PER_CLEANUP;
@@ -118,50 +120,22 @@ public class TaskManagerImpl implements TaskManager {
     return findByPredicate(predicate);
   }
 
-  // TODO CYRIL NOTE - RETRY IS NOT IMPLEMENTED BUT IT SHOULD BE EASY BY ACCEPTING STATUS = FAILED IN THE 2 METHODS BELOW AND PUTTING A LIMIT ON THE VALUE OF VERSION
+  // TODO CYRIL NOTE - RETRY IS NOT IMPLEMENTED BUT IT SHOULD BE EASY BY ACCEPTING STATUS = FAILED IN THE ACQUISITION AND PUTTING A LIMIT ON THE VALUE OF VERSION
   @Override
-  public TaskDTO findNextTaskToRun() {
-    final String queryClause = """
-        WHERE status = 'WAITING'
-        AND ref_id not in (select ref_id from task_entity where status = 'RUNNING')
-        ORDER BY create_time ASC LIMIT 1
-        """;
-    final List<TaskDTO> dtos = dao.executeParameterizedSQL(queryClause, Collections.emptyMap());
-    if (dtos.isEmpty()) {
-      return null;
-    }
-    return dtos.get(0);
+  public List<TaskDTO> acquireTasksToRun(final long workerId, final int limit) {
+    return dao.acquireTasks(workerId, limit);
   }
 
-  /**
-   * This method has side effects on the task DTO, even if the acquisition attempt fails.
-   * Re-fetch the taskDto if you need to ensure consistency with the persistence layer.
-   * */
   @Override
-  public boolean acquireTaskToRun(final TaskDTO task, final long workerId) {
-    task.setStatus(TaskStatus.RUNNING);
-    task.setWorkerId(workerId);
-    task.setStartTime(System.currentTimeMillis());
-    final int currentVersion = task.getVersion();
-    task.setVersion(currentVersion + 1);
-    final Predicate predicate = Predicate.AND(
-        Predicate.EQ("version", currentVersion),
-        Predicate.EQ("status", TaskStatus.WAITING.toString())
-    );
-    return dao.update(task, predicate) == 1;
+  public int releaseTasks(final List<Long> ids, final long workerId) {
+    return dao.releaseTasks(ids, workerId);
   }
 
   @Override
   public void updateStatusAndTaskEndTime(final Long id, final TaskStatus oldStatus,
       final TaskStatus newStatus,
       final Long taskEndTime, final String message) {
-    final TaskDTO task = findById(id);
-    if (task.getStatus().equals(oldStatus)) {
-      task.setStatus(newStatus);
-      task.setEndTime(taskEndTime);
-      task.setMessage(message);
-      save(task);
-    }
+    dao.updateStatusAndEndTime(id, oldStatus, newStatus, taskEndTime, message);
   }
 
   @Override
@@ -173,9 +147,12 @@ public class TaskManagerImpl implements TaskManager {
 
   @Override
   public void updateLastActive(final Long id) {
-    final TaskDTO task = findById(id);
-    task.setLastActive(new Timestamp(System.currentTimeMillis()));
-    save(task);
+    updateLastActive(List.of(id));
+  }
+
+  @Override
+  public void updateLastActive(final List<Long> ids) {
+    dao.updateLastActive(ids, new Timestamp(System.currentTimeMillis()));
   }
 
   @Override
@@ -186,7 +163,7 @@ public class TaskManagerImpl implements TaskManager {
 
     final Predicate timestampPredicate = Predicate.LT("createTime", expireTimestamp);
     final Predicate statusPredicate = Predicate.EQ("status", status.toString());
-    return deleteByPredicate(Predicate.AND(statusPredicate, timestampPredicate));
+    return deleteByPredicateInChunks(Predicate.AND(statusPredicate, timestampPredicate));
   }
 
   @Override
@@ -218,8 +195,16 @@ public class TaskManagerImpl implements TaskManager {
     return findByPredicate(Predicate.AND(statusPredicate, workerIdPredicate));
   }
 
+  @Override
   public void purge(@Nullable final Duration expiryDurationOptional,
       @Nullable final Integer limitOptional) {
+    purge(expiryDurationOptional, limitOptional, DELETE_CHUNK_SIZE, DELETE_PAUSE_BETWEEN_CHUNKS);
+  }
+
+  @Override
+  public void purge(@Nullable final Duration expiryDurationOptional,
+      @Nullable final Integer limitOptional, final int chunkSize,
+      final Duration pauseBetweenChunks) {
     final DateFormat df = new SimpleDateFormat("yyyy-MM-dd");
     final Duration expiryDuration = optional(expiryDurationOptional).orElse(TASK_EXPIRY_DURATION);
     final long twoMonthsBack = System.currentTimeMillis() - expiryDuration.toMillis();
@@ -228,18 +213,16 @@ public class TaskManagerImpl implements TaskManager {
     final int limit = optional(limitOptional).orElse(TASK_MAX_DELETES_PER_CLEANUP);
 
     final long startTime = System.nanoTime();
-    final List<TaskDTO> tasksToBeDeleted = filter(new DaoFilter()
-        .setPredicate(Predicate.LT("createTime", formattedDate))
-        .setLimit((long) limit)
-    );
-
-    /* Delete each task */
-    tasksToBeDeleted.forEach(this::delete);
+    /* Delete the tasks in chunks, each chunk in one statement */
+    final int deleted = dao.deleteByPredicateInChunks(Predicate.LT("createTime", formattedDate),
+        chunkSize,
+        pauseBetweenChunks,
+        limit);
 
     final double totalTime = (System.nanoTime() - startTime) / 1e9;
 
     LOG.info(String.format("Task cleanup complete. removed %d tasks. (time taken: %.2fs)",
-        tasksToBeDeleted.size(),
+        deleted,
         totalTime));
   }
 
@@ -404,7 +387,14 @@ public class TaskManagerImpl implements TaskManager {
     final DateTime expireDate = new DateTime(DateTimeZone.UTC).minusDays(days);
     final Timestamp expireTimestamp = new Timestamp(expireDate.getMillis());
     final Predicate timestampPredicate = Predicate.LT("createTime", expireTimestamp);
-    return deleteByPredicate(timestampPredicate);
+    return deleteByPredicateInChunks(timestampPredicate);
+  }
+
+  private int deleteByPredicateInChunks(final Predicate predicate) {
+    return dao.deleteByPredicateInChunks(predicate,
+        DELETE_CHUNK_SIZE,
+        DELETE_PAUSE_BETWEEN_CHUNKS,
+        null);
   }
 
   @Override
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.datalayer.dao;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Deletes large sets of rows in chunks. Each chunk is deleted in its own short transaction, so
+ * that a large delete does not hold locks on the tables for a long time. A pause between chunks
+ * leaves room for the rest of the workload.
+ */
+class ChunkedDeleter {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ChunkedDeleter.class);
+
+  /**
+   * @param nextChunk returns at most limit ids to delete. Ids that are deleted must not be
+   *     returned again.
+   * @param deleteChunk deletes the ids, returns the number of deleted rows. 0 means the
+   *     deletion failed.
+   * @param maxDeletes maximum number of ids to delete. No maximum if null.
+   * @return the number of deleted rows
+   */
+  static int delete(final Function<Long, List<Long>> nextChunk,
+      final ToIntFunction<List<Long>> deleteChunk, final int chunkSize,
+      final Duration pauseBetweenChunks, final @Nullable Integer maxDeletes) {
+    int deleted = 0;
+    int fetched = 0;
+    while (maxDeletes == null || fetched < maxDeletes) {
+      final int limit = maxDeletes == null ? chunkSize : Math.min(chunkSize, maxDeletes - fetched);
+      final List<Long> ids = nextChunk.apply((long) limit);
+      if (ids.isEmpty()) {
+        break;
+      }
+      fetched += ids.size();
+      final int deletedInChunk = deleteChunk.applyAsInt(ids);
+      if (deletedInChunk == 0) {
+        // the transaction failed - stop to not fetch the same ids again
+        LOG.warn("Failed to delete a chunk of {} ids. Stopping after {} deleted rows.",
+            ids.size(),
+            deleted);
+        break;
+      }
+      deleted += deletedInChunk;
+      if (ids.size() < limit) {
+        break;
+      }
+      if (!pauseBetweenChunks.isZero()) {
+        try {
+          Thread.sleep(pauseBetweenChunks.toMillis());
+        } catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+          break;
+        }
+      }
+    }
+    return deleted;
+  }
+}
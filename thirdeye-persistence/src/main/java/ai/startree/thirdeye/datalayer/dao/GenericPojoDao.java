@@ -17,6 +17,7 @@ import static ai.startree.thirdeye.datalayer.dao.SubEntities.BEAN_INDEX_MAP;
 import static ai.startree.thirdeye.datalayer.mapper.DtoIndexMapper.toAbstractIndexEntity;
 import static ai.startree.thirdeye.datalayer.mapper.GenericJsonEntityDtoMapper.toDto;
 import static ai.startree.thirdeye.datalayer.mapper.GenericJsonEntityDtoMapper.toGenericJsonEntity;
+import static ai.startree.thirdeye.spi.Constants.DELETE_CHUNK_SIZE;
 import static ai.startree.thirdeye.spi.ThirdEyeStatus.ERR_NEGATIVE_LIMIT_VALUE;
 import static ai.startree.thirdeye.spi.ThirdEyeStatus.ERR_NEGATIVE_OFFSET_VALUE;
 import static ai.startree.thirdeye.spi.ThirdEyeStatus.ERR_OFFSET_WITHOUT_LIMIT;
@@ -43,10 +44,16 @@ import com.google.common.base.Preconditions;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import java.lang.reflect.Field;
+import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import org.apache.commons.collections4.CollectionUtils;
 import org.checkerframework.checker.nullness.qual.Nullable;
@@ -197,6 +204,184 @@ public class GenericPojoDao {
     }
   }
 
+  /**
+   * Creates the pojos without id and updates the pojos with an id, in a single transaction.
+   * Rows are written with JDBC batches: one batch per table for the creations, one per table for
+   * the updates.
+   *
+   * Updates are optimistic: a pojo is only updated if its version is the version in the database.
+   * When a row was updated since the pojo was read, its version is reloaded and the update is
+   * retried in the same transaction: the last writer wins, as with {@link #update(AbstractDTO)}.
+   * Pojos whose row does not exist anymore are skipped and logged. The versions of the updated
+   * pojos are set to the version of their row.
+   *
+   * @return the number of pojos created or updated. 0 if the transaction failed.
+   */
+  public <E extends AbstractDTO> int saveAll(final List<E> pojos) {
+    if (CollectionUtils.isEmpty(pojos)) {
+      return 0;
+    }
+    final Timestamp now = new Timestamp(System.currentTimeMillis());
+    final List<E> toCreate = new ArrayList<>();
+    final List<E> toUpdate = new ArrayList<>();
+    for (final E pojo : pojos) {
+      requireNonNull(pojo, "entity is null");
+      (pojo.getId() == null ? toCreate : toUpdate).add(pojo);
+    }
+    try {
+      final List<GenericJsonEntity> jsonEntitiesToCreate = new ArrayList<>(toCreate.size());
+      for (final E pojo : toCreate) {
+        /* Populate createTime before DB insert if not present already */
+        if (pojo.getCreateTime() == null) {
+          pojo.setCreateTime(now);
+        }
+        jsonEntitiesToCreate.add(toGenericJsonEntity(pojo));
+      }
+      final List<GenericJsonEntity> jsonEntitiesToUpdate = new ArrayList<>(toUpdate.size());
+      for (final E pojo : toUpdate) {
+        final GenericJsonEntity entity = toGenericJsonEntity(pojo);
+        entity.setUpdateTime(now);
+        jsonEntitiesToUpdate.add(entity);
+      }
+
+      final SaveAllResult result = databaseClient.executeTransaction((connection) -> {
+        final List<Long> ids = databaseOrm.saveAll(jsonEntitiesToCreate, connection);
+        final List<AbstractIndexEntity> indexEntitiesToCreate = new ArrayList<>(ids.size());
+        for (int i = 0; i < toCreate.size(); i++) {
+          final E pojo = toCreate.get(i);
+          final Class<? extends AbstractIndexEntity> indexClass = BEAN_INDEX_MAP.get(
+              pojo.getClass());
+          if (indexClass == null) {
+            continue;
+          }
+          final AbstractIndexEntity indexEntity = toAbstractIndexEntity(pojo,
+              indexClass,
+              jsonEntitiesToCreate.get(i).getJsonVal());
+          indexEntity.setBaseId(ids.get(i));
+          indexEntity.setVersion(1);
+          indexEntity.setCreateTime(pojo.getCreateTime());
+          indexEntitiesToCreate.add(indexEntity);
+        }
+        for (final List<AbstractIndexEntity> batch : batchesPerClass(indexEntitiesToCreate)) {
+          databaseOrm.saveAll(batch, connection);
+        }
+
+        final boolean[] updated = updateAllReloadingStale(jsonEntitiesToUpdate, connection);
+        final List<AbstractIndexEntity> indexEntitiesToUpdate = new ArrayList<>();
+        for (int i = 0; i < toUpdate.size(); i++) {
+          final E pojo = toUpdate.get(i);
+          final Class<? extends AbstractIndexEntity> indexClass = BEAN_INDEX_MAP.get(
+              pojo.getClass());
+          if (!updated[i] || indexClass == null) {
+            continue;
+          }
+          final GenericJsonEntity jsonEntity = jsonEntitiesToUpdate.get(i);
+          final AbstractIndexEntity indexEntity = toAbstractIndexEntity(pojo,
+              indexClass,
+              jsonEntity.getJsonVal());
+          indexEntity.setUpdateTime(now);
+          indexEntity.setVersion(jsonEntity.getVersion() + 1);
+          indexEntitiesToUpdate.add(indexEntity);
+        }
+        for (final List<AbstractIndexEntity> batch : batchesPerClass(indexEntitiesToUpdate)) {
+          databaseOrm.updateAll(batch, false, connection);
+        }
+        return new SaveAllResult(ids, updated);
+      }, null);
+      if (result == null) {
+        return 0;
+      }
+
+      /* The pojos are only modified once the transaction is committed */
+      for (int i = 0; i < toCreate.size(); i++) {
+        toCreate.get(i).setId(result.createdIds.get(i));
+      }
+      int updateCounter = 0;
+      for (int i = 0; i < toUpdate.size(); i++) {
+        final E pojo = toUpdate.get(i);
+        if (result.updated[i]) {
+          pojo.setUpdateTime(now);
+          pojo.setVersion(jsonEntitiesToUpdate.get(i).getVersion() + 1);
+          updateCounter++;
+        } else {
+          LOG.error("Could not update entity. It does not exist: {}", pojo);
+        }
+      }
+      return toCreate.size() + updateCounter;
+    } catch (final Exception e) {
+      LOG.error("Could not save entities", e);
+      return 0;
+    }
+  }
+
+  /**
+   * Version-checked batch update. The stale entities get the version of their row and are updated
+   * again. Entities without a row are not updated.
+   */
+  private boolean[] updateAllReloadingStale(final List<GenericJsonEntity> entities,
+      final Connection connection) throws Exception {
+    final boolean[] updated = databaseOrm.updateAll(entities, true, connection);
+    final List<Integer> staleIndices = new ArrayList<>();
+    for (int i = 0; i < updated.length; i++) {
+      if (!updated[i]) {
+        staleIndices.add(i);
+      }
+    }
+    if (staleIndices.isEmpty()) {
+      return updated;
+    }
+    final Object[] staleIds = staleIndices.stream().map(i -> entities.get(i).getId()).toArray();
+    final Map<Long, Integer> rowVersions = new HashMap<>();
+    for (final GenericJsonEntity row : databaseOrm.findAll(Predicate.IN("id", staleIds),
+        null,
+        null,
+        GenericJsonEntity.class,
+        connection)) {
+      rowVersions.put(row.getId(), row.getVersion());
+    }
+    final List<Integer> retriedIndices = new ArrayList<>();
+    final List<GenericJsonEntity> retried = new ArrayList<>();
+    for (final int i : staleIndices) {
+      final GenericJsonEntity entity = entities.get(i);
+      final Integer rowVersion = rowVersions.get(entity.getId());
+      if (rowVersion != null) {
+        LOG.warn("Entity {} was updated concurrently: version {} in the database, {} in the pojo. "
+                + "Overwriting it.",
+            entity.getId(),
+            rowVersion,
+            entity.getVersion());
+        entity.setVersion(rowVersion);
+        retriedIndices.add(i);
+        retried.add(entity);
+      }
+    }
+    final boolean[] retriedUpdated = databaseOrm.updateAll(retried, true, connection);
+    for (int j = 0; j < retriedIndices.size(); j++) {
+      updated[retriedIndices.get(j)] = retriedUpdated[j];
+    }
+    return updated;
+  }
+
+  private static <T extends AbstractIndexEntity> Collection<List<T>> batchesPerClass(
+      final List<T> entities) {
+    final Map<Class<?>, List<T>> batches = new LinkedHashMap<>();
+    for (final T entity : entities) {
+      batches.computeIfAbsent(entity.getClass(), c -> new ArrayList<>()).add(entity);
+    }
+    return batches.values();
+  }
+
+  private static class SaveAllResult {
+
+    private final List<Long> createdIds;
+    private final boolean[] updated;
+
+    private SaveAllResult(final List<Long> createdIds, final boolean[] updated) {
+      this.createdIds = createdIds;
+      this.updated = updated;
+    }
+  }
+
   public <E extends AbstractDTO> List<E> list(final Class<E> beanClass, final long limit,
       final long offset) {
     try {
@@ -329,7 +514,10 @@ public class GenericPojoDao {
     return results;
   }
 
-  private List<Long> fetchIds(final DaoFilter daoFilter) {
+  /**
+   * Returns the ids of the entities matching the filter. Only the index table is read.
+   */
+  public List<Long> fetchIds(final DaoFilter daoFilter) {
     //apply the predicates and fetch the primary key ids
     final Class<? extends AbstractIndexEntity> indexClass = BEAN_INDEX_MAP.get(
         daoFilter.getBeanClass());
@@ -410,8 +598,38 @@ public class GenericPojoDao {
 
   public <E extends AbstractDTO> int deleteByPredicate(final Predicate predicate,
       final Class<E> pojoClass) {
-    final List<Long> idsToDelete = fetchIds(
-        new DaoFilter().setPredicate(predicate).setBeanClass(pojoClass));
-    return delete(idsToDelete, pojoClass);
+    return deleteByPredicateInChunks(predicate, pojoClass, DELETE_CHUNK_SIZE, Duration.ZERO, null);
+  }
+
+  /**
+   * Deletes the entities matching the predicate, chunkSize entities per transaction. The ids of
+   * each chunk are read from the index table, then the rows are deleted from the json and index
+   * tables with an IN clause.
+   *
+   * @param maxDeletes maximum number of entities to delete. No maximum if null.
+   * @return the number of deleted entities
+   */
+  public <E extends AbstractDTO> int deleteByPredicateInChunks(final Predicate predicate,
+      final Class<E> pojoClass, final int chunkSize, final Duration pauseBetweenChunks,
+      final @Nullable Integer maxDeletes) {
+    checkArgument(chunkSize > 0, "chunkSize must be positive. Got: %s", chunkSize);
+    final Class<? extends AbstractIndexEntity> indexEntityClass = BEAN_INDEX_MAP.get(pojoClass);
+    return ChunkedDeleter.delete(limit -> findIds(predicate, limit, indexEntityClass),
+        ids -> delete(ids, pojoClass),
+        chunkSize,
+        pauseBetweenChunks,
+        maxDeletes);
+  }
+
+  private List<Long> findIds(final Predicate predicate, final long limit,
+      final Class<? extends AbstractIndexEntity> indexEntityClass) {
+    try {
+      return databaseClient.executeTransaction(
+          (connection) -> databaseOrm.findIds(predicate, limit, indexEntityClass, connection),
+          emptyList());
+    } catch (final SQLException e) {
+      LOG.error(e.getMessage(), e);
+      return emptyList();
+    }
   }
 }
@@ -13,6 +13,7 @@
  */
 package ai.startree.thirdeye.datalayer.dao;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.Objects.requireNonNull;
 
 import ai.startree.thirdeye.datalayer.DatabaseClient;
@@ -23,19 +24,27 @@ import ai.startree.thirdeye.spi.datalayer.DaoFilter;
 import ai.startree.thirdeye.spi.datalayer.Predicate;
 import ai.startree.thirdeye.spi.datalayer.dto.TaskDTO;
 import ai.startree.thirdeye.spi.json.ThirdEyeSerialization;
+import ai.startree.thirdeye.spi.task.TaskStatus;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Preconditions;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
 import org.apache.commons.collections4.CollectionUtils;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,6 +55,35 @@ public class TaskDao {
   private static final boolean IS_DEBUG = LOG.isDebugEnabled();
   private static final ObjectMapper OBJECT_MAPPER = ThirdEyeSerialization.getObjectMapper();
 
+  private static final String FIND_TASKS_TO_RUN = """
+      WHERE status = 'WAITING'
+      ORDER BY create_time ASC LIMIT %d
+      """;
+  private static final String SKIP_LOCKED_CLAUSE = " FOR UPDATE SKIP LOCKED";
+  /*
+   * Candidates are read without excluding the ref_ids that have a RUNNING task - that check is
+   * done on the candidates only. More candidates than tasks to acquire are read, so that the
+   * candidates blocked by a running task do not starve the batch.
+   */
+  private static final int CANDIDATES_PER_TASK = 4;
+  private static final Set<String> ACQUIRE_FIELDS = Set.of("status",
+      "workerId",
+      "startTime",
+      "lastActive",
+      "version",
+      "updateTime",
+      "jsonVal");
+  private static final Set<String> STATUS_UPDATE_FIELDS = Set.of("status",
+      "endTime",
+      "version",
+      "updateTime",
+      "jsonVal");
+  private static final Set<String> HEARTBEAT_FIELDS = Set.of("lastActive", "updateTime");
+  private static final Set<String> RELEASE_FIELDS = Set.of("status",
+      "version",
+      "updateTime",
+      "jsonVal");
+
   private final DatabaseOrm databaseOrm;
   private final DatabaseClient databaseClient;
 
@@ -74,6 +112,10 @@ public class TaskDao {
     dto.setCreateTime(entity.getCreateTime());
     dto.setUpdateTime(entity.getUpdateTime());
     dto.setVersion(entity.getVersion());
+    // last_active is updated without rewriting the json - see updateLastActive
+    if (entity.getLastActive() != null) {
+      dto.setLastActive(entity.getLastActive());
+    }
     return dto;
   }
 
@@ -155,6 +197,208 @@ public class TaskDao {
     }
   }
 
+  /**
+   * Acquires up to limit WAITING tasks for the worker, in a single transaction.
+   *
+   * On databases that support it, the candidate tasks are locked with SKIP LOCKED: concurrent
+   * workers do not wait for each other and do not acquire the same tasks. On other databases,
+   * the version-checked update ensures a task is only acquired once.
+   *
+   * At most one task is acquired per ref_id, and never for a ref_id that has a RUNNING task.
+   *
+   * @return the acquired tasks, with status RUNNING.
+   */
+  public List<TaskDTO> acquireTasks(final long workerId, final int limit) {
+    Preconditions.checkArgument(limit > 0, "limit must be positive. Got: %s", limit);
+    try {
+      return databaseClient.executeTransaction(
+          (connection) -> acquireTasks(workerId, limit, connection),
+          Collections.emptyList());
+    } catch (final SQLException e) {
+      LOG.error(e.getMessage(), e);
+      return Collections.emptyList();
+    }
+  }
+
+  private List<TaskDTO> acquireTasks(final long workerId, final int limit,
+      final Connection connection) throws Exception {
+    final String findTasksToRun = String.format(FIND_TASKS_TO_RUN, limit * CANDIDATES_PER_TASK)
+        + (supportsSkipLocked(connection) ? SKIP_LOCKED_CLAUSE : "");
+    final List<TaskEntity> candidates = databaseOrm.runSQL(findTasksToRun,
+        Collections.emptyMap(),
+        TaskEntity.class,
+        connection);
+
+    final long now = System.currentTimeMillis();
+    // a task can only run if no other task with the same ref_id is running
+    final Set<Long> blockedRefIds = runningRefIds(candidates, connection);
+    final List<TaskDTO> acquiredTasks = new ArrayList<>();
+    for (final TaskEntity candidate : candidates) {
+      if (acquiredTasks.size() == limit) {
+        break;
+      }
+      if (candidate.getRefId() != null && !blockedRefIds.add(candidate.getRefId())) {
+        continue;
+      }
+      final TaskDTO task = toDto(candidate);
+      final int currentVersion = task.getVersion();
+      task.setStatus(TaskStatus.RUNNING);
+      task.setWorkerId(workerId);
+      task.setStartTime(now);
+      task.setLastActive(new Timestamp(now));
+      task.setVersion(currentVersion + 1);
+      final Predicate predicate = Predicate.AND(
+          Predicate.EQ("id", task.getId()),
+          Predicate.EQ("version", currentVersion),
+          Predicate.EQ("status", TaskStatus.WAITING.toString())
+      );
+      if (databaseOrm.update(toEntity(task), ACQUIRE_FIELDS, predicate, connection) == 1) {
+        acquiredTasks.add(task);
+      }
+    }
+    return acquiredTasks;
+  }
+
+  private Set<Long> runningRefIds(final List<TaskEntity> candidates,
+      final Connection connection) throws Exception {
+    final Object[] refIds = candidates.stream()
+        .map(TaskEntity::getRefId)
+        .filter(Objects::nonNull)
+        .distinct()
+        .toArray();
+    final Set<Long> runningRefIds = new HashSet<>();
+    if (refIds.length == 0) {
+      return runningRefIds;
+    }
+    final Predicate predicate = Predicate.AND(
+        Predicate.EQ("status", TaskStatus.RUNNING.toString()),
+        Predicate.IN("refId", refIds));
+    for (final TaskEntity running : databaseOrm.findAll(predicate,
+        null,
+        null,
+        TaskEntity.class,
+        connection)) {
+      runningRefIds.add(running.getRefId());
+    }
+    return runningRefIds;
+  }
+
+  /**
+   * Puts back to WAITING the RUNNING tasks of the worker, for instance tasks acquired by the
+   * worker but not started when it shuts down.
+   *
+   * @return the number of tasks released.
+   */
+  public int releaseTasks(final List<Long> ids, final long workerId) {
+    if (CollectionUtils.isEmpty(ids)) {
+      return 0;
+    }
+    try {
+      return databaseClient.executeTransaction(
+          (connection) -> {
+            final Predicate runningForWorker = Predicate.AND(
+                Predicate.IN("id", ids.toArray()),
+                Predicate.EQ("status", TaskStatus.RUNNING.toString()),
+                Predicate.EQ("workerId", workerId));
+            int released = 0;
+            for (final TaskEntity entity : databaseOrm.findAll(runningForWorker,
+                null,
+                null,
+                TaskEntity.class,
+                connection)) {
+              final TaskDTO task = toDto(entity);
+              task.setStatus(TaskStatus.WAITING);
+              task.setWorkerId(null);
+              task.setVersion(entity.getVersion() + 1);
+              final Predicate predicate = Predicate.AND(
+                  Predicate.EQ("id", entity.getId()),
+                  Predicate.EQ("version", entity.getVersion()),
+                  Predicate.EQ("status", TaskStatus.RUNNING.toString()));
+              released += databaseOrm.update(toEntity(task), RELEASE_FIELDS, predicate, connection);
+            }
+            return released;
+          },
+          0);
+    } catch (final SQLException e) {
+      LOG.error(e.getMessage(), e);
+      return 0;
+    }
+  }
+
+  private static boolean supportsSkipLocked(final Connection connection) throws SQLException {
+    final DatabaseMetaData metaData = connection.getMetaData();
+    final String productName = metaData.getDatabaseProductName();
+    final int majorVersion = metaData.getDatabaseMajorVersion();
+    if ("MySQL".equalsIgnoreCase(productName)) {
+      return majorVersion >= 8;
+    } else if ("PostgreSQL".equalsIgnoreCase(productName)) {
+      return majorVersion > 9 || (majorVersion == 9 && metaData.getDatabaseMinorVersion() >= 5);
+    }
+    // eg H2: rely on the version check only
+    return false;
+  }
+
+  /**
+   * Updates the status, end time and message of a task, only if its current status is
+   * oldStatus. The row is read once and updated with a single statement.
+   *
+   * @param endTime the end time to set. If null, the end time of the task is not changed.
+   * @return the number of rows that are affected.
+   */
+  public int updateStatusAndEndTime(final Long id, final TaskStatus oldStatus,
+      final TaskStatus newStatus, final @Nullable Long endTime, final String message) {
+    try {
+      return databaseClient.executeTransaction(
+          (connection) -> {
+            final TaskEntity entity = databaseOrm.find(id, TaskEntity.class, connection);
+            if (entity == null || !oldStatus.toString().equals(entity.getStatus())) {
+              return 0;
+            }
+            final TaskDTO task = toDto(entity);
+            task.setStatus(newStatus);
+            if (endTime != null) {
+              task.setEndTime(endTime);
+            }
+            task.setMessage(message);
+            task.setVersion(entity.getVersion() + 1);
+            final Predicate predicate = Predicate.AND(
+                Predicate.EQ("id", id),
+                Predicate.EQ("status", oldStatus.toString())
+            );
+            return databaseOrm.update(toEntity(task), STATUS_UPDATE_FIELDS, predicate, connection);
+          },
+          0);
+    } catch (final SQLException e) {
+      LOG.error(e.getMessage(), e);
+      return 0;
+    }
+  }
+
+  /**
+   * Sets the last_active column of the tasks in a single statement. The json is not rewritten:
+   * the column value takes precedence when reading a task.
+   *
+   * @return the number of rows that are affected.
+   */
+  public int updateLastActive(final List<Long> ids, final Timestamp lastActive) {
+    if (CollectionUtils.isEmpty(ids)) {
+      return 0;
+    }
+    final TaskEntity entity = new TaskEntity().setLastActive(lastActive);
+    entity.setUpdateTime(lastActive);
+    try {
+      return databaseClient.executeTransaction(
+          (connection) -> databaseOrm.update(entity,
+              HEARTBEAT_FIELDS,
+              Predicate.IN("id", ids.toArray()),
+              connection),
+          0);
+    } catch (final SQLException e) {
+      LOG.error(e.getMessage(), e);
+      return 0;
+    }
+  }
+
   public List<TaskDTO> getAll() {
     try {
       final List<TaskEntity> entities = databaseClient.executeTransaction(
@@ -302,6 +546,33 @@ public class TaskDao {
     return deleteByPredicate(Predicate.IN("id", idsToDelete.toArray()));
   }
 
+  /**
+   * Deletes the tasks matching the predicate, chunkSize tasks per transaction.
+   *
+   * @param maxDeletes maximum number of tasks to delete. No maximum if null.
+   * @return the number of deleted tasks
+   */
+  public int deleteByPredicateInChunks(final Predicate predicate, final int chunkSize,
+      final Duration pauseBetweenChunks, final @Nullable Integer maxDeletes) {
+    checkArgument(chunkSize > 0, "chunkSize must be positive. Got: %s", chunkSize);
+    return ChunkedDeleter.delete(limit -> findIds(predicate, limit),
+        this::delete,
+        chunkSize,
+        pauseBetweenChunks,
+        maxDeletes);
+  }
+
+  private List<Long> findIds(final Predicate predicate, final long limit) {
+    try {
+      return databaseClient.executeTransaction(
+          (connection) -> databaseOrm.findIds(predicate, limit, TaskEntity.class, connection),
+          Collections.emptyList());
+    } catch (SQLException e) {
+      LOG.error(e.getMessage(), e);
+      return Collections.emptyList();
+    }
+  }
+
   public int deleteByPredicate(final Predicate predicate) {
     try {
       return databaseClient.executeTransaction(
@@ -16,6 +16,8 @@ package ai.startree.thirdeye.datalayer.entity;
 public abstract class AbstractIndexEntity extends AbstractEntity {
 
   protected Long baseId;
+  // namespace of the entity, as set in the auth of the dto. Inherited namespaces are not resolved.
+  protected String namespace;
 
   public Long getBaseId() {
     return baseId;
@@ -24,4 +26,13 @@ public abstract class AbstractIndexEntity extends AbstractEntity {
   public void setBaseId(Long baseId) {
     this.baseId = baseId;
   }
+
+  public String getNamespace() {
+    return namespace;
+  }
+
+  public AbstractIndexEntity setNamespace(final String namespace) {
+    this.namespace = namespace;
+    return this;
+  }
 }
@@ -41,6 +41,7 @@ public class DtoIndexMapper {
     }
     abstractIndexEntity.setBaseId(pojo.getId());
     abstractIndexEntity.setUpdateTime(pojo.getUpdateTime());
+    abstractIndexEntity.setNamespace(pojo.namespace());
 
     return abstractIndexEntity;
   }
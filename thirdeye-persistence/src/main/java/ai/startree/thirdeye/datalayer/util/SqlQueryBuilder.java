@@ -17,6 +17,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static java.util.Objects.requireNonNull;
 
 import ai.startree.thirdeye.datalayer.entity.AbstractEntity;
+import ai.startree.thirdeye.datalayer.entity.AbstractIndexEntity;
 import ai.startree.thirdeye.spi.datalayer.Predicate;
 import com.google.common.collect.BiMap;
 import com.google.common.collect.Sets;
@@ -26,16 +27,17 @@ import java.lang.reflect.Array;
 import java.sql.Clob;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.apache.commons.lang3.StringUtils;
@@ -55,8 +57,15 @@ public class SqlQueryBuilder {
       Pattern.compile(":(" + NAME_REGEX + ")", Pattern.CASE_INSENSITIVE);
   private static final Set<String> AUTO_UPDATE_COLUMN_SET =
       Sets.newHashSet("id", "last_modified");
+  private static final String CREATE_TIME_COLUMN = "create_time";
+  private static final String VERSION_COLUMN = "version";
+  /**
+   * Always written on update, even when null: a null namespace is a value - the entity moved back
+   * to the unset namespace - not an absent field.
+   */
+  private static final String NAMESPACE_COLUMN = "namespace";
   //insert sql per table
-  private final Map<String, String> insertSqlMap = new HashMap<>();
+  private final Map<String, String> insertSqlMap = new ConcurrentHashMap<>();
   private final EntityMappingHolder entityMappingHolder;
 
   @Inject
@@ -106,29 +115,147 @@ public class SqlQueryBuilder {
     final String sql = insertSqlMap.get(tableName);
     final PreparedStatement preparedStatement =
         conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+    bindInsertParameters(conn, preparedStatement, tableName, entity);
+    return preparedStatement;
+  }
+
+  private void bindInsertParameters(final Connection conn,
+      final PreparedStatement preparedStatement, final String tableName,
+      final AbstractEntity entity) throws Exception {
     final LinkedHashMap<String, ColumnInfo> columnInfoMap =
         entityMappingHolder.columnInfoPerTable.get(tableName);
     int parameterIndex = 1;
     for (final ColumnInfo columnInfo : columnInfoMap.values()) {
       if (columnInfo.getField() != null
           && !AUTO_UPDATE_COLUMN_SET.contains(columnInfo.getColumnNameInDB().toLowerCase())) {
-        final Object val = columnInfo.getField().get(entity);
-        if (val != null) {
-          if (columnInfo.getSqlType() == Types.CLOB) {
-            final Clob clob = conn.createClob();
-            clob.setString(1, val.toString());
-            preparedStatement.setClob(parameterIndex++, clob);
-          } else if (columnInfo.getSqlType() == Types.TIMESTAMP) {
-            preparedStatement.setObject(parameterIndex++, val, columnInfo.getSqlType());
-          } else {
-            preparedStatement.setObject(parameterIndex++, val.toString(), columnInfo.getSqlType());
-          }
-        } else {
-          preparedStatement.setNull(parameterIndex++, columnInfo.getSqlType());
-        }
+        setParameter(conn, preparedStatement, parameterIndex++, columnInfo,
+            columnInfo.getField().get(entity));
       }
     }
-    return preparedStatement;
+  }
+
+  private static void setParameter(final Connection conn,
+      final PreparedStatement preparedStatement, final int parameterIndex,
+      final ColumnInfo columnInfo, final Object val) throws Exception {
+    if (val != null) {
+      if (columnInfo.getSqlType() == Types.CLOB) {
+        final Clob clob = conn.createClob();
+        clob.setString(1, val.toString());
+        preparedStatement.setClob(parameterIndex, clob);
+      } else if (columnInfo.getSqlType() == Types.TIMESTAMP) {
+        preparedStatement.setObject(parameterIndex, val, columnInfo.getSqlType());
+      } else {
+        preparedStatement.setObject(parameterIndex, val.toString(), columnInfo.getSqlType());
+      }
+    } else {
+      preparedStatement.setNull(parameterIndex, columnInfo.getSqlType());
+    }
+  }
+
+  /**
+   * Insert statement for batches of entities of the same class. Add the entities with
+   * {@link #addBatchInsert(Connection, PreparedStatement, AbstractEntity)}.
+   */
+  public PreparedStatement createBatchInsertStatement(final Connection conn,
+      final Class<? extends AbstractEntity> entityClass) throws SQLException {
+    final String tableName = tableName(entityClass);
+    final String sql = insertSqlMap.computeIfAbsent(tableName, t -> generateInsertSql(t,
+        entityMappingHolder.columnInfoPerTable.get(t.toLowerCase())));
+    return conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+  }
+
+  public void addBatchInsert(final Connection conn, final PreparedStatement preparedStatement,
+      final AbstractEntity entity) throws Exception {
+    bindInsertParameters(conn, preparedStatement, tableName(entity.getClass()), entity);
+    preparedStatement.addBatch();
+  }
+
+  /**
+   * Update statement for batches of entities of the same class. The row is identified by the id
+   * column - base_id for index tables. Null values do not overwrite the column, except for the
+   * namespace column, as in {@link #createUpdateStatement(Connection, AbstractEntity, Set,
+   * Predicate)}. The create_time column is never updated.
+   *
+   * If versionChecked is true, the row is only updated if its version is the version of the
+   * entity, and the version is incremented. The update count of a stale entity is 0.
+   */
+  public PreparedStatement createBatchUpdateStatement(final Connection conn,
+      final Class<? extends AbstractEntity> entityClass, final boolean versionChecked)
+      throws SQLException {
+    final String tableName = tableName(entityClass);
+    final String idColumn = idColumnName(tableName, entityClass);
+    final StringBuilder sqlBuilder = new StringBuilder("UPDATE " + tableName + " SET ");
+    String delim = "";
+    for (final ColumnInfo columnInfo : batchUpdateColumns(tableName, versionChecked)) {
+      final String columnName = columnInfo.getColumnNameInDB();
+      sqlBuilder.append(delim).append(columnName);
+      if (NAMESPACE_COLUMN.equalsIgnoreCase(columnName)) {
+        sqlBuilder.append(" = ?");
+      } else {
+        sqlBuilder.append(" = COALESCE(?, ").append(columnName).append(")");
+      }
+      delim = ", ";
+    }
+    if (versionChecked) {
+      sqlBuilder.append(delim).append(VERSION_COLUMN).append(" = ").append(VERSION_COLUMN)
+          .append(" + 1");
+    }
+    sqlBuilder.append(" WHERE ").append(idColumn).append(" = ?");
+    if (versionChecked) {
+      sqlBuilder.append(" AND ").append(VERSION_COLUMN).append(" = ?");
+    }
+    return conn.prepareStatement(sqlBuilder.toString());
+  }
+
+  public void addBatchUpdate(final Connection conn, final PreparedStatement preparedStatement,
+      final AbstractEntity entity, final boolean versionChecked) throws Exception {
+    final String tableName = tableName(entity.getClass());
+    int parameterIndex = 1;
+    for (final ColumnInfo columnInfo : batchUpdateColumns(tableName, versionChecked)) {
+      Object val = columnInfo.getField().get(entity);
+      if (val != null && Enum.class.isAssignableFrom(val.getClass())) {
+        val = val.toString();
+      }
+      setParameter(conn, preparedStatement, parameterIndex++, columnInfo, val);
+    }
+    final Long id = entity instanceof AbstractIndexEntity
+        ? ((AbstractIndexEntity) entity).getBaseId()
+        : entity.getId();
+    checkNotNull(id, "An id is required to update the entity: %s", entity);
+    preparedStatement.setLong(parameterIndex++, id);
+    if (versionChecked) {
+      preparedStatement.setInt(parameterIndex, entity.getVersion());
+    }
+    preparedStatement.addBatch();
+  }
+
+  private List<ColumnInfo> batchUpdateColumns(final String tableName,
+      final boolean versionChecked) {
+    final List<ColumnInfo> columns = new ArrayList<>();
+    for (final ColumnInfo columnInfo : entityMappingHolder.columnInfoPerTable.get(tableName)
+        .values()) {
+      final String columnName = columnInfo.getColumnNameInDB().toLowerCase();
+      if (columnInfo.getField() != null
+          && !AUTO_UPDATE_COLUMN_SET.contains(columnName)
+          && !CREATE_TIME_COLUMN.equals(columnName)
+          && !(versionChecked && VERSION_COLUMN.equals(columnName))) {
+        columns.add(columnInfo);
+      }
+    }
+    return columns;
+  }
+
+  private String tableName(final Class<? extends AbstractEntity> entityClass) {
+    return requireNonNull(
+        entityMappingHolder.tableToEntityNameMap.inverse().get(entityClass.getSimpleName()));
+  }
+
+  private String idColumnName(final String tableName,
+      final Class<? extends AbstractEntity> entityClass) {
+    final String idField = AbstractIndexEntity.class.isAssignableFrom(entityClass)
+        ? "baseId"
+        : "id";
+    return entityMappingHolder.columnMappingPerTable.get(tableName).inverse().get(idField);
   }
 
   public PreparedStatement createUpdateStatement(final Connection connection, final AbstractEntity entity,
@@ -141,13 +268,16 @@ public class SqlQueryBuilder {
     final StringBuilder sqlBuilder = new StringBuilder("UPDATE " + tableName + " SET ");
     String delim = "";
     final List<Pair<String, Object>> parametersList = new ArrayList<>();
+    final boolean fullUpdate = fieldsToUpdate == null;
     for (final ColumnInfo columnInfo : columnInfoMap.values()) {
       final String columnNameInDB = columnInfo.getColumnNameInDB();
       if (!AUTO_UPDATE_COLUMN_SET.contains(columnNameInDB)
-          && (fieldsToUpdate == null || fieldsToUpdate.contains(columnInfo.getColumnNameInEntity()))) {
+          && !CREATE_TIME_COLUMN.equals(columnNameInDB)
+          && !(fullUpdate && VERSION_COLUMN.equalsIgnoreCase(columnNameInDB))
+          && (fullUpdate || fieldsToUpdate.contains(columnInfo.getColumnNameInEntity()))) {
         Object val = columnInfo.getField().get(entity);
-        if (val != null) {
-          if (Enum.class.isAssignableFrom(val.getClass())) {
+        if (val != null || NAMESPACE_COLUMN.equalsIgnoreCase(columnNameInDB)) {
+          if (val != null && Enum.class.isAssignableFrom(val.getClass())) {
             val = val.toString();
           }
           sqlBuilder.append(delim);
@@ -159,6 +289,11 @@ public class SqlQueryBuilder {
         }
       }
     }
+    if (fullUpdate) {
+      // the version is derived from the row - the version of the entity may be stale
+      sqlBuilder.append(delim).append(VERSION_COLUMN).append("=").append(VERSION_COLUMN)
+          .append("+1");
+    }
     final BiMap<String, String> entityNameToDBNameMapping =
         entityMappingHolder.columnMappingPerTable.get(tableName).inverse();
     final StringBuilder whereClause = new StringBuilder(" WHERE ");
@@ -169,7 +304,11 @@ public class SqlQueryBuilder {
     for (final Pair<String, Object> paramEntry : parametersList) {
       final String dbFieldName = paramEntry.getKey();
       final ColumnInfo info = columnInfoMap.get(dbFieldName);
-      prepareStatement.setObject(parameterIndex++, paramEntry.getValue(), info.getSqlType());
+      if (paramEntry.getValue() == null) {
+        prepareStatement.setNull(parameterIndex++, info.getSqlType());
+      } else {
+        prepareStatement.setObject(parameterIndex++, paramEntry.getValue(), info.getSqlType());
+      }
     }
     return prepareStatement;
   }
@@ -204,9 +343,26 @@ public class SqlQueryBuilder {
   public PreparedStatement createFindByParamsStatementWithLimit(final Connection connection,
       final Class<? extends AbstractEntity> entityClass, final Predicate predicate, final Long limit, final Long offset)
       throws Exception {
+    return createSelectStatement(connection, entityClass, "*", predicate, limit, offset);
+  }
+
+  /**
+   * Selects only the id column. For index entities, the id column is the base id.
+   */
+  public PreparedStatement createFindIdsStatement(final Connection connection,
+      final Class<? extends AbstractEntity> entityClass, final @Nullable Predicate predicate,
+      final @Nullable Long limit) throws Exception {
+    final String idColumnName = idColumnName(tableName(entityClass), entityClass);
+    return createSelectStatement(connection, entityClass, idColumnName, predicate, limit, null);
+  }
+
+  private PreparedStatement createSelectStatement(final Connection connection,
+      final Class<? extends AbstractEntity> entityClass, final String selectList,
+      final Predicate predicate, final Long limit, final Long offset) throws Exception {
     final String tableName = entityMappingHolder.tableToEntityNameMap.inverse()
         .get(entityClass.getSimpleName());
-    final StringBuilder sqlBuilder = new StringBuilder("SELECT * FROM " + tableName);
+    final StringBuilder sqlBuilder = new StringBuilder(
+        "SELECT " + selectList + " FROM " + tableName);
     final List<Pair<String, Object>> parametersList = new ArrayList<>();
     if(predicate != null) {
       final BiMap<String, String> entityNameToDBNameMapping =
@@ -303,6 +459,14 @@ public class SqlQueryBuilder {
         whereClause.append(")");
         break;
       case EQ:
+        if (predicate.getRhs() == null) {
+          whereClause.append(columnName).append(" IS NULL");
+        } else {
+          whereClause.append(columnName).append(" ").append(predicate.getOper().toString())
+              .append(" ?");
+          parametersList.add(ImmutablePair.of(columnName, predicate.getRhs()));
+        }
+        break;
       case LIKE:
       case GT:
       case LT:
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+-- Add the namespace of the entity to the index tables, so that entities can be filtered by
+-- namespace in the index tables. The namespace is the namespace set in the auth of the entity.
+-- It is maintained on write by GenericPojoDao. Existing rows are backfilled from the json table.
+
+ALTER TABLE alert_template_index ADD COLUMN namespace VARCHAR(255) DEFAULT NULL;
+CREATE INDEX alert_template_index_namespace_idx ON alert_template_index (namespace);
+UPDATE alert_template_index
+    JOIN generic_json_entity ON alert_template_index.base_id = generic_json_entity.id
+SET alert_template_index.namespace = JSON_UNQUOTE(JSON_EXTRACT(generic_json_entity.json_val, '$.auth.namespace'))
+WHERE generic_json_entity.json_val LIKE '%"namespace"%'
+  AND JSON_TYPE(JSON_EXTRACT(generic_json_entity.json_val, '$.auth.namespace')) = 'STRING';
+
+ALTER TABLE anomaly_feedback_index ADD COLUMN namespace VARCHAR(255) DEFAULT NULL;
+CREATE INDEX anomaly_feedback_index_namespace_idx ON anomaly_feedback_index (namespace);
+UPDATE anomaly_feedback_index
+    JOIN generic_json_entity ON anomaly_feedback_index.base_id = generic_json_entity.id
+SET anomaly_feedback_index.namespace = JSON_UNQUOTE(JSON_EXTRACT(generic_json_entity.json_val, '$.auth.namespace'))
+WHERE generic_json_entity.json_val LIKE '%"namespace"%'
+  AND JSON_TYPE(JSON_EXTRACT(generic_json_entity.json_val, '$.auth.namespace')) = 'STRING';
+
+ALTER TABLE anomaly_subscription_group_notification_index ADD COLUMN namespace VARCHAR(255) DEFAULT NULL;
+CREATE INDEX anomaly_subscription_group_notification_index_namespace_idx ON anomaly_subscription_group_notification_index (namespace);
+UPDATE anomaly_subscription_group_notification_index
+    JOIN generic_json_entity ON anomaly_subscription_group_notification_index.base_id = generic_json_entity.id
+SET anomaly_subscription_group_notification_index.namespace = JSON_UNQUOTE(JSON_EXTRACT(generic_json_entity.json_val, '$.auth.namespace'))
+WHERE generic_json_entity.json_val LIKE '%"namespace"%'
+  AND JSON_TYPE(JSON_EXTRACT(generic_json_entity.json_val, '$.auth.namespace')) = 'STRING';
+
+ALTER TABLE data_source_index ADD COLUMN namespace VARCHAR(255) DEFAULT NULL;
+CREATE INDEX data_source_index_namespace_idx ON data_source_index (namespace);
+UPDATE data_source_index
+    JOIN generic_json_entity ON data_source_index.base_id = generic_json_entity.id
+SET data_source_index.namespace = JSON_UNQUOTE(JSON_EXTRACT(generic_json_entity.json_val, '$.auth.namespace'))
+WHERE generic_json_entity.json_val LIKE '%"namespace"%'
+  AND JSON_TYPE(JSON_EXTRACT(generic_json_entity.json_val, '$.auth.namespace')) = 'STRING';
+
+ALTER TABLE dataset_config_index ADD COLUMN namespace VARCHAR(255) DEFAULT NULL;
+CREATE INDEX dataset_config_index_namespace_idx ON dataset_config_index (namespace);
+UPDATE dataset_config_index
+    JOIN generic_json_entity ON dataset_config_index.base_id = generic_json_entity.id
+SET dataset_config_index.namespace = JSON_UNQUOTE(JSON_EXTRACT(generic_json_entity.json_val, '$.auth.namespace'))
+WHERE generic_json_entity.json_val LIKE '%"namespace"%'
+  AND JSON_TYPE(JSON_EXTRACT(generic_json_entity.json_val, '$.auth.namespace')) = 'STRING';
+
+ALTER TABLE detection_alert_config_index ADD COLUMN namespace VARCHAR(255) DEFAULT NULL;
+CREATE INDEX detection_alert_config_index_namespace_idx ON detection_alert_config_index (namespace);
+UPDATE detection_alert_config_index
+    JOIN generic_json_entity ON detection_alert_config_index.base_id = generic_json_entity.id
+SET detection_alert_config_index.namespace = JSON_UNQUOTE(JSON_EXTRACT(generic_json_entity.json_val, '$.auth.namespace'))
+WHERE generic_json_entity.json_val LIKE '%"namespace"%'
+  AND JSON_TYPE(JSON_EXTRACT(generic_json_entity.json_val, '$.auth.namespace')) = 'STRING';
+
+ALTER TABLE detection_config_index ADD COLUMN namespace VARCHAR(255) DEFAULT NULL;
+CREATE INDEX detection_config_index_namespace_idx ON detection_config_index (namespace);
+UPDATE detection_config_index
+    JOIN generic_json_entity ON detection_config_index.base_id = generic_json_entity.id
+SET detection_config_index.namespace = JSON_UNQUOTE(JSON_EXTRACT(generic_json_entity.json_val, '$.auth.namespace'))
+WHERE generic_json_entity.json_val LIKE '%"namespace"%'
+  AND JSON_TYPE(JSON_EXTRACT(generic_json_entity.json_val, '$.auth.namespace')) = 'STRING';
+
+ALTER TABLE detection_status_index ADD COLUMN namespace VARCHAR(255) DEFAULT NULL;
+CREATE INDEX detection_status_index_namespace_idx ON detection_status_index (namespace);
+UPDATE detection_status_index
+    JOIN generic_json_entity ON detection_status_index.base_id = generic_json_entity.id
+SET detection_status_index.namespace = JSON_UNQUOTE(JSON_EXTRACT(generic_json_entity.json_val, '$.auth.namespace'))
+WHERE generic_json_entity.json_val LIKE '%"namespace"%'
+  AND JSON_TYPE(JSON_EXTRACT(generic_json_entity.json_val, '$.auth.namespace')) = 'STRING';
+
+ALTER TABLE entity_to_entity_mapping_index ADD COLUMN namespace VARCHAR(255) DEFAULT NULL;
+CREATE INDEX entity_to_entity_mapping_index_namespace_idx ON entity_to_entity_mapping_index (namespace);
+UPDATE entity_to_entity_mapping_index
+    JOIN generic_json_entity ON entity_to_entity_mapping_index.base_id = generic_json_entity.id
+SET entity_to_entity_mapping_index.namespace = JSON_UNQUOTE(JSON_EXTRACT(generic_json_entity.json_val, '$.auth.namespace'))
+WHERE generic_json_entity.json_val LIKE '%"namespace"%'
+  AND JSON_TYPE(JSON_EXTRACT(generic_json_entity.json_val, '$.auth.namespace')) = 'STRING';
+
+ALTER TABLE enumeration_item_index ADD COLUMN namespace VARCHAR(255) DEFAULT NULL;
+CREATE INDEX enumeration_item_index_namespace_idx ON enumeration_item_index (namespace);
+UPDATE enumeration_item_index
+    JOIN generic_json_entity ON enumeration_item_index.base_id = generic_json_entity.id
+SET enumeration_item_index.namespace = JSON_UNQUOTE(JSON_EXTRACT(generic_json_entity.json_val, '$.auth.namespace'))
+WHERE generic_json_entity.json_val LIKE '%"namespace"%'
+  AND JSON_TYPE(JSON_EXTRACT(generic_json_entity.json_val, '$.auth.namespace')) = 'STRING';
+
+ALTER TABLE event_index ADD COLUMN namespace VARCHAR(255) DEFAULT NULL;
+CREATE INDEX event_index_namespace_idx ON event_index (namespace);
+UPDATE event_index
+    JOIN generic_json_entity ON event_index.base_id = generic_json_entity.id
+SET event_index.namespace = JSON_UNQUOTE(JSON_EXTRACT(generic_json_entity.json_val, '$.auth.namespace'))
+WHERE generic_json_entity.json_val LIKE '%"namespace"%'
+  AND JSON_TYPE(JSON_EXTRACT(generic_json_entity.json_val, '$.auth.namespace')) = 'STRING';
+
+ALTER TABLE job_index ADD COLUMN namespace VARCHAR(255) DEFAULT NULL;
+CREATE INDEX job_index_namespace_idx ON job_index (namespace);
+UPDATE job_index
+    JOIN generic_json_entity ON job_index.base_id = generic_json_entity.id
+SET job_index.namespace = JSON_UNQUOTE(JSON_EXTRACT(generic_json_entity.json_val, '$.auth.namespace'))
+WHERE generic_json_entity.json_val LIKE '%"namespace"%'
+  AND JSON_TYPE(JSON_EXTRACT(generic_json_entity.json_val, '$.auth.namespace')) = 'STRING';
+
+ALTER TABLE merged_anomaly_result_index ADD COLUMN namespace VARCHAR(255) DEFAULT NULL;
+CREATE INDEX merged_anomaly_result_index_namespace_idx ON merged_anomaly_result_index (namespace);
+UPDATE merged_anomaly_result_index
+    JOIN generic_json_entity ON merged_anomaly_result_index.base_id = generic_json_entity.id
+SET merged_anomaly_result_index.namespace = JSON_UNQUOTE(JSON_EXTRACT(generic_json_entity.json_val, '$.auth.namespace'))
+WHERE generic_json_entity.json_val LIKE '%"namespace"%'
+  AND JSON_TYPE(JSON_EXTRACT(generic_json_entity.json_val, '$.auth.namespace')) = 'STRING';
+
+ALTER TABLE metric_config_index ADD COLUMN namespace VARCHAR(255) DEFAULT NULL;
+CREATE INDEX metric_config_index_namespace_idx ON metric_config_index (namespace);
+UPDATE metric_config_index
+    JOIN generic_json_entity ON metric_config_index.base_id = generic_json_entity.id
+SET metric_config_index.namespace = JSON_UNQUOTE(JSON_EXTRACT(generic_json_entity.json_val, '$.auth.namespace'))
+WHERE generic_json_entity.json_val LIKE '%"namespace"%'
+  AND JSON_TYPE(JSON_EXTRACT(generic_json_entity.json_val, '$.auth.namespace')) = 'STRING';
+
+ALTER TABLE onboard_dataset_metric_index ADD COLUMN namespace VARCHAR(255) DEFAULT NULL;
+CREATE INDEX onboard_dataset_metric_index_namespace_idx ON onboard_dataset_metric_index (namespace);
+UPDATE onboard_dataset_metric_index
+    JOIN generic_json_entity ON onboard_dataset_metric_index.base_id = generic_json_entity.id
+SET onboard_dataset_metric_index.namespace = JSON_UNQUOTE(JSON_EXTRACT(generic_json_entity.json_val, '$.auth.namespace'))
+WHERE generic_json_entity.json_val LIKE '%"namespace"%'
+  AND JSON_TYPE(JSON_EXTRACT(generic_json_entity.json_val, '$.auth.namespace')) = 'STRING';
+
+ALTER TABLE online_detection_data_index ADD COLUMN namespace VARCHAR(255) DEFAULT NULL;
+CREATE INDEX online_detection_data_index_namespace_idx ON online_detection_data_index (namespace);
+UPDATE online_detection_data_index
+    JOIN generic_json_entity ON online_detection_data_index.base_id = generic_json_entity.id
+SET online_detection_data_index.namespace = JSON_UNQUOTE(JSON_EXTRACT(generic_json_entity.json_val, '$.auth.namespace'))
+WHERE generic_json_entity.json_val LIKE '%"namespace"%'
+  AND JSON_TYPE(JSON_EXTRACT(generic_json_entity.json_val, '$.auth.namespace')) = 'STRING';
+
+ALTER TABLE override_config_index ADD COLUMN namespace VARCHAR(255) DEFAULT NULL;
+CREATE INDEX override_config_index_namespace_idx ON override_config_index (namespace);
+UPDATE override_config_index
+    JOIN generic_json_entity ON override_config_index.base_id = generic_json_entity.id
+SET override_config_index.namespace = JSON_UNQUOTE(JSON_EXTRACT(generic_json_entity.json_val, '$.auth.namespace'))
+WHERE generic_json_entity.json_val LIKE '%"namespace"%'
+  AND JSON_TYPE(JSON_EXTRACT(generic_json_entity.json_val, '$.auth.namespace')) = 'STRING';
+
+ALTER TABLE rca_investigation_index ADD COLUMN namespace VARCHAR(255) DEFAULT NULL;
+CREATE INDEX rca_investigation_index_namespace_idx ON rca_investigation_index (namespace);
+UPDATE rca_investigation_index
+    JOIN generic_json_entity ON rca_investigation_index.base_id = generic_json_entity.id
+SET rca_investigation_index.namespace = JSON_UNQUOTE(JSON_EXTRACT(generic_json_entity.json_val, '$.auth.namespace'))
+WHERE generic_json_entity.json_val LIKE '%"namespace"%'
+  AND JSON_TYPE(JSON_EXTRACT(generic_json_entity.json_val, '$.auth.namespace')) = 'STRING';
+
+ALTER TABLE rootcause_template_index ADD COLUMN namespace VARCHAR(255) DEFAULT NULL;
+CREATE INDEX rootcause_template_index_namespace_idx ON rootcause_template_index (namespace);
+UPDATE rootcause_template_index
+    JOIN generic_json_entity ON rootcause_template_index.base_id = generic_json_entity.id
+SET rootcause_template_index.namespace = JSON_UNQUOTE(JSON_EXTRACT(generic_json_entity.json_val, '$.auth.namespace'))
+WHERE generic_json_entity.json_val LIKE '%"namespace"%'
+  AND JSON_TYPE(JSON_EXTRACT(generic_json_entity.json_val, '$.auth.namespace')) = 'STRING';
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.datalayer.bao;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ai.startree.thirdeye.datalayer.MySqlTestDatabase;
+import ai.startree.thirdeye.spi.datalayer.bao.AlertTemplateManager;
+import ai.startree.thirdeye.spi.datalayer.dto.AlertTemplateDTO;
+import java.sql.Timestamp;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class TestAlertTemplateManager {
+
+  private AlertTemplateManager alertTemplateManager;
+
+  @BeforeClass
+  void beforeClass() {
+    alertTemplateManager = MySqlTestDatabase.sharedInjector()
+        .getInstance(AlertTemplateManager.class);
+  }
+
+  @AfterMethod
+  void cleanCreatedEntities() {
+    alertTemplateManager.findAll().forEach(alertTemplateManager::delete);
+  }
+
+  /**
+   * The compiled templates of the AlertTemplateRenderer are keyed on the id, version and
+   * updateTime of a template. An update must change the updateTime.
+   */
+  @Test
+  public void testUpdateSetsUpdateTime() throws InterruptedException {
+    final AlertTemplateDTO template = new AlertTemplateDTO()
+        .setName("template")
+        .setDescription("before");
+    final Long id = alertTemplateManager.save(template);
+    final AlertTemplateDTO saved = alertTemplateManager.findById(id);
+    final int savedVersion = saved.getVersion();
+    final Timestamp savedUpdateTime = saved.getUpdateTime();
+
+    // updateTime has a millisecond precision
+    Thread.sleep(5);
+    saved.setDescription("after");
+    alertTemplateManager.update(saved);
+    final AlertTemplateDTO updated = alertTemplateManager.findById(id);
+
+    assertThat(updated.getDescription()).isEqualTo("after");
+    assertThat(updated.getVersion()).isEqualTo(savedVersion);
+    assertThat(updated.getUpdateTime()).isAfter(savedUpdateTime);
+  }
+}
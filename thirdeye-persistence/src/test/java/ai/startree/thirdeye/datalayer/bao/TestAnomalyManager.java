@@ -598,6 +598,50 @@ public class TestAnomalyManager {
         .isEqualTo(collectIds(Set.of(a1, a2)));
   }
 
+  @Test
+  public void testFilterWithOverlappingAnomalyFilters() throws InterruptedException {
+    final long alertId = 20202L;
+    final EnumerationItemDTO ei = enumerationItem(20203L);
+    final AnomalyDTO a1 = persist(anomalyWithCreateTime(1000)
+        .setDetectionConfigId(alertId)
+        .setEnumerationItem(ei));
+    Thread.sleep(100);
+
+    final AnomalyDTO a2 = persist(anomalyWithCreateTime(1000).setDetectionConfigId(alertId));
+    Thread.sleep(100);
+
+    // a1 matches both filters: it must be returned once
+    final List<AnomalyDTO> anomalies = anomalyManager.filter(List.of(
+        new AnomalyFilter().setAlertId(alertId),
+        new AnomalyFilter().setAlertId(alertId).setEnumerationItemId(ei.getId())));
+    assertThat(anomalies.size()).isEqualTo(2);
+    assertThat(collectIds(anomalies)).isEqualTo(collectIds(Set.of(a1, a2)));
+
+    assertThat(collectIds(anomalyManager.filter(List.of(
+        new AnomalyFilter().setEnumerationItemId(ei.getId()),
+        new AnomalyFilter().setAlertId(alertId).setEnumerationItemId(ei.getId())))))
+        .isEqualTo(collectIds(Set.of(a1)));
+  }
+
+  @Test
+  public void testFilterWithMoreThan100AnomalyFilters() {
+    // filters are sent to the database in batches of 100 - span two batches
+    final long firstAlertId = 30000L;
+    final int nAlerts = 150;
+    final List<AnomalyDTO> persisted = new ArrayList<>();
+    final List<AnomalyFilter> filters = new ArrayList<>();
+    for (int i = 0; i < nAlerts; i++) {
+      persisted.add(persist(anomaly(1000L, 2000L).setDetectionConfigId(firstAlertId + i)));
+      filters.add(new AnomalyFilter().setAlertId(firstAlertId + i));
+    }
+    // the last anomaly is matched by a filter in the first and in the second batch
+    filters.add(0, new AnomalyFilter().setAlertId(firstAlertId + nAlerts - 1));
+
+    final List<AnomalyDTO> anomalies = anomalyManager.filter(filters);
+    assertThat(anomalies.size()).isEqualTo(nAlerts);
+    assertThat(collectIds(anomalies)).isEqualTo(collectIds(persisted));
+  }
+
   @Test
   public void testUpdateTime() {
     final long alertId = 1234L;
@@ -100,27 +100,31 @@ public class TestAnomalyTaskManager {
   }
 
   @Test(dependsOnMethods = {"testFindAll"})
-  public void testAcquireTaskToRun() {
+  public void testAcquireTasksToRun() {
     CLOCK.tick(1);
     Long workerId = 1L;
-    TaskDTO taskDTO = taskDAO.findById(anomalyTaskId1);
-    final long currentVersion = taskDTO.getVersion();
-    boolean status = taskDAO.acquireTaskToRun(taskDTO, workerId);
+    final long currentVersion = taskDAO.findById(anomalyTaskId1).getVersion();
+    List<TaskDTO> acquired = taskDAO.acquireTasksToRun(workerId, 2);
+    assertThat(acquired).extracting(TaskDTO::getId)
+        .containsExactlyInAnyOrder(anomalyTaskId1, anomalyTaskId2);
     // refetch task from the persistence layer and check its values
     TaskDTO anomalyTask = taskDAO.findById(anomalyTaskId1);
-    Assert.assertTrue(status);
     Assert.assertEquals(anomalyTask.getStatus(), TaskStatus.RUNNING);
     Assert.assertEquals(anomalyTask.getWorkerId(), workerId);
     Assert.assertEquals(anomalyTask.getVersion(), currentVersion + 1);
   }
 
-  @Test(dependsOnMethods = {"testAcquireTaskToRun"})
-  public void testFindNextTaskToRun() {
-    TaskDTO anomalyTask = taskDAO.findNextTaskToRun();
-    assertThat(anomalyTask).isNotNull();
+  @Test(dependsOnMethods = {"testAcquireTasksToRun"})
+  public void testReleaseTasks() {
+    Assert.assertEquals(taskDAO.releaseTasks(List.of(anomalyTaskId2), 2L), 0);
+    Assert.assertEquals(taskDAO.releaseTasks(List.of(anomalyTaskId2), 1L), 1);
+    TaskDTO anomalyTask = taskDAO.findById(anomalyTaskId2);
+    Assert.assertEquals(anomalyTask.getStatus(), TaskStatus.WAITING);
+    Assert.assertNull(anomalyTask.getWorkerId());
+    Assert.assertEquals(taskDAO.findById(anomalyTaskId1).getStatus(), TaskStatus.RUNNING);
   }
 
-  @Test(dependsOnMethods = {"testFindNextTaskToRun"})
+  @Test(dependsOnMethods = {"testReleaseTasks"})
   public void testUpdateStatusAndTaskEndTime() {
     TaskStatus oldStatus = TaskStatus.RUNNING;
     TaskStatus newStatus = TaskStatus.COMPLETED;
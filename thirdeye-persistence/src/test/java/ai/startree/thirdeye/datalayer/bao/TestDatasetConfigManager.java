@@ -17,6 +17,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import ai.startree.thirdeye.datalayer.DatalayerTestUtils;
 import ai.startree.thirdeye.datalayer.MySqlTestDatabase;
+import ai.startree.thirdeye.spi.datalayer.Predicate;
 import ai.startree.thirdeye.spi.datalayer.bao.DatasetConfigManager;
 import ai.startree.thirdeye.spi.datalayer.dto.AuthorizationConfigurationDTO;
 import ai.startree.thirdeye.spi.datalayer.dto.DatasetConfigDTO;
@@ -82,7 +83,18 @@ public class TestDatasetConfigManager {
     assertThat(dataset2InUnsetNamespace.getDataset()).isEqualTo(DATASET_2);
   }
 
-  @Test(dependsOnMethods = {"testFindByDataset"})
+  @Test(dependsOnMethods = {"testCreate"})
+  public void testFindByNamespace() {
+    final List<DatasetConfigDTO> inNamespace1 = datasetConfigDAO.findByPredicate(
+        Predicate.EQ("namespace", NAMESPACE_1));
+    assertThat(inNamespace1).extracting(DatasetConfigDTO::getId).containsExactly(datasetConfigId1);
+    final List<DatasetConfigDTO> inUnsetNamespace = datasetConfigDAO.findByPredicate(
+        Predicate.EQ("namespace", null));
+    assertThat(inUnsetNamespace).extracting(DatasetConfigDTO::getId)
+        .containsExactly(datasetConfigId2);
+  }
+
+  @Test(dependsOnMethods = {"testFindByDataset", "testFindByNamespace"})
   public void testUpdate() {
     DatasetConfigDTO datasetConfig = datasetConfigDAO.findById(datasetConfigId1);
     Assert.assertNotNull(datasetConfig);
@@ -95,6 +107,28 @@ public class TestDatasetConfigManager {
   }
 
   @Test(dependsOnMethods = {"testUpdate"})
+  public void testUpdateToUnsetNamespace() {
+    final DatasetConfigDTO datasetConfig = datasetConfigDAO.findById(datasetConfigId1);
+    datasetConfig.setAuth(null);
+    datasetConfigDAO.update(datasetConfig);
+    assertThat(datasetConfigDAO.findByPredicate(Predicate.EQ("namespace", null)))
+        .extracting(DatasetConfigDTO::getId)
+        .containsExactlyInAnyOrder(datasetConfigId1, datasetConfigId2);
+
+    // batch update
+    final DatasetConfigDTO inNamespace1 = datasetConfigDAO.findById(datasetConfigId1);
+    inNamespace1.setAuth(new AuthorizationConfigurationDTO().setNamespace(NAMESPACE_1));
+    datasetConfigDAO.saveAll(List.of(inNamespace1));
+    assertThat(datasetConfigDAO.findByPredicate(Predicate.EQ("namespace", NAMESPACE_1)))
+        .extracting(DatasetConfigDTO::getId)
+        .containsExactly(datasetConfigId1);
+    final DatasetConfigDTO inUnsetNamespace = datasetConfigDAO.findById(datasetConfigId1);
+    inUnsetNamespace.setAuth(null);
+    datasetConfigDAO.saveAll(List.of(inUnsetNamespace));
+    assertThat(datasetConfigDAO.findByPredicate(Predicate.EQ("namespace", NAMESPACE_1))).isEmpty();
+  }
+
+  @Test(dependsOnMethods = {"testUpdateToUnsetNamespace"})
   public void testDelete() {
     datasetConfigDAO.deleteById(datasetConfigId2);
     DatasetConfigDTO datasetConfig = datasetConfigDAO.findById(datasetConfigId2);
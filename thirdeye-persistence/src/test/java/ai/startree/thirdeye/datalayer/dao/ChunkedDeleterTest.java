@@ -0,0 +1,71 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.datalayer.dao;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import org.testng.annotations.Test;
+
+public class ChunkedDeleterTest {
+
+  private static List<Long> ids(final long n) {
+    return LongStream.range(0, n).boxed().collect(Collectors.toList());
+  }
+
+  @Test
+  public void testDeletesInChunks() {
+    final List<Long> rows = ids(25);
+    final List<Integer> chunkSizes = new ArrayList<>();
+
+    final int deleted = ChunkedDeleter.delete(
+        limit -> List.copyOf(rows.subList(0, (int) Math.min(limit, rows.size()))),
+        chunk -> {
+          chunkSizes.add(chunk.size());
+          rows.removeAll(chunk);
+          return chunk.size();
+        }, 10, Duration.ZERO, null);
+
+    assertThat(deleted).isEqualTo(25);
+    assertThat(rows).isEmpty();
+    assertThat(chunkSizes).containsExactly(10, 10, 5);
+  }
+
+  @Test
+  public void testStopsAtMaxDeletes() {
+    final List<Long> rows = ids(25);
+
+    final int deleted = ChunkedDeleter.delete(
+        limit -> List.copyOf(rows.subList(0, (int) Math.min(limit, rows.size()))),
+        chunk -> {
+          rows.removeAll(chunk);
+          return chunk.size();
+        }, 10, Duration.ZERO, 15);
+
+    assertThat(deleted).isEqualTo(15);
+    assertThat(rows).hasSize(10);
+  }
+
+  @Test
+  public void testStopsWhenAChunkFails() {
+    final int deleted = ChunkedDeleter.delete(limit -> ids(limit), chunk -> 0, 10,
+        Duration.ZERO, null);
+
+    assertThat(deleted).isEqualTo(0);
+  }
+}
@@ -24,6 +24,7 @@ import ai.startree.thirdeye.spi.datalayer.DaoFilter;
 import ai.startree.thirdeye.spi.datalayer.Predicate;
 import ai.startree.thirdeye.spi.datalayer.dto.AnomalyDTO;
 import ai.startree.thirdeye.spi.datalayer.dto.DataSourceDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.EventDTO;
 import java.util.List;
 import java.util.Random;
 import org.testng.annotations.AfterClass;
@@ -124,6 +125,51 @@ public class TestGenericPojoDao {
     assertThat(dao.getAll(DataSourceDTO.class).size()).isEqualTo(0);
   }
 
+  @Test
+  public void saveAllTest() {
+    final String name = "saveAllTest";
+    final Predicate byName = Predicate.EQ(NAME, name);
+    final EventDTO existing = new EventDTO().setName(name).setEventType(TEST_TYPES.get(0));
+    dao.create(existing);
+    final EventDTO stale = dao.get(existing.getId(), EventDTO.class);
+
+    final EventDTO created1 = new EventDTO().setName(name).setEventType(TEST_TYPES.get(0));
+    final EventDTO created2 = new EventDTO().setName(name).setEventType(TEST_TYPES.get(0));
+    existing.setEventType(TEST_TYPES.get(1));
+    final int saved = dao.saveAll(List.of(created1, existing, created2));
+
+    assertThat(saved).isEqualTo(3);
+    assertThat(created1.getId()).isNotNull();
+    assertThat(created2.getId()).isNotNull();
+    final EventDTO updated = dao.get(existing.getId(), EventDTO.class);
+    assertThat(updated.getEventType()).isEqualTo(TEST_TYPES.get(1));
+    assertThat(updated.getVersion()).isEqualTo(2);
+    assertThat(updated.getCreateTime()).isEqualTo(stale.getCreateTime());
+    assertThat(existing.getVersion()).isEqualTo(2);
+    // index table is written in the same transaction
+    assertThat(dao.count(byName, EventDTO.class)).isEqualTo(3);
+
+    // the version of stale is 1 - its version is reloaded and it is updated: last writer wins
+    stale.setEventType(TEST_TYPES.get(0));
+    assertThat(dao.saveAll(List.of(stale))).isEqualTo(1);
+    final EventDTO overwritten = dao.get(existing.getId(), EventDTO.class);
+    assertThat(overwritten.getEventType()).isEqualTo(TEST_TYPES.get(0));
+    assertThat(overwritten.getVersion()).isEqualTo(3);
+    assertThat(stale.getVersion()).isEqualTo(3);
+
+    // the single row update increments the version of the row, not the version of the pojo
+    existing.setEventType(TEST_TYPES.get(1));
+    assertThat(dao.update(existing)).isEqualTo(1);
+    assertThat(dao.get(existing.getId(), EventDTO.class).getVersion()).isEqualTo(4);
+
+    // a deleted row is not recreated
+    dao.delete(created1.getId(), EventDTO.class);
+    assertThat(dao.saveAll(List.of(created1))).isEqualTo(0);
+    assertThat(dao.get(created1.getId(), EventDTO.class)).isNull();
+
+    dao.deleteByPredicate(byName, EventDTO.class);
+  }
+
   @Test
   public void filterWithLimitTest() {
     final long limit = getRandomLimit();
@@ -21,6 +21,8 @@ import ai.startree.thirdeye.spi.datalayer.dto.TaskDTO;
 import ai.startree.thirdeye.spi.task.TaskStatus;
 import ai.startree.thirdeye.spi.task.TaskType;
 import com.google.inject.Injector;
+import java.sql.Timestamp;
+import java.time.Duration;
 import java.util.List;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
@@ -86,4 +88,84 @@ public class TestTaskDao {
     assertThat(dao.deleteByPredicate(Predicate.EQ("name", dto.getJobName()))).isEqualTo(1);
     assertThat(dao.get(dto.getId())).isNull();
   }
+
+  @Test
+  public void deleteByPredicateInChunksTest() {
+    final String jobName = "deleteByPredicateInChunksTest";
+    for (int i = 0; i < 5; i++) {
+      dao.put(buildTask().setJobName(jobName));
+    }
+    final Predicate predicate = Predicate.EQ("name", jobName);
+    // limited by maxDeletes
+    assertThat(dao.deleteByPredicateInChunks(predicate, 2, Duration.ZERO, 3)).isEqualTo(3);
+    assertThat(dao.count(predicate)).isEqualTo(2);
+    assertThat(dao.deleteByPredicateInChunks(predicate, 2, Duration.ZERO, null)).isEqualTo(2);
+    assertThat(dao.count(predicate)).isEqualTo(0);
+  }
+
+  @Test
+  public void acquireTasksTest() {
+    final long refId = 987654L;
+    final long otherRefId = 987655L;
+    final TaskDTO task1 = buildTask().setJobName("acquireTasksTest").setRefId(refId);
+    final TaskDTO task2 = buildTask().setJobName("acquireTasksTest").setRefId(refId);
+    final TaskDTO task3 = buildTask().setJobName("acquireTasksTest").setRefId(otherRefId);
+    dao.put(task1);
+    dao.put(task2);
+    dao.put(task3);
+
+    // only one task per ref id can be acquired
+    final List<TaskDTO> acquired = dao.acquireTasks(42L, 10).stream()
+        .filter(task -> "acquireTasksTest".equals(task.getJobName()))
+        .toList();
+    assertThat(acquired).extracting(TaskDTO::getRefId).containsExactlyInAnyOrder(refId, otherRefId);
+    for (final TaskDTO task : acquired) {
+      final TaskDTO dbTask = dao.get(task.getId());
+      assertThat(dbTask.getStatus()).isEqualTo(TaskStatus.RUNNING);
+      assertThat(dbTask.getWorkerId()).isEqualTo(42L);
+      assertThat(dbTask.getVersion()).isEqualTo(task.getVersion());
+    }
+
+    // the remaining task cannot run while a task with the same ref id is running
+    assertThat(dao.acquireTasks(43L, 10))
+        .noneMatch(task -> "acquireTasksTest".equals(task.getJobName()));
+    dao.deleteByPredicate(Predicate.EQ("name", "acquireTasksTest"));
+  }
+
+  @Test
+  public void updateLastActiveAndStatusTest() {
+    final TaskDTO task = buildTask().setJobName("updateLastActiveAndStatusTest");
+    dao.put(task);
+
+    final Timestamp lastActive = new Timestamp(System.currentTimeMillis() / 1000 * 1000);
+    assertThat(dao.updateLastActive(List.of(task.getId()), lastActive)).isEqualTo(1);
+    assertThat(dao.get(task.getId()).getLastActive()).isEqualTo(lastActive);
+
+    // the status is only updated if the current status matches
+    assertThat(dao.updateStatusAndEndTime(task.getId(),
+        TaskStatus.RUNNING,
+        TaskStatus.COMPLETED,
+        1000L,
+        "")).isEqualTo(0);
+    assertThat(dao.updateStatusAndEndTime(task.getId(),
+        TaskStatus.WAITING,
+        TaskStatus.FAILED,
+        1000L,
+        "message")).isEqualTo(1);
+    final TaskDTO dbTask = dao.get(task.getId());
+    assertThat(dbTask.getStatus()).isEqualTo(TaskStatus.FAILED);
+    assertThat(dbTask.getEndTime()).isEqualTo(1000L);
+    assertThat(dbTask.getMessage()).isEqualTo("message");
+    assertThat(dbTask.getLastActive()).isEqualTo(lastActive);
+
+    // a null end time keeps the current end time
+    assertThat(dao.updateStatusAndEndTime(task.getId(),
+        TaskStatus.FAILED,
+        TaskStatus.WAITING,
+        null,
+        "retry")).isEqualTo(1);
+    assertThat(dao.get(task.getId()).getEndTime()).isEqualTo(1000L);
+
+    dao.delete(task.getId());
+  }
 }
@@ -28,6 +28,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static java.util.Objects.requireNonNull;
 
+import ai.startree.thirdeye.plugins.detectors.SlidingWindowStatistics.RunningStatistics;
 import ai.startree.thirdeye.spi.dataframe.BooleanSeries;
 import ai.startree.thirdeye.spi.dataframe.DataFrame;
 import ai.startree.thirdeye.spi.dataframe.DoubleSeries;
@@ -42,7 +43,6 @@ import java.util.Arrays;
 import java.util.Map;
 import java.util.Set;
 import org.joda.time.Chronology;
-import org.joda.time.DateTime;
 import org.joda.time.Interval;
 import org.joda.time.Period;
 import org.joda.time.ReadableInterval;
@@ -201,25 +201,25 @@ public class MeanVarianceRuleDetector implements AnomalyDetector<MeanVarianceRul
           detectionInterval.getStartMillis(), inputTimes.sliceFrom(Math.max(0,inputTimes.size()-10)).toString());
     }
 
-    // todo cyril compute mean and std in a single pass
-    // https://nestedsoftware.com/2018/03/20/calculating-a-moving-average-on-streaming-data-5a7k.22879.html
-    // https://en.wikipedia.org/wiki/Algorithms_for_calculating_variance#Welford's_online_algorithm
     final boolean applyMask = inputDF.contains(COL_MASK);
+    final boolean[] masked = applyMask ? maskedPoints(inputDF.getBooleans(COL_MASK)) : null;
+    final SlidingWindowStatistics windowStatistics = new SlidingWindowStatistics(
+        inputDF.getDoubles(COL_VALUE).values(),
+        masked,
+        inputTimes.values(),
+        seasonality,
+        detectionInterval.getChronology());
     for (int k = firstDetectionIndex; k < size; k++) {
-      if (applyMask && BooleanSeries.isTrue(inputDF.getBoolean(COL_MASK, k))) {
+      if (applyMask && masked[k]) {
         // this point is masked - skip it
         continue;
       }
-      final long forecastTime = inputTimes.getLong(k);
-      final DataFrame lookbackDf = getLookbackDf(inputDF, forecastTime, detectionInterval.getChronology());
-      final DoubleSeries periodMask = buildPeriodMask(lookbackDf, forecastTime, detectionInterval.getChronology());
-      DoubleSeries maskedValues = lookbackDf.getDoubles(COL_VALUE).multiply(periodMask);
-      if (applyMask) {
-        // todo cyril perf - COL_MASK.fillNull().not() can be computed once outside of the loop
-        maskedValues = maskedValues.filter(lookbackDf.getBooleans(COL_MASK).fillNull().not());
-      }
-      double mean = maskedValues.mean().value();
-      double std = maskedValues.std().value();
+      final int lookbackStart = getLookbackStartIndex(k, inputTimes.getLong(k),
+          detectionInterval.getChronology());
+      windowStatistics.slideTo(lookbackStart, k);
+      final RunningStatistics statistics = windowStatistics.statisticsForPhaseOf(k);
+      double mean = statistics.mean();
+      double std = statistics.std();
       if (Double.isNaN(mean)) {
         // mean and std can be null if all values are masked or null
         mean = 0.0;
@@ -245,42 +245,21 @@ public class MeanVarianceRuleDetector implements AnomalyDetector<MeanVarianceRul
     return resultDF;
   }
 
-  private DoubleSeries buildPeriodMask(final DataFrame lookbackDf, final long forecastTime,
-      final Chronology chronology) {
-    if (seasonality.equals(Period.ZERO)) {
-      // no seasonality --> no mask
-      return DoubleSeries.fillValues(lookbackDf.size(), 1);
-    }
-    final DateTime forecastDateTime = new DateTime(forecastTime, chronology);
-    final DoubleSeries.Builder mask = DoubleSeries.builder();
-    final LongSeries lookbackEpochs = lookbackDf.get(COL_TIME).getLongs();
-    for (int idx = 0; idx < lookbackEpochs.size(); idx++) {
-      final DateTime lookbackDateTime = new DateTime(lookbackEpochs.get(idx), chronology);
-      mask.addValues(isSeasonalityMatch(forecastDateTime, lookbackDateTime) ? 1. : null);
+  private static boolean[] maskedPoints(final BooleanSeries mask) {
+    final boolean[] masked = new boolean[mask.size()];
+    for (int i = 0; i < masked.length; i++) {
+      masked[i] = BooleanSeries.isTrue(mask.getBoolean(i));
     }
-    return mask.build();
+    return masked;
   }
 
-  private boolean isSeasonalityMatch(final DateTime dt1, final DateTime dt2) {
-    final boolean isSameTimeInDay =
-        dt1.getHourOfDay() == dt2.getHourOfDay() && dt1.getMinuteOfHour() == dt2.getMinuteOfHour()
-            && dt1.getSecondOfMinute() == dt2.getSecondOfMinute()
-            && dt1.getMillisOfSecond() == dt2.getMillisOfSecond();
-    if (seasonality.equals(Period.days(7))) {
-      return isSameTimeInDay && dt1.getDayOfWeek() == dt2.getDayOfWeek();
-    } else if (seasonality.equals(Period.days(1))) {
-      return isSameTimeInDay;
-    } else {
-      throw new UnsupportedOperationException();
-    }
-  }
-
-  private DataFrame getLookbackDf(final DataFrame inputDF, final long endTimeMillis,
+  /**
+   * Returns the start index of the lookback window of the point at index endIndex.
+   * The lookback window is [startIndex, endIndex).
+   */
+  private int getLookbackStartIndex(final int endIndex, final long endTimeMillis,
       final Chronology chronology) {
-    final int indexEnd = inputDF.getLongs(COL_TIME).find(endTimeMillis);
-    checkArgument(indexEnd != -1,
-        "Could not find index of endTime %s. endTime should exist in inputDf. This should not happen.", endTimeMillis);
-    int indexStart = indexEnd - lookback;
+    int indexStart = endIndex - lookback;
     if (indexStart < 0) {
       if (TimeUtils.timezonesAreEquivalent(chronology.getZone().toString(), UTC_TIMEZONE)) {
         throw new IllegalArgumentException(String.format("Invalid index. Insufficient data to compute mean/variance on lookback. index: "
@@ -294,8 +273,7 @@ public class MeanVarianceRuleDetector implements AnomalyDetector<MeanVarianceRul
         indexStart = 0;
       }
     }
-    
-    return inputDF.slice(indexStart, indexEnd);
+    return indexStart;
   }
 
   private double bounded(final double val) {
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.plugins.detectors;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import ai.startree.thirdeye.spi.dataframe.DoubleSeries;
+import java.util.HashMap;
+import java.util.Map;
+import org.joda.time.Chronology;
+import org.joda.time.Period;
+
+/**
+ * Mean and standard deviation over a sliding window of a time series, computed in a single pass.
+ * Points enter and leave the window with Welford's online algorithm.
+ * See https://en.wikipedia.org/wiki/Algorithms_for_calculating_variance#Welford's_online_algorithm
+ *
+ * With a seasonality, one window is maintained per seasonal phase: a point only contributes to
+ * the statistics of the points that have the same time of day (P1D) or the same time of week
+ * (P7D). Null values and masked values never enter the window.
+ *
+ * The window must only slide forward: both bounds of {@link #slideTo(int, int)} must be
+ * non-decreasing between calls.
+ */
+class SlidingWindowStatistics {
+
+  private final double[] values;
+  private final boolean[] excluded;
+  private final int[] phaseIds;
+  private final RunningStatistics[] phaseStatistics;
+
+  // current window is [windowStart, windowEnd)
+  private int windowStart = 0;
+  private int windowEnd = 0;
+
+  /**
+   * @param values values of the time series. NaN is null.
+   * @param excluded if excluded[i] is true, values[i] never enters the window. Can be null.
+   * @param times epoch millis of the time series. Used to compute the seasonal phases.
+   * @param seasonality one of P7D, P1D or PT0S (no seasonality)
+   * @param chronology chronology used to compute the seasonal phases.
+   */
+  SlidingWindowStatistics(final double[] values, final boolean[] excluded, final long[] times,
+      final Period seasonality, final Chronology chronology) {
+    checkArgument(values.length == times.length,
+        "values and times must have the same size. values: %s. times: %s",
+        values.length, times.length);
+    checkArgument(excluded == null || excluded.length == values.length,
+        "excluded and values must have the same size");
+    this.values = values;
+    this.excluded = excluded;
+    this.phaseIds = new int[values.length];
+    // dense ids for the phases - the phase keys are only boxed once per point
+    final Map<Long, Integer> phaseKeyToId = new HashMap<>();
+    for (int i = 0; i < times.length; i++) {
+      final long phaseKey = phaseKey(times[i], seasonality, chronology);
+      phaseIds[i] = phaseKeyToId.computeIfAbsent(phaseKey, k -> phaseKeyToId.size());
+    }
+    this.phaseStatistics = new RunningStatistics[phaseKeyToId.size()];
+    for (int i = 0; i < phaseStatistics.length; i++) {
+      phaseStatistics[i] = new RunningStatistics();
+    }
+  }
+
+  private static long phaseKey(final long time, final Period seasonality,
+      final Chronology chronology) {
+    if (seasonality.equals(Period.ZERO)) {
+      return 0;
+    }
+    final long millisOfDay = chronology.millisOfDay().get(time);
+    if (seasonality.equals(Period.days(1))) {
+      return millisOfDay;
+    } else if (seasonality.equals(Period.days(7))) {
+      return chronology.dayOfWeek().get(time) * 86_400_000L + millisOfDay;
+    } else {
+      throw new UnsupportedOperationException("Unsupported seasonality: " + seasonality);
+    }
+  }
+
+  /**
+   * Moves the window to the points [start, end).
+   */
+  void slideTo(final int start, final int end) {
+    checkArgument(start >= windowStart && end >= windowEnd && start <= end,
+        "The window can only slide forward. Current window: [%s, %s). Requested window: [%s, %s)",
+        windowStart, windowEnd, start, end);
+    // points in [windowEnd, start) are skipped: they would enter and leave the window at once
+    for (int i = windowStart; i < Math.min(start, windowEnd); i++) {
+      if (isIncluded(i)) {
+        phaseStatistics[phaseIds[i]].remove(values[i]);
+      }
+    }
+    for (int i = Math.max(windowEnd, start); i < end; i++) {
+      if (isIncluded(i)) {
+        phaseStatistics[phaseIds[i]].add(values[i]);
+      }
+    }
+    windowStart = start;
+    windowEnd = end;
+  }
+
+  /**
+   * @return the statistics of the points of the current window that are in the same seasonal
+   *     phase as the point at index.
+   */
+  RunningStatistics statisticsForPhaseOf(final int index) {
+    return phaseStatistics[phaseIds[index]];
+  }
+
+  private boolean isIncluded(final int index) {
+    return !DoubleSeries.isNull(values[index]) && (excluded == null || !excluded[index]);
+  }
+
+  static class RunningStatistics {
+
+    private int count = 0;
+    // the mean is derived from the sum to get the same result as DoubleSeries#mean on the window
+    private double sum = 0;
+    // sum of squares of differences from the mean
+    private double m2 = 0;
+
+    void add(final double value) {
+      final double oldMean = count == 0 ? 0 : sum / count;
+      count++;
+      sum += value;
+      m2 += (value - oldMean) * (value - sum / count);
+    }
+
+    void remove(final double value) {
+      checkArgument(count > 0, "Cannot remove a value from empty statistics");
+      if (count == 1) {
+        count = 0;
+        sum = 0;
+        m2 = 0;
+        return;
+      }
+      final double oldMean = sum / count;
+      count--;
+      sum -= value;
+      m2 -= (value - sum / count) * (value - oldMean);
+      // prevent accumulated rounding errors from making the variance negative
+      m2 = Math.max(m2, 0);
+    }
+
+    int count() {
+      return count;
+    }
+
+    /**
+     * @return the mean, or NaN if there is no value.
+     */
+    double mean() {
+      return count == 0 ? DoubleSeries.NULL : sum / count;
+    }
+
+    /**
+     * @return the sample standard deviation, or NaN if there is less than 2 values.
+     */
+    double std() {
+      return count <= 1 ? DoubleSeries.NULL : Math.sqrt(m2 / (count - 1));
+    }
+  }
+}
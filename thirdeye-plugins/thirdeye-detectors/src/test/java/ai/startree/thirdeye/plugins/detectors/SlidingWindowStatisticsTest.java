@@ -0,0 +1,143 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.plugins.detectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import ai.startree.thirdeye.plugins.detectors.SlidingWindowStatistics.RunningStatistics;
+import ai.startree.thirdeye.spi.dataframe.DoubleSeries;
+import java.util.Random;
+import org.assertj.core.data.Offset;
+import org.joda.time.Chronology;
+import org.joda.time.DateTimeZone;
+import org.joda.time.Period;
+import org.joda.time.chrono.ISOChronology;
+import org.testng.annotations.Test;
+
+public class SlidingWindowStatisticsTest {
+
+  private static final long JANUARY_1_2021 = 1609459200000L;
+  private static final long HOUR_MILLIS = 3_600_000L;
+  private static final Chronology UTC_CHRONOLOGY = ISOChronology.getInstance(DateTimeZone.UTC);
+
+  @Test
+  public void testRunningStatistics() {
+    final RunningStatistics statistics = new RunningStatistics();
+    assertThat(statistics.mean()).isNaN();
+    assertThat(statistics.std()).isNaN();
+
+    statistics.add(100.);
+    assertThat(statistics.mean()).isEqualTo(100.);
+    assertThat(statistics.std()).isNaN();
+
+    statistics.add(120.);
+    statistics.add(80.);
+    assertThat(statistics.count()).isEqualTo(3);
+    assertThat(statistics.mean()).isEqualTo(100.);
+    assertThat(statistics.std()).isEqualTo(20.);
+
+    statistics.remove(100.);
+    assertThat(statistics.mean()).isEqualTo(100.);
+    assertThat(statistics.std()).isCloseTo(28.284271, Offset.offset(1e-6));
+
+    statistics.remove(120.);
+    statistics.remove(80.);
+    assertThat(statistics.count()).isEqualTo(0);
+    assertThat(statistics.mean()).isNaN();
+  }
+
+  @Test
+  public void testNoSeasonalityMatchesBruteForce() {
+    assertMatchesBruteForce(Period.ZERO, 24);
+  }
+
+  @Test
+  public void testDailySeasonalityMatchesBruteForce() {
+    assertMatchesBruteForce(Period.days(1), 24 * 7);
+  }
+
+  @Test
+  public void testWeeklySeasonalityMatchesBruteForce() {
+    assertMatchesBruteForce(Period.days(7), 24 * 21);
+  }
+
+  @Test
+  public void testWindowCannotSlideBackward() {
+    final SlidingWindowStatistics statistics = new SlidingWindowStatistics(new double[10],
+        null,
+        hourlyTimes(10),
+        Period.ZERO,
+        UTC_CHRONOLOGY);
+    statistics.slideTo(2, 5);
+    assertThatThrownBy(() -> statistics.slideTo(1, 6)).isInstanceOf(
+        IllegalArgumentException.class);
+  }
+
+  private static void assertMatchesBruteForce(final Period seasonality, final int lookback) {
+    final int size = 24 * 60;
+    final Random random = new Random(42);
+    final long[] times = hourlyTimes(size);
+    final double[] values = new double[size];
+    final boolean[] excluded = new boolean[size];
+    for (int i = 0; i < size; i++) {
+      values[i] = random.nextInt(10) == 0 ? DoubleSeries.NULL : 1000 + random.nextGaussian() * 50;
+      excluded[i] = random.nextInt(10) == 0;
+    }
+
+    final SlidingWindowStatistics statistics = new SlidingWindowStatistics(values,
+        excluded,
+        times,
+        seasonality,
+        UTC_CHRONOLOGY);
+    for (int k = lookback; k < size; k++) {
+      statistics.slideTo(k - lookback, k);
+      final RunningStatistics phaseStatistics = statistics.statisticsForPhaseOf(k);
+
+      final DoubleSeries.Builder expected = DoubleSeries.builder();
+      for (int i = k - lookback; i < k; i++) {
+        if (!excluded[i] && isSamePhase(times[i], times[k], seasonality)) {
+          expected.addValues(values[i]);
+        }
+      }
+      final DoubleSeries expectedValues = expected.build();
+      assertThat(phaseStatistics.count()).isEqualTo(expectedValues.dropNull().size());
+      assertCloseOrNan(phaseStatistics.mean(), expectedValues.mean().value());
+      assertCloseOrNan(phaseStatistics.std(), expectedValues.std().value());
+    }
+  }
+
+  private static boolean isSamePhase(final long t1, final long t2, final Period seasonality) {
+    if (seasonality.equals(Period.ZERO)) {
+      return true;
+    }
+    return (t2 - t1) % seasonality.toStandardDuration().getMillis() == 0;
+  }
+
+  private static void assertCloseOrNan(final double actual, final double expected) {
+    if (Double.isNaN(expected)) {
+      assertThat(actual).isNaN();
+    } else {
+      assertThat(actual).isCloseTo(expected, Offset.offset(1e-6));
+    }
+  }
+
+  private static long[] hourlyTimes(final int size) {
+    final long[] times = new long[size];
+    for (int i = 0; i < size; i++) {
+      times[i] = JANUARY_1_2021 + i * HOUR_MILLIS;
+    }
+    return times;
+  }
+}
@@ -27,12 +27,6 @@ import com.google.common.base.Joiner;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Multimap;
-import freemarker.template.Configuration;
-import freemarker.template.Template;
-import freemarker.template.TemplateExceptionHandler;
-import java.io.ByteArrayOutputStream;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -46,8 +40,6 @@ import org.apache.commons.lang3.StringUtils;
 public class EmailContentBuilder {
 
   public static final String DEFAULT_EMAIL_TEMPLATE = "metric-anomalies";
-  private static final String BASE_PACKAGE_PATH = "/ai/startree/thirdeye/detection/detector";
-  private static final String CHARSET = "UTF-8";
   private static final Map<String, String> TEMPLATE_MAP = ImmutableMap.<String, String>builder()
       .put(DEFAULT_EMAIL_TEMPLATE, "metric-anomalies-template.ftl")
       .put("entity-groupkey", "entity-groupkey-anomaly-report.ftl")
@@ -81,22 +73,7 @@ public class EmailContentBuilder {
 
   String buildHtml(final String templateFile, final Map<String, Object> templateValues) {
     final String templateName = TEMPLATE_MAP.get(templateFile);
-
-    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-    try (final Writer out = new OutputStreamWriter(baos, CHARSET)) {
-      final Configuration freemarkerConfig = new Configuration(Configuration.VERSION_2_3_21);
-      freemarkerConfig.setClassForTemplateLoading(getClass(),
-          BASE_PACKAGE_PATH);
-      freemarkerConfig.setDefaultEncoding(CHARSET);
-      freemarkerConfig.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
-
-      final Template template = freemarkerConfig.getTemplate(templateName);
-      template.process(templateValues, out);
-
-      return baos.toString(CHARSET);
-    } catch (final Exception e) {
-      throw new RuntimeException(e);
-    }
+    return EmailTemplateEngine.getInstance().render(templateName, templateValues);
   }
 
   public EmailContent build(final NotificationPayloadApi api) {
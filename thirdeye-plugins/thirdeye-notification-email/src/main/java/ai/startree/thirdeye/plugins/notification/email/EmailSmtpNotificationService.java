@@ -25,9 +25,9 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Objects;
+import javax.mail.MessagingException;
 import javax.mail.internet.InternetAddress;
 import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.mail.DefaultAuthenticator;
 import org.apache.commons.mail.EmailException;
 import org.apache.commons.mail.HtmlEmail;
 import org.slf4j.Logger;
@@ -37,9 +37,12 @@ public class EmailSmtpNotificationService implements NotificationService {
 
   private static final Logger LOG = LoggerFactory.getLogger(EmailSmtpNotificationService.class);
   private final EmailSmtpConfiguration configuration;
+  private final SmtpTransportPool transportPool;
 
-  public EmailSmtpNotificationService(final EmailSmtpConfiguration configuration) {
+  public EmailSmtpNotificationService(final EmailSmtpConfiguration configuration,
+      final SmtpTransportPool transportPool) {
     this.configuration = configuration;
+    this.transportPool = transportPool;
   }
 
   /**
@@ -119,24 +122,14 @@ public class EmailSmtpNotificationService implements NotificationService {
   }
 
   /**
-   * Sends email according to the provided config.
+   * Sends email according to the provided config. The SMTP connection is borrowed from the
+   * transport pool.
    */
-  private void sendEmail(final HtmlEmail email) throws EmailException {
+  private void sendEmail(final HtmlEmail email) throws EmailException, MessagingException {
     final SmtpConfiguration smtpConfiguration = configuration.getSmtp();
-    email.setHostName(smtpConfiguration.getHost());
-    email.setSmtpPort(smtpConfiguration.getPort());
-    if (smtpConfiguration.getUser() != null && smtpConfiguration.getPassword() != null) {
-      email.setAuthenticator(
-          new DefaultAuthenticator(smtpConfiguration.getUser(), smtpConfiguration.getPassword()));
-      email.setSSLOnConnect(true);
-      email.setSslSmtpPort(Integer.toString(smtpConfiguration.getPort()));
-    }
-
-    // This needs to be done after the configuration phase since getMailSession() creates
-    // a new mail session if required.
-    email.getMailSession().getProperties().put("mail.smtp.ssl.trust", smtpConfiguration.getHost());
-
-    email.send();
+    email.setMailSession(transportPool.session(smtpConfiguration));
+    email.buildMimeMessage();
+    transportPool.send(smtpConfiguration, email.getMimeMessage());
 
     final int recipientCount =
         email.getToAddresses().size() + email.getCcAddresses().size() + email.getBccAddresses()
@@ -20,6 +20,9 @@ import java.util.Map;
 
 public class EmailSmtpNotificationServiceFactory implements NotificationServiceFactory {
 
+  // shared by all the email-smtp services - the connections are reused across notifications
+  private final SmtpTransportPool transportPool = new SmtpTransportPool();
+
   @Override
   public String name() {
     return "email-smtp";
@@ -30,6 +33,6 @@ public class EmailSmtpNotificationServiceFactory implements NotificationServiceF
     final EmailSmtpConfiguration configuration = new ObjectMapper()
         .convertValue(params, EmailSmtpConfiguration.class);
 
-    return new EmailSmtpNotificationService(configuration);
+    return new EmailSmtpNotificationService(configuration, transportPool);
   }
 }
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.plugins.notification.email;
+
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import freemarker.template.TemplateExceptionHandler;
+import java.io.StringWriter;
+import java.util.Map;
+
+/**
+ * Renders the FreeMarker email templates. Thread-safe.
+ *
+ * The FreeMarker configuration is built once and shared. FreeMarker caches the compiled
+ * templates, by template name, locale and encoding. The templates are packaged with the plugin,
+ * so they are never checked for updates.
+ */
+public class EmailTemplateEngine {
+
+  private static final String BASE_PACKAGE_PATH = "/ai/startree/thirdeye/detection/detector";
+  private static final String CHARSET = "UTF-8";
+
+  private static final EmailTemplateEngine INSTANCE = new EmailTemplateEngine();
+
+  private final Configuration freemarkerConfig;
+
+  private EmailTemplateEngine() {
+    freemarkerConfig = new Configuration(Configuration.VERSION_2_3_21);
+    freemarkerConfig.setClassForTemplateLoading(getClass(), BASE_PACKAGE_PATH);
+    freemarkerConfig.setDefaultEncoding(CHARSET);
+    freemarkerConfig.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
+    freemarkerConfig.setTemplateUpdateDelayMilliseconds(Long.MAX_VALUE);
+  }
+
+  public static EmailTemplateEngine getInstance() {
+    return INSTANCE;
+  }
+
+  public String render(final String templateName, final Map<String, Object> templateValues) {
+    try {
+      // cached after the first call
+      final Template template = freemarkerConfig.getTemplate(templateName);
+      final StringWriter out = new StringWriter();
+      template.process(templateValues, out);
+      return out.toString();
+    } catch (final Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.plugins.notification.email;
+
+import static ai.startree.thirdeye.spi.util.ExecutorUtils.threadsNamed;
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import javax.mail.internet.MimeMessage;
+import org.apache.commons.mail.DefaultAuthenticator;
+import org.apache.commons.mail.EmailException;
+import org.apache.commons.mail.HtmlEmail;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pool of connected SMTP transports, shared by the email-smtp notification services.
+ *
+ * Opening an SMTP connection requires a TCP handshake, a TLS handshake when SSL is enabled and
+ * an authentication. Connections are kept open after a message is sent and reused for the next
+ * messages sent to the same SMTP server. A transport is used by a single thread at a time.
+ *
+ * Idle connections are checked when the pool is used: connections idle for more than
+ * maxIdleDuration or closed by the server are not reused. A background sweep closes the
+ * connections idle for more than maxIdleDuration, so that they are not kept open on the SMTP
+ * server when no message is sent.
+ */
+public class SmtpTransportPool {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SmtpTransportPool.class);
+
+  private static final int DEFAULT_MAX_IDLE_TRANSPORTS = 4;
+  private static final Duration DEFAULT_MAX_IDLE_DURATION = Duration.ofSeconds(30);
+  private static final long MIN_SWEEP_PERIOD_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+  private final int maxIdleTransports;
+  private final long maxIdleNanos;
+  private final Map<SmtpServer, Session> sessions = new ConcurrentHashMap<>();
+  private final Map<SmtpServer, LinkedBlockingDeque<IdleTransport>> idleTransports =
+      new ConcurrentHashMap<>();
+  private final ScheduledExecutorService sweeper;
+
+  public SmtpTransportPool() {
+    this(DEFAULT_MAX_IDLE_TRANSPORTS, DEFAULT_MAX_IDLE_DURATION);
+  }
+
+  @VisibleForTesting
+  SmtpTransportPool(final int maxIdleTransports, final Duration maxIdleDuration) {
+    this.maxIdleTransports = maxIdleTransports;
+    this.maxIdleNanos = maxIdleDuration.toNanos();
+    this.sweeper = Executors.newSingleThreadScheduledExecutor(daemonThreadsNamed());
+    final long sweepPeriodNanos = Math.max(maxIdleNanos / 2, MIN_SWEEP_PERIOD_NANOS);
+    sweeper.scheduleWithFixedDelay(this::closeExpired,
+        sweepPeriodNanos,
+        sweepPeriodNanos,
+        TimeUnit.NANOSECONDS);
+  }
+
+  private static ThreadFactory daemonThreadsNamed() {
+    final ThreadFactory threadFactory = threadsNamed("smtp-transport-pool-sweeper-%d");
+    return runnable -> {
+      final Thread thread = threadFactory.newThread(runnable);
+      // the pool has no lifecycle hook in the plugin - do not prevent the JVM from exiting
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  /**
+   * The mail session of the SMTP server. Messages sent with this pool should be built with this
+   * session.
+   */
+  public Session session(final SmtpConfiguration smtp) {
+    return session(SmtpServer.of(smtp));
+  }
+
+  public void send(final SmtpConfiguration smtp, final MimeMessage message)
+      throws MessagingException {
+    final SmtpServer server = SmtpServer.of(smtp);
+    final Transport transport = borrow(server);
+    try {
+      message.saveChanges();
+      transport.sendMessage(message, message.getAllRecipients());
+    } catch (final MessagingException | RuntimeException e) {
+      // the state of the connection is unknown - do not reuse it
+      close(transport);
+      throw e;
+    }
+    release(server, transport);
+  }
+
+  private Transport borrow(final SmtpServer server) throws MessagingException {
+    final LinkedBlockingDeque<IdleTransport> idle = idleTransports(server);
+    IdleTransport candidate;
+    // most recently used first - the least recently used connections expire at the tail
+    while ((candidate = idle.pollFirst()) != null) {
+      if (System.nanoTime() - candidate.idleSinceNanos() < maxIdleNanos
+          && candidate.transport().isConnected()) {
+        return candidate.transport();
+      }
+      close(candidate.transport());
+    }
+    final Transport transport = session(server).getTransport();
+    transport.connect();
+    LOG.debug("Opened SMTP connection to {}:{}", server.host(), server.port());
+    return transport;
+  }
+
+  private void release(final SmtpServer server, final Transport transport) {
+    if (!idleTransports(server).offerFirst(new IdleTransport(transport, System.nanoTime()))) {
+      close(transport);
+    }
+  }
+
+  private LinkedBlockingDeque<IdleTransport> idleTransports(final SmtpServer server) {
+    return idleTransports.computeIfAbsent(server,
+        k -> new LinkedBlockingDeque<>(maxIdleTransports));
+  }
+
+  private Session session(final SmtpServer server) {
+    return sessions.computeIfAbsent(server, SmtpTransportPool::buildSession);
+  }
+
+  /**
+   * Closes the connections idle for more than maxIdleDuration.
+   */
+  @VisibleForTesting
+  void closeExpired() {
+    try {
+      final long now = System.nanoTime();
+      for (final LinkedBlockingDeque<IdleTransport> idle : idleTransports.values()) {
+        for (final IdleTransport idleTransport : idle) {
+          // a transport borrowed in the meantime is not in the deque anymore - it is not closed
+          if (now - idleTransport.idleSinceNanos() >= maxIdleNanos
+              && idle.removeFirstOccurrence(idleTransport)) {
+            close(idleTransport.transport());
+          }
+        }
+      }
+    } catch (final RuntimeException e) {
+      // an exception would cancel the next sweeps
+      LOG.error("Failed to close expired SMTP connections", e);
+    }
+  }
+
+  /**
+   * Closes all the idle connections.
+   */
+  public void closeIdle() {
+    for (final LinkedBlockingDeque<IdleTransport> idle : idleTransports.values()) {
+      IdleTransport idleTransport;
+      while ((idleTransport = idle.pollFirst()) != null) {
+        close(idleTransport.transport());
+      }
+    }
+  }
+
+  /**
+   * Stops the background sweep and closes all the idle connections.
+   */
+  public void close() {
+    sweeper.shutdownNow();
+    closeIdle();
+  }
+
+  private static void close(final Transport transport) {
+    try {
+      transport.close();
+    } catch (final MessagingException e) {
+      LOG.debug("Failed to close SMTP connection", e);
+    }
+  }
+
+  /**
+   * Uses commons-email to build the session, so that the SSL and authentication settings are the
+   * same as the ones of HtmlEmail#send.
+   */
+  private static Session buildSession(final SmtpServer server) {
+    final HtmlEmail email = new HtmlEmail();
+    email.setHostName(server.host());
+    email.setSmtpPort(server.port());
+    if (server.user() != null && server.password() != null) {
+      email.setAuthenticator(new DefaultAuthenticator(server.user(), server.password()));
+      email.setSSLOnConnect(true);
+      email.setSslSmtpPort(Integer.toString(server.port()));
+    }
+    try {
+      final Session session = email.getMailSession();
+      session.getProperties().put("mail.smtp.ssl.trust", server.host());
+      return session;
+    } catch (final EmailException e) {
+      throw new RuntimeException("Could not build SMTP session for host " + server.host(), e);
+    }
+  }
+
+  private record SmtpServer(String host, int port, String user, String password) {
+
+    private static SmtpServer of(final SmtpConfiguration smtp) {
+      return new SmtpServer(requireNonNull(smtp.getHost(), "smtp host is null"),
+          requireNonNull(smtp.getPort(), "smtp port is null"),
+          smtp.getUser(),
+          smtp.getPassword());
+    }
+  }
+
+  private record IdleTransport(Transport transport, long idleSinceNanos) {}
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.plugins.notification.email;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.mail.Message.RecipientType;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class SmtpTransportPoolTest {
+
+  private SmtpStub smtpStub;
+  private SmtpConfiguration smtp;
+
+  @BeforeMethod
+  public void setUp() throws IOException {
+    smtpStub = new SmtpStub();
+    smtp = new SmtpConfiguration().setHost("localhost").setPort(smtpStub.port());
+  }
+
+  @AfterMethod
+  public void tearDown() throws IOException {
+    smtpStub.close();
+  }
+
+  @Test
+  public void testConnectionIsReusedAcrossMessages() throws Exception {
+    final SmtpTransportPool pool = new SmtpTransportPool();
+    for (int i = 0; i < 3; i++) {
+      pool.send(smtp, message(pool, "message " + i));
+    }
+    pool.closeIdle();
+
+    assertThat(smtpStub.messages()).isEqualTo(3);
+    assertThat(smtpStub.connections()).isEqualTo(1);
+  }
+
+  @Test
+  public void testIdleConnectionIsNotReused() throws Exception {
+    final SmtpTransportPool pool = new SmtpTransportPool(4, Duration.ZERO);
+    pool.send(smtp, message(pool, "message 1"));
+    pool.send(smtp, message(pool, "message 2"));
+    pool.closeIdle();
+
+    assertThat(smtpStub.messages()).isEqualTo(2);
+    assertThat(smtpStub.connections()).isEqualTo(2);
+  }
+
+  @Test
+  public void testConnectionClosedByServerIsReplaced() throws Exception {
+    final SmtpTransportPool pool = new SmtpTransportPool();
+    pool.send(smtp, message(pool, "message 1"));
+    smtpStub.dropConnections();
+    pool.send(smtp, message(pool, "message 2"));
+    pool.closeIdle();
+
+    assertThat(smtpStub.messages()).isEqualTo(2);
+    assertThat(smtpStub.connections()).isEqualTo(2);
+  }
+
+  @Test(timeOut = 10_000)
+  public void testExpiredConnectionIsClosedWithoutUsingThePool() throws Exception {
+    final SmtpTransportPool pool = new SmtpTransportPool(4, Duration.ofMillis(200));
+    try {
+      pool.send(smtp, message(pool, "message 1"));
+      assertThat(smtpStub.openConnections()).isEqualTo(1);
+
+      // closed by the background sweep
+      while (smtpStub.openConnections() > 0) {
+        Thread.sleep(50);
+      }
+      assertThat(smtpStub.connections()).isEqualTo(1);
+    } finally {
+      pool.close();
+    }
+  }
+
+  @Test
+  public void testNotificationServicesShareConnections() throws Exception {
+    final EmailSmtpNotificationServiceFactory factory = new EmailSmtpNotificationServiceFactory();
+    final EmailSmtpConfiguration configuration = new EmailSmtpConfiguration()
+        .setSmtp(smtp)
+        .setEmailRecipients(new EmailRecipientsConfiguration()
+            .setFrom("thirdeye@example.com")
+            .setTo(List.of("user@example.com")));
+    final Map<String, Object> params = new ObjectMapper()
+        .convertValue(configuration, Map.class);
+
+    factory.build(params).sendTestMessage();
+    factory.build(params).sendTestMessage();
+
+    assertThat(smtpStub.messages()).isEqualTo(2);
+    assertThat(smtpStub.connections()).isEqualTo(1);
+  }
+
+  private MimeMessage message(final SmtpTransportPool pool, final String subject)
+      throws Exception {
+    final MimeMessage message = new MimeMessage(pool.session(smtp));
+    message.setFrom(new InternetAddress("thirdeye@example.com"));
+    message.setRecipient(RecipientType.TO, new InternetAddress("user@example.com"));
+    message.setSubject(subject);
+    message.setText("body");
+    return message;
+  }
+
+  /**
+   * Minimal in-process SMTP server. Accepts all the commands and counts the connections and the
+   * messages received.
+   */
+  private static class SmtpStub {
+
+    private final ServerSocket serverSocket;
+    private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicInteger messages = new AtomicInteger();
+
+    private SmtpStub() throws IOException {
+      serverSocket = new ServerSocket(0);
+      final Thread acceptThread = new Thread(this::acceptLoop, "smtp-stub");
+      acceptThread.setDaemon(true);
+      acceptThread.start();
+    }
+
+    private int port() {
+      return serverSocket.getLocalPort();
+    }
+
+    private int connections() {
+      return connections.get();
+    }
+
+    private int messages() {
+      return messages.get();
+    }
+
+    private int openConnections() {
+      return sockets.size();
+    }
+
+    private void acceptLoop() {
+      while (!serverSocket.isClosed()) {
+        try {
+          final Socket socket = serverSocket.accept();
+          connections.incrementAndGet();
+          sockets.add(socket);
+          final Thread thread = new Thread(() -> handle(socket), "smtp-stub-connection");
+          thread.setDaemon(true);
+          thread.start();
+        } catch (final IOException e) {
+          // server closed
+        }
+      }
+    }
+
+    private void handle(final Socket socket) {
+      try (socket;
+          final BufferedReader in = new BufferedReader(
+              new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+          final PrintWriter out = new PrintWriter(socket.getOutputStream(), false,
+              StandardCharsets.US_ASCII)) {
+        reply(out, "220 localhost SMTP stub");
+        String line;
+        while ((line = in.readLine()) != null) {
+          final String command = line.length() < 4 ? line : line.substring(0, 4).toUpperCase();
+          switch (command) {
+            case "EHLO" -> reply(out, "250-localhost\r\n250 OK");
+            case "DATA" -> {
+              reply(out, "354 End data with <CR><LF>.<CR><LF>");
+              while ((line = in.readLine()) != null && !line.equals(".")) {
+                // message content is ignored
+              }
+              messages.incrementAndGet();
+              reply(out, "250 OK");
+            }
+            case "QUIT" -> {
+              reply(out, "221 Bye");
+              return;
+            }
+            default -> reply(out, "250 OK");
+          }
+        }
+      } catch (final IOException e) {
+        // connection dropped
+      } finally {
+        sockets.remove(socket);
+      }
+    }
+
+    private static void reply(final PrintWriter out, final String reply) {
+      out.print(reply + "\r\n");
+      out.flush();
+    }
+
+    private void dropConnections() throws IOException {
+      for (final Socket socket : sockets) {
+        socket.close();
+      }
+    }
+
+    private void close() throws IOException {
+      serverSocket.close();
+      dropConnections();
+    }
+  }
+}
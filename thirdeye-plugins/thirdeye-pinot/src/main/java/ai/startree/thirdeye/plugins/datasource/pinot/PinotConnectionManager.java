@@ -14,21 +14,28 @@
 package ai.startree.thirdeye.plugins.datasource.pinot;
 
 import static ai.startree.thirdeye.plugins.datasource.pinot.PinotThirdEyeDataSourceUtils.cloneConfig;
+import static ai.startree.thirdeye.spi.util.ExecutorUtils.threadsNamed;
 import static ai.startree.thirdeye.spi.util.SpiUtils.optional;
 import static java.util.Objects.requireNonNull;
 
 import ai.startree.thirdeye.spi.util.Pair;
 import java.util.HashMap;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import org.apache.http.HttpHeaders;
-import org.apache.pinot.client.Connection;
 import org.apache.pinot.client.PinotClientException;
 import org.apache.pinot.client.PinotConnectionBuilder;
+import org.apache.pinot.client.ThirdEyePinotConnection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,12 +44,29 @@ public class PinotConnectionManager {
 
   private static final Logger LOG = LoggerFactory.getLogger(PinotConnectionManager.class);
 
+  private static final int RESPONSE_THREADS = Runtime.getRuntime().availableProcessors();
+  private static final int RESPONSE_QUEUE_CAPACITY = 1000;
+
   private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+  /*
+   * Parses the broker responses and converts them to DataFrames, so that this work does not run on
+   * the IO threads of the http client. Shared by the successive connections. When the queue is
+   * full or the executor is shut down, the task is rejected and the query future fails.
+   */
+  private final ExecutorService responseExecutor = new ThreadPoolExecutor(RESPONSE_THREADS,
+      RESPONSE_THREADS,
+      0L,
+      TimeUnit.MILLISECONDS,
+      new LinkedBlockingQueue<>(RESPONSE_QUEUE_CAPACITY),
+      threadsNamed("pinot-response-%d"));
+  /* non-blocking queries not completed yet - failed when the manager is closed */
+  private final Set<CompletableFuture<?>> pendingQueries = ConcurrentHashMap.newKeySet();
+  private volatile boolean closed = false;
 
   private final PinotThirdEyeDataSourceConfig config;
   private final Supplier<String> tokenSupplier;
   private final PinotConnectionBuilder pinotConnectionBuilder;
-  private Connection connection;
+  private ThirdEyePinotConnection connection;
   private String prevToken;
 
   @Inject
@@ -72,7 +96,7 @@ public class PinotConnectionManager {
     return !prevToken.equals(newToken);
   }
 
-  public Connection get() {
+  public ThirdEyePinotConnection get() {
     if (isNewConnectionReqd()) {
       /* Closing old connection is a lower priority. do it async */
       closeConnectionAsync(connection);
@@ -86,9 +110,9 @@ public class PinotConnectionManager {
     return connection;
   }
 
-  private Pair<PinotThirdEyeDataSourceConfig, Connection> createConnection() {
+  private Pair<PinotThirdEyeDataSourceConfig, ThirdEyePinotConnection> createConnection() {
     final var c = newConfig();
-    return new Pair<>(c, pinotConnectionBuilder.createConnection(c));
+    return new Pair<>(c, pinotConnectionBuilder.createConnection(c, responseExecutor));
   }
 
   private PinotThirdEyeDataSourceConfig newConfig() {
@@ -113,18 +137,52 @@ public class PinotConnectionManager {
     return newConfig;
   }
 
+  public ExecutorService getResponseExecutor() {
+    return responseExecutor;
+  }
+
+  /**
+   * Registers a non-blocking query. If the manager is closed before the query completes, the
+   * future is completed exceptionally, so that no caller waits for a response that will not be
+   * parsed.
+   */
+  public <T> CompletableFuture<T> track(final CompletableFuture<T> query) {
+    if (closed) {
+      query.completeExceptionally(closedException());
+      return query;
+    }
+    pendingQueries.add(query);
+    query.whenComplete((r, t) -> pendingQueries.remove(query));
+    if (closed) {
+      // closed concurrently - pendingQueries may already have been drained
+      query.completeExceptionally(closedException());
+    }
+    return query;
+  }
+
   public void close() {
+    closed = true;
+    // does not wait: the queued responses are still parsed, new ones are rejected
+    responseExecutor.shutdown();
+    for (final CompletableFuture<?> query : pendingQueries) {
+      query.completeExceptionally(closedException());
+    }
     closeConnection(connection);
     connection = null;
+    executorService.shutdown();
+  }
+
+  private static PinotClientException closedException() {
+    return new PinotClientException("Pinot connection manager is closed");
   }
 
-  private void closeConnectionAsync(@Nullable final Connection connection) {
+  private void closeConnectionAsync(@Nullable final ThirdEyePinotConnection connection) {
     if (connection != null) {
       executorService.submit(() -> closeConnection(connection));
     }
   }
 
-  private void closeConnection(@Nullable final Connection connection) {
+  private void closeConnection(@Nullable final ThirdEyePinotConnection connection) {
     try {
       final long start = System.nanoTime();
       if (connection != null) {
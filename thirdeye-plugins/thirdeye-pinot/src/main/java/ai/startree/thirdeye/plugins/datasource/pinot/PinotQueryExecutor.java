@@ -17,7 +17,12 @@ import ai.startree.thirdeye.plugins.datasource.pinot.resultset.ThirdEyeDataFrame
 import ai.startree.thirdeye.plugins.datasource.pinot.resultset.ThirdEyeResultSet;
 import ai.startree.thirdeye.plugins.datasource.pinot.resultset.ThirdEyeResultSetGroup;
 import ai.startree.thirdeye.plugins.datasource.pinot.resultset.ThirdEyeResultSetMetaData;
+import ai.startree.thirdeye.spi.dataframe.BooleanSeries;
 import ai.startree.thirdeye.spi.dataframe.DataFrame;
+import ai.startree.thirdeye.spi.dataframe.DoubleSeries;
+import ai.startree.thirdeye.spi.dataframe.LongSeries;
+import ai.startree.thirdeye.spi.dataframe.Series;
+import ai.startree.thirdeye.spi.dataframe.StringSeries;
 import ai.startree.thirdeye.spi.detection.v2.ColumnType;
 import ai.startree.thirdeye.spi.detection.v2.ColumnType.ColumnDataType;
 import ai.startree.thirdeye.spi.util.Pair;
@@ -26,6 +31,8 @@ import com.google.common.cache.CacheLoader;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import javax.inject.Inject;
@@ -45,6 +52,7 @@ public class PinotQueryExecutor extends CacheLoader<PinotQuery, ThirdEyeResultSe
 
   private static final String SQL_QUERY_FORMAT = "sql";
   private static final String PQL_QUERY_FORMAT = "pql";
+  private static final String NULL_STRING = "null";
   private final PinotConnectionManager pinotConnectionManager;
 
   @Inject
@@ -103,7 +111,8 @@ public class PinotQueryExecutor extends CacheLoader<PinotQuery, ThirdEyeResultSe
    * @param resultSet A result set from Pinot.
    * @return an unified {@link ThirdEyeDataFrameResultSet}.
    */
-  private static ThirdEyeDataFrameResultSet fromPinotResultSet(final ResultSet resultSet) {
+  @VisibleForTesting
+  static ThirdEyeDataFrameResultSet fromPinotResultSet(final ResultSet resultSet) {
     // Build the meta data of this result set
     final List<String> groupKeyColumnNames = new ArrayList<>();
     final List<ColumnType> groupKeyColumnTypes = new ArrayList<>();
@@ -141,45 +150,93 @@ public class PinotQueryExecutor extends CacheLoader<PinotQuery, ThirdEyeResultSe
             groupKeyColumnTypes,
             metricColumnTypes);
 
-    // Build the DataFrame - FIXME CYRIL - this is not necessary to build a DataFrame at this point
-    final List<String> columnNameWithDataType = new ArrayList<>();
-    //   Always cast dimension values to STRING type
-    for (final String groupColumnName : thirdEyeResultSetMetaData.getGroupKeyColumnNames()) {
-      columnNameWithDataType.add(groupColumnName + ":STRING");
-    }
-    columnNameWithDataType.addAll(thirdEyeResultSetMetaData.getMetricColumnNames());
-    final DataFrame.Builder dfBuilder = DataFrame.builder(columnNameWithDataType);
+    // Build the DataFrame column by column - values are read once with the type of their column
     final int rowCount = resultSet.getRowCount();
-    final int metricColumnCount = resultSet.getColumnCount();
-    final int totalColumnCount = groupByColumnCount + metricColumnCount;
-    // Dump the values in ResultSet to the DataFrame
+    final DataFrame dataFrame = new DataFrame();
+    for (int groupByColumnIdx = 0; groupByColumnIdx < groupByColumnCount; groupByColumnIdx++) {
+      dataFrame.addSeries(groupKeyColumnNames.get(groupByColumnIdx),
+          groupKeySeries(resultSet, rowCount, groupByColumnIdx));
+    }
+    for (int metricColumnIdx = 0; metricColumnIdx < metricColumnNames.size(); metricColumnIdx++) {
+      dataFrame.addSeries(metricColumnNames.get(metricColumnIdx),
+          metricSeries(resultSet,
+              rowCount,
+              metricColumnIdx,
+              metricColumnTypes.get(metricColumnIdx).getType()));
+    }
+    // Build ThirdEye's result set
+    return new ThirdEyeDataFrameResultSet(thirdEyeResultSetMetaData, dataFrame);
+  }
+
+  private static Series groupKeySeries(final ResultSet resultSet, final int rowCount,
+      final int groupByColumnIdx) {
+    // Always cast dimension values to STRING type
+    final String[] values = new String[rowCount];
     for (int rowIdx = 0; rowIdx < rowCount; rowIdx++) {
-      final String[] columnsOfTheRow = new String[totalColumnCount];
-      // GroupBy column value(i.e., dimension values)
-      for (int groupByColumnIdx = 0; groupByColumnIdx < groupByColumnCount; groupByColumnIdx++) {
-        String valueString = null;
-        try {
-          valueString = resultSet.getGroupKeyString(rowIdx, groupByColumnIdx);
-        } catch (final Exception e) {
-          // Do nothing and subsequently insert a null value to the current series.
-        }
-        columnsOfTheRow[groupByColumnIdx] = valueString;
+      try {
+        values[rowIdx] = resultSet.getGroupKeyString(rowIdx, groupByColumnIdx);
+      } catch (final Exception e) {
+        // Do nothing and subsequently insert a null value to the current series.
       }
-      // Metric column's value
-      for (int metricColumnIdx = 0; metricColumnIdx < metricColumnCount; metricColumnIdx++) {
-        String valueString = null;
-        try {
-          valueString = resultSet.getString(rowIdx, metricColumnIdx);
-        } catch (final Exception e) {
-          // Do nothing and subsequently insert a null value to the current series.
+    }
+    return StringSeries.buildFrom(values);
+  }
+
+  private static Series metricSeries(final ResultSet resultSet, final int rowCount,
+      final int metricColumnIdx, final ColumnDataType type) {
+    switch (type) {
+      case INT:
+      case LONG:
+        final long[] longValues = new long[rowCount];
+        for (int rowIdx = 0; rowIdx < rowCount; rowIdx++) {
+          try {
+            longValues[rowIdx] = resultSet.getLong(rowIdx, metricColumnIdx);
+          } catch (final Exception e) {
+            longValues[rowIdx] = LongSeries.NULL;
+          }
         }
-        columnsOfTheRow[metricColumnIdx + groupByColumnCount] = valueString;
-      }
-      dfBuilder.append(columnsOfTheRow);
+        return LongSeries.buildFrom(longValues);
+      case FLOAT:
+      case DOUBLE:
+        final double[] doubleValues = new double[rowCount];
+        for (int rowIdx = 0; rowIdx < rowCount; rowIdx++) {
+          try {
+            doubleValues[rowIdx] = resultSet.getDouble(rowIdx, metricColumnIdx);
+          } catch (final Exception e) {
+            doubleValues[rowIdx] = DoubleSeries.NULL;
+          }
+        }
+        return DoubleSeries.buildFrom(doubleValues);
+      case BOOLEAN:
+        final byte[] booleanValues = new byte[rowCount];
+        for (int rowIdx = 0; rowIdx < rowCount; rowIdx++) {
+          booleanValues[rowIdx] = booleanOrNull(getStringOrNull(resultSet, rowIdx, metricColumnIdx));
+        }
+        return BooleanSeries.buildFrom(booleanValues);
+      default:
+        // STRING, and types that are parsed downstream, like OBJECT - keep the raw value
+        final String[] stringValues = new String[rowCount];
+        for (int rowIdx = 0; rowIdx < rowCount; rowIdx++) {
+          stringValues[rowIdx] = getStringOrNull(resultSet, rowIdx, metricColumnIdx);
+        }
+        return StringSeries.buildFrom(stringValues);
     }
-    final DataFrame dataFrame = dfBuilder.build();
-    // Build ThirdEye's result set
-    return new ThirdEyeDataFrameResultSet(thirdEyeResultSetMetaData, dataFrame);
+  }
+
+  private static String getStringOrNull(final ResultSet resultSet, final int rowIdx,
+      final int columnIdx) {
+    try {
+      return resultSet.getString(rowIdx, columnIdx);
+    } catch (final Exception e) {
+      return null;
+    }
+  }
+
+  private static byte booleanOrNull(final String value) {
+    if (value == null || NULL_STRING.equals(value)) {
+      return BooleanSeries.NULL;
+    }
+    return BooleanSeries.valueOf(Boolean.parseBoolean(value));
   }
 
   private static List<Pair<Integer, Integer>> rowColCounts(final ResultSetGroup resultSetGroup) {
@@ -209,13 +266,7 @@ public class PinotQueryExecutor extends CacheLoader<PinotQuery, ThirdEyeResultSe
           pinotQuery.getTableName(),
           new Request(queryFormat, queryWithOptions)
       );
-
-      final long end = System.nanoTime();
-      final long durationMillis = (end - start) / TimeUnit.MILLISECONDS.toNanos(1);
-      LOG.info("Query:{} time:{}ms result stats(rows, cols): {}",
-          queryWithOptions.replace('\n', ' '),
-          durationMillis,
-          toString(rowColCounts(resultSetGroup)));
+      logQuery(queryWithOptions, start, resultSetGroup);
 
       return toThirdEyeResultSetGroup(resultSetGroup);
     } catch (final PinotClientException cause) {
@@ -224,6 +275,45 @@ public class PinotQueryExecutor extends CacheLoader<PinotQuery, ThirdEyeResultSe
     }
   }
 
+  /**
+   * Non-blocking version of {@link #load(PinotQuery)}. No thread waits for the broker response.
+   * The response is converted on the response executor of the connection manager, not on the IO
+   * threads of the http client. The future fails if the connection manager is closed before the
+   * response is converted.
+   */
+  public CompletableFuture<ThirdEyeResultSetGroup> loadAsync(final PinotQuery pinotQuery) {
+    final String queryWithOptions = buildQueryWithOptions(pinotQuery);
+    final String queryFormat = pinotQuery.isUseSql() ? SQL_QUERY_FORMAT : PQL_QUERY_FORMAT;
+    final long start = System.nanoTime();
+    final CompletableFuture<ResultSetGroup> response;
+    try {
+      response = pinotConnectionManager.get().executeNonBlocking(pinotQuery.getTableName(),
+          new Request(queryFormat, queryWithOptions));
+    } catch (final RuntimeException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+    return pinotConnectionManager.track(response.handleAsync((resultSetGroup, throwable) -> {
+      if (throwable != null) {
+        final Throwable cause = throwable instanceof CompletionException
+            ? throwable.getCause()
+            : throwable;
+        LOG.error("Error when running SQL:" + queryWithOptions, cause);
+        throw new PinotClientException("Error when running SQL:" + queryWithOptions, cause);
+      }
+      logQuery(queryWithOptions, start, resultSetGroup);
+      return toThirdEyeResultSetGroup(resultSetGroup);
+    }, pinotConnectionManager.getResponseExecutor()));
+  }
+
+  private static void logQuery(final String queryWithOptions, final long startNanos,
+      final ResultSetGroup resultSetGroup) {
+    final long durationMillis = (System.nanoTime() - startNanos) / TimeUnit.MILLISECONDS.toNanos(1);
+    LOG.info("Query:{} time:{}ms result stats(rows, cols): {}",
+        queryWithOptions.replace('\n', ' '),
+        durationMillis,
+        toString(rowColCounts(resultSetGroup)));
+  }
+
   @VisibleForTesting
   protected static String buildQueryWithOptions(final PinotQuery pinotQuery) {
     final StringBuilder optionsStatements = new StringBuilder();
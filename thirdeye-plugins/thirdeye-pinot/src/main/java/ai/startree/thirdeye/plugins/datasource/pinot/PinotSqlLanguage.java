@@ -16,6 +16,8 @@ package ai.startree.thirdeye.plugins.datasource.pinot;
 import ai.startree.thirdeye.spi.datasource.macro.SqlLanguage;
 import ai.startree.thirdeye.spi.datasource.macro.ThirdEyeSqlParserConfig;
 import ai.startree.thirdeye.spi.datasource.macro.ThirdeyeSqlDialect;
+import java.util.Map;
+import javax.inject.Inject;
 
 public class PinotSqlLanguage implements SqlLanguage {
 
@@ -31,6 +33,17 @@ public class PinotSqlLanguage implements SqlLanguage {
       .withIdentifierQuoteString("\"")
       .build();
 
+  // the single-stage engine does not support UNION ALL - the multi-stage engine does
+  private static final Map<String, String> UNION_ALL_QUERY_OPTIONS = Map.of(
+      "useMultistageEngine", "true");
+
+  private final boolean multistageEngineEnabled;
+
+  @Inject
+  public PinotSqlLanguage(final PinotThirdEyeDataSourceConfig config) {
+    multistageEngineEnabled = config.isMultistageEngineEnabled();
+  }
+
   @Override
   public ThirdEyeSqlParserConfig getSqlParserConfig() {
     return SQL_PARSER_CONFIG;
@@ -40,4 +53,15 @@ public class PinotSqlLanguage implements SqlLanguage {
   public ThirdeyeSqlDialect getSqlDialect() {
     return SQL_DIALECT;
   }
+
+  @Override
+  public boolean supportsUnionAll() {
+    // opt-in: clusters without the multi-stage engine reject the queries
+    return multistageEngineEnabled;
+  }
+
+  @Override
+  public Map<String, String> getUnionAllQueryOptions() {
+    return UNION_ALL_QUERY_OPTIONS;
+  }
 }
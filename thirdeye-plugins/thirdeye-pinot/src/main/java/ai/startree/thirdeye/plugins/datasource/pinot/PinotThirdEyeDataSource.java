@@ -15,33 +15,30 @@ package ai.startree.thirdeye.plugins.datasource.pinot;
 
 import static ai.startree.thirdeye.spi.util.SpiUtils.optional;
 import static java.util.Objects.requireNonNull;
+import static org.apache.pinot.client.ThirdEyeJsonAsyncHttpPinotClientTransportFactory.DEFAULT_BROKER_RESPONSE_TIMEOUT_MS;
 
 import ai.startree.thirdeye.plugins.datasource.pinot.resultset.ThirdEyeResultSet;
 import ai.startree.thirdeye.plugins.datasource.pinot.resultset.ThirdEyeResultSetGroup;
-import ai.startree.thirdeye.spi.Constants;
+import ai.startree.thirdeye.spi.dataframe.DataFrame;
 import ai.startree.thirdeye.spi.datalayer.dto.DataSourceDTO;
 import ai.startree.thirdeye.spi.datalayer.dto.DatasetConfigDTO;
 import ai.startree.thirdeye.spi.datasource.DataSourceRequest;
-import ai.startree.thirdeye.spi.datasource.RelationalQuery;
+import ai.startree.thirdeye.spi.datasource.QueryResultCache;
 import ai.startree.thirdeye.spi.datasource.ThirdEyeDataSource;
 import ai.startree.thirdeye.spi.datasource.ThirdEyeDataSourceContext;
 import ai.startree.thirdeye.spi.datasource.macro.SqlExpressionBuilder;
 import ai.startree.thirdeye.spi.datasource.macro.SqlLanguage;
 import ai.startree.thirdeye.spi.detection.v2.DataTable;
-import com.google.common.base.Preconditions;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import ai.startree.thirdeye.spi.detection.v2.SimpleDataTable;
 import java.io.IOException;
-import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import javax.inject.Inject;
 import javax.inject.Singleton;
-import org.apache.commons.io.FileUtils;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -58,13 +55,11 @@ public class PinotThirdEyeDataSource implements ThirdEyeDataSource {
   private final SqlExpressionBuilder sqlExpressionBuilder;
   private final SqlLanguage sqlLanguage;
   private final PinotDatasetReader datasetReader;
-  private final LoadingCache<PinotQuery, ThirdEyeResultSetGroup> queryCache;
+  private final PinotQueryExecutor queryExecutor;
+  private final QueryResultCache queryResultCache;
   private final PinotThirdEyeDataSourceConfig config;
   private final PinotConnectionManager connectionManager;
 
-  /* Use case: Log Query Cache stats few min */
-  private long queryCacheTs = 0;
-
   @Inject
   public PinotThirdEyeDataSource(
       final ThirdEyeDataSourceContext context,
@@ -82,60 +77,11 @@ public class PinotThirdEyeDataSource implements ThirdEyeDataSource {
     name = context.getDataSourceDTO().getName();
     this.connectionManager = connectionManager;
 
-    /* Uses LoadingCache to cache queries */
-    queryCache = requireNonNull(buildQueryCache(queryExecutor),
-        String.format("%s doesn't connect to Pinot or cache is not initialized.", getName()));
+    this.queryExecutor = requireNonNull(queryExecutor);
+    this.queryResultCache = requireNonNull(context.getQueryResultCache());
     this.config = config;
   }
 
-  private static LoadingCache<PinotQuery, ThirdEyeResultSetGroup> buildQueryCache(
-      final CacheLoader<PinotQuery, ThirdEyeResultSetGroup> cacheLoader) {
-    Preconditions.checkNotNull(cacheLoader, "A cache loader is required.");
-
-    // ResultSetGroup Cache. The size of this cache is limited by the total number of buckets in all ResultSetGroup.
-    // We estimate that 1 bucket (including overhead) consumes 1KB and this cache is allowed to use up to 50% of max
-    // heap space.
-    final long maxBucketNumber = getApproximateMaxBucketNumber(
-        Constants.DEFAULT_HEAP_PERCENTAGE_FOR_RESULTSETGROUP_CACHE);
-    LOG.debug("Max bucket number for {}'s cache is set to {}", cacheLoader,
-        maxBucketNumber);
-
-    return CacheBuilder.newBuilder()
-        .expireAfterWrite(15, TimeUnit.MINUTES)
-        .maximumWeight(maxBucketNumber)
-        .weigher(PinotThirdEyeDataSource::cacheWeigher)
-        .recordStats()
-        .build(cacheLoader);
-  }
-
-  private static int cacheWeigher(final RelationalQuery relationalQuery,
-      final ThirdEyeResultSetGroup resultSetGroup) {
-    final int resultSetCount = resultSetGroup.size();
-    int weight = 0;
-    for (int idx = 0; idx < resultSetCount; ++idx) {
-      final ThirdEyeResultSet resultSet = resultSetGroup.get(idx);
-      weight += ((resultSet.getColumnCount() + resultSet.getGroupKeyLength()) * resultSet
-          .getRowCount());
-    }
-    return weight;
-  }
-
-  private static long getApproximateMaxBucketNumber(final int percentage) {
-    long jvmMaxMemoryInBytes = Runtime.getRuntime().maxMemory();
-    if (jvmMaxMemoryInBytes == Long.MAX_VALUE) { // Check upper bound
-      jvmMaxMemoryInBytes = Constants.DEFAULT_UPPER_BOUND_OF_RESULTSETGROUP_CACHE_SIZE_IN_MB
-          * FileUtils.ONE_MB; // MB to Bytes
-    } else { // Check lower bound
-      final long lowerBoundInBytes =
-          Constants.DEFAULT_LOWER_BOUND_OF_RESULTSETGROUP_CACHE_SIZE_IN_MB
-              * FileUtils.ONE_MB; // MB to Bytes
-      if (jvmMaxMemoryInBytes < lowerBoundInBytes) {
-        jvmMaxMemoryInBytes = lowerBoundInBytes;
-      }
-    }
-    return (jvmMaxMemoryInBytes / 102400) * percentage;
-  }
-
   @Override
   public void init(final ThirdEyeDataSourceContext context) {
     /* everything is now done in the constructor */
@@ -146,59 +92,62 @@ public class PinotThirdEyeDataSource implements ThirdEyeDataSource {
     return name;
   }
 
-  /**
-   * Returns the cached ResultSetGroup corresponding to the given Pinot query.
-   *
-   * @param pinotQuery the query that is specifically constructed for Pinot.
-   * @return the corresponding ResultSetGroup to the given Pinot query.
-   * @throws ExecutionException is thrown if failed to connect to Pinot or gets results from
-   *     Pinot.
-   */
-  private ThirdEyeResultSetGroup executeSQL(final PinotQuery pinotQuery) throws ExecutionException {
+  private ThirdEyeResultSetGroup executeSQL(final PinotQuery pinotQuery) {
     try {
-      final ThirdEyeResultSetGroup thirdEyeResultSetGroup = queryCache.get(pinotQuery);
-      final long current = System.currentTimeMillis();
-
-      /* Log query stats with min interval of x minutes */
-      if (current - queryCacheTs > Duration.ofMinutes(5).toMillis()) {
-        LOG.info("queryCache.stats: {}", queryCache.stats());
-        queryCacheTs = current;
-      }
-      return thirdEyeResultSetGroup;
-    } catch (final ExecutionException e) {
+      return queryExecutor.load(pinotQuery);
+    } catch (final RuntimeException e) {
       LOG.error("Failed to execute SQL: {} with options {}", pinotQuery.getQuery(),
           pinotQuery.getOptions());
-      LOG.error("queryCache.stats: {}", queryCache.stats());
       throw e;
     }
   }
 
   @Override
   public DataTable fetchDataTable(final DataSourceRequest request) throws Exception {
+    try {
+      // bounded - a response that is never parsed must not block the caller forever
+      final long timeoutMs = optional(config.getBrokerResponseTimeoutMs())
+          .orElse(DEFAULT_BROKER_RESPONSE_TIMEOUT_MS);
+      return fetchDataTableAsync(request).get(timeoutMs, TimeUnit.MILLISECONDS);
+    } catch (final ExecutionException e) {
+      if (e.getCause() instanceof Exception) {
+        throw (Exception) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  @Override
+  public CompletableFuture<DataTable> fetchDataTableAsync(final DataSourceRequest request) {
     final Map<String, String> options = new HashMap<>(dataSourceDTO.getDefaultQueryOptions());
     options.putAll(request.getOptions());
-    final ThirdEyeResultSetGroup thirdEyeResultSetGroup = executeSQL(new PinotQuery(
-        request.getQuery(),
-        request.getTable(),
-        options));
+    final PinotQuery pinotQuery = new PinotQuery(request.getQuery(), request.getTable(), options);
+    return queryResultCache.getAsync(name, pinotQuery.getQuery(), options,
+            () -> queryExecutor.loadAsync(pinotQuery).thenApply(r -> toDataFrame(r, pinotQuery)))
+        // the cached DataFrame is shared - the series are immutable, a shallow copy is enough
+        .thenApply(dataFrame -> SimpleDataTable.fromDataFrame(new DataFrame(dataFrame)));
+  }
+
+  private static DataFrame toDataFrame(final ThirdEyeResultSetGroup thirdEyeResultSetGroup,
+      final PinotQuery pinotQuery) {
     if (thirdEyeResultSetGroup.size() < 1) {
-      throw new RuntimeException("Query returned no result. Table is empty? Original query: %s".formatted(request.getQuery()));
+      throw new RuntimeException("Query returned no result. Table is empty? Original query: %s".formatted(pinotQuery.getQuery()));
     }
     final ThirdEyeResultSet thirdEyeResultSet = thirdEyeResultSetGroup.get(0);
-    return new ThirdEyeResultSetDataTable(thirdEyeResultSet);
+    return new ThirdEyeResultSetDataTable(thirdEyeResultSet).getDataFrame();
   }
 
   @Override
   public boolean validate() {
     try {
       return validate0();
-    } catch (final ExecutionException | IOException | ArrayIndexOutOfBoundsException e) {
+    } catch (final IOException | RuntimeException e) {
       LOG.error("Exception while performing pinot datasource validation.", e);
     }
     return false;
   }
 
-  private boolean validate0() throws IOException, ExecutionException {
+  private boolean validate0() throws IOException {
     final PinotHealthCheckConfiguration healthCheck = config.getHealthCheck();
     if (healthCheck == null || !healthCheck.isEnabled()) {
       return true;
@@ -215,8 +164,7 @@ public class PinotThirdEyeDataSource implements ThirdEyeDataSource {
 
     final PinotQuery pinotQuery = new PinotQuery(query, null, dataSourceDTO.getDefaultQueryOptions());
 
-    /* Disable caching for validate queries */
-    queryCache.refresh(pinotQuery);
+    /* validate queries are not cached */
     final ThirdEyeResultSetGroup result = executeSQL(pinotQuery);
     return result.size() > 0 && result.get(0).getRowCount() > 0;
   }
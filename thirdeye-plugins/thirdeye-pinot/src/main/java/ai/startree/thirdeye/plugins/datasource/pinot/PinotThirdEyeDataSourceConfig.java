@@ -36,6 +36,8 @@ public class PinotThirdEyeDataSourceConfig {
   private Integer requestTimeoutMs;
   private Integer connectTimeoutMs;
   private Integer brokerResponseTimeoutMs;
+  /* set when the cluster runs the multi-stage engine - enables UNION ALL queries */
+  private boolean multistageEngineEnabled = false;
 
   public PinotOauthConfiguration getOauth() {
     return oauth;
@@ -176,6 +178,16 @@ public class PinotThirdEyeDataSourceConfig {
     return this;
   }
 
+  public boolean isMultistageEngineEnabled() {
+    return multistageEngineEnabled;
+  }
+
+  public PinotThirdEyeDataSourceConfig setMultistageEngineEnabled(
+      final boolean multistageEngineEnabled) {
+    this.multistageEngineEnabled = multistageEngineEnabled;
+    return this;
+  }
+
   @Override
   public boolean equals(final Object o) {
     if (this == o) {
@@ -198,7 +210,8 @@ public class PinotThirdEyeDataSourceConfig {
         && Objects.equals(readTimeoutMs, that.readTimeoutMs)
         && Objects.equals(requestTimeoutMs, that.requestTimeoutMs)
         && Objects.equals(connectTimeoutMs, that.connectTimeoutMs)
-        && Objects.equals(brokerResponseTimeoutMs, that.brokerResponseTimeoutMs);
+        && Objects.equals(brokerResponseTimeoutMs, that.brokerResponseTimeoutMs)
+        && multistageEngineEnabled == that.multistageEngineEnabled;
   }
 
   @Override
@@ -216,6 +229,7 @@ public class PinotThirdEyeDataSourceConfig {
         readTimeoutMs,
         requestTimeoutMs,
         connectTimeoutMs,
-        brokerResponseTimeoutMs);
+        brokerResponseTimeoutMs,
+        multistageEngineEnabled);
   }
 }
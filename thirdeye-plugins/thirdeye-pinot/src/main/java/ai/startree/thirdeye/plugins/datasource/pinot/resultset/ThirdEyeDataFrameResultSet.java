@@ -13,7 +13,9 @@
  */
 package ai.startree.thirdeye.plugins.datasource.pinot.resultset;
 
+import ai.startree.thirdeye.spi.dataframe.BooleanSeries;
 import ai.startree.thirdeye.spi.dataframe.DataFrame;
+import ai.startree.thirdeye.spi.dataframe.Series;
 import ai.startree.thirdeye.spi.detection.v2.ColumnType;
 import com.google.common.base.Preconditions;
 import java.sql.ResultSet;
@@ -78,6 +80,38 @@ public class ThirdEyeDataFrameResultSet extends AbstractThirdEyeResultSet {
         .getString(rowIdx);
   }
 
+  // typed getters read the series directly - no round trip through the string representation
+
+  @Override
+  public Integer getInteger(final int rowIdx, final int columnIdx) {
+    final Long value = getLong(rowIdx, columnIdx);
+    return value == null ? null : value.intValue();
+  }
+
+  @Override
+  public Boolean getBoolean(final int rowIdx, final int columnIdx) {
+    final Series series = metricSeries(columnIdx);
+    return series.isNull(rowIdx) ? null : BooleanSeries.booleanValueOf(series.getBoolean(rowIdx));
+  }
+
+  @Override
+  public Long getLong(final int rowIdx, final int columnIdx) {
+    final Series series = metricSeries(columnIdx);
+    return series.isNull(rowIdx) ? null : series.getLong(rowIdx);
+  }
+
+  @Override
+  public Double getDouble(final int rowIdx, final int columnIdx) {
+    final Series series = metricSeries(columnIdx);
+    return series.isNull(rowIdx) ? null : series.getDouble(rowIdx);
+  }
+
+  private Series metricSeries(final int columnIdx) {
+    Preconditions.checkPositionIndexes(0, columnIdx,
+        thirdEyeResultSetMetaData.getMetricColumnNames().size() - 1);
+    return dataFrame.get(thirdEyeResultSetMetaData.getMetricColumnNames().get(columnIdx));
+  }
+
   @Override
   public int getGroupKeyLength() {
     return thirdEyeResultSetMetaData.getGroupKeyColumnNames().size();
@@ -20,7 +20,9 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import org.asynchttpclient.AsyncHttpClient;
@@ -46,16 +48,23 @@ public class ForkedJsonAsyncHttpPinotClientTransport implements PinotClientTrans
   private final String _scheme;
   private final AsyncHttpClient _httpClient;
   private final int brokerResponseTimeoutMs;
+  private final Executor responseExecutor;
 
 
   public ForkedJsonAsyncHttpPinotClientTransport(
       final Map<String, String> headers,
       final String scheme,
-      final AsyncHttpClient httpClient, final int brokerResponseTimeoutMs) {
+      final AsyncHttpClient httpClient, final int brokerResponseTimeoutMs,
+      final Executor responseExecutor) {
     _headers = headers;
     _scheme = scheme;
     _httpClient = httpClient;
     this.brokerResponseTimeoutMs = brokerResponseTimeoutMs;
+    this.responseExecutor = responseExecutor;
+  }
+
+  public Executor getResponseExecutor() {
+    return responseExecutor;
   }
 
   @Override
@@ -77,28 +86,8 @@ public class ForkedJsonAsyncHttpPinotClientTransport implements PinotClientTrans
   public Future<BrokerResponse> executePinotQueryAsync(String brokerAddress,
       final Request request) {
     try {
-      ObjectNode json = JsonNodeFactory.instance.objectNode();
-      String queryFormat = request.getQueryFormat();
-      json.put(queryFormat, request.getQuery());
-
-      final String url;
-      if (queryFormat.equalsIgnoreCase("sql")) {
-        url = _scheme + "://" + brokerAddress + "/query/sql";
-        json.put("queryOptions", "groupByMode=sql;responseFormat=sql");
-      } else {
-        url = _scheme + "://" + brokerAddress + "/query";
-      }
-
-      BoundRequestBuilder requestBuilder = _httpClient.preparePost(url);
-
-      if (_headers != null) {
-        _headers.forEach((k, v) -> requestBuilder.addHeader(k, v));
-      }
-
-      final Future<Response> response =
-          requestBuilder.addHeader("Content-Type", "application/json; charset=utf-8")
-              .setBody(json.toString())
-              .execute();
+      final String url = url(brokerAddress, request);
+      final Future<Response> response = prepareRequest(url, request).execute();
 
       return new BrokerResponseFuture(
           response,
@@ -110,6 +99,68 @@ public class ForkedJsonAsyncHttpPinotClientTransport implements PinotClientTrans
     }
   }
 
+  /**
+   * Does not block: the returned future is completed when the response is received and parsed,
+   * or exceptionally after brokerResponseTimeoutMs. The response is parsed on the
+   * responseExecutor, not on the IO threads of the http client.
+   */
+  public CompletableFuture<BrokerResponse> executeQueryNonBlocking(final String brokerAddress,
+      final Request request) {
+    try {
+      final String url = url(brokerAddress, request);
+      LOGGER.debug("Sending query {} to {}", request.getQuery(), url);
+      return prepareRequest(url, request)
+          .execute()
+          .toCompletableFuture()
+          .orTimeout(brokerResponseTimeoutMs, TimeUnit.MILLISECONDS)
+          .thenApplyAsync(ForkedJsonAsyncHttpPinotClientTransport::toBrokerResponse,
+              responseExecutor);
+    } catch (Exception e) {
+      return CompletableFuture.failedFuture(new PinotClientException(e));
+    }
+  }
+
+  private String url(final String brokerAddress, final Request request) {
+    if (request.getQueryFormat().equalsIgnoreCase("sql")) {
+      return _scheme + "://" + brokerAddress + "/query/sql";
+    }
+    return _scheme + "://" + brokerAddress + "/query";
+  }
+
+  private BoundRequestBuilder prepareRequest(final String url, final Request request) {
+    ObjectNode json = JsonNodeFactory.instance.objectNode();
+    String queryFormat = request.getQueryFormat();
+    json.put(queryFormat, request.getQuery());
+    if (queryFormat.equalsIgnoreCase("sql")) {
+      json.put("queryOptions", "groupByMode=sql;responseFormat=sql");
+    }
+
+    BoundRequestBuilder requestBuilder = _httpClient.preparePost(url);
+
+    if (_headers != null) {
+      _headers.forEach((k, v) -> requestBuilder.addHeader(k, v));
+    }
+
+    return requestBuilder.addHeader("Content-Type", "application/json; charset=utf-8")
+        .setBody(json.toString());
+  }
+
+  private static BrokerResponse toBrokerResponse(final Response httpResponse) {
+    LOGGER.debug("Completed query, HTTP status is {}", httpResponse.getStatusCode());
+
+    if (httpResponse.getStatusCode() != 200) {
+      throw new PinotClientException(
+          "Pinot returned HTTP status " + httpResponse.getStatusCode() + ", expected 200");
+    }
+
+    try {
+      String responseBody = httpResponse.getResponseBody(StandardCharsets.UTF_8);
+      return BrokerResponse.fromJson(OBJECT_READER.readTree(responseBody));
+    } catch (IOException e) {
+      throw new PinotClientException(e);
+    }
+  }
+
   @Override
   public BrokerResponse executeQuery(String brokerAddress, Request request)
       throws PinotClientException {
@@ -184,15 +235,7 @@ public class ForkedJsonAsyncHttpPinotClientTransport implements PinotClientTrans
 
         Response httpResponse = _response.get(timeout, unit);
 
-        LOGGER.debug("Completed query, HTTP status is {}", httpResponse.getStatusCode());
-
-        if (httpResponse.getStatusCode() != 200) {
-          throw new PinotClientException(
-              "Pinot returned HTTP status " + httpResponse.getStatusCode() + ", expected 200");
-        }
-
-        String responseBody = httpResponse.getResponseBody(StandardCharsets.UTF_8);
-        return BrokerResponse.fromJson(OBJECT_READER.readTree(responseBody));
+        return toBrokerResponse(httpResponse);
       } catch (Exception e) {
         throw new ExecutionException(e);
       }
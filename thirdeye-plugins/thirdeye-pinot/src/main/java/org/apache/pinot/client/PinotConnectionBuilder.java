@@ -20,6 +20,7 @@ import static java.util.Objects.requireNonNull;
 
 import ai.startree.thirdeye.plugins.datasource.pinot.PinotThirdEyeDataSourceConfig;
 import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.Executor;
 import javax.inject.Singleton;
 import javax.net.ssl.SSLContext;
 import org.slf4j.Logger;
@@ -30,21 +31,27 @@ public class PinotConnectionBuilder {
 
   private static final Logger LOG = LoggerFactory.getLogger(PinotConnectionBuilder.class);
 
-  public Connection createConnection(final PinotThirdEyeDataSourceConfig config) {
+  /**
+   * @param responseExecutor parses the broker responses of the non-blocking queries
+   */
+  public ThirdEyePinotConnection createConnection(final PinotThirdEyeDataSourceConfig config,
+      final Executor responseExecutor) {
     final String brokerUrl = config.getBrokerUrl();
-    final PinotClientTransport transport = buildTransport(config);
+    final ForkedJsonAsyncHttpPinotClientTransport transport = buildTransport(config,
+        responseExecutor);
 
-    final Connection connection;
+    final ThirdEyePinotConnection connection;
     if (brokerUrl != null && brokerUrl.trim().length() > 0) {
-      connection = ConnectionFactory.fromHostList(singletonList(brokerUrl), transport);
+      connection = new ThirdEyePinotConnection(new SimpleBrokerSelector(singletonList(brokerUrl)),
+          transport);
       LOG.info("Created pinot transport with brokers [{}]", brokerUrl);
     } else {
       final String zookeeperUrl = requireNonNull(config.getZookeeperUrl(),
           "zookeeperUrl is required if brokerUrl is not provided").trim();
       checkArgument(zookeeperUrl.length() > 0, "if provided, zookeeperUrl cannot be empty");
-      connection = ConnectionFactory.fromZookeeper(String.format("%s/%s",
+      connection = new ThirdEyePinotConnection(new DynamicBrokerSelector(String.format("%s/%s",
           zookeeperUrl,
-          config.getClusterName()), transport);
+          config.getClusterName())), transport);
       LOG.info("Created pinot transport with controller {}:{}",
           config.getControllerHost(),
           config.getControllerPort());
@@ -52,10 +59,11 @@ public class PinotConnectionBuilder {
     return connection;
   }
 
-  private PinotClientTransport buildTransport(
-      final PinotThirdEyeDataSourceConfig config) {
+  private ForkedJsonAsyncHttpPinotClientTransport buildTransport(
+      final PinotThirdEyeDataSourceConfig config, final Executor responseExecutor) {
     final ThirdEyeJsonAsyncHttpPinotClientTransportFactory factory =
-        new ThirdEyeJsonAsyncHttpPinotClientTransportFactory();
+        new ThirdEyeJsonAsyncHttpPinotClientTransportFactory()
+            .setResponseExecutor(responseExecutor);
 
     optional(config.getControllerConnectionScheme()).ifPresent(
         schema -> {
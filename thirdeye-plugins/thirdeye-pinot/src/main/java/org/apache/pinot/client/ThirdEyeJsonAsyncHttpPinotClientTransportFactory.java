@@ -13,10 +13,13 @@
  */
 package org.apache.pinot.client;
 
+import static java.util.Objects.requireNonNull;
+
 import io.netty.handler.ssl.ClientAuth;
 import io.netty.handler.ssl.JdkSslContext;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Executor;
 import javax.net.ssl.SSLContext;
 import org.apache.pinot.spi.utils.CommonConstants;
 import org.asynchttpclient.AsyncHttpClient;
@@ -25,6 +28,8 @@ import org.asynchttpclient.Dsl;
 
 public class ThirdEyeJsonAsyncHttpPinotClientTransportFactory implements PinotClientTransportFactory {
 
+  public static final int DEFAULT_BROKER_RESPONSE_TIMEOUT_MS = 60000;
+
   private Map<String, String> headers = new HashMap<>();
   private String scheme = CommonConstants.HTTP_PROTOCOL;
   private SSLContext sslContext = null;
@@ -32,7 +37,8 @@ public class ThirdEyeJsonAsyncHttpPinotClientTransportFactory implements PinotCl
   private int readTimeoutMs = 60000;
   private int requestTimeoutMs = 60000;
   private int connectTimeoutMs = 2000;
-  private int brokerResponseTimeoutMs = 60000;
+  private int brokerResponseTimeoutMs = DEFAULT_BROKER_RESPONSE_TIMEOUT_MS;
+  private Executor responseExecutor;
 
   public ThirdEyeJsonAsyncHttpPinotClientTransportFactory setHeaders(
       final Map<String, String> headers) {
@@ -74,8 +80,15 @@ public class ThirdEyeJsonAsyncHttpPinotClientTransportFactory implements PinotCl
     return this;
   }
 
+  public ThirdEyeJsonAsyncHttpPinotClientTransportFactory setResponseExecutor(
+      final Executor responseExecutor) {
+    this.responseExecutor = responseExecutor;
+    return this;
+  }
+
   @Override
-  public PinotClientTransport buildTransport() {
+  public ForkedJsonAsyncHttpPinotClientTransport buildTransport() {
+    requireNonNull(responseExecutor, "responseExecutor is not set");
     final Builder builder = Dsl.config();
     if (sslContext != null) {
       builder.setSslContext(new JdkSslContext(sslContext, true, ClientAuth.OPTIONAL));
@@ -90,6 +103,7 @@ public class ThirdEyeJsonAsyncHttpPinotClientTransportFactory implements PinotCl
     return new ForkedJsonAsyncHttpPinotClientTransport(headers,
         scheme,
         _httpClient,
-        brokerResponseTimeoutMs);
+        brokerResponseTimeoutMs,
+        responseExecutor);
   }
 }
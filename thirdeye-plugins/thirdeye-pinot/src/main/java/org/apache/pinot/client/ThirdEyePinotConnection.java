@@ -0,0 +1,52 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.pinot.client;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Pinot connection that can run queries without blocking a thread during the http round trip.
+ */
+public class ThirdEyePinotConnection extends Connection {
+
+  private final BrokerSelector brokerSelector;
+  private final ForkedJsonAsyncHttpPinotClientTransport transport;
+
+  public ThirdEyePinotConnection(final BrokerSelector brokerSelector,
+      final ForkedJsonAsyncHttpPinotClientTransport transport) {
+    super(brokerSelector, transport);
+    this.brokerSelector = brokerSelector;
+    this.transport = transport;
+  }
+
+  /**
+   * Non-blocking version of {@link #execute(String, Request)}. The result set group is built on
+   * the response executor of the transport.
+   */
+  public CompletableFuture<ResultSetGroup> executeNonBlocking(final String tableName,
+      final Request request) {
+    final String brokerAddress = brokerSelector.selectBroker(tableName);
+    if (brokerAddress == null) {
+      return CompletableFuture.failedFuture(new PinotClientException(
+          "Could not find broker to query for table: " + tableName));
+    }
+    return transport.executeQueryNonBlocking(brokerAddress, request).thenApplyAsync(response -> {
+      if (response.hasExceptions()) {
+        throw new PinotClientException(
+            "Query had processing exceptions: \n" + response.getExceptions());
+      }
+      return new ResultSetGroup(response);
+    }, transport.getResponseExecutor());
+  }
+}
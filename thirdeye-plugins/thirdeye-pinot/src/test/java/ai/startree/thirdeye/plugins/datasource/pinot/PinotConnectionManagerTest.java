@@ -25,8 +25,8 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
-import org.apache.pinot.client.Connection;
 import org.apache.pinot.client.PinotConnectionBuilder;
+import org.apache.pinot.client.ThirdEyePinotConnection;
 import org.testng.annotations.Test;
 
 public class PinotConnectionManagerTest {
@@ -38,8 +38,8 @@ public class PinotConnectionManagerTest {
     final PinotConnectionManager pinotConnectionManager = new PinotConnectionManager(
         pinotConnectionBuilder, config, new PinotOauthTokenSupplier(config));
 
-    final Connection connection = mock(Connection.class);
-    when(pinotConnectionBuilder.createConnection(any(PinotThirdEyeDataSourceConfig.class)))
+    final ThirdEyePinotConnection connection = mock(ThirdEyePinotConnection.class);
+    when(pinotConnectionBuilder.createConnection(any(PinotThirdEyeDataSourceConfig.class), any()))
         .thenReturn(connection);
 
     assertThat(pinotConnectionManager.get()).isEqualTo(connection);
@@ -49,7 +49,7 @@ public class PinotConnectionManagerTest {
 
     /* Create should be called once */
     verify(pinotConnectionBuilder, times(1))
-        .createConnection(any(PinotThirdEyeDataSourceConfig.class));
+        .createConnection(any(PinotThirdEyeDataSourceConfig.class), any());
   }
 
   @Test
@@ -68,8 +68,8 @@ public class PinotConnectionManagerTest {
     final PinotConnectionManager pinotConnectionManager = new PinotConnectionManager(
         pinotConnectionBuilder, config, new PinotOauthTokenSupplier(config));
 
-    final Connection connection = mock(Connection.class);
-    when(pinotConnectionBuilder.createConnection(any(PinotThirdEyeDataSourceConfig.class)))
+    final ThirdEyePinotConnection connection = mock(ThirdEyePinotConnection.class);
+    when(pinotConnectionBuilder.createConnection(any(PinotThirdEyeDataSourceConfig.class), any()))
         .thenReturn(connection);
 
     assertThat(pinotConnectionManager.get()).isEqualTo(connection);
@@ -79,22 +79,22 @@ public class PinotConnectionManagerTest {
 
     /* Create should be called once */
     verify(pinotConnectionBuilder, times(1))
-        .createConnection(any(PinotThirdEyeDataSourceConfig.class));
+        .createConnection(any(PinotThirdEyeDataSourceConfig.class), any());
 
 
     writeToken(file, "newToken");
 
-    final Connection newConnection = mock(Connection.class);
+    final ThirdEyePinotConnection newConnection = mock(ThirdEyePinotConnection.class);
     assertThat(newConnection).isNotEqualTo(connection);
-    when(pinotConnectionBuilder.createConnection(any(PinotThirdEyeDataSourceConfig.class)))
+    when(pinotConnectionBuilder.createConnection(any(PinotThirdEyeDataSourceConfig.class), any()))
         .thenReturn(newConnection);
 
     /* Call third time */
-    final Connection actual = pinotConnectionManager.get();
+    final ThirdEyePinotConnection actual = pinotConnectionManager.get();
     assertThat(actual).isEqualTo(newConnection);
     /* Create should be called twice */
     verify(pinotConnectionBuilder, times(2))
-        .createConnection(any(PinotThirdEyeDataSourceConfig.class));
+        .createConnection(any(PinotThirdEyeDataSourceConfig.class), any());
 
     verify(connection, timeout(1000)).close();
   }
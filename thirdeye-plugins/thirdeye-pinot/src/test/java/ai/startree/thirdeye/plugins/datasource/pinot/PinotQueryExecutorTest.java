@@ -13,10 +13,33 @@
  */
 package ai.startree.thirdeye.plugins.datasource.pinot;
 
+import static ai.startree.thirdeye.spi.util.ExecutorUtils.threadsNamed;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
+import ai.startree.thirdeye.plugins.datasource.pinot.resultset.ThirdEyeDataFrameResultSet;
+import ai.startree.thirdeye.plugins.datasource.pinot.resultset.ThirdEyeResultSetGroup;
+import ai.startree.thirdeye.spi.dataframe.BooleanSeries;
+import ai.startree.thirdeye.spi.dataframe.DataFrame;
+import ai.startree.thirdeye.spi.dataframe.DoubleSeries;
+import ai.startree.thirdeye.spi.dataframe.LongSeries;
+import ai.startree.thirdeye.spi.dataframe.StringSeries;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.apache.pinot.client.PinotClientException;
+import org.apache.pinot.client.PinotConnectionBuilder;
+import org.apache.pinot.client.ResultSetGroup;
+import org.apache.pinot.client.ResultTableResultSet;
+import org.apache.pinot.client.ThirdEyePinotConnection;
 import org.testng.annotations.Test;
 
 public class PinotQueryExecutorTest {
@@ -56,4 +79,83 @@ public class PinotQueryExecutorTest {
     assertThat(output).isEqualTo(expectedOptionString+BASE_QUERY);
 
   }
+
+  @Test
+  public void testFromPinotResultSetBuildsTypedColumns() throws Exception {
+    final String resultTable = "{"
+        + "\"dataSchema\": {"
+        + "\"columnNames\": [\"ts\", \"count\", \"avg\", \"flag\", \"country\"],"
+        + "\"columnDataTypes\": [\"LONG\", \"INT\", \"DOUBLE\", \"BOOLEAN\", \"STRING\"]"
+        + "},"
+        + "\"rows\": ["
+        + "[1609459200000, 3, 1.5, true, \"US\"],"
+        + "[1609462800000, null, null, null, \"FR\"]"
+        + "]}";
+    final ThirdEyeDataFrameResultSet resultSet = PinotQueryExecutor.fromPinotResultSet(
+        new ResultTableResultSet(new ObjectMapper().readTree(resultTable)));
+
+    final DataFrame expected = new DataFrame()
+        .addSeries("ts", LongSeries.buildFrom(1609459200000L, 1609462800000L))
+        .addSeries("count", LongSeries.buildFrom(3L, LongSeries.NULL))
+        .addSeries("avg", DoubleSeries.buildFrom(1.5, DoubleSeries.NULL))
+        .addSeries("flag", BooleanSeries.buildFrom(BooleanSeries.TRUE, BooleanSeries.NULL))
+        .addSeries("country", StringSeries.buildFrom("US", "FR"));
+    assertThat(new ThirdEyeResultSetDataTable(resultSet).getDataFrame()).isEqualTo(expected);
+    assertThat(resultSet.getLong(0, 1)).isEqualTo(3L);
+    assertThat(resultSet.getDouble(1, 2)).isNull();
+    assertThat(resultSet.getString(0, 4)).isEqualTo("US");
+  }
+
+  @Test
+  public void testLoadAsyncConvertsTheResponseOnTheResponseExecutor() throws Exception {
+    final ExecutorService responseExecutor = Executors.newSingleThreadExecutor(
+        threadsNamed("test-pinot-response-%d"));
+    try {
+      final CompletableFuture<ResultSetGroup> response = new CompletableFuture<>();
+      final ThirdEyePinotConnection connection = mock(ThirdEyePinotConnection.class);
+      when(connection.executeNonBlocking(any(), any())).thenReturn(response);
+      final PinotConnectionManager connectionManager = mock(PinotConnectionManager.class);
+      when(connectionManager.get()).thenReturn(connection);
+      when(connectionManager.getResponseExecutor()).thenReturn(responseExecutor);
+      when(connectionManager.track(any())).thenAnswer(i -> i.getArgument(0));
+
+      final CompletableFuture<String> conversionThread = new PinotQueryExecutor(connectionManager)
+          .loadAsync(new PinotQuery(BASE_QUERY, null, Map.of()))
+          .thenApply(resultSetGroup -> Thread.currentThread().getName());
+      // completed by the test thread, like the http client completes it on an IO thread
+      response.complete(mock(ResultSetGroup.class));
+
+      assertThat(conversionThread.get(10, TimeUnit.SECONDS)).startsWith("test-pinot-response-");
+    } finally {
+      responseExecutor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testLoadAsyncFailsWhenTheConnectionManagerIsClosed() {
+    final CompletableFuture<ResultSetGroup> response = new CompletableFuture<>();
+    final ThirdEyePinotConnection connection = mock(ThirdEyePinotConnection.class);
+    when(connection.executeNonBlocking(any(), any())).thenReturn(response);
+    final PinotConnectionBuilder connectionBuilder = mock(PinotConnectionBuilder.class);
+    when(connectionBuilder.createConnection(any(PinotThirdEyeDataSourceConfig.class), any()))
+        .thenReturn(connection);
+    final PinotThirdEyeDataSourceConfig config = new PinotThirdEyeDataSourceConfig();
+    final PinotConnectionManager connectionManager = new PinotConnectionManager(connectionBuilder,
+        config,
+        new PinotOauthTokenSupplier(config));
+    final PinotQueryExecutor queryExecutor = new PinotQueryExecutor(connectionManager);
+
+    final CompletableFuture<ThirdEyeResultSetGroup> inFlight = queryExecutor.loadAsync(
+        new PinotQuery(BASE_QUERY, null, Map.of()));
+    connectionManager.close();
+    // the response arrives after the close: its conversion is rejected, not silently dropped
+    response.complete(mock(ResultSetGroup.class));
+
+    assertThatThrownBy(() -> inFlight.get(10, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(PinotClientException.class);
+    assertThatThrownBy(() -> queryExecutor.loadAsync(new PinotQuery(BASE_QUERY, null, Map.of()))
+        .get(10, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class);
+  }
 }
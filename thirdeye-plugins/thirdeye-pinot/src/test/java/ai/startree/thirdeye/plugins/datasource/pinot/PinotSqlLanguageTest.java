@@ -0,0 +1,114 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.plugins.datasource.pinot;
+
+import static ai.startree.thirdeye.spi.datasource.loader.AggregationLoader.COL_DIMENSION_NAME;
+import static ai.startree.thirdeye.spi.datasource.loader.AggregationLoader.COL_DIMENSION_VALUE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ai.startree.thirdeye.datasource.cache.DataSourceCache;
+import ai.startree.thirdeye.datasource.loader.DefaultAggregationLoader;
+import ai.startree.thirdeye.detectionpipeline.sql.SqlLanguageTranslator;
+import ai.startree.thirdeye.spi.Constants;
+import ai.startree.thirdeye.spi.dataframe.DataFrame;
+import ai.startree.thirdeye.spi.dataframe.DoubleSeries;
+import ai.startree.thirdeye.spi.dataframe.StringSeries;
+import ai.startree.thirdeye.spi.datalayer.Templatable;
+import ai.startree.thirdeye.spi.datalayer.dto.DataSourceDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.DatasetConfigDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.MetricConfigDTO;
+import ai.startree.thirdeye.spi.datasource.DataSourceRequest;
+import ai.startree.thirdeye.spi.datasource.ThirdEyeDataSource;
+import ai.startree.thirdeye.spi.detection.v2.SimpleDataTable;
+import ai.startree.thirdeye.spi.metric.MetricSlice;
+import ai.startree.thirdeye.util.CalciteUtils;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.sql.SqlNode;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.Interval;
+import org.mockito.ArgumentCaptor;
+import org.testng.annotations.Test;
+
+public class PinotSqlLanguageTest {
+
+  private static final Interval INTERVAL = new Interval(
+      new DateTime(2022, 1, 1, 0, 0, 0, DateTimeZone.UTC),
+      new DateTime(2022, 1, 2, 0, 0, 0, DateTimeZone.UTC));
+
+  private static MetricSlice slice() {
+    final DatasetConfigDTO datasetConfigDTO = new DatasetConfigDTO()
+        .setDataset("pageviews")
+        .setTimeColumn("ts")
+        .setTimeFormat("EPOCH_MILLIS")
+        .setDimensions(Templatable.of(List.of("country", "browser")));
+    final MetricConfigDTO metricConfigDTO = new MetricConfigDTO()
+        .setName("views")
+        .setAggregationColumn("views")
+        .setDefaultAggFunction("SUM");
+    return MetricSlice.from(metricConfigDTO, INTERVAL, datasetConfigDTO, new DataSourceDTO());
+  }
+
+  @Test
+  public void testUnionAllIsDisabledByDefault() {
+    assertThat(new PinotSqlLanguage(new PinotThirdEyeDataSourceConfig()).supportsUnionAll())
+        .isFalse();
+    assertThat(PinotThirdEyeDataSourceUtils.buildConfig(Map.of("controllerHost", "localhost",
+        "controllerPort", 9000,
+        "clusterName", "cluster",
+        "controllerConnectionScheme", "http",
+        "multistageEngineEnabled", true)).isMultistageEngineEnabled()).isTrue();
+  }
+
+  @Test
+  public void testLoadBreakdownRunsASingleMultistageQuery() throws Exception {
+    final PinotSqlLanguage sqlLanguage = new PinotSqlLanguage(new PinotThirdEyeDataSourceConfig()
+        .setMultistageEngineEnabled(true));
+    final ThirdEyeDataSource dataSource = mock(ThirdEyeDataSource.class);
+    when(dataSource.getSqlLanguage()).thenReturn(sqlLanguage);
+    when(dataSource.getSqlExpressionBuilder()).thenReturn(new PinotSqlExpressionBuilder());
+    when(dataSource.fetchDataTableAsync(any())).thenReturn(CompletableFuture.completedFuture(
+        SimpleDataTable.fromDataFrame(new DataFrame()
+            .addSeries(Constants.COL_VALUE, DoubleSeries.buildFrom(30, 10, 25))
+            .addSeries(COL_DIMENSION_NAME, StringSeries.buildFrom("country", "country", "browser"))
+            .addSeries(COL_DIMENSION_VALUE, StringSeries.buildFrom("US", "FR", "chrome")))));
+    final DataSourceCache dataSourceCache = mock(DataSourceCache.class);
+    when(dataSourceCache.getDataSource(any())).thenReturn(dataSource);
+
+    final DataFrame breakdown = new DefaultAggregationLoader(dataSourceCache)
+        .loadBreakdown(slice(), 5);
+
+    final ArgumentCaptor<DataSourceRequest> requestCaptor = ArgumentCaptor.forClass(
+        DataSourceRequest.class);
+    verify(dataSource, times(1)).fetchDataTableAsync(requestCaptor.capture());
+    final DataSourceRequest request = requestCaptor.getValue();
+    assertThat(request.getOptions()).containsEntry("useMultistageEngine", "true");
+    assertThat(request.getQuery()).contains("UNION ALL");
+    // the query sent to Pinot must be valid in the Pinot SQL language
+    final SqlNode node = CalciteUtils.queryToNode(request.getQuery(),
+        SqlLanguageTranslator.translate(sqlLanguage.getSqlParserConfig()));
+    assertThat(node.getKind()).isEqualTo(SqlKind.UNION);
+    assertThat(breakdown.size()).isEqualTo(3);
+    assertThat(DefaultAggregationLoader.makeBreakdownMap(breakdown, new DataFrame()))
+        .containsOnlyKeys("country", "browser");
+  }
+}
@@ -18,6 +18,7 @@ import static ai.startree.thirdeye.spi.Constants.CRON_TIMEZONE;
 import static ai.startree.thirdeye.spi.util.ExecutorUtils.shutdownExecutionService;
 import static ai.startree.thirdeye.spi.util.TimeUtils.maximumTriggersPerMinute;
 
+import ai.startree.thirdeye.scheduler.EntityChangeFeed.Changes;
 import ai.startree.thirdeye.scheduler.job.DetectionPipelineJob;
 import ai.startree.thirdeye.spi.datalayer.bao.AlertManager;
 import ai.startree.thirdeye.spi.datalayer.dto.AbstractDTO;
@@ -26,12 +27,15 @@ import ai.startree.thirdeye.spi.task.TaskType;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import java.time.Duration;
 import java.util.List;
 import java.util.Set;
 import java.util.TimeZone;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.quartz.CronScheduleBuilder;
 import org.quartz.CronTrigger;
 import org.quartz.JobBuilder;
@@ -60,12 +64,18 @@ public class DetectionCronScheduler implements Runnable {
   private final Scheduler scheduler;
   private final ScheduledExecutorService executorService;
   private final int alertDelay;
+  // null if incremental sync is disabled
+  private final @Nullable EntityChangeFeed<AlertDTO> alertChangeFeed;
 
   @Inject
   public DetectionCronScheduler(final ThirdEyeSchedulerConfiguration thirdEyeSchedulerConfiguration,
       final AlertManager alertManager) {
     this.alertManager = alertManager;
     alertDelay = thirdEyeSchedulerConfiguration.getAlertUpdateDelay();
+    alertChangeFeed = thirdEyeSchedulerConfiguration.isIncrementalSync()
+        ? new EntityChangeFeed<>(alertManager,
+        Duration.ofSeconds(thirdEyeSchedulerConfiguration.getFullSyncPeriod()))
+        : null;
     executorService = Executors.newSingleThreadScheduledExecutor(
         new ThreadFactoryBuilder().setNameFormat("detection-cron-%d").build());
     try {
@@ -92,8 +102,19 @@ public class DetectionCronScheduler implements Runnable {
   @Override
   public void run() {
     try {
-      alertManager.findAll().forEach(this::processAlert);
-      processScheduledJobs();
+      if (alertChangeFeed == null) {
+        final List<AlertDTO> alerts = alertManager.findAll();
+        alerts.forEach(this::processAlert);
+        processScheduledJobs(alerts);
+        return;
+      }
+      final Changes<AlertDTO> changes = alertChangeFeed.poll();
+      changes.changed().forEach(this::processAlert);
+      if (changes.full()) {
+        processScheduledJobs(changes.changed());
+      } else {
+        processDeletedAlerts(changes.deletedIds());
+      }
     } catch (final SchedulerException e) {
       LOG.error("Error while scheduling detection pipeline", e);
     }
@@ -102,6 +123,7 @@ public class DetectionCronScheduler implements Runnable {
   private void processAlert(final AlertDTO alert) {
     if (!alert.isActive()) {
       LOG.debug("Alert: " + alert.getId() + " is inactive. Skipping.");
+      stopJobIfScheduled(alert.getId());
       return;
     }
 
@@ -128,11 +150,23 @@ public class DetectionCronScheduler implements Runnable {
     }
   }
 
-  private void processScheduledJobs() throws SchedulerException {
+  /**
+   * Stops the jobs of the alerts that are not in the list of active alerts. The alert is read
+   * again from the database before its job is stopped: it may have been created or activated
+   * after the list was fetched.
+   */
+  private void processScheduledJobs(final List<AlertDTO> alerts) throws SchedulerException {
+    final Set<Long> activeAlertIds = alerts.stream()
+        .filter(AlertDTO::isActive)
+        .map(AbstractDTO::getId)
+        .collect(Collectors.toSet());
     final Set<JobKey> scheduledJobs = getScheduledJobs();
     for (final JobKey jobKey : scheduledJobs) {
       try {
         final Long id = getIdFromJobKey(jobKey.getName());
+        if (activeAlertIds.contains(id)) {
+          continue;
+        }
         final AlertDTO detectionDTO = alertManager.findById(id);
         if (detectionDTO == null) {
           LOG.info("Found a scheduled detection config task, but not found in the database {}",
@@ -148,6 +182,25 @@ public class DetectionCronScheduler implements Runnable {
     }
   }
 
+  private void processDeletedAlerts(final Set<Long> deletedAlertIds) {
+    for (final Long id : deletedAlertIds) {
+      LOG.info("Alert {} has been deleted", id);
+      stopJobIfScheduled(id);
+    }
+  }
+
+  private void stopJobIfScheduled(final Long alertId) {
+    final JobKey jobKey = new JobKey(getJobKey(alertId, TaskType.DETECTION),
+        QUARTZ_DETECTION_GROUPER);
+    try {
+      if (scheduler.checkExists(jobKey)) {
+        stopJob(jobKey);
+      }
+    } catch (final SchedulerException e) {
+      LOG.error("Error removing job key {}", jobKey, e);
+    }
+  }
+
   private void restartJob(final AlertDTO config, final JobDetail job) throws SchedulerException {
     stopJob(job.getKey());
     startJob(config, job);
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.scheduler;
+
+import ai.startree.thirdeye.spi.datalayer.Predicate;
+import ai.startree.thirdeye.spi.datalayer.bao.AbstractManager;
+import ai.startree.thirdeye.spi.datalayer.dto.AbstractDTO;
+import com.google.common.annotations.VisibleForTesting;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Incremental view of the entities of a manager, for the cron schedulers.
+ *
+ * Each poll returns the entities created or updated since the previous poll, and the ids of the
+ * entities deleted since the previous poll. Only the changed entities are fetched and
+ * deserialized:
+ * - changes are found with the updateTime and createTime columns of the index table
+ * - deletions are found by comparing the ids of the index table with the known ids
+ * - ids that appear without a recent updateTime or createTime are fetched as well
+ *
+ * updateTime is set by the application servers. The high-water mark lags behind the time of the
+ * poll by UPDATE_TIME_MARGIN, so that updates committed late or written by a server with a
+ * late clock are not missed. Entities updated within the margin are returned again by the next
+ * poll: consumers must be idempotent.
+ *
+ * As a safety net, all the entities are returned every fullSyncPeriod.
+ */
+public class EntityChangeFeed<E extends AbstractDTO> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(EntityChangeFeed.class);
+  private static final Duration UPDATE_TIME_MARGIN = Duration.ofMinutes(1);
+
+  private final AbstractManager<E> manager;
+  private final Duration fullSyncPeriod;
+  private final Clock clock;
+
+  private Set<Long> knownIds = null;
+  private long lastFullSyncMillis;
+  private long highWaterMarkMillis;
+
+  public EntityChangeFeed(final AbstractManager<E> manager, final Duration fullSyncPeriod) {
+    this(manager, fullSyncPeriod, Clock.systemUTC());
+  }
+
+  @VisibleForTesting
+  EntityChangeFeed(final AbstractManager<E> manager, final Duration fullSyncPeriod,
+      final Clock clock) {
+    this.manager = manager;
+    this.fullSyncPeriod = fullSyncPeriod;
+    this.clock = clock;
+  }
+
+  /**
+   * Not thread-safe. Must be called by a single scheduler thread.
+   */
+  public Changes<E> poll() {
+    final long nowMillis = clock.millis();
+    if (knownIds == null || nowMillis - lastFullSyncMillis >= fullSyncPeriod.toMillis()) {
+      final List<E> entities = manager.findAll();
+      knownIds = idsOf(entities);
+      lastFullSyncMillis = nowMillis;
+      highWaterMarkMillis = nowMillis - UPDATE_TIME_MARGIN.toMillis();
+      return new Changes<>(true, entities, Set.of());
+    }
+
+    final Set<Long> currentIds = new HashSet<>(manager.findIds(null));
+    final Timestamp highWaterMark = new Timestamp(highWaterMarkMillis);
+    final Map<Long, E> changed = new LinkedHashMap<>();
+    manager.findByPredicate(Predicate.OR(
+            Predicate.GE("updateTime", highWaterMark),
+            Predicate.GE("createTime", highWaterMark)))
+        .forEach(e -> changed.put(e.getId(), e));
+    final List<Long> unknownIds = new ArrayList<>();
+    for (final Long id : currentIds) {
+      if (!knownIds.contains(id) && !changed.containsKey(id)) {
+        unknownIds.add(id);
+      }
+    }
+    if (!unknownIds.isEmpty()) {
+      manager.findByIds(unknownIds).forEach(e -> changed.put(e.getId(), e));
+    }
+    final Set<Long> deletedIds = new HashSet<>(knownIds);
+    deletedIds.removeAll(currentIds);
+
+    knownIds = currentIds;
+    highWaterMarkMillis = nowMillis - UPDATE_TIME_MARGIN.toMillis();
+    LOG.debug("Incremental sync: {} changed entities, {} deleted entities",
+        changed.size(),
+        deletedIds.size());
+    return new Changes<>(false, List.copyOf(changed.values()), deletedIds);
+  }
+
+  private static <E extends AbstractDTO> Set<Long> idsOf(final List<E> entities) {
+    final Set<Long> ids = new HashSet<>(entities.size());
+    for (final E entity : entities) {
+      ids.add(entity.getId());
+    }
+    return ids;
+  }
+
+  /**
+   * @param full if true, changed contains all the entities and deletedIds is empty. The
+   *     consumer must reconcile with the full list.
+   * @param changed the entities created or updated since the previous poll
+   * @param deletedIds the ids of the entities deleted since the previous poll
+   */
+  public record Changes<E>(boolean full, List<E> changed, Set<Long> deletedIds) {}
+}
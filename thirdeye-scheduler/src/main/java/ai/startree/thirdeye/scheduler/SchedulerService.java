@@ -110,7 +110,9 @@ public class SchedulerService implements Managed {
     try {
       taskManager.purge(
           Duration.ofDays(config.getRetentionInDays()),
-          config.getMaxEntriesToDelete());
+          config.getMaxEntriesToDelete(),
+          config.getDeleteChunkSize(),
+          Duration.ofMillis(config.getPauseBetweenChunksInMillis()));
     } catch (Exception e) {
       // catching exceptions only. errors will be escalated.
       LOG.error("Error occurred during task purge", e);
@@ -19,6 +19,7 @@ import static ai.startree.thirdeye.spi.util.ExecutorUtils.shutdownExecutionServi
 import static ai.startree.thirdeye.spi.util.TimeUtils.maximumTriggersPerMinute;
 import static java.util.stream.Collectors.toList;
 
+import ai.startree.thirdeye.scheduler.EntityChangeFeed.Changes;
 import ai.startree.thirdeye.scheduler.job.NotificationPipelineJob;
 import ai.startree.thirdeye.spi.datalayer.bao.SubscriptionGroupManager;
 import ai.startree.thirdeye.spi.datalayer.dto.SubscriptionGroupDTO;
@@ -27,12 +28,15 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import java.time.Duration;
 import java.util.List;
 import java.util.Set;
 import java.util.TimeZone;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.quartz.CronScheduleBuilder;
 import org.quartz.CronTrigger;
 import org.quartz.JobBuilder;
@@ -65,6 +69,8 @@ public class SubscriptionCronScheduler implements Runnable {
   private final SubscriptionGroupManager subscriptionGroupManager;
 
   private final ThirdEyeSchedulerConfiguration configuration;
+  // null if incremental sync is disabled
+  private final @Nullable EntityChangeFeed<SubscriptionGroupDTO> subscriptionGroupChangeFeed;
 
   @Inject
   public SubscriptionCronScheduler(final SubscriptionGroupManager subscriptionGroupManager,
@@ -79,6 +85,10 @@ public class SubscriptionCronScheduler implements Runnable {
     this.subscriptionGroupManager = subscriptionGroupManager;
     this.scheduler = scheduler;
     this.configuration = configuration;
+    subscriptionGroupChangeFeed = configuration.isIncrementalSync()
+        ? new EntityChangeFeed<>(subscriptionGroupManager,
+        Duration.ofSeconds(configuration.getFullSyncPeriod()))
+        : null;
     executorService = createExecutorService();
   }
 
@@ -157,9 +167,39 @@ public class SubscriptionCronScheduler implements Runnable {
         .map(Key::getName)
         .collect(toList()));
 
-    final List<SubscriptionGroupDTO> subscriptionGroups = subscriptionGroupManager.findAll();
-    subscriptionGroups.forEach(sg -> processSubscriptionGroup(sg, scheduledJobs));
-    scheduledJobs.forEach(this::deleteIfNotInDatabase);
+    if (subscriptionGroupChangeFeed == null) {
+      final List<SubscriptionGroupDTO> subscriptionGroups = subscriptionGroupManager.findAll();
+      subscriptionGroups.forEach(sg -> processSubscriptionGroup(sg, scheduledJobs));
+      deleteJobsNotInList(scheduledJobs, subscriptionGroups);
+      return;
+    }
+    final Changes<SubscriptionGroupDTO> changes = subscriptionGroupChangeFeed.poll();
+    changes.changed().forEach(sg -> processSubscriptionGroup(sg, scheduledJobs));
+    if (changes.full()) {
+      deleteJobsNotInList(scheduledJobs, changes.changed());
+    } else {
+      for (final Long id : changes.deletedIds()) {
+        final JobKey jobKey = jobKey(id);
+        if (scheduledJobs.contains(jobKey)) {
+          stopJob(jobKey);
+          LOG.info("Deleted job of deleted subscription group: {}", jobKey);
+        }
+      }
+    }
+  }
+
+  /**
+   * Jobs of subscription groups missing from the list are checked against the database: the
+   * subscription group may have been created after the list was fetched.
+   */
+  private void deleteJobsNotInList(final Set<JobKey> scheduledJobs,
+      final List<SubscriptionGroupDTO> subscriptionGroups) {
+    final Set<JobKey> listedJobs = subscriptionGroups.stream()
+        .map(sg -> jobKey(sg.getId()))
+        .collect(Collectors.toSet());
+    scheduledJobs.stream()
+        .filter(jobKey -> !listedJobs.contains(jobKey))
+        .forEach(this::deleteIfNotInDatabase);
   }
 
   @VisibleForTesting
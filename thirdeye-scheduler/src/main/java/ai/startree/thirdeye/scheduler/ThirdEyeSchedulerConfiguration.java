@@ -33,6 +33,13 @@ public class ThirdEyeSchedulerConfiguration {
   // TODO spyne: consolidate all the update delays into a single configuration after consolidating the core scheduler code
   private int subscriptionGroupUpdateDelay = 60;
 
+  /**
+   * If true, the cron schedulers only fetch the alerts and subscription groups that changed since
+   * their previous run. All entities are fetched every fullSyncPeriod seconds.
+   */
+  private boolean incrementalSync = false;
+  private int fullSyncPeriod = 3600;
+
   @JsonProperty("taskCleanUp")
   private TaskCleanUpConfiguration taskCleanUpConfiguration = new TaskCleanUpConfiguration();
 
@@ -130,6 +137,24 @@ public class ThirdEyeSchedulerConfiguration {
     return this;
   }
 
+  public boolean isIncrementalSync() {
+    return incrementalSync;
+  }
+
+  public ThirdEyeSchedulerConfiguration setIncrementalSync(final boolean incrementalSync) {
+    this.incrementalSync = incrementalSync;
+    return this;
+  }
+
+  public int getFullSyncPeriod() {
+    return fullSyncPeriod;
+  }
+
+  public ThirdEyeSchedulerConfiguration setFullSyncPeriod(final int fullSyncPeriod) {
+    this.fullSyncPeriod = fullSyncPeriod;
+    return this;
+  }
+
   public Map<String, Object> getMonitorConfiguration() {
     return monitorConfiguration;
   }
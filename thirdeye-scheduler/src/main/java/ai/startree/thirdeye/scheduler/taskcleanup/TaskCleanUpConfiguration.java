@@ -19,6 +19,8 @@ public class TaskCleanUpConfiguration {
   private Integer retentionInDays = 30;
   private Integer maxEntriesToDelete = 1000;
   private Integer orphanIntervalInSeconds = 30;
+  private Integer deleteChunkSize = 1000;
+  private Integer pauseBetweenChunksInMillis = 100;
 
   public Integer getIntervalInMinutes() {
     return intervalInMinutes;
@@ -56,4 +58,23 @@ public class TaskCleanUpConfiguration {
     this.orphanIntervalInSeconds = orphanIntervalInSeconds;
     return this;
   }
+
+  public Integer getDeleteChunkSize() {
+    return deleteChunkSize;
+  }
+
+  public TaskCleanUpConfiguration setDeleteChunkSize(final Integer deleteChunkSize) {
+    this.deleteChunkSize = deleteChunkSize;
+    return this;
+  }
+
+  public Integer getPauseBetweenChunksInMillis() {
+    return pauseBetweenChunksInMillis;
+  }
+
+  public TaskCleanUpConfiguration setPauseBetweenChunksInMillis(
+      final Integer pauseBetweenChunksInMillis) {
+    this.pauseBetweenChunksInMillis = pauseBetweenChunksInMillis;
+    return this;
+  }
 }
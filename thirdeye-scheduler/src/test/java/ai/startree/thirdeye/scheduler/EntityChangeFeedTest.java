@@ -0,0 +1,114 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.scheduler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ai.startree.thirdeye.scheduler.EntityChangeFeed.Changes;
+import ai.startree.thirdeye.spi.datalayer.Predicate;
+import ai.startree.thirdeye.spi.datalayer.bao.AlertManager;
+import ai.startree.thirdeye.spi.datalayer.dto.AlertDTO;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class EntityChangeFeedTest {
+
+  private static final Duration FULL_SYNC_PERIOD = Duration.ofHours(1);
+
+  private AlertManager alertManager;
+  private EntityChangeFeed<AlertDTO> feed;
+  private Instant now;
+
+  private static AlertDTO alert(final long id) {
+    final AlertDTO alert = new AlertDTO();
+    alert.setId(id);
+    return alert;
+  }
+
+  @BeforeMethod
+  public void setUp() {
+    alertManager = mock(AlertManager.class);
+    now = Instant.parse("2024-01-01T00:00:00Z");
+    final Clock clock = new Clock() {
+      @Override
+      public ZoneOffset getZone() {
+        return ZoneOffset.UTC;
+      }
+
+      @Override
+      public Clock withZone(final ZoneId zone) {
+        return this;
+      }
+
+      @Override
+      public Instant instant() {
+        return now;
+      }
+    };
+    feed = new EntityChangeFeed<>(alertManager, FULL_SYNC_PERIOD, clock);
+  }
+
+  @Test
+  public void testFirstPollIsFull() {
+    when(alertManager.findAll()).thenReturn(List.of(alert(1), alert(2)));
+
+    final Changes<AlertDTO> changes = feed.poll();
+
+    assertThat(changes.full()).isTrue();
+    assertThat(changes.changed()).extracting(AlertDTO::getId).containsExactly(1L, 2L);
+    assertThat(changes.deletedIds()).isEmpty();
+  }
+
+  @Test
+  public void testIncrementalPoll() {
+    when(alertManager.findAll()).thenReturn(List.of(alert(1), alert(2), alert(3)));
+    feed.poll();
+
+    // 1 is updated, 3 is deleted, 4 is created, 5 appears without a recent update time
+    now = now.plusSeconds(60);
+    when(alertManager.findIds(null)).thenReturn(List.of(1L, 2L, 4L, 5L));
+    when(alertManager.findByPredicate(any(Predicate.class)))
+        .thenReturn(List.of(alert(1), alert(4)));
+    when(alertManager.findByIds(List.of(5L))).thenReturn(List.of(alert(5)));
+
+    final Changes<AlertDTO> changes = feed.poll();
+
+    assertThat(changes.full()).isFalse();
+    assertThat(changes.changed()).extracting(AlertDTO::getId).containsExactly(1L, 4L, 5L);
+    assertThat(changes.deletedIds()).containsExactly(3L);
+  }
+
+  @Test
+  public void testFullPollAfterFullSyncPeriod() {
+    when(alertManager.findAll()).thenReturn(List.of(alert(1)));
+    feed.poll();
+
+    now = now.plus(FULL_SYNC_PERIOD);
+    final Changes<AlertDTO> changes = feed.poll();
+
+    assertThat(changes.full()).isTrue();
+    verify(alertManager, never()).findIds(any());
+  }
+}
@@ -16,6 +16,7 @@ package ai.startree.thirdeye.auth;
 import static ai.startree.thirdeye.datalayer.dao.SubEntities.BEAN_TYPE_MAP;
 import static ai.startree.thirdeye.spi.auth.ResourceIdentifier.DEFAULT_ENTITY_TYPE;
 import static ai.startree.thirdeye.spi.auth.ResourceIdentifier.DEFAULT_NAME;
+import static ai.startree.thirdeye.spi.auth.ResourceIdentifier.DEFAULT_NAMESPACE;
 import static ai.startree.thirdeye.spi.util.SpiUtils.optional;
 import static ai.startree.thirdeye.util.ResourceUtils.authorize;
 import static com.google.common.base.Preconditions.checkArgument;
@@ -27,6 +28,7 @@ import ai.startree.thirdeye.spi.auth.AuthenticationType;
 import ai.startree.thirdeye.spi.auth.ResourceIdentifier;
 import ai.startree.thirdeye.spi.auth.ThirdEyeAuthorizer;
 import ai.startree.thirdeye.spi.auth.ThirdEyePrincipal;
+import ai.startree.thirdeye.spi.datalayer.Predicate;
 import ai.startree.thirdeye.spi.datalayer.bao.AlertManager;
 import ai.startree.thirdeye.spi.datalayer.dto.AbstractDTO;
 import ai.startree.thirdeye.spi.datalayer.dto.AlertAssociationDto;
@@ -63,6 +65,8 @@ public class AuthorizationManager {
       "thirdeye-root",
       "thirdeye-root");
 
+  private static final String NAMESPACE_INDEX_COLUMN = "namespace";
+
   private static final ThirdEyeServerPrincipal INTERNAL_VALID_PRINCIPAL = new ThirdEyeServerPrincipal(
       "thirdeye-internal", RandomStringUtils.random(1024, true, true), AuthenticationType.INTERNAL);
 
@@ -138,6 +142,35 @@ public class AuthorizationManager {
     }
   }
 
+  /**
+   * Returns a predicate on the namespace column of the index tables, matching the entities in the
+   * namespaces of the principal. Filtering at fetch time avoids fetching the entities of all the
+   * namespaces. The entities must still be filtered with hasAccess.
+   *
+   * Returns null if the entities cannot be filtered on the namespace in the index tables: when
+   * requireNamespace is false, when the principal has access to all entities, or when the
+   * entities inherit their namespace from another entity.
+   */
+  public @Nullable Predicate namespacePredicate(final ThirdEyePrincipal principal,
+      final Class<? extends AbstractDTO> dtoClass) {
+    if (!requireNamespace
+        || INTERNAL_VALID_PRINCIPAL.equals(principal)
+        || principal.getAuthenticationType() == AuthenticationType.BASIC_AUTH
+        || !NamespaceResolver.isNamespaceFromAuth(dtoClass)) {
+      return null;
+    }
+    final List<String> namespaces = thirdEyeAuthorizer.listNamespaces(principal);
+    if (namespaces.isEmpty()) {
+      return null;
+    }
+    final Predicate inNamespaces = Predicate.IN(NAMESPACE_INDEX_COLUMN, namespaces.toArray());
+    if (namespaces.contains(DEFAULT_NAMESPACE)) {
+      // entities without namespace are in the default namespace
+      return Predicate.OR(inNamespaces, Predicate.EQ(NAMESPACE_INDEX_COLUMN, null));
+    }
+    return inNamespaces;
+  }
+
   // FIXME CYRIL I AM HERE - maybe will need a filterByNamespace with an existing dto --> will need to resolve namespace with the namespace resolver
   // TODO CYRIL authz perf - in most cases places using this method should filter at fetch time on the namespace to avoid noisy neighbours effect / stressing the instance   
   public <T extends AbstractDTO> List<T> filterByNamespace(final ThirdEyePrincipal principal,
@@ -39,6 +39,7 @@ import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import org.checkerframework.checker.nullness.qual.NonNull;
@@ -55,6 +56,16 @@ public class NamespaceResolver {
 
   private static final Logger LOG = LoggerFactory.getLogger(NamespaceResolver.class);
 
+  // entities that do not inherit their namespace - see resolveNamespace
+  private static final Set<Class<? extends AbstractDTO>> NAMESPACE_FROM_AUTH_CLASSES = Set.of(
+      DataSourceDTO.class,
+      AlertTemplateDTO.class,
+      AlertDTO.class,
+      SubscriptionGroupDTO.class,
+      EventDTO.class,
+      DatasetConfigDTO.class,
+      MetricConfigDTO.class);
+
   private final AlertManager alertManager;
   private final EnumerationItemManager enumerationItemManager;
   private final AnomalyManager anomalyManager;
@@ -79,6 +90,14 @@ public class NamespaceResolver {
     namespaceCache.invalidateAll();
   }
 
+  /**
+   * Returns true if the namespace of the entities of this class is the namespace set in their
+   * auth. The namespace of these entities can be filtered in the index tables.
+   */
+  public static boolean isNamespaceFromAuth(final Class<?> dtoClass) {
+    return NAMESPACE_FROM_AUTH_CLASSES.contains(dtoClass);
+  }
+
   // should match with the doc https://dev.startree.ai/docs/get-started-with-thirdeye/access-control-in-thirdeye#namespaces-for-thirdeye-resources
   public @NonNull String resolveNamespace(final @Nullable AbstractDTO dto) {
     Optional<String> namespace;
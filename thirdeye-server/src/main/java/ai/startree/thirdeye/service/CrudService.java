@@ -37,6 +37,7 @@ import ai.startree.thirdeye.spi.datalayer.Predicate;
 import ai.startree.thirdeye.spi.datalayer.bao.AbstractManager;
 import ai.startree.thirdeye.spi.datalayer.dto.AbstractDTO;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.reflect.TypeToken;
 import java.sql.Timestamp;
 import java.util.Date;
 import java.util.List;
@@ -57,6 +58,10 @@ public abstract class CrudService<ApiT extends ThirdEyeCrudApi<ApiT>, DtoT exten
   protected final AbstractManager<DtoT> dtoManager;
   protected final ImmutableMap<String, String> apiToIndexMap;
 
+  @SuppressWarnings("unchecked")
+  private final Class<? extends AbstractDTO> dtoClass =
+      (Class<? extends AbstractDTO>) new TypeToken<DtoT>(getClass()) {}.getRawType();
+
   public CrudService(final AuthorizationManager authorizationManager,
       final AbstractManager<DtoT> dtoManager,
       final ImmutableMap<String, String> apiToIndexMap) {
@@ -120,10 +125,18 @@ public abstract class CrudService<ApiT extends ThirdEyeCrudApi<ApiT>, DtoT exten
       final ThirdEyeServerPrincipal principal,
       final MultivaluedMap<String, String> queryParameters
   ) {
-    final List<DtoT> results = queryParameters.size() > 0
-        ? dtoManager.filter(new DaoFilterBuilder(apiToIndexMap).buildFilter(queryParameters))
-        : dtoManager.findAll();
-    // FIXME CYRIL ADD namespace in-app filter - then add query level filter
+    final Predicate namespacePredicate = authorizationManager.namespacePredicate(principal,
+        dtoClass);
+    final List<DtoT> results;
+    if (queryParameters.size() > 0) {
+      final DaoFilter filter = new DaoFilterBuilder(apiToIndexMap).buildFilter(queryParameters);
+      results = dtoManager.filter(filter.setPredicate(and(filter.getPredicate(),
+          namespacePredicate)));
+    } else if (namespacePredicate != null) {
+      results = dtoManager.findByPredicate(namespacePredicate);
+    } else {
+      results = dtoManager.findAll();
+    }
 
     final RequestCache cache = createRequestCache();
     return results.stream()
@@ -322,4 +335,12 @@ public abstract class CrudService<ApiT extends ThirdEyeCrudApi<ApiT>, DtoT exten
   protected void deleteDto(final DtoT dto) {
     dtoManager.delete(dto);
   }
+
+  private static @Nullable Predicate and(final @Nullable Predicate left,
+      final @Nullable Predicate right) {
+    if (left == null) {
+      return right;
+    }
+    return right == null ? left : Predicate.AND(left, right);
+  }
 }
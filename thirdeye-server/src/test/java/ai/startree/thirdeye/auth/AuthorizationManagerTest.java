@@ -19,7 +19,11 @@ import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import ai.startree.thirdeye.spi.auth.AuthenticationType;
 import ai.startree.thirdeye.spi.auth.ResourceIdentifier;
+import ai.startree.thirdeye.spi.auth.ThirdEyeAuthorizer;
+import ai.startree.thirdeye.spi.datalayer.Predicate;
+import ai.startree.thirdeye.spi.datalayer.Predicate.OPER;
 import ai.startree.thirdeye.spi.datalayer.bao.AlertManager;
 import ai.startree.thirdeye.spi.datalayer.bao.AnomalyManager;
 import ai.startree.thirdeye.spi.datalayer.bao.EnumerationItemManager;
@@ -320,6 +324,36 @@ public class AuthorizationManagerTest {
     assertThat(output.getEntityType()).isEqualTo(expected.getEntityType());
   }
 
+  @Test
+  public void testNamespacePredicate() {
+    final ThirdEyeAuthorizer authorizer = mock(ThirdEyeAuthorizer.class);
+    final ThirdEyeServerPrincipal principal = new ThirdEyeServerPrincipal("user", "token",
+        AuthenticationType.OAUTH);
+    when(authorizer.listNamespaces(principal)).thenReturn(List.of("ns1", DEFAULT_NAMESPACE));
+    final AuthorizationManager authorizationManager = new AuthorizationManager(null, null,
+        authorizer, null, new AuthConfiguration()
+        .setEnabled(true)
+        .setAuthorization(new AuthorizationConfiguration().setRequireNamespace(true)));
+
+    final Predicate predicate = authorizationManager.namespacePredicate(principal,
+        AlertDTO.class);
+    assertThat(predicate).isNotNull();
+    assertThat(predicate.getOper()).isEqualTo(OPER.OR);
+    final Predicate inNamespaces = predicate.getChildPredicates()[0];
+    assertThat(inNamespaces.getOper()).isEqualTo(OPER.IN);
+    assertThat(inNamespaces.getLhs()).isEqualTo("namespace");
+    assertThat((Object[]) inNamespaces.getRhs()).containsExactly("ns1", DEFAULT_NAMESPACE);
+    // entities without namespace are in the default namespace
+    assertThat(predicate.getChildPredicates()[1]).isEqualTo(Predicate.EQ("namespace", null));
+
+    // anomalies inherit their namespace - cannot be filtered in the index table
+    assertThat(authorizationManager.namespacePredicate(principal, AnomalyDTO.class)).isNull();
+    // basic auth principals have access to all entities
+    assertThat(authorizationManager.namespacePredicate(
+        new ThirdEyeServerPrincipal("user", "token", AuthenticationType.BASIC_AUTH),
+        AlertDTO.class)).isNull();
+  }
+
   private static EnumerationItemDTO enumWithResource() {
     final var enumItem = new EnumerationItemDTO();
     enumItem.setId(2L);
@@ -58,6 +58,9 @@ public interface Constants {
 
   Duration TASK_EXPIRY_DURATION = Duration.ofDays(30);
   int TASK_MAX_DELETES_PER_CLEANUP = 10000;
+  // large deletes are run in chunks, each in its own transaction
+  int DELETE_CHUNK_SIZE = 1000;
+  Duration DELETE_PAUSE_BETWEEN_CHUNKS = Duration.ofMillis(100);
 
   /*
    * Dataframe related constants
@@ -29,6 +29,22 @@ public interface AbstractManager<E extends AbstractDTO> {
 
   int update(List<E> entities);
 
+  /**
+   * Saves the entities: creates the ones without id, updates the others.
+   * Implementations may write all the entities in a single transaction.
+   *
+   * @return the number of entities created or updated
+   */
+  default int saveAll(final List<E> entities) {
+    int saved = 0;
+    for (final E entity : entities) {
+      if (save(entity) != null) {
+        saved++;
+      }
+    }
+    return saved;
+  }
+
   E findById(Long id);
 
   /**
@@ -69,6 +85,17 @@ public interface AbstractManager<E extends AbstractDTO> {
 
   List<E> findByPredicate(Predicate predicate);
 
+  /**
+   * Find the ids of the entities matching the predicate. Implementations should only read the
+   * index table: the entities are not deserialized.
+   *
+   * @param predicate if null, the ids of all the entities are returned
+   */
+  default List<Long> findIds(final @Nullable Predicate predicate) {
+    final List<E> entities = predicate == null ? findAll() : findByPredicate(predicate);
+    return entities.stream().map(AbstractDTO::getId).toList();
+  }
+
   List<E> filter(DaoFilter daoFilter);
 
   int update(E entity, Predicate predicate);
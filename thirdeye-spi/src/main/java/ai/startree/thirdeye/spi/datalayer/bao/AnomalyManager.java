@@ -40,6 +40,11 @@ public interface AnomalyManager extends AbstractManager<AnomalyDTO> {
 
   List<AnomalyDTO> filter(AnomalyFilter anomalyFilter);
 
+  /**
+   * Returns the anomalies matching any of the filters. Filters are grouped in a few queries.
+   */
+  List<AnomalyDTO> filter(List<AnomalyFilter> anomalyFilters);
+
   /**
    * Refactor to use {@link AnomalyFilter}
    * Predicate should not be exposed at the interface level. This ensures column level internals
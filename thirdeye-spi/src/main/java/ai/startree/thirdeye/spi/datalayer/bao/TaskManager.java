@@ -33,9 +33,20 @@ public interface TaskManager extends AbstractManager<TaskDTO> {
 
   List<TaskDTO> findTimeoutTasksWithinDays(int days, long maxTaskTime);
 
-  TaskDTO findNextTaskToRun();
-  
-  boolean acquireTaskToRun(TaskDTO taskDTO, final long workerId);
+  /**
+   * Atomically acquires up to limit WAITING tasks for the worker. At most one task is acquired
+   * per refId, and never for a refId that already has a RUNNING task.
+   *
+   * @return the acquired tasks, with status RUNNING. Empty if no task could be acquired.
+   */
+  List<TaskDTO> acquireTasksToRun(long workerId, int limit);
+
+  /**
+   * Puts back to WAITING the tasks acquired by the worker that it will not run.
+   *
+   * @return the number of tasks released.
+   */
+  int releaseTasks(List<Long> ids, long workerId);
 
   List<TaskDTO> findByStatusAndWorkerId(Long workerId, TaskStatus status);
 
@@ -46,10 +57,24 @@ public interface TaskManager extends AbstractManager<TaskDTO> {
 
   void updateLastActive(Long id);
 
+  /**
+   * Refreshes the lastActive timestamp of all the tasks in a single statement.
+   */
+  void updateLastActive(List<Long> ids);
+
   int deleteRecordsOlderThanDaysWithStatus(int days, TaskStatus status);
 
   void purge(Duration expiryDuration, Integer limitOptional);
 
+  /**
+   * Deletes the tasks older than expiryDuration, chunkSize tasks per transaction.
+   *
+   * @param limitOptional maximum number of tasks to delete
+   * @param pauseBetweenChunks pause between two chunks, to limit the load on the database
+   */
+  void purge(Duration expiryDuration, Integer limitOptional, int chunkSize,
+      Duration pauseBetweenChunks);
+
   void orphanTaskCleanUp(Timestamp activeThreshold);
 
   long countByStatus(final TaskStatus status);
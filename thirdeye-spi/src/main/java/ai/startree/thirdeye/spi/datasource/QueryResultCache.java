@@ -0,0 +1,60 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.spi.datasource;
+
+import ai.startree.thirdeye.spi.dataframe.DataFrame;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Query result cache shared by all the datasources of a process.
+ *
+ * The cache passed in the {@link ThirdEyeDataSourceContext} is scoped to the datasource: two
+ * datasources never share entries, even if they have the same name.
+ */
+public interface QueryResultCache {
+
+  /**
+   * Does not cache anything. The loader is called for every query.
+   */
+  QueryResultCache NO_CACHE = (dataSource, query, options, loader) -> loader.call();
+
+  /**
+   * Returns the cached result of the query, or loads it. Concurrent loads of the same query are
+   * merged.
+   *
+   * The returned DataFrame is shared by all the callers. It must not be modified: use
+   * {@link DataFrame#DataFrame(DataFrame)} to add or remove series.
+   *
+   * @param dataSource name of the datasource that runs the query. Informative only.
+   * @param query the query. Queries that only differ by whitespaces share the same entry.
+   * @param options query options
+   * @param loader runs the query
+   */
+  DataFrame get(String dataSource, String query, Map<String, String> options,
+      Callable<DataFrame> loader) throws Exception;
+
+  /**
+   * Async version of {@link #get(String, String, Map, Callable)}. The loader must not block: it
+   * is called while the cache entry is being created.
+   *
+   * The default implementation does not cache anything.
+   */
+  default CompletableFuture<DataFrame> getAsync(final String dataSource, final String query,
+      final Map<String, String> options, final Supplier<CompletableFuture<DataFrame>> loader) {
+    return loader.get();
+  }
+}
@@ -18,6 +18,7 @@ import ai.startree.thirdeye.spi.datasource.macro.SqlExpressionBuilder;
 import ai.startree.thirdeye.spi.datasource.macro.SqlLanguage;
 import ai.startree.thirdeye.spi.detection.v2.DataTable;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface ThirdEyeDataSource {
 
@@ -54,6 +55,20 @@ public interface ThirdEyeDataSource {
 
   DataTable fetchDataTable(DataSourceRequest request) throws Exception;
 
+  /**
+   * Async version of {@link #fetchDataTable(DataSourceRequest)}. Implementations should not block
+   * a thread while the query runs.
+   *
+   * The default implementation runs the query synchronously in the calling thread.
+   */
+  default CompletableFuture<DataTable> fetchDataTableAsync(final DataSourceRequest request) {
+    try {
+      return CompletableFuture.completedFuture(fetchDataTable(request));
+    } catch (final Exception e) {
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
   /**
    * Returns boolean value to validate the health of data source
    *
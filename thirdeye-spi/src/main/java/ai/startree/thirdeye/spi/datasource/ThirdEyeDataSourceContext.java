@@ -18,6 +18,7 @@ import ai.startree.thirdeye.spi.datalayer.dto.DataSourceDTO;
 public class ThirdEyeDataSourceContext {
 
   private DataSourceDTO dataSourceDTO;
+  private QueryResultCache queryResultCache = QueryResultCache.NO_CACHE;
 
   public DataSourceDTO getDataSourceDTO() {
     return dataSourceDTO;
@@ -28,4 +29,14 @@ public class ThirdEyeDataSourceContext {
     this.dataSourceDTO = dataSourceDTO;
     return this;
   }
+
+  public QueryResultCache getQueryResultCache() {
+    return queryResultCache;
+  }
+
+  public ThirdEyeDataSourceContext setQueryResultCache(
+      final QueryResultCache queryResultCache) {
+    this.queryResultCache = queryResultCache;
+    return this;
+  }
 }
@@ -16,6 +16,7 @@ package ai.startree.thirdeye.spi.datasource.macro;
 import ai.startree.thirdeye.spi.datalayer.dto.DatasetConfigDTO;
 import java.util.Map;
 import java.util.function.Function;
+import org.joda.time.DateTime;
 import org.joda.time.Interval;
 
 public class MacroFunctionContext {
@@ -37,6 +38,12 @@ public class MacroFunctionContext {
   /**Used by macro function to quote identifiers in AUTO mode.*/
   private Function<String, String> identifierQuoter;
 
+  /**
+   * Optional. If set, replaces the lower bound of the time filter computed from the detection
+   * interval and the lookback. Used to query only the most recent part of the time filter.
+   */
+  private DateTime timeFilterStart;
+
   public SqlExpressionBuilder getSqlExpressionBuilder() {
     return sqlExpressionBuilder;
   }
@@ -95,4 +102,13 @@ public class MacroFunctionContext {
     this.identifierQuoter = identifierQuoter;
     return this;
   }
+
+  public DateTime getTimeFilterStart() {
+    return timeFilterStart;
+  }
+
+  public MacroFunctionContext setTimeFilterStart(final DateTime timeFilterStart) {
+    this.timeFilterStart = timeFilterStart;
+    return this;
+  }
 }
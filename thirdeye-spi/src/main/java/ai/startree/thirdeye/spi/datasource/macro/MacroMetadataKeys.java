@@ -21,7 +21,15 @@ public enum MacroMetadataKeys {
   MIN_TIME_MILLIS("metadata.minTimeMillis"),
   MAX_TIME_MILLIS("metadata.maxTimeMillis"),
   GRANULARITY("metadata.granularity"),
-  QUERY("metadata.query");
+  QUERY("metadata.query"),
+  /**
+   * Alias of the time group column. Only set if the query has exactly one time filter and one
+   * aliased time group, and is a single SELECT without ORDER BY, LIMIT, OFFSET, HAVING, window
+   * functions, grouping totals or subqueries: the rows of the result are then partitioned by the
+   * time buckets of this column, and the rows of each time bucket do not depend on the other
+   * buckets.
+   */
+  TIME_GROUP_ALIAS("metadata.timeGroupAlias");
 
   private final String key;
 
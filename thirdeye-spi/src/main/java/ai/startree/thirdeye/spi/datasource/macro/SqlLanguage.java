@@ -13,6 +13,8 @@
  */
 package ai.startree.thirdeye.spi.datasource.macro;
 
+import java.util.Map;
+
 /**
  * A provider of Calcite SQL parsers SQL dialect for a data source.
  * Used to parse and generate SQL when using macro functions.
@@ -32,4 +34,23 @@ public interface SqlLanguage {
    * The object returned will be cast to a Calcite SqlDialect.
    */
   ThirdeyeSqlDialect getSqlDialect();
+
+  /**
+   * Whether the data source supports UNION ALL of derived tables (subqueries in the FROM clause)
+   * that have their own ORDER BY and LIMIT.
+   * If true, some multi-query operations are run with a single query. For instance, the
+   * breakdown of a metric on all the dimensions of a dataset.
+   */
+  default boolean supportsUnionAll() {
+    return false;
+  }
+
+  /**
+   * Query options to send with the UNION ALL queries. Only used if {@link #supportsUnionAll()}
+   * is true. For instance, a data source may need an option to run the query on an engine that
+   * supports UNION ALL.
+   */
+  default Map<String, String> getUnionAllQueryOptions() {
+    return Map.of();
+  }
 }
@@ -25,6 +25,8 @@ public class TaskContext {
   private TaskManager taskManager;
   private TaskRunnerFactory taskRunnerFactory;
   private MetricRegistry metricRegistry;
+  private TaskPrefetchQueue taskPrefetchQueue;
+  private TaskHeartbeat taskHeartbeat;
 
   public TaskDriverConfiguration getConfig() {
     return config;
@@ -81,4 +83,22 @@ public class TaskContext {
     this.metricRegistry = metricRegistry;
     return this;
   }
+
+  public TaskPrefetchQueue getTaskPrefetchQueue() {
+    return taskPrefetchQueue;
+  }
+
+  public TaskContext setTaskPrefetchQueue(final TaskPrefetchQueue taskPrefetchQueue) {
+    this.taskPrefetchQueue = taskPrefetchQueue;
+    return this;
+  }
+
+  public TaskHeartbeat getTaskHeartbeat() {
+    return taskHeartbeat;
+  }
+
+  public TaskContext setTaskHeartbeat(final TaskHeartbeat taskHeartbeat) {
+    this.taskHeartbeat = taskHeartbeat;
+    return this;
+  }
 }
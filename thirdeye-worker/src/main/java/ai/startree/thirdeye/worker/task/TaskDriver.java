@@ -56,7 +56,13 @@ public class TaskDriver {
         .setTaskRunnerFactory(taskRunnerFactory)
         .setMetricRegistry(metricRegistry)
         .setConfig(taskDriverConfiguration)
-        .setWorkerId(workerId);
+        .setWorkerId(workerId)
+        .setTaskPrefetchQueue(new TaskPrefetchQueue(taskManager,
+            workerId,
+            taskDriverConfiguration.getTaskFetchSizeCap()))
+        .setTaskHeartbeat(new TaskHeartbeat(taskManager,
+            taskDriverThreadPoolManager.getHeartbeatExecutorService(),
+            taskDriverConfiguration.getHeartbeatInterval()));
   }
 
   private Long fetchWorkerId(final TaskDriverConfiguration config) {
@@ -109,6 +115,7 @@ public class TaskDriver {
   }
 
   public void shutdown() {
+    taskContext.getTaskPrefetchQueue().close();
     taskDriverThreadPoolManager.shutdown();
   }
 }
@@ -14,7 +14,6 @@
 package ai.startree.thirdeye.worker.task;
 
 import static ai.startree.thirdeye.spi.Constants.METRICS_TIMER_PERCENTILES;
-import static ai.startree.thirdeye.spi.util.SpiUtils.optional;
 
 import ai.startree.thirdeye.spi.datalayer.bao.TaskManager;
 import ai.startree.thirdeye.spi.datalayer.dto.TaskDTO;
@@ -28,6 +27,7 @@ import com.google.inject.Singleton;
 import io.micrometer.core.instrument.Metrics;
 import io.micrometer.core.instrument.Timer.Sample;
 import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.Future;
@@ -48,6 +48,8 @@ public class TaskDriverRunnable implements Runnable {
   private final TaskDriverConfiguration config;
   private final long workerId;
   private final TaskRunnerFactory taskRunnerFactory;
+  private final TaskPrefetchQueue taskPrefetchQueue;
+  private final TaskHeartbeat taskHeartbeat;
 
   @Deprecated //  use thirdeye_task_run
   private final Counter taskExceptionCounter;
@@ -71,6 +73,8 @@ public class TaskDriverRunnable implements Runnable {
     this.config = taskContext.getConfig();
     this.workerId = taskContext.getWorkerId();
     this.taskRunnerFactory = taskContext.getTaskRunnerFactory();
+    this.taskPrefetchQueue = taskContext.getTaskPrefetchQueue();
+    this.taskHeartbeat = taskContext.getTaskHeartbeat();
 
     final MetricRegistry metricRegistry = taskContext.getMetricRegistry();
     // deprecated - use thirdeye_task_run
@@ -132,13 +136,9 @@ public class TaskDriverRunnable implements Runnable {
     final long tStart = System.nanoTime();
     taskCounter.inc();
 
-    Future heartbeat = null;
-    if (config.isRandomWorkerIdEnabled()) {
-      heartbeat = taskDriverThreadPoolManager.getHeartbeatExecutorService()
-          .scheduleAtFixedRate(() -> taskExecutionHeartbeat(taskDTO),
-              0,
-              config.getHeartbeatInterval().toMillis(),
-              TimeUnit.MILLISECONDS);
+    final boolean heartbeatEnabled = config.isRandomWorkerIdEnabled();
+    if (heartbeatEnabled) {
+      taskHeartbeat.register(taskDTO.getId());
     }
 
     Future<List<TaskResult>> future = null;
@@ -165,14 +165,12 @@ public class TaskDriverRunnable implements Runnable {
     } finally {
       long elapsedTime = (System.nanoTime() - tStart) / 1_000_000;
       LOG.info("Task {} {}: run took {}ms", taskDTO.getId(), taskDTO.getJobName(), elapsedTime);
-      optional(heartbeat).ifPresent(f -> f.cancel(false));
+      if (heartbeatEnabled) {
+        taskHeartbeat.unregister(taskDTO.getId());
+      }
     }
   }
 
-  private void taskExecutionHeartbeat(final TaskDTO taskDTO) {
-    taskManager.updateLastActive(taskDTO.getId());
-  }
-
   private Future<List<TaskResult>> runTaskAsync(final TaskDTO taskDTO) throws IOException {
     final TaskType taskType = taskDTO.getTaskType();
     final TaskInfo taskInfo = TaskInfoFactory.get(taskType, taskDTO.getTaskInfo());
@@ -189,53 +187,56 @@ public class TaskDriverRunnable implements Runnable {
    * @return null if system is shutting down.
    */
   private TaskDTO waitForTask() {
-    while (!isShutdown()) {
-      final TaskDTO nextTask;
-      try {
-        nextTask = taskManager.findNextTaskToRun();
-      } catch (Exception e) {
-        LOG.error("Failed to fetch a new task to run", e);
-        taskRunnerWaitIdleTimer.record(() -> sleep(true));
-        continue;
-      }
-      if (nextTask == null) {
-        // no task found
-        taskRunnerWaitIdleTimer.record(() -> sleep(false));
-        continue;
-      }
-      if (isShutdown()) {
-        break;
-      }
-      try {
-        boolean success = taskManager.acquireTaskToRun(nextTask, workerId);
-        if (success) {
+    taskPrefetchQueue.markIdle();
+    try {
+      while (!isShutdown()) {
+        TaskDTO nextTask;
+        try {
+          nextTask = taskPrefetchQueue.next();
+        } catch (Exception e) {
+          LOG.error("Failed to acquire a new task to run", e);
+          taskRunnerWaitIdleTimer.record(() -> sleep(true));
+          continue;
+        }
+        if (nextTask == null) {
+          // no task found - a task can still be acquired by another runnable of this worker
+          nextTask = taskRunnerWaitIdleTimer.record(this::awaitPrefetchedTask);
+        }
+        if (nextTask != null) {
           final long waitTime = System.currentTimeMillis() - nextTask.getCreateTime().getTime();
           taskWaitTimer.record(waitTime, TimeUnit.MILLISECONDS);
           return nextTask;
-        } else {
-          LOG.debug("Failed to acquire task {} referencing {} from worker id {}. Task was locked, or edited by another transaction.)", nextTask.getId(),
-              nextTask.getRefId(), workerId);
-          // don't sleep - look for a next task
-          continue;  
         }
-      } catch (Exception e) {
-        LOG.warn("Failed to acquire task {} from worker id {})", nextTask, workerId, e);
-        taskRunnerWaitIdleTimer.record(() -> sleep(true));
-        continue;
       }
+      return null;
+    } finally {
+      taskPrefetchQueue.markBusy();
     }
-    return null;
   }
 
-  private void sleep(final boolean hasFetchError) {
-    final long sleepTime = hasFetchError
-        ? config.getTaskFailureDelay().toMillis()
-        : config.getNoTaskDelay().toMillis() + RANDOM
-            .nextInt((int) config.getRandomDelayCap().toMillis());
+  private TaskDTO awaitPrefetchedTask() {
+    try {
+      return taskPrefetchQueue.awaitPrefetched(sleepTime(false));
+    } catch (InterruptedException e) {
+      if (!isShutdown()) {
+        LOG.warn(e.getMessage(), e);
+      }
+      return null;
+    }
+  }
+
+  private Duration sleepTime(final boolean hasFetchError) {
     // sleep for few seconds if not tasks found - avoid cpu thrashing
     // also add some extra random number of milliseconds to allow threads to start at different times
+    return hasFetchError
+        ? config.getTaskFailureDelay()
+        : config.getNoTaskDelay().plusMillis(RANDOM
+            .nextInt((int) config.getRandomDelayCap().toMillis()));
+  }
+
+  private void sleep(final boolean hasFetchError) {
     try {
-      Thread.sleep(sleepTime);
+      Thread.sleep(sleepTime(hasFetchError).toMillis());
     } catch (InterruptedException e) {
       if (!isShutdown()) {
         LOG.warn(e.getMessage(), e);
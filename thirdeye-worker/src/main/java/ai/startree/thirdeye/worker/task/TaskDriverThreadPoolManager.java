@@ -53,7 +53,8 @@ public class TaskDriverThreadPoolManager {
     new ExecutorServiceMetrics(taskWatcherExecutorService, "task-watcher", emptyList()).bindTo(
         Metrics.globalRegistry);
 
-    heartbeatExecutorService = Executors.newScheduledThreadPool(config.getMaxParallelTasks(),
+    // a single heartbeat job refreshes all the running tasks - see TaskHeartbeat
+    heartbeatExecutorService = Executors.newScheduledThreadPool(1,
         new ThreadFactoryBuilder()
             .setNameFormat("task-heartbeat-%d")
             .build());
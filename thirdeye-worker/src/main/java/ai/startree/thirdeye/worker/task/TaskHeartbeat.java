@@ -0,0 +1,76 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.worker.task;
+
+import ai.startree.thirdeye.spi.datalayer.bao.TaskManager;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Heartbeat of the tasks running on a worker. A single scheduled job refreshes the lastActive
+ * timestamp of all the running tasks in one statement per interval.
+ */
+public class TaskHeartbeat {
+
+  private static final Logger LOG = LoggerFactory.getLogger(TaskHeartbeat.class);
+
+  private final TaskManager taskManager;
+  private final ScheduledExecutorService executorService;
+  private final Duration interval;
+  private final Set<Long> runningTaskIds = ConcurrentHashMap.newKeySet();
+  private final AtomicBoolean started = new AtomicBoolean(false);
+
+  public TaskHeartbeat(final TaskManager taskManager,
+      final ScheduledExecutorService executorService,
+      final Duration interval) {
+    this.taskManager = taskManager;
+    this.executorService = executorService;
+    this.interval = interval;
+  }
+
+  public void register(final long taskId) {
+    runningTaskIds.add(taskId);
+    // the job is started with the first task, so that the first pulse includes it
+    if (started.compareAndSet(false, true)) {
+      executorService.scheduleAtFixedRate(this::pulse,
+          0,
+          interval.toMillis(),
+          TimeUnit.MILLISECONDS);
+    }
+  }
+
+  public void unregister(final long taskId) {
+    runningTaskIds.remove(taskId);
+  }
+
+  private void pulse() {
+    final List<Long> taskIds = List.copyOf(runningTaskIds);
+    if (taskIds.isEmpty()) {
+      return;
+    }
+    try {
+      taskManager.updateLastActive(taskIds);
+    } catch (final Exception e) {
+      // an exception would cancel the next pulses
+      LOG.error("Failed to update lastActive of tasks {}", taskIds, e);
+    }
+  }
+}
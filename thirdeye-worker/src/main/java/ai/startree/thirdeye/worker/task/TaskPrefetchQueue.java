@@ -0,0 +1,120 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.worker.task;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import ai.startree.thirdeye.spi.datalayer.bao.TaskManager;
+import ai.startree.thirdeye.spi.datalayer.dto.TaskDTO;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tasks acquired for the task driver runnables of a worker.
+ *
+ * When a runnable needs a task and none is prefetched, a batch of tasks is acquired in a single
+ * query: one for the runnable, the others for the runnables that are idle at the same time. The
+ * batch size is capped by taskFetchSizeCap. Tasks are never acquired for busy runnables: acquired
+ * tasks are RUNNING, so they would block other workers while waiting in the queue. For the same
+ * reason, the tasks still in the queue are released when the queue is closed.
+ */
+public class TaskPrefetchQueue {
+
+  private static final Logger LOG = LoggerFactory.getLogger(TaskPrefetchQueue.class);
+
+  private final TaskManager taskManager;
+  private final long workerId;
+  private final int fetchSizeCap;
+
+  private final BlockingQueue<TaskDTO> prefetchedTasks = new LinkedBlockingQueue<>();
+  private final AtomicInteger idleRunnables = new AtomicInteger(0);
+  private boolean closed = false;
+
+  public TaskPrefetchQueue(final TaskManager taskManager, final long workerId,
+      final int fetchSizeCap) {
+    checkArgument(fetchSizeCap > 0, "taskFetchSizeCap must be positive. Got: %s", fetchSizeCap);
+    this.taskManager = taskManager;
+    this.workerId = workerId;
+    this.fetchSizeCap = fetchSizeCap;
+  }
+
+  /**
+   * Must be called by a runnable when it starts looking for a task.
+   */
+  public void markIdle() {
+    idleRunnables.incrementAndGet();
+  }
+
+  /**
+   * Must be called by a runnable when it stops looking for a task.
+   */
+  public void markBusy() {
+    idleRunnables.decrementAndGet();
+  }
+
+  /**
+   * Returns a prefetched task, or acquires a new batch of tasks.
+   *
+   * @return null if no task could be acquired or if the queue is closed.
+   */
+  public synchronized @Nullable TaskDTO next() {
+    if (closed) {
+      return null;
+    }
+    final TaskDTO prefetched = prefetchedTasks.poll();
+    if (prefetched != null) {
+      return prefetched;
+    }
+    final int fetchSize = Math.max(1, Math.min(fetchSizeCap, idleRunnables.get()));
+    final List<TaskDTO> acquired = taskManager.acquireTasksToRun(workerId, fetchSize);
+    if (acquired.isEmpty()) {
+      return null;
+    }
+    prefetchedTasks.addAll(acquired.subList(1, acquired.size()));
+    return acquired.get(0);
+  }
+
+  /**
+   * Waits for a task acquired by another runnable.
+   *
+   * @return null if no task was prefetched before the timeout.
+   */
+  public @Nullable TaskDTO awaitPrefetched(final Duration timeout) throws InterruptedException {
+    return prefetchedTasks.poll(timeout.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Stops acquiring tasks and puts back to WAITING the prefetched tasks, so that other workers can
+   * run them.
+   */
+  public synchronized void close() {
+    closed = true;
+    final List<TaskDTO> remaining = new ArrayList<>();
+    prefetchedTasks.drainTo(remaining);
+    if (remaining.isEmpty()) {
+      return;
+    }
+    final List<Long> ids = remaining.stream().map(TaskDTO::getId).toList();
+    final int released = taskManager.releaseTasks(ids, workerId);
+    LOG.info("Released {} of {} prefetched tasks: {}", released, ids.size(), ids);
+  }
+}
@@ -26,6 +26,7 @@ import ai.startree.thirdeye.spi.datalayer.bao.AlertManager;
 import ai.startree.thirdeye.spi.datalayer.bao.AnomalyManager;
 import ai.startree.thirdeye.spi.datalayer.dto.AlertDTO;
 import ai.startree.thirdeye.spi.datalayer.dto.AlertTemplateDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.AnomalyDTO;
 import ai.startree.thirdeye.spi.datalayer.dto.DetectionPipelineTaskInfo;
 import ai.startree.thirdeye.spi.detection.DetectionPipelineUsage;
 import ai.startree.thirdeye.spi.detection.v2.OperatorResult;
@@ -159,20 +160,28 @@ public class DetectionPipelineTaskRunner implements TaskRunner {
         detectionInterval.getEndMillis(),
         alert.getLastTimestamp());
 
-    alert.setLastTimestamp(newLastTimestamp);
     // TODO CYRIL: lastTimestamp and updateTime are used by consumers to known when an alert has run
     //  to improve consistency the anomaly save and the update of the alert should be in a single
     //  transaction this would also improve failure cases
-    optional(result.getAnomalies())
-        .orElse(Collections.emptyList())
-        .forEach(anomalyManager::save);
+    final List<AnomalyDTO> anomalies = optional(result.getAnomalies()).orElse(
+        Collections.emptyList());
+    final int savedAnomalies = anomalyManager.saveAll(anomalies);
+    // saveAll resolves version conflicts. Anomalies are only missing if the write failed or if
+    // they were deleted meanwhile - the lastTimestamp must not move past anomalies that were not
+    // saved. The task fails and the next run detects these anomalies again.
+    checkState(savedAnomalies == anomalies.size(),
+        "Only %s of the %s anomalies of alert %s were saved. lastTimestamp is not updated.",
+        savedAnomalies,
+        anomalies.size(),
+        alert.getId());
+    alert.setLastTimestamp(newLastTimestamp);
     alertManager.update(alert);
 
     LOG.info("Completed detection task for id {} between {} and {}. Detected {} anomalies.",
         alert.getId(),
         detectionInterval.getStart(),
         detectionInterval.getEnd(),
-        optional(result.getAnomalies()).map(List::size).orElse(0));
+        anomalies.size());
 
     return Collections.emptyList();
   }
@@ -16,6 +16,8 @@ package ai.startree.thirdeye.worker.task;
 import static java.util.Objects.requireNonNull;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
@@ -33,6 +35,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.sql.Timestamp;
 import java.time.Duration;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.mockito.Mockito;
 import org.slf4j.Logger;
@@ -71,8 +74,6 @@ public class HeartbeatTest {
         .setHeartbeatInterval(HEARTBEAT_INTERVAL);
 
     taskManager = Mockito.mock(TaskManager.class);
-    when(taskManager.acquireTaskToRun(any(), anyLong()))
-        .thenReturn(true);
 
     doNothing().when(taskManager)
         .updateStatusAndTaskEndTime(anyLong(), any(), any(), anyLong(), any());
@@ -95,7 +96,8 @@ public class HeartbeatTest {
   public void heartbeatPulseCheck() {
     final Timestamp startTime = new Timestamp(System.currentTimeMillis());
     final TaskDTO taskDTO = newTask();
-    when(taskManager.findNextTaskToRun()).thenAnswer(i -> pollingCount++ == 0? taskDTO : null);
+    when(taskManager.acquireTasksToRun(anyLong(), anyInt())).thenAnswer(
+        i -> pollingCount++ == 0 ? List.of(taskDTO) : List.of());
 
     doAnswer(invocation -> {
       taskDTO.setStatus(TaskStatus.COMPLETED);
@@ -117,7 +119,7 @@ public class HeartbeatTest {
       // to ensure the worker stops after executing one task
 //      taskDriverThreadPoolManager.shutdown();
       return null;
-    }).when(taskManager).updateLastActive(anyLong());
+    }).when(taskManager).updateLastActive(anyList());
 
     final TaskContext taskContext = newTaskContext();
     final TaskDriverRunnable taskDriverRunnable = new TaskDriverRunnable(taskContext);
@@ -138,7 +140,11 @@ public class HeartbeatTest {
         .setTaskManager(taskManager)
         .setTaskRunnerFactory(taskRunnerFactory)
         .setMetricRegistry(new MetricRegistry())
-        .setTaskDriverThreadPoolManager(taskDriverThreadPoolManager);
+        .setTaskDriverThreadPoolManager(taskDriverThreadPoolManager)
+        .setTaskPrefetchQueue(new TaskPrefetchQueue(taskManager, 0, config.getTaskFetchSizeCap()))
+        .setTaskHeartbeat(new TaskHeartbeat(taskManager,
+            taskDriverThreadPoolManager.getHeartbeatExecutorService(),
+            config.getHeartbeatInterval()));
   }
 
   private TaskDTO newTask() {
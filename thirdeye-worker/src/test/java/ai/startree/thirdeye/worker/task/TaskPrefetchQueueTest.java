@@ -0,0 +1,94 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.worker.task;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ai.startree.thirdeye.spi.datalayer.bao.TaskManager;
+import ai.startree.thirdeye.spi.datalayer.dto.TaskDTO;
+import java.time.Duration;
+import java.util.List;
+import org.testng.annotations.Test;
+
+public class TaskPrefetchQueueTest {
+
+  private static final long WORKER_ID = 7L;
+
+  private static TaskDTO task(final long id) {
+    final TaskDTO task = new TaskDTO();
+    task.setId(id);
+    return task;
+  }
+
+  @Test
+  public void testFetchSizeIsBoundedByIdleRunnablesAndCap() {
+    final TaskManager taskManager = mock(TaskManager.class);
+    when(taskManager.acquireTasksToRun(anyLong(), anyInt())).thenReturn(List.of());
+    final TaskPrefetchQueue queue = new TaskPrefetchQueue(taskManager, WORKER_ID, 3);
+
+    queue.markIdle();
+    queue.markIdle();
+    queue.next();
+    verify(taskManager).acquireTasksToRun(WORKER_ID, 2);
+
+    for (int i = 0; i < 3; i++) {
+      queue.markIdle();
+    }
+    queue.next();
+    verify(taskManager).acquireTasksToRun(WORKER_ID, 3);
+  }
+
+  @Test
+  public void testAcquiredTasksAreServedBeforeAcquiringAgain() throws InterruptedException {
+    final TaskManager taskManager = mock(TaskManager.class);
+    when(taskManager.acquireTasksToRun(eq(WORKER_ID), anyInt()))
+        .thenReturn(List.of(task(1L), task(2L), task(3L)));
+    final TaskPrefetchQueue queue = new TaskPrefetchQueue(taskManager, WORKER_ID, 10);
+    for (int i = 0; i < 3; i++) {
+      queue.markIdle();
+    }
+
+    assertThat(queue.next().getId()).isEqualTo(1L);
+    assertThat(queue.awaitPrefetched(Duration.ofMillis(10)).getId()).isEqualTo(2L);
+    assertThat(queue.next().getId()).isEqualTo(3L);
+    verify(taskManager, times(1)).acquireTasksToRun(anyLong(), anyInt());
+
+    assertThat(queue.awaitPrefetched(Duration.ofMillis(10))).isNull();
+  }
+
+  @Test
+  public void testCloseReleasesPrefetchedTasks() {
+    final TaskManager taskManager = mock(TaskManager.class);
+    when(taskManager.acquireTasksToRun(eq(WORKER_ID), anyInt()))
+        .thenReturn(List.of(task(1L), task(2L), task(3L)));
+    final TaskPrefetchQueue queue = new TaskPrefetchQueue(taskManager, WORKER_ID, 10);
+    for (int i = 0; i < 3; i++) {
+      queue.markIdle();
+    }
+
+    assertThat(queue.next().getId()).isEqualTo(1L);
+    queue.close();
+    verify(taskManager).releaseTasks(List.of(2L, 3L), WORKER_ID);
+
+    assertThat(queue.next()).isNull();
+    verify(taskManager, times(1)).acquireTasksToRun(anyLong(), anyInt());
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.worker.task.runner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ai.startree.thirdeye.alert.AlertDetectionIntervalCalculator;
+import ai.startree.thirdeye.alert.AlertTemplateRenderer;
+import ai.startree.thirdeye.detectionpipeline.PlanExecutor;
+import ai.startree.thirdeye.spi.datalayer.bao.AlertManager;
+import ai.startree.thirdeye.spi.datalayer.bao.AnomalyManager;
+import ai.startree.thirdeye.spi.datalayer.dto.AlertDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.AlertTemplateDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.AnomalyDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.DetectionPipelineTaskInfo;
+import ai.startree.thirdeye.spi.detection.v2.OperatorResult;
+import ai.startree.thirdeye.worker.task.TaskContext;
+import com.codahale.metrics.MetricRegistry;
+import java.util.List;
+import java.util.Map;
+import org.joda.time.Interval;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class DetectionPipelineTaskRunnerTest {
+
+  private static final long ALERT_ID = 1L;
+  private static final long START = 1_000L;
+  private static final long END = 2_000L;
+
+  private AlertManager alertManager;
+  private AnomalyManager anomalyManager;
+  private DetectionPipelineTaskRunner runner;
+  private AlertDTO alert;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    alert = new AlertDTO().setLastTimestamp(0L);
+    alert.setId(ALERT_ID);
+    alertManager = mock(AlertManager.class);
+    when(alertManager.findById(ALERT_ID)).thenReturn(alert);
+    anomalyManager = mock(AnomalyManager.class);
+
+    final AlertDetectionIntervalCalculator intervalCalculator = mock(
+        AlertDetectionIntervalCalculator.class);
+    when(intervalCalculator.getCorrectedInterval(any(AlertDTO.class), anyLong(), anyLong()))
+        .thenReturn(new Interval(START, END));
+    final AlertTemplateRenderer alertTemplateRenderer = mock(AlertTemplateRenderer.class);
+    when(alertTemplateRenderer.renderAlert(any(AlertDTO.class), any()))
+        .thenReturn(new AlertTemplateDTO().setNodes(List.of()));
+    final OperatorResult result = new OperatorResult() {
+      @Override
+      public long getLastTimestamp() {
+        return END;
+      }
+
+      @Override
+      public List<AnomalyDTO> getAnomalies() {
+        return List.of(new AnomalyDTO(), new AnomalyDTO());
+      }
+    };
+    final PlanExecutor planExecutor = mock(PlanExecutor.class);
+    when(planExecutor.runAndGetRootOutputs(any(), any())).thenReturn(Map.of("root", result));
+
+    runner = new DetectionPipelineTaskRunner(alertManager,
+        new MetricRegistry(),
+        intervalCalculator,
+        anomalyManager,
+        planExecutor,
+        alertTemplateRenderer);
+  }
+
+  @Test
+  public void testLastTimestampIsUpdatedWhenAllAnomaliesAreSaved() throws Exception {
+    when(anomalyManager.saveAll(any())).thenReturn(2);
+
+    runner.execute(new DetectionPipelineTaskInfo(ALERT_ID, START, END), new TaskContext());
+
+    verify(alertManager).update(alert);
+    assertThat(alert.getLastTimestamp()).isEqualTo(END);
+  }
+
+  @Test
+  public void testTaskFailsWhenSomeAnomaliesAreNotSaved() {
+    // eg a stale update of an existing anomaly
+    when(anomalyManager.saveAll(any())).thenReturn(1);
+
+    assertThatThrownBy(() -> runner.execute(new DetectionPipelineTaskInfo(ALERT_ID, START, END),
+        new TaskContext()))
+        .isInstanceOf(IllegalStateException.class);
+    verify(alertManager, never()).update(any(AlertDTO.class));
+    assertThat(alert.getLastTimestamp()).isEqualTo(0L);
+  }
+}